@@ -39,6 +39,7 @@
 import com.github.gwtd3.api.arrays.Array;
 import com.github.gwtd3.api.arrays.ForEachCallback;
 import com.github.gwtd3.api.arrays.NumericForEachCallback;
+import com.github.gwtd3.api.arrays.Sampling;
 import com.github.gwtd3.api.behaviour.Behavior;
 import com.github.gwtd3.api.behaviour.Drag;
 import com.github.gwtd3.api.core.Color;
@@ -47,6 +48,7 @@
 import com.github.gwtd3.api.core.ObjectAccessor;
 import com.github.gwtd3.api.core.Prefix;
 import com.github.gwtd3.api.core.RGBColor;
+import com.github.gwtd3.api.core.RandomGenerator;
 import com.github.gwtd3.api.core.Selection;
 import com.github.gwtd3.api.core.Transform;
 import com.github.gwtd3.api.core.Transition;
@@ -71,7 +73,6 @@
 import com.google.gwt.dom.client.Node;
 import com.google.gwt.dom.client.NodeList;
 import com.google.gwt.user.client.Event;
-import com.google.gwt.user.client.Random;
 import com.google.gwt.user.client.ui.RootPanel;
 import com.google.gwt.user.client.ui.Widget;
 import com.google.gwt.user.client.ui.WidgetCollection;
@@ -265,6 +266,15 @@ public static final Selection selectAll(final WidgetCollection widgets) {
 
 	// =========== shuffle ==============
 
+	private static RandomGenerator random;
+
+	private static RandomGenerator random() {
+		if (random == null) {
+			random = new RandomGenerator();
+		}
+		return random;
+	}
+
 	/**
 	 * Randomly shuffle the list of objects provided.
 	 * <p>
@@ -274,35 +284,42 @@ public static final Selection selectAll(final WidgetCollection widgets) {
 	 *            the list to shuffle
 	 */
 	public static final void shuffle(final List<?> objects) {
-		for (int i = objects.size(); i > 1; i--) {
-			swap(objects, i - 1, Random.nextInt(i));
-		}
+		Sampling.shuffle(objects, random());
 	}
 
-	private static final <T> void swap(final List<T> list, final int idx1, final int idx2) {
-		T temp = list.get(idx1);
-		list.set(idx1, list.get(idx2));
-		list.set(idx2, temp);
+	/**
+	 * Randomly shuffle the list of objects provided, with the given
+	 * generator, so that a seeded generator always produces the same order.
+	 * 
+	 * @param objects
+	 *            the list to shuffle
+	 * @param random
+	 *            the generator
+	 */
+	public static final void shuffle(final List<?> objects, final RandomGenerator random) {
+		Sampling.shuffle(objects, random);
 	}
 
+	/**
+	 * Randomly shuffle the array provided.
+	 * 
+	 * @see Sampling#shuffle(int[], RandomGenerator)
+	 * @param input
+	 *            the array to shuffle
+	 */
 	public static final void shuffle(final int[] input) {
-		// --- Shuffle by exchanging each element randomly
-		for (int i = 0; i < input.length; i++) {
-			int randomPosition = Random.nextInt(input.length);
-			int temp = input[i];
-			input[i] = input[randomPosition];
-			input[randomPosition] = temp;
-		}
+		Sampling.shuffle(input, random());
 	}
 
+	/**
+	 * Randomly shuffle the array provided.
+	 * 
+	 * @see Sampling#shuffle(char[], RandomGenerator)
+	 * @param input
+	 *            the array to shuffle
+	 */
 	public static final void shuffle(final char[] input) {
-		// --- Shuffle by exchanging each element randomly
-		for (int i = 0; i < input.length; i++) {
-			int randomPosition = Random.nextInt(input.length);
-			char temp = input[i];
-			input[i] = input[randomPosition];
-			input[randomPosition] = temp;
-		}
+		Sampling.shuffle(input, random());
 	}
 
 	// ================ Colors ================
@@ -1050,6 +1050,39 @@ public native final Array<T> splice(int startIndex, int count, Object insert1, O
                            insert4, insert5);
                            }-*/;
 
+    /**
+     * Remove count elements from startIndex, and insert all the elements of the given array at this position.
+     * <p>
+     * The elements are inserted with a single splice, or, for arrays too large to be passed as arguments of a
+     * function, by moving the tail of this array once.
+     * 
+     * @param startIndex
+     *            the index of the first element to be removed; negative values specify position from the end of the array
+     * @param count
+     *            the number of elements to be removed
+     * @param items
+     *            the elements to insert, which may be this array
+     * @return the removed elements
+     */
+    public native final Array<T> spliceAll(int startIndex, int count, Array<?> items)/*-{
+        if (items === this) {
+            items = items.slice();
+        }
+        if (items.length <= 8192) {
+            return Array.prototype.splice.apply(this, [ startIndex, count ].concat(items));
+        }
+        var start = startIndex < 0 ? Math.max(this.length + startIndex, 0) : Math.min(startIndex, this.length);
+        var removed = this.splice(start, count);
+        var tail = this.splice(start, this.length - start);
+        for ( var i = 0, n = items.length; i < n; i++) {
+            this.push(items[i]);
+        }
+        for (i = 0, n = tail.length; i < n; i++) {
+            this.push(tail[i]);
+        }
+        return removed;
+    }-*/;
+
     // ======== bridge to Java Collections API ==============
 
     /**
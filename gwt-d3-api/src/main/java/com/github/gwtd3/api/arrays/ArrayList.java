@@ -28,13 +28,17 @@
  */
 package com.github.gwtd3.api.arrays;
 
+import java.util.AbstractList;
 import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.NoSuchElementException;
 import java.util.RandomAccess;
 
-import com.github.gwtd3.api.core.Value;
+import com.github.gwtd3.api.core.RandomGenerator;
+import com.google.gwt.core.client.JavaScriptObject;
 
 /**
  * A {@link List} wrapping a Javascript {@link Array}.
@@ -42,17 +46,21 @@
  * The backed array should contains the type of object specified by &lt;E&gt; or {@link ClassCastException} may be
  * raised.
  * <p>
- * Also this list cannot be used to wrap arrays of primitive wrapper (Boolean, Double, etc...).
+ * Also this list cannot be used to wrap arrays of primitive wrapper (Boolean, Double, etc...): use
+ * {@link DoubleArrayList} for arrays of numbers.
  * <p>
- * TODO: fix the issue above by creating a specialized class a List<Value> with a specific accessor.
+ * The bulk operations are mapped to a single Javascript call: {@link #addAll(int, Collection)} inserts the whole
+ * collection with one splice, and {@link #subList(int, int)} returns a view of a range of the array, whose
+ * {@link List#clear()} removes the range with one splice. Elements are compared with {@link Object#equals(Object)}, or
+ * with the Javascript indexOf for strings and Javascript objects, for which both are equivalent.
  * 
  * @author SCHIOCA
  * 
  * @param <E>
  */
-public class ArrayList<E> implements List<E>, RandomAccess, Cloneable, java.io.Serializable {
+public class ArrayList<E> extends AbstractList<E> implements List<E>, RandomAccess, Cloneable, java.io.Serializable {
 
-    private final Array<E> array;
+    final Array<E> array;
 
     public ArrayList(final Array<E> array) {
         super();
@@ -64,6 +72,13 @@ public ArrayList(final Array<E> array) {
      */
     private static final long serialVersionUID = 3029722246147578999L;
 
+    /**
+     * @return the wrapped array
+     */
+    public Array<E> array() {
+        return array;
+    }
+
     @Override
     public int size() {
         return array.length();
@@ -74,137 +89,137 @@ public boolean isEmpty() {
         return array.length() == 0;
     }
 
-    private static class FindElement<E> implements ForEachCallback<Boolean> {
-        private final Object o;
-        private E objectFound;
-        private int indexFound;
-
-        public FindElement(final Object o) {
-            super();
-            this.o = o;
-        }
-
-        @Override
-        public Boolean forEach(final Object thisArg, final Value element, final int index, final Array<?> array) {
-            if (equals(o, element.as())) {
-                objectFound = element.as();
-                indexFound = index;
-                return true;
-            }
-            return false;
-        }
-
-        private boolean equals(final Object o1, Object o2) {
-            if (o2 instanceof Value) {
-                o2 = ((Value) o2).as();
-            }
-            return o1 == null ? o2 == null : o1.equals(o2);
-        }
-
-        public E getFoundObject() {
-            return objectFound;
-        }
-
-        public int getFoundIndex() {
-            return indexFound;
-        }
-    }
-
     @Override
     public boolean contains(final Object o) {
-        if (true) {
-            throw new IllegalStateException("TO BE TESTED");
-        }
-        return array.some(new FindElement<E>(o));
+        return indexOf(o) >= 0;
     }
 
     @Override
     public Iterator<E> iterator() {
-        return new ArrayIterator<E>(array) {
-            @Override
-            public E accessObject(final Array<E> array, final int index) {
-                return array.getObject(index);
-            }
-        };
+        return new Itr(0);
     }
 
     @Override
     public Object[] toArray() {
-        throw new IllegalStateException("not yet implemented");
+        int size = array.length();
+        Object[] result = new Object[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = array.getObject(i);
+        }
+        return result;
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T> T[] toArray(final T[] a) {
-        throw new IllegalStateException("not yet implemented");
+        int size = array.length();
+        if (a.length < size) {
+            // let the emulated collections create an array of the right type
+            return new java.util.ArrayList<E>(this).toArray(a);
+        }
+        for (int i = 0; i < size; i++) {
+            a[i] = (T) array.getObject(i);
+        }
+        if (a.length > size) {
+            a[size] = null;
+        }
+        return a;
     }
 
     @Override
     public boolean add(final E e) {
         array.push(e);
+        modCount++;
         return true;
     }
 
     @Override
     public boolean remove(final Object o) {
-        FindElement<E> e = new FindElement<E>(o);
-        if (array.some(e)) {
-            array.splice(e.getFoundIndex(), 1);
-            return true;
-        }
-        return false;
-    }
-
-    @Override
-    public boolean containsAll(final Collection<?> c) {
-        for (Object object : c) {
-            if (!contains(object)) {
-                return false;
-            }
+        int index = indexOf(o);
+        if (index < 0) {
+            return false;
         }
+        array.splice(index, 1);
+        modCount++;
         return true;
     }
 
     @Override
     public boolean addAll(final Collection<? extends E> c) {
-        // TODO: optimize this with a concat
-        for (E e : c) {
-            array.push(e);
-        }
-        return true;
+        return addAll(array.length(), c);
     }
 
     @Override
     public boolean addAll(final int index, final Collection<? extends E> c) {
-        // TODO: optimize this with a batch splice?
-        // or with concat + slice
-        for (E e : c) {
-            array.splice(index, 0, e);
+        checkPosition(index, array.length());
+        if (c.isEmpty()) {
+            return false;
         }
-        return false;
+        array.spliceAll(index, 0, toJsArray(c));
+        modCount++;
+        return true;
     }
 
     @Override
     public boolean removeAll(final Collection<?> c) {
-        throw new IllegalStateException("not yet implemented");
+        return removeIf(c, true, 0, array.length()) > 0;
     }
 
     @Override
     public boolean retainAll(final Collection<?> c) {
-        throw new IllegalStateException("not yet implemented");
+        return removeIf(c, false, 0, array.length()) > 0;
+    }
+
+    /**
+     * Removes the elements of the range which are (or are not) in the collection, compacting the kept elements in
+     * place.
+     * 
+     * @return the number of removed elements
+     */
+    int removeIf(final Collection<?> c, final boolean contained, final int from, final int to) {
+        int kept = from;
+        for (int i = from; i < to; i++) {
+            E e = array.getObject(i);
+            if (c.contains(e) != contained) {
+                if (kept != i) {
+                    array.set(kept, e);
+                }
+                kept++;
+            }
+        }
+        int removed = to - kept;
+        if (removed > 0) {
+            array.splice(kept, removed);
+            modCount++;
+        }
+        return removed;
+    }
+
+    /**
+     * Shuffles the array in place, failing the open iterators as any other change of the whole list.
+     * 
+     * @see Sampling#shuffle(List, RandomGenerator)
+     */
+    void shuffle(final RandomGenerator random) {
+        Sampling.shuffle(array, random);
+        modCount++;
     }
 
     @Override
     public void clear() {
         array.setLength(0);
+        modCount++;
     }
 
     @Override
     public E get(final int index) {
+        checkIndex(index, array.length());
         return array.getObject(index);
     }
 
     @Override
     public E set(final int index, final E element) {
+        checkIndex(index, array.length());
         E old = array.getObject(index);
         array.set(index, element);
         return old;
@@ -212,38 +227,348 @@ public E set(final int index, final E element) {
 
     @Override
     public void add(final int index, final E element) {
+        checkPosition(index, array.length());
         array.splice(index, 0, element);
+        modCount++;
     }
 
     @Override
     public E remove(final int index) {
-        // TODO preconditions
+        checkIndex(index, array.length());
+        modCount++;
         return array.splice(index, 1).getObject(0);
     }
 
+    @Override
+    protected void removeRange(final int fromIndex, final int toIndex) {
+        array.splice(fromIndex, toIndex - fromIndex);
+        modCount++;
+    }
+
     @Override
     public int indexOf(final Object o) {
-        return array.indexOf(o);
+        return indexOf(o, 0, array.length());
     }
 
     @Override
     public int lastIndexOf(final Object o) {
-        return array.lastIndexOf(o);
+        return lastIndexOf(o, 0, array.length());
+    }
+
+    /**
+     * @return the index of the first element equal to o in the range, or -1
+     */
+    int indexOf(final Object o, final int from, final int to) {
+        if (isIdentity(o)) {
+            int index = array.indexOf(o, from);
+            return index < to ? index : -1;
+        }
+        for (int i = from; i < to; i++) {
+            if (o.equals(array.getObject(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the index of the last element equal to o in the range, or -1
+     */
+    int lastIndexOf(final Object o, final int from, final int to) {
+        if (isIdentity(o)) {
+            if (to == 0) {
+                return -1;
+            }
+            int index = array.lastIndexOf(o, to - 1);
+            return index >= from ? index : -1;
+        }
+        for (int i = to - 1; i >= from; i--) {
+            if (o.equals(array.getObject(i))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return true if the Javascript comparison of o is equivalent to equals
+     */
+    private static boolean isIdentity(final Object o) {
+        return o == null || o instanceof String || o instanceof JavaScriptObject;
     }
 
     @Override
     public ListIterator<E> listIterator() {
-        throw new IllegalArgumentException("not yet implemented");
+        return new Itr(0);
     }
 
     @Override
     public ListIterator<E> listIterator(final int index) {
-        throw new IllegalArgumentException("not yet implemented");
+        checkPosition(index, array.length());
+        return new Itr(index);
     }
 
+    /**
+     * Returns a view of the portion of this list between fromIndex, inclusive, and toIndex, exclusive.
+     * <p>
+     * The view reads and writes the wrapped array directly. Its bulk operations, such as {@link List#clear()} or
+     * {@link List#addAll(Collection)}, are a single splice of the array. As with {@link java.util.ArrayList}, the view
+     * must not be used after a structural modification of this list which was not made through the view.
+     */
     @Override
     public List<E> subList(final int fromIndex, final int toIndex) {
-        throw new IllegalArgumentException("not yet implemented");
+        checkRange(fromIndex, toIndex, array.length());
+        return new SubList<E>(this, null, fromIndex, toIndex - fromIndex);
+    }
+
+    /**
+     * @return the elements of the collection in a Javascript array, without copying them if possible
+     */
+    @SuppressWarnings("unchecked")
+    static <E> Array<E> toJsArray(final Collection<? extends E> c) {
+        if (c instanceof ArrayList) {
+            return ((ArrayList<E>) c).array;
+        }
+        if (c instanceof SubList) {
+            SubList<E> sub = (SubList<E>) c;
+            return sub.root.array.slice(sub.offset, sub.offset + sub.size);
+        }
+        return Array.fromObjects((E[]) c.toArray());
+    }
+
+    static void checkIndex(final int index, final int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
     }
 
+    static void checkPosition(final int index, final int size) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    static void checkRange(final int fromIndex, final int toIndex, final int size) {
+        if (fromIndex < 0 || toIndex > size || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("From: " + fromIndex + ", To: " + toIndex + ", Size: " + size);
+        }
+    }
+
+    /**
+     * the list iterator, reading the array directly
+     */
+    private class Itr implements ListIterator<E> {
+
+        private int cursor;
+
+        private int last = -1;
+
+        private int expectedModCount = modCount;
+
+        Itr(final int index) {
+            super();
+            this.cursor = index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < array.length();
+        }
+
+        @Override
+        public E next() {
+            checkModCount();
+            if (cursor >= array.length()) {
+                throw new NoSuchElementException();
+            }
+            last = cursor++;
+            return array.getObject(last);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return cursor > 0;
+        }
+
+        @Override
+        public E previous() {
+            checkModCount();
+            if (cursor <= 0) {
+                throw new NoSuchElementException();
+            }
+            last = --cursor;
+            return array.getObject(last);
+        }
+
+        @Override
+        public int nextIndex() {
+            return cursor;
+        }
+
+        @Override
+        public int previousIndex() {
+            return cursor - 1;
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            checkModCount();
+            ArrayList.this.remove(last);
+            cursor = last;
+            last = -1;
+            expectedModCount = modCount;
+        }
+
+        @Override
+        public void set(final E e) {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            checkModCount();
+            array.set(last, e);
+        }
+
+        @Override
+        public void add(final E e) {
+            checkModCount();
+            ArrayList.this.add(cursor++, e);
+            last = -1;
+            expectedModCount = modCount;
+        }
+
+        private void checkModCount() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+    }
+
+    /**
+     * the view of a range of an {@link ArrayList}
+     */
+    private static class SubList<E> extends AbstractList<E> implements RandomAccess {
+
+        private final ArrayList<E> root;
+
+        private final SubList<E> parent;
+
+        private final int offset;
+
+        private int size;
+
+        SubList(final ArrayList<E> root, final SubList<E> parent, final int offset, final int size) {
+            super();
+            this.root = root;
+            this.parent = parent;
+            this.offset = offset;
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public E get(final int index) {
+            checkIndex(index, size);
+            return root.array.getObject(offset + index);
+        }
+
+        @Override
+        public E set(final int index, final E element) {
+            checkIndex(index, size);
+            E old = root.array.getObject(offset + index);
+            root.array.set(offset + index, element);
+            return old;
+        }
+
+        @Override
+        public void add(final int index, final E element) {
+            checkPosition(index, size);
+            root.add(offset + index, element);
+            resize(1);
+        }
+
+        @Override
+        public E remove(final int index) {
+            checkIndex(index, size);
+            E old = root.remove(offset + index);
+            resize(-1);
+            return old;
+        }
+
+        @Override
+        protected void removeRange(final int fromIndex, final int toIndex) {
+            root.removeRange(offset + fromIndex, offset + toIndex);
+            resize(fromIndex - toIndex);
+        }
+
+        @Override
+        public boolean addAll(final Collection<? extends E> c) {
+            return addAll(size, c);
+        }
+
+        @Override
+        public boolean addAll(final int index, final Collection<? extends E> c) {
+            checkPosition(index, size);
+            int n = c.size();
+            if (n == 0) {
+                return false;
+            }
+            root.addAll(offset + index, c);
+            resize(n);
+            return true;
+        }
+
+        @Override
+        public boolean removeAll(final Collection<?> c) {
+            int removed = root.removeIf(c, true, offset, offset + size);
+            resize(-removed);
+            return removed > 0;
+        }
+
+        @Override
+        public boolean retainAll(final Collection<?> c) {
+            int removed = root.removeIf(c, false, offset, offset + size);
+            resize(-removed);
+            return removed > 0;
+        }
+
+        @Override
+        public int indexOf(final Object o) {
+            int index = root.indexOf(o, offset, offset + size);
+            return index < 0 ? -1 : index - offset;
+        }
+
+        @Override
+        public int lastIndexOf(final Object o) {
+            int index = root.lastIndexOf(o, offset, offset + size);
+            return index < 0 ? -1 : index - offset;
+        }
+
+        @Override
+        public boolean contains(final Object o) {
+            return indexOf(o) >= 0;
+        }
+
+        @Override
+        public List<E> subList(final int fromIndex, final int toIndex) {
+            checkRange(fromIndex, toIndex, size);
+            return new SubList<E>(root, this, offset + fromIndex, toIndex - fromIndex);
+        }
+
+        /**
+         * updates the size of this view and of the views containing it
+         */
+        private void resize(final int delta) {
+            for (SubList<E> s = this; s != null; s = s.parent) {
+                s.size += delta;
+                s.modCount++;
+            }
+        }
+    }
 }
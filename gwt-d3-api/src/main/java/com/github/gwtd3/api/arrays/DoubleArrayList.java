@@ -0,0 +1,363 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.arrays;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayNumber;
+import com.google.gwt.core.client.JsArrayUtils;
+
+/**
+ * A {@link List} of numbers wrapping a Javascript {@link JsArrayNumber}.
+ * <p>
+ * The {@link ArrayList} cannot wrap an array of numbers, which are not Java {@link Double}s in Javascript. This list
+ * reads and writes the numbers of the array, and has primitive methods ({@link #getDouble(int)},
+ * {@link #addDouble(double)}, ...) which do not box them.
+ * <p>
+ * As for {@link ArrayList}, the bulk insertions ({@link #addAll(int, Collection)}, {@link #addAll(double[])}) are a
+ * single splice of the array, and {@link #removeAll(Collection)} and {@link #retainAll(Collection)} compact the kept
+ * numbers before a single splice. The elements are compared as {@link Double#equals(Object)} does: NaN is equal to NaN,
+ * and 0 is not equal to -0.
+ */
+public class DoubleArrayList extends AbstractList<Double> implements RandomAccess {
+
+    private final JsArrayNumber array;
+
+    /**
+     * Create a list wrapping a new empty array.
+     */
+    public DoubleArrayList() {
+        this(JavaScriptObject.createArray().<JsArrayNumber> cast());
+    }
+
+    /**
+     * Create a list wrapping the given array.
+     * 
+     * @param array
+     *            the array
+     */
+    public DoubleArrayList(final JsArrayNumber array) {
+        super();
+        this.array = array;
+    }
+
+    /**
+     * @return the wrapped array
+     */
+    public JsArrayNumber array() {
+        return array;
+    }
+
+    @Override
+    public int size() {
+        return array.length();
+    }
+
+    /**
+     * Return the number at the given index.
+     * 
+     * @param index
+     *            the index
+     * @return the number
+     */
+    public double getDouble(final int index) {
+        ArrayList.checkIndex(index, array.length());
+        return array.get(index);
+    }
+
+    /**
+     * Replace the number at the given index.
+     * 
+     * @param index
+     *            the index
+     * @param value
+     *            the new number
+     * @return the previous number
+     */
+    public double setDouble(final int index, final double value) {
+        ArrayList.checkIndex(index, array.length());
+        double old = array.get(index);
+        array.set(index, value);
+        return old;
+    }
+
+    /**
+     * Append a number to the list.
+     * 
+     * @param value
+     *            the number
+     */
+    public void addDouble(final double value) {
+        array.push(value);
+        modCount++;
+    }
+
+    /**
+     * Insert a number at the given index.
+     * 
+     * @param index
+     *            the index
+     * @param value
+     *            the number
+     */
+    public void addDouble(final int index, final double value) {
+        ArrayList.checkPosition(index, array.length());
+        insert(array, index, value);
+        modCount++;
+    }
+
+    /**
+     * Remove the number at the given index.
+     * 
+     * @param index
+     *            the index
+     * @return the removed number
+     */
+    public double removeDouble(final int index) {
+        ArrayList.checkIndex(index, array.length());
+        double old = array.get(index);
+        remove(array, index, 1);
+        modCount++;
+        return old;
+    }
+
+    /**
+     * Append all the numbers to the list.
+     * 
+     * @param values
+     *            the numbers
+     * @return true if the list changed
+     */
+    public boolean addAll(final double[] values) {
+        return addAll(array.length(), values);
+    }
+
+    /**
+     * Insert all the numbers at the given index.
+     * 
+     * @param index
+     *            the index of the first inserted number
+     * @param values
+     *            the numbers
+     * @return true if the list changed
+     */
+    public boolean addAll(final int index, final double[] values) {
+        ArrayList.checkPosition(index, array.length());
+        if (values.length == 0) {
+            return false;
+        }
+        splice(index, JsArrayUtils.readOnlyJsArray(values));
+        return true;
+    }
+
+    /**
+     * Return the index of the first occurrence of the number.
+     * 
+     * @param value
+     *            the number
+     * @return the index, or -1 if the list does not contain the number
+     */
+    public int indexOf(final double value) {
+        for (int i = 0, n = array.length(); i < n; i++) {
+            if (same(array.get(i), value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Return the index of the last occurrence of the number.
+     * 
+     * @param value
+     *            the number
+     * @return the index, or -1 if the list does not contain the number
+     */
+    public int lastIndexOf(final double value) {
+        for (int i = array.length() - 1; i >= 0; i--) {
+            if (same(array.get(i), value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the numbers, in a new Java array
+     */
+    public double[] toDoubleArray() {
+        double[] values = new double[array.length()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = array.get(i);
+        }
+        return values;
+    }
+
+    @Override
+    public Double get(final int index) {
+        return getDouble(index);
+    }
+
+    @Override
+    public Double set(final int index, final Double element) {
+        return setDouble(index, element);
+    }
+
+    @Override
+    public boolean add(final Double e) {
+        addDouble(e);
+        return true;
+    }
+
+    @Override
+    public void add(final int index, final Double element) {
+        addDouble(index, element);
+    }
+
+    @Override
+    public Double remove(final int index) {
+        return removeDouble(index);
+    }
+
+    @Override
+    protected void removeRange(final int fromIndex, final int toIndex) {
+        remove(array, fromIndex, toIndex - fromIndex);
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        array.setLength(0);
+        modCount++;
+    }
+
+    @Override
+    public boolean addAll(final Collection<? extends Double> c) {
+        return addAll(array.length(), c);
+    }
+
+    @Override
+    public boolean addAll(final int index, final Collection<? extends Double> c) {
+        ArrayList.checkPosition(index, array.length());
+        if (c.isEmpty()) {
+            return false;
+        }
+        if (c instanceof DoubleArrayList) {
+            splice(index, ((DoubleArrayList) c).array);
+        } else {
+            double[] values = new double[c.size()];
+            int i = 0;
+            for (Double value : c) {
+                values[i++] = value;
+            }
+            splice(index, JsArrayUtils.readOnlyJsArray(values));
+        }
+        return true;
+    }
+
+    @Override
+    public boolean removeAll(final Collection<?> c) {
+        return removeIf(c, true) > 0;
+    }
+
+    @Override
+    public boolean retainAll(final Collection<?> c) {
+        return removeIf(c, false) > 0;
+    }
+
+    /**
+     * Removes the numbers which are (or are not) in the collection, compacting the kept numbers in place before a
+     * single splice, as {@link ArrayList} does.
+     * 
+     * @return the number of removed numbers
+     */
+    private int removeIf(final Collection<?> c, final boolean contained) {
+        DoubleArrayList numbers = c instanceof DoubleArrayList ? (DoubleArrayList) c : null;
+        int n = array.length();
+        int kept = 0;
+        for (int i = 0; i < n; i++) {
+            double value = array.get(i);
+            boolean found = numbers != null ? numbers.indexOf(value) >= 0 : c.contains(value);
+            if (found != contained) {
+                if (kept != i) {
+                    array.set(kept, value);
+                }
+                kept++;
+            }
+        }
+        int removed = n - kept;
+        if (removed > 0) {
+            remove(array, kept, removed);
+            modCount++;
+        }
+        return removed;
+    }
+
+    @Override
+    public int indexOf(final Object o) {
+        return o instanceof Double ? indexOf(((Double) o).doubleValue()) : -1;
+    }
+
+    @Override
+    public int lastIndexOf(final Object o) {
+        return o instanceof Double ? lastIndexOf(((Double) o).doubleValue()) : -1;
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    private void splice(final int index, final JsArrayNumber values) {
+        array.<Array<Double>> cast().spliceAll(index, 0, values.<Array<Double>> cast());
+        modCount++;
+    }
+
+    /**
+     * the equality of Double#equals
+     */
+    private static boolean same(final double a, final double b) {
+        if (a == b) {
+            return a != 0 || 1 / a == 1 / b;
+        }
+        return a != a && b != b;
+    }
+
+    private static native void insert(JsArrayNumber array, int index, double value)/*-{
+        array.splice(index, 0, value);
+    }-*/;
+
+    private static native void remove(JsArrayNumber array, int index, int count)/*-{
+        array.splice(index, count);
+    }-*/;
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.arrays;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A dictionary-encoded column of strings: each distinct string, or level, is stored once, and each row holds the int
+ * code of its level.
+ * <p>
+ * The strings are hashed once, when the factor is built; grouping or comparing the rows then works on int codes, as
+ * in {@link Nest}. The levels are numbered in the order of their first appearance.
+ */
+public class Factor {
+
+    private final int[] codes;
+
+    private final String[] levels;
+
+    /**
+     * Create a factor from its codes and levels.
+     * 
+     * @param codes
+     *            the code of each row, an index in the levels
+     * @param levels
+     *            the distinct values
+     */
+    public Factor(final int[] codes, final String[] levels) {
+        super();
+        this.codes = codes;
+        this.levels = levels;
+    }
+
+    /**
+     * Encode the values.
+     * 
+     * @param values
+     *            the value of each row; null is a level of its own
+     * @return the factor
+     */
+    public static Factor of(final String[] values) {
+        return of(values, values.length);
+    }
+
+    /**
+     * Encode the first values of the array.
+     * 
+     * @param values
+     *            the value of each row; null is a level of its own
+     * @param count
+     *            the number of rows
+     * @return the factor
+     */
+    public static Factor of(final String[] values, final int count) {
+        Map<String, Integer> index = new HashMap<String, Integer>();
+        int[] codes = new int[count];
+        String[] levels = new String[16];
+        int levelCount = 0;
+        for (int i = 0; i < count; i++) {
+            String value = values[i];
+            Integer code = index.get(value);
+            if (code == null) {
+                code = levelCount;
+                index.put(value, code);
+                if (levelCount == levels.length) {
+                    String[] grown = new String[levelCount * 2];
+                    System.arraycopy(levels, 0, grown, 0, levelCount);
+                    levels = grown;
+                }
+                levels[levelCount++] = value;
+            }
+            codes[i] = code;
+        }
+        String[] trimmed = new String[levelCount];
+        System.arraycopy(levels, 0, trimmed, 0, levelCount);
+        return new Factor(codes, trimmed);
+    }
+
+    /**
+     * @return the number of rows
+     */
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * @param row
+     *            the index of a row
+     * @return the code of the row
+     */
+    public int code(final int row) {
+        return codes[row];
+    }
+
+    /**
+     * @param row
+     *            the index of a row
+     * @return the value of the row
+     */
+    public String get(final int row) {
+        return levels[codes[row]];
+    }
+
+    /**
+     * @return the code of each row; the array must not be modified
+     */
+    public int[] codes() {
+        return codes;
+    }
+
+    /**
+     * @return the number of distinct values
+     */
+    public int levelCount() {
+        return levels.length;
+    }
+
+    /**
+     * @param code
+     *            a code
+     * @return the value of the code
+     */
+    public String level(final int code) {
+        return levels[code];
+    }
+
+    /**
+     * @param value
+     *            a value
+     * @return the code of the value, or -1 if no row has this value
+     */
+    public int codeOf(final String value) {
+        for (int i = 0; i < levels.length; i++) {
+            if (value == null ? levels[i] == null : value.equals(levels[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
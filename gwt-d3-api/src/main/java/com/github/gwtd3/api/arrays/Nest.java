@@ -0,0 +1,758 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.arrays;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Group rows by one or more keys, as d3.nest does, computed in Java over columns.
+ * <p>
+ * The keys are {@link Factor}s, dictionary-encoded columns, for instance parsed by
+ * {@link com.github.gwtd3.api.dsv.DsvColumns}: the rows are grouped by hashing pairs of int codes, level by level,
+ * without creating an object per row. The result is a set of {@link Groups} stored in flat arrays, with the number of
+ * rows of each group and an optional rollup of a value column:
+ * 
+ * <pre>
+ * {@code
+ * DsvColumns csv = DsvColumns.parseCsv(text);
+ * Nest.Groups groups = new Nest().key(csv.factor("region")).sortKeys(Nest.ASCENDING).key(csv.factor("product"))
+ *         .rollup(Rollup.SUM, csv.numbers("sales")).apply();
+ * for (int g = 0; g < groups.size(0); g++) {
+ *     String region = groups.key(0, g);
+ *     double total = groups.value(0, g);
+ * }
+ * }
+ * </pre>
+ * <p>
+ * As in d3, the keys of each level are in the order of their first appearance, unless
+ * {@link #sortKeys(Comparator)} is given for the level.
+ */
+public class Nest {
+
+    /**
+     * The built-in rollups. As in d3, NaN values are ignored.
+     */
+    public static enum Rollup {
+        /**
+         * the number of rows of the group
+         */
+        COUNT,
+        /**
+         * the sum of the values of the group
+         */
+        SUM,
+        /**
+         * the mean of the values of the group
+         */
+        MEAN,
+        /**
+         * the minimum of the values of the group
+         */
+        MIN,
+        /**
+         * the maximum of the values of the group
+         */
+        MAX;
+    }
+
+    /**
+     * A custom rollup, computing the value of a group from its rows.
+     */
+    public static interface Aggregator {
+        /**
+         * Compute the value of a group.
+         * 
+         * @param rows
+         *            the indices of the rows, grouped
+         * @param from
+         *            the index in rows of the first row of the group, inclusive
+         * @param to
+         *            the index in rows of the last row of the group, exclusive
+         * @return the value of the group
+         */
+        double aggregate(int[] rows, int from, int to);
+    }
+
+    /**
+     * The natural order of the keys, null first.
+     */
+    public static final Comparator<String> ASCENDING = new Comparator<String>() {
+        @Override
+        public int compare(final String a, final String b) {
+            if (a == null) {
+                return b == null ? 0 : -1;
+            }
+            return b == null ? 1 : a.compareTo(b);
+        }
+    };
+
+    private final List<Factor> keys = new ArrayList<Factor>();
+
+    private final List<Comparator<String>> orders = new ArrayList<Comparator<String>>();
+
+    private Rollup rollup = Rollup.COUNT;
+
+    private double[] values;
+
+    private Aggregator aggregator;
+
+    /**
+     * Add a level of keys.
+     * 
+     * @param key
+     *            the keys of the rows
+     * @return the current nest
+     * @throws IllegalArgumentException
+     *             if the key does not have the same number of rows as the previous keys
+     */
+    public Nest key(final Factor key) {
+        if (!keys.isEmpty() && key.size() != keys.get(0).size()) {
+            throw new IllegalArgumentException("the keys must have the same number of rows: " + key.size() + " != "
+                    + keys.get(0).size());
+        }
+        keys.add(key);
+        orders.add(null);
+        return this;
+    }
+
+    /**
+     * Add a level of keys.
+     * 
+     * @param key
+     *            the key of each row
+     * @return the current nest
+     */
+    public Nest key(final String[] key) {
+        return key(Factor.of(key));
+    }
+
+    /**
+     * Sort the keys of the last level added with {@link #key(Factor)}.
+     * 
+     * @param order
+     *            the order of the keys, or null for the order of their first appearance
+     * @return the current nest
+     */
+    public Nest sortKeys(final Comparator<String> order) {
+        if (keys.isEmpty()) {
+            throw new IllegalStateException("no key to sort");
+        }
+        orders.set(orders.size() - 1, order);
+        return this;
+    }
+
+    /**
+     * Set the rollup of the groups.
+     * 
+     * @param rollup
+     *            the rollup
+     * @param values
+     *            the values of the rows, or null for {@link Rollup#COUNT}
+     * @return the current nest
+     */
+    public Nest rollup(final Rollup rollup, final double[] values) {
+        this.rollup = rollup;
+        this.values = values;
+        this.aggregator = null;
+        return this;
+    }
+
+    /**
+     * Set a custom rollup of the groups.
+     * 
+     * @param aggregator
+     *            the rollup
+     * @return the current nest
+     */
+    public Nest rollup(final Aggregator aggregator) {
+        this.aggregator = aggregator;
+        this.values = null;
+        return this;
+    }
+
+    /**
+     * Group the rows.
+     * 
+     * @return the groups
+     * @throws IllegalStateException
+     *             if no key has been given
+     * @throws IllegalArgumentException
+     *             if the values do not have one value per row
+     */
+    public Groups apply() {
+        if (keys.isEmpty()) {
+            throw new IllegalStateException("no key");
+        }
+        int n = keys.get(0).size();
+        if (aggregator == null && rollup != Rollup.COUNT && (values == null || values.length < n)) {
+            throw new IllegalArgumentException("the rollup " + rollup + " needs one value per row");
+        }
+        return new Groups(this, n);
+    }
+
+    /**
+     * The groups computed by {@link Nest#apply()}.
+     * <p>
+     * The groups of each level are numbered from 0, in the order of their keys; the children of a group are
+     * consecutive groups of the next level, and the rows of a group are consecutive in {@link #rows()}.
+     */
+    public static class Groups {
+
+        private final Factor[] keys;
+
+        private final int levels;
+
+        /**
+         * the code of the key of each group, by level
+         */
+        private final int[][] codes;
+
+        private final int[][] parents;
+
+        /**
+         * the first child of each group, by level, with an extra element
+         */
+        private final int[][] childStarts;
+
+        /**
+         * the first row of each group in rows, by level, with an extra element
+         */
+        private final int[][] rowStarts;
+
+        private final int[] rows;
+
+        private final double[][] groupValues;
+
+        Groups(final Nest nest, final int n) {
+            levels = nest.keys.size();
+            keys = nest.keys.toArray(new Factor[levels]);
+            codes = new int[levels][];
+            parents = new int[levels][];
+            childStarts = new int[levels][];
+            rowStarts = new int[levels][];
+            groupValues = new double[levels][];
+
+            // the group of each row at the current level, numbered by first appearance
+            int[] rowGroup = new int[n];
+            int[] rank = null;
+            for (int level = 0; level < levels; level++) {
+                int[] rowCodes = keys[level].codes();
+                int count;
+                int[] groupCode;
+                int[] groupParent;
+                if (level == 0) {
+                    int[] groupOfCode = new int[keys[0].levelCount()];
+                    for (int c = 0; c < groupOfCode.length; c++) {
+                        groupOfCode[c] = -1;
+                    }
+                    groupCode = new int[groupOfCode.length];
+                    count = 0;
+                    for (int row = 0; row < n; row++) {
+                        int code = rowCodes[row];
+                        int g = groupOfCode[code];
+                        if (g < 0) {
+                            g = count++;
+                            groupOfCode[code] = g;
+                            groupCode[g] = code;
+                        }
+                        rowGroup[row] = g;
+                    }
+                    groupParent = new int[count];
+                    for (int g = 0; g < count; g++) {
+                        groupParent[g] = -1;
+                    }
+                } else {
+                    PairTable table = new PairTable();
+                    for (int row = 0; row < n; row++) {
+                        // the parent is numbered in its final order
+                        rowGroup[row] = table.group(rank[rowGroup[row]], rowCodes[row]);
+                    }
+                    count = table.size;
+                    groupCode = table.codes;
+                    groupParent = table.parents;
+                }
+                rank = order(level, count, groupCode, groupParent, nest.orders.get(level));
+                // renumber the groups in their final order
+                int[] finalCodes = new int[count];
+                int[] finalParents = new int[count];
+                for (int g = 0; g < count; g++) {
+                    finalCodes[rank[g]] = groupCode[g];
+                    finalParents[rank[g]] = groupParent[g];
+                }
+                codes[level] = finalCodes;
+                parents[level] = finalParents;
+                if (level > 0) {
+                    childStarts[level - 1] = starts(finalParents, codes[level - 1].length);
+                }
+            }
+            childStarts[levels - 1] = new int[codes[levels - 1].length + 1];
+
+            // the rows, grouped by leaf, with a counting sort
+            int leaves = codes[levels - 1].length;
+            int[] leafStarts = new int[leaves + 1];
+            for (int row = 0; row < n; row++) {
+                leafStarts[rank[rowGroup[row]] + 1]++;
+            }
+            for (int g = 0; g < leaves; g++) {
+                leafStarts[g + 1] += leafStarts[g];
+            }
+            rows = new int[n];
+            int[] fill = new int[leaves];
+            System.arraycopy(leafStarts, 0, fill, 0, leaves);
+            for (int row = 0; row < n; row++) {
+                int leaf = rank[rowGroup[row]];
+                rowGroup[row] = leaf;
+                rows[fill[leaf]++] = row;
+            }
+            rowStarts[levels - 1] = leafStarts;
+            for (int level = levels - 2; level >= 0; level--) {
+                int size = codes[level].length;
+                int[] starts = new int[size + 1];
+                int[] childRows = rowStarts[level + 1];
+                for (int g = 0; g <= size; g++) {
+                    starts[g] = childRows[childStarts[level][g]];
+                }
+                rowStarts[level] = starts;
+            }
+
+            rollup(nest, rowGroup);
+        }
+
+        /**
+         * @return the rank of each group, sorted by parent then by key
+         */
+        private int[] order(final int level, final int count, final int[] groupCode, final int[] groupParent,
+                final Comparator<String> order) {
+            int[] sorted = new int[count];
+            for (int g = 0; g < count; g++) {
+                sorted[g] = g;
+            }
+            if (order != null) {
+                final Factor key = keys[level];
+                final int[] c = groupCode;
+                sortIndex(sorted, new IndexComparator() {
+                    @Override
+                    int compare(final int a, final int b) {
+                        return order.compare(key.level(c[a]), key.level(c[b]));
+                    }
+                });
+            }
+            if (level > 0) {
+                // stable counting sort by parent
+                int parentCount = codes[level - 1].length;
+                int[] starts = new int[parentCount + 1];
+                for (int g = 0; g < count; g++) {
+                    starts[groupParent[g] + 1]++;
+                }
+                for (int p = 0; p < parentCount; p++) {
+                    starts[p + 1] += starts[p];
+                }
+                int[] bySorted = new int[count];
+                for (int i = 0; i < count; i++) {
+                    int g = sorted[i];
+                    bySorted[starts[groupParent[g]]++] = g;
+                }
+                sorted = bySorted;
+            }
+            int[] rank = new int[count];
+            for (int i = 0; i < count; i++) {
+                rank[sorted[i]] = i;
+            }
+            return rank;
+        }
+
+        private static int[] starts(final int[] parents, final int parentCount) {
+            int[] starts = new int[parentCount + 1];
+            for (int p : parents) {
+                starts[p + 1]++;
+            }
+            for (int p = 0; p < parentCount; p++) {
+                starts[p + 1] += starts[p];
+            }
+            return starts;
+        }
+
+        private void rollup(final Nest nest, final int[] leafOfRow) {
+            if (nest.aggregator != null) {
+                for (int level = 0; level < levels; level++) {
+                    int size = codes[level].length;
+                    double[] v = new double[size];
+                    int[] starts = rowStarts[level];
+                    for (int g = 0; g < size; g++) {
+                        v[g] = nest.aggregator.aggregate(rows, starts[g], starts[g + 1]);
+                    }
+                    groupValues[level] = v;
+                }
+                return;
+            }
+            Rollup rollup = nest.rollup;
+            double[] values = nest.values;
+            int leaves = codes[levels - 1].length;
+            // at the leaves, in one pass over the rows
+            double[] acc = new double[leaves];
+            int[] defined = new int[leaves];
+            if (rollup == Rollup.COUNT) {
+                for (int g = 0; g < leaves; g++) {
+                    acc[g] = rowStarts[levels - 1][g + 1] - rowStarts[levels - 1][g];
+                }
+            } else {
+                for (int row = 0; row < leafOfRow.length; row++) {
+                    double v = values[row];
+                    if (v == v) {
+                        int g = leafOfRow[row];
+                        if (defined[g] == 0) {
+                            acc[g] = v;
+                        } else if (rollup == Rollup.MIN) {
+                            acc[g] = Math.min(acc[g], v);
+                        } else if (rollup == Rollup.MAX) {
+                            acc[g] = Math.max(acc[g], v);
+                        } else {
+                            acc[g] += v;
+                        }
+                        defined[g]++;
+                    }
+                }
+            }
+            // then merged from the children
+            for (int level = levels - 1; level >= 0; level--) {
+                int size = codes[level].length;
+                if (level < levels - 1) {
+                    double[] childAcc = acc;
+                    int[] childDefined = defined;
+                    acc = new double[size];
+                    defined = new int[size];
+                    int[] starts = childStarts[level];
+                    for (int g = 0; g < size; g++) {
+                        for (int c = starts[g]; c < starts[g + 1]; c++) {
+                            if (rollup == Rollup.COUNT) {
+                                acc[g] += childAcc[c];
+                            } else if (childDefined[c] > 0) {
+                                if (defined[g] == 0) {
+                                    acc[g] = childAcc[c];
+                                } else if (rollup == Rollup.MIN) {
+                                    acc[g] = Math.min(acc[g], childAcc[c]);
+                                } else if (rollup == Rollup.MAX) {
+                                    acc[g] = Math.max(acc[g], childAcc[c]);
+                                } else {
+                                    acc[g] += childAcc[c];
+                                }
+                                defined[g] += childDefined[c];
+                            }
+                        }
+                    }
+                }
+                double[] v = new double[size];
+                for (int g = 0; g < size; g++) {
+                    switch (rollup) {
+                    case COUNT:
+                        v[g] = acc[g];
+                        break;
+                    case SUM:
+                        v[g] = defined[g] > 0 ? acc[g] : 0;
+                        break;
+                    case MEAN:
+                        v[g] = defined[g] > 0 ? acc[g] / defined[g] : Double.NaN;
+                        break;
+                    default:
+                        v[g] = defined[g] > 0 ? acc[g] : Double.NaN;
+                    }
+                }
+                groupValues[level] = v;
+            }
+        }
+
+        /**
+         * @return the number of levels of keys
+         */
+        public int levels() {
+            return levels;
+        }
+
+        /**
+         * @param level
+         *            the level
+         * @return the number of groups of the level
+         */
+        public int size(final int level) {
+            return codes[level].length;
+        }
+
+        /**
+         * @param level
+         *            the level
+         * @param group
+         *            the index of a group of the level
+         * @return the key of the group
+         */
+        public String key(final int level, final int group) {
+            return keys[level].level(codes[level][group]);
+        }
+
+        /**
+         * @param level
+         *            the level
+         * @param group
+         *            the index of a group of the level
+         * @return the code of the key of the group in the {@link Factor} of the level
+         */
+        public int code(final int level, final int group) {
+            return codes[level][group];
+        }
+
+        /**
+         * @param level
+         *            the level
+         * @param group
+         *            the index of a group of the level
+         * @return the index of the parent group in the previous level, or -1 for the first level
+         */
+        public int parent(final int level, final int group) {
+            return parents[level][group];
+        }
+
+        /**
+         * @param level
+         *            the level
+         * @param group
+         *            the index of a group of the level
+         * @return the index of the first child of the group in the next level
+         */
+        public int childStart(final int level, final int group) {
+            return childStarts[level][group];
+        }
+
+        /**
+         * @param level
+         *            the level
+         * @param group
+         *            the index of a group of the level
+         * @return the number of children of the group, 0 for the last level
+         */
+        public int childCount(final int level, final int group) {
+            return childStarts[level][group + 1] - childStarts[level][group];
+        }
+
+        /**
+         * @param level
+         *            the level
+         * @param group
+         *            the index of a group of the level
+         * @return the number of rows of the group
+         */
+        public int count(final int level, final int group) {
+            return rowStarts[level][group + 1] - rowStarts[level][group];
+        }
+
+        /**
+         * @param level
+         *            the level
+         * @param group
+         *            the index of a group of the level
+         * @return the rollup of the group
+         */
+        public double value(final int level, final int group) {
+            return groupValues[level][group];
+        }
+
+        /**
+         * @return the indices of the rows, grouped: the rows of a group are between {@link #rowStart(int, int)} and
+         *         {@link #rowEnd(int, int)}; the array must not be modified
+         */
+        public int[] rows() {
+            return rows;
+        }
+
+        /**
+         * @param level
+         *            the level
+         * @param group
+         *            the index of a group of the level
+         * @return the index in {@link #rows()} of the first row of the group
+         */
+        public int rowStart(final int level, final int group) {
+            return rowStarts[level][group];
+        }
+
+        /**
+         * @param level
+         *            the level
+         * @param group
+         *            the index of a group of the level
+         * @return the index in {@link #rows()} after the last row of the group
+         */
+        public int rowEnd(final int level, final int group) {
+            return rowStarts[level][group + 1];
+        }
+
+        /**
+         * Find a group by its keys.
+         * 
+         * @param path
+         *            the keys of the group and of its ancestors, from the first level
+         * @return the index of the group in the level path.length - 1, or -1 if there is no such group
+         */
+        public int find(final String... path) {
+            int from = 0;
+            int to = codes[0].length;
+            int group = -1;
+            for (int level = 0; level < path.length && level < levels; level++) {
+                int code = keys[level].codeOf(path[level]);
+                group = -1;
+                for (int g = from; g < to; g++) {
+                    if (codes[level][g] == code) {
+                        group = g;
+                        break;
+                    }
+                }
+                if (group < 0) {
+                    return -1;
+                }
+                if (level < levels - 1) {
+                    from = childStarts[level][group];
+                    to = childStarts[level][group + 1];
+                }
+            }
+            return path.length <= levels ? group : -1;
+        }
+    }
+
+    /**
+     * an open addressing hash table of (parent, code) pairs, numbering the distinct pairs
+     */
+    private static class PairTable {
+        int size;
+
+        int[] parents = new int[16];
+
+        int[] codes = new int[16];
+
+        private int[] table = new int[64];
+
+        private int mask = 63;
+
+        PairTable() {
+            for (int i = 0; i < table.length; i++) {
+                table[i] = -1;
+            }
+        }
+
+        int group(final int parent, final int code) {
+            int i = hash(parent, code) & mask;
+            while (true) {
+                int g = table[i];
+                if (g < 0) {
+                    break;
+                }
+                if (parents[g] == parent && codes[g] == code) {
+                    return g;
+                }
+                i = (i + 1) & mask;
+            }
+            int g = size++;
+            if (g == parents.length) {
+                int[] grown = new int[g * 2];
+                System.arraycopy(parents, 0, grown, 0, g);
+                parents = grown;
+                grown = new int[g * 2];
+                System.arraycopy(codes, 0, grown, 0, g);
+                codes = grown;
+            }
+            parents[g] = parent;
+            codes[g] = code;
+            table[i] = g;
+            if (size * 2 > table.length) {
+                rehash();
+            }
+            return g;
+        }
+
+        private void rehash() {
+            table = new int[table.length * 2];
+            mask = table.length - 1;
+            for (int i = 0; i < table.length; i++) {
+                table[i] = -1;
+            }
+            for (int g = 0; g < size; g++) {
+                int i = hash(parents[g], codes[g]) & mask;
+                while (table[i] >= 0) {
+                    i = (i + 1) & mask;
+                }
+                table[i] = g;
+            }
+        }
+
+        private static int hash(final int parent, final int code) {
+            int h = parent * 0x9E3779B1 + code * 0x85EBCA6B;
+            return h ^ (h >>> 15);
+        }
+    }
+
+    private abstract static class IndexComparator {
+        abstract int compare(int a, int b);
+    }
+
+    /**
+     * stable merge sort of indices
+     */
+    private static void sortIndex(final int[] index, final IndexComparator comparator) {
+        int n = index.length;
+        int[] src = index;
+        int[] dst = new int[n];
+        for (int width = 1; width < n; width *= 2) {
+            for (int lo = 0; lo < n; lo += 2 * width) {
+                int mid = Math.min(lo + width, n);
+                int hi = Math.min(lo + 2 * width, n);
+                int a = lo;
+                int b = mid;
+                int k = lo;
+                while (a < mid && b < hi) {
+                    if (comparator.compare(src[b], src[a]) < 0) {
+                        dst[k++] = src[b++];
+                    } else {
+                        dst[k++] = src[a++];
+                    }
+                }
+                while (a < mid) {
+                    dst[k++] = src[a++];
+                }
+                while (b < hi) {
+                    dst[k++] = src[b++];
+                }
+            }
+            int[] tmp = src;
+            src = dst;
+            dst = tmp;
+        }
+        if (src != index) {
+            System.arraycopy(src, 0, index, 0, n);
+        }
+    }
+}
@@ -0,0 +1,602 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.arrays;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.github.gwtd3.api.core.RandomGenerator;
+import com.google.gwt.core.client.GWT;
+import com.google.gwt.typedarrays.shared.Float64Array;
+import com.google.gwt.typedarrays.shared.TypedArrays;
+
+/**
+ * Shuffles and random samples of primitive arrays, {@link Array}s and {@link Float64Array}s, drawn from a
+ * {@link RandomGenerator}.
+ * <p>
+ * The shuffles are <a href="http://en.wikipedia.org/wiki/Fisher%E2%80%93Yates_shuffle">Fisher-Yates</a> shuffles:
+ * every permutation is equally likely. A shuffle of an {@link Array} draws the swaps in Java and applies them in a
+ * single Javascript loop.
+ * <p>
+ * The samples are returned as sorted indices, so that a sample keeps the order of the data, and can be extracted with
+ * the <code>select</code> methods:
+ * <ul>
+ * <li>{@link #reservoirIndices(int, int, RandomGenerator)} picks k of n indices uniformly, in O(k (1 + log(n / k)))
+ * random draws (Li's algorithm L), so that sampling 50 000 rows of 10 000 000 draws about 300 000 numbers instead of 10
+ * 000 000;
+ * <li>{@link #stratifiedIndices(int, int, RandomGenerator)} picks one index in each of k strata of equal size, which
+ * covers the whole range of a series evenly;
+ * <li>{@link #stratifiedIndices(int[], int, RandomGenerator)} picks indices in each group of a partition, in
+ * proportion to the size of the group.
+ * </ul>
+ * {@link Reservoir} samples a stream of unknown length.
+ * <p>
+ * The methods over Java arrays do not depend on the browser.
+ */
+public class Sampling {
+
+    private Sampling() {
+    }
+
+    // ============== shuffles ==============
+
+    /**
+     * Shuffle the array in place.
+     * 
+     * @param values
+     *            the array to shuffle
+     * @param random
+     *            the generator
+     */
+    public static void shuffle(final int[] values, final RandomGenerator random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = values[i];
+            values[i] = values[j];
+            values[j] = t;
+        }
+    }
+
+    /**
+     * Shuffle the array in place.
+     * 
+     * @param values
+     *            the array to shuffle
+     * @param random
+     *            the generator
+     */
+    public static void shuffle(final long[] values, final RandomGenerator random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            long t = values[i];
+            values[i] = values[j];
+            values[j] = t;
+        }
+    }
+
+    /**
+     * Shuffle the array in place.
+     * 
+     * @param values
+     *            the array to shuffle
+     * @param random
+     *            the generator
+     */
+    public static void shuffle(final short[] values, final RandomGenerator random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            short t = values[i];
+            values[i] = values[j];
+            values[j] = t;
+        }
+    }
+
+    /**
+     * Shuffle the array in place.
+     * 
+     * @param values
+     *            the array to shuffle
+     * @param random
+     *            the generator
+     */
+    public static void shuffle(final byte[] values, final RandomGenerator random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            byte t = values[i];
+            values[i] = values[j];
+            values[j] = t;
+        }
+    }
+
+    /**
+     * Shuffle the array in place.
+     * 
+     * @param values
+     *            the array to shuffle
+     * @param random
+     *            the generator
+     */
+    public static void shuffle(final char[] values, final RandomGenerator random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            char t = values[i];
+            values[i] = values[j];
+            values[j] = t;
+        }
+    }
+
+    /**
+     * Shuffle the array in place.
+     * 
+     * @param values
+     *            the array to shuffle
+     * @param random
+     *            the generator
+     */
+    public static void shuffle(final float[] values, final RandomGenerator random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            float t = values[i];
+            values[i] = values[j];
+            values[j] = t;
+        }
+    }
+
+    /**
+     * Shuffle the array in place.
+     * 
+     * @param values
+     *            the array to shuffle
+     * @param random
+     *            the generator
+     */
+    public static void shuffle(final double[] values, final RandomGenerator random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            double t = values[i];
+            values[i] = values[j];
+            values[j] = t;
+        }
+    }
+
+    /**
+     * Shuffle the array in place.
+     * 
+     * @param values
+     *            the array to shuffle
+     * @param random
+     *            the generator
+     */
+    public static <T> void shuffle(final T[] values, final RandomGenerator random) {
+        for (int i = values.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            T t = values[i];
+            values[i] = values[j];
+            values[j] = t;
+        }
+    }
+
+    /**
+     * Shuffle the typed array in place.
+     * 
+     * @param values
+     *            the array to shuffle
+     * @param random
+     *            the generator
+     */
+    public static void shuffle(final Float64Array values, final RandomGenerator random) {
+        for (int i = values.length() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            double t = values.get(i);
+            values.set(i, values.get(j));
+            values.set(j, t);
+        }
+    }
+
+    /**
+     * Shuffle the Javascript array in place.
+     * 
+     * @param values
+     *            the array to shuffle
+     * @param random
+     *            the generator
+     */
+    public static <T> void shuffle(final Array<T> values, final RandomGenerator random) {
+        int n = values.length();
+        if (n < 2) {
+            return;
+        }
+        if (GWT.isScript()) {
+            // swaps[n - 1 - i] is the index exchanged with i
+            int[] swaps = new int[n - 1];
+            for (int i = n - 1; i > 0; i--) {
+                swaps[n - 1 - i] = random.nextInt(i + 1);
+            }
+            applySwaps(values, swaps);
+        } else {
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                T t = values.getObject(i);
+                values.set(i, values.getObject(j));
+                values.set(j, t);
+            }
+        }
+    }
+
+    private static native void applySwaps(Array<?> values, int[] swaps)/*-{
+        for ( var k = 0, n = swaps.length, i = n, j, t; k < n; k++, i--) {
+            j = swaps[k];
+            t = values[i];
+            values[i] = values[j];
+            values[j] = t;
+        }
+    }-*/;
+
+    /**
+     * Shuffle the list in place.
+     * <p>
+     * A list wrapping an {@link Array}, such as {@link ArrayList}, is shuffled as
+     * {@link #shuffle(Array, RandomGenerator)}, without a get and a set of the list per element; its open iterators then
+     * throw a {@link java.util.ConcurrentModificationException}.
+     * 
+     * @param values
+     *            the list to shuffle
+     * @param random
+     *            the generator
+     */
+    @SuppressWarnings("unchecked")
+    public static void shuffle(final List<?> values, final RandomGenerator random) {
+        if (values instanceof ArrayList) {
+            ((ArrayList<?>) values).shuffle(random);
+            return;
+        }
+        List<Object> list = (List<Object>) values;
+        for (int i = list.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            list.set(j, list.set(i, list.get(j)));
+        }
+    }
+
+    // ============== samples ==============
+
+    /**
+     * Return k indices picked uniformly among the n first integers, in increasing order.
+     * <p>
+     * If k is greater than or equal to n, all the indices are returned.
+     * 
+     * @param n
+     *            the number of indices to pick from
+     * @param k
+     *            the number of indices to pick
+     * @param random
+     *            the generator
+     * @return the sorted indices
+     */
+    public static int[] reservoirIndices(final int n, final int k, final RandomGenerator random) {
+        if (k >= n) {
+            return range(n);
+        }
+        if (k <= 0) {
+            return new int[0];
+        }
+        int[] reservoir = range(k);
+        // algorithm L: skip over the indices which would not enter the reservoir
+        double w = Math.exp(Math.log(open(random)) / k);
+        double i = k - 1;
+        for (;;) {
+            i += Math.floor(Math.log(open(random)) / Math.log(1 - w)) + 1;
+            if (i >= n) {
+                break;
+            }
+            reservoir[random.nextInt(k)] = (int) i;
+            w *= Math.exp(Math.log(open(random)) / k);
+        }
+        Arrays.sort(reservoir);
+        return reservoir;
+    }
+
+    /**
+     * Return k indices of the n first integers, one picked uniformly in each of k strata of the same size, in
+     * increasing order.
+     * <p>
+     * If k is greater than or equal to n, all the indices are returned.
+     * 
+     * @param n
+     *            the number of indices to pick from
+     * @param k
+     *            the number of strata, and of indices to pick
+     * @param random
+     *            the generator
+     * @return the sorted indices
+     */
+    public static int[] stratifiedIndices(final int n, final int k, final RandomGenerator random) {
+        if (k >= n) {
+            return range(n);
+        }
+        if (k <= 0) {
+            return new int[0];
+        }
+        int[] indices = new int[k];
+        double size = (double) n / k;
+        int start = 0;
+        for (int s = 0; s < k; s++) {
+            int stop = (int) Math.floor((s + 1) * size);
+            indices[s] = start + random.nextInt(stop - start);
+            start = stop;
+        }
+        return indices;
+    }
+
+    /**
+     * Return about k indices picked in each group of a partition, in proportion to the size of the group, in
+     * increasing order.
+     * <p>
+     * The indices are picked uniformly within each group. The number of indices of each group is rounded with the
+     * largest remainder method, so that exactly k indices are returned if k is lower than the number of indices.
+     * 
+     * @param groups
+     *            the group of each index, between 0 and groupCount - 1
+     * @param groupCount
+     *            the number of groups
+     * @param k
+     *            the number of indices to pick
+     * @param random
+     *            the generator
+     * @return the sorted indices
+     */
+    public static int[] stratifiedIndices(final int[] groups, final int groupCount, final int k,
+            final RandomGenerator random) {
+        int n = groups.length;
+        if (k >= n) {
+            return range(n);
+        }
+        if (k <= 0) {
+            return new int[0];
+        }
+        int[] remaining = new int[groupCount];
+        for (int i = 0; i < n; i++) {
+            remaining[groups[i]]++;
+        }
+        // allocation: the floor of the proportional quotas, then one more for
+        // the largest remainders
+        int[] needed = new int[groupCount];
+        double[] remainders = new double[groupCount];
+        int allocated = 0;
+        for (int g = 0; g < groupCount; g++) {
+            double quota = (double) k * remaining[g] / n;
+            needed[g] = (int) quota;
+            remainders[g] = quota - needed[g];
+            allocated += needed[g];
+        }
+        for (; allocated < k; allocated++) {
+            int best = 0;
+            for (int g = 1; g < groupCount; g++) {
+                if (remainders[g] > remainders[best]) {
+                    best = g;
+                }
+            }
+            needed[best]++;
+            remainders[best] = -1;
+        }
+        // selection sampling (Knuth's algorithm S) in each group, in one pass
+        int[] indices = new int[k];
+        int count = 0;
+        for (int i = 0; i < n && count < k; i++) {
+            int g = groups[i];
+            if (needed[g] > 0 && random.nextDouble() * remaining[g] < needed[g]) {
+                indices[count++] = i;
+                needed[g]--;
+            }
+            remaining[g]--;
+        }
+        return indices;
+    }
+
+    /**
+     * Return the values at the given indices.
+     * 
+     * @param values
+     *            the values
+     * @param indices
+     *            the indices of the values to select
+     * @return the selected values
+     */
+    public static double[] select(final double[] values, final int[] indices) {
+        double[] selected = new double[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            selected[i] = values[indices[i]];
+        }
+        return selected;
+    }
+
+    /**
+     * Return the values at the given indices.
+     * 
+     * @param values
+     *            the values
+     * @param indices
+     *            the indices of the values to select
+     * @return the selected values, in a new typed array
+     */
+    public static Float64Array select(final Float64Array values, final int[] indices) {
+        Float64Array selected = TypedArrays.createFloat64Array(indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            selected.set(i, values.get(indices[i]));
+        }
+        return selected;
+    }
+
+    /**
+     * Return the elements at the given indices.
+     * 
+     * @param values
+     *            the elements
+     * @param indices
+     *            the indices of the elements to select
+     * @return the selected elements, in a new array
+     */
+    public static <T> Array<T> select(final Array<T> values, final int[] indices) {
+        Array<T> selected = Array.create();
+        for (int index : indices) {
+            selected.push(values.getObject(index));
+        }
+        return selected;
+    }
+
+    private static int[] range(final int n) {
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+
+    /**
+     * a uniform random number in (0, 1]
+     */
+    private static double open(final RandomGenerator random) {
+        return 1 - random.nextDouble();
+    }
+
+    // ============== stream sampling ==============
+
+    /**
+     * A uniform sample of a fixed size over a stream of elements of unknown length.
+     * <p>
+     * After {@link #offer(Object)} has been called n times, the reservoir holds a uniform sample of min(n, capacity)
+     * of the offered elements, in no particular order. As with {@link Sampling#reservoirIndices(int, int,
+     * RandomGenerator)}, most elements are skipped without drawing a random number.
+     * 
+     * @param <T>
+     *            the type of the elements
+     */
+    public static class Reservoir<T> {
+
+        private final Object[] items;
+
+        private final RandomGenerator random;
+
+        private int count;
+
+        private int size;
+
+        private double w;
+
+        /**
+         * the number of offered elements to skip before the next one enters the full reservoir
+         */
+        private double skip;
+
+        /**
+         * Create an empty reservoir.
+         * 
+         * @param capacity
+         *            the size of the sample
+         * @param random
+         *            the generator
+         */
+        public Reservoir(final int capacity, final RandomGenerator random) {
+            super();
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("capacity must be positive: " + capacity);
+            }
+            this.items = new Object[capacity];
+            this.random = random;
+        }
+
+        /**
+         * Offer an element to the sample.
+         * 
+         * @param item
+         *            the element
+         * @return true if the element entered the sample
+         */
+        public boolean offer(final T item) {
+            count++;
+            if (size < items.length) {
+                items[size++] = item;
+                if (size == items.length) {
+                    w = Math.exp(Math.log(open(random)) / size);
+                    nextSkip();
+                }
+                return true;
+            }
+            if (skip > 0) {
+                skip--;
+                return false;
+            }
+            items[random.nextInt(size)] = item;
+            w *= Math.exp(Math.log(open(random)) / size);
+            nextSkip();
+            return true;
+        }
+
+        private void nextSkip() {
+            skip = Math.floor(Math.log(open(random)) / Math.log(1 - w));
+        }
+
+        /**
+         * @return the number of elements offered so far
+         */
+        public int count() {
+            return count;
+        }
+
+        /**
+         * @return the number of elements in the sample, the minimum of the count and of the capacity
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Return an element of the sample.
+         * 
+         * @param index
+         *            the index of the element, lower than {@link #size()}
+         * @return the element
+         */
+        @SuppressWarnings("unchecked")
+        public T get(final int index) {
+            if (index >= size) {
+                throw new IndexOutOfBoundsException("index " + index + " >= size " + size);
+            }
+            return (T) items[index];
+        }
+
+        /**
+         * Empty the sample.
+         */
+        public void clear() {
+            Arrays.fill(items, null);
+            count = 0;
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,608 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.arrays;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.typedarrays.client.Float64ArrayNative;
+import com.google.gwt.typedarrays.shared.Float64Array;
+
+/**
+ * Statistics over primitive arrays and {@link Float64Array}s, computed in Java.
+ * <p>
+ * Unlike {@link com.github.gwtd3.api.D3#max(JavaScriptObject)} and the other d3 array functions, these methods read
+ * the values directly, without an accessor callback or a {@link com.github.gwtd3.api.core.Value} per element. As in
+ * d3, NaN values are ignored, and the statistics of no value are NaN (or 0 for the sum). The aggregates are computed
+ * in a single pass; {@link #median(double[])} and {@link #quantileOf(double[], double)} use a selection on a copy of
+ * the values instead of sorting them.
+ * <p>
+ * {@link #column(JavaScriptObject, String)} extracts a numeric column of an array of objects, such as parsed DSV rows,
+ * into a {@link Float64Array}, once, to compute several statistics on it.
+ * <p>
+ * The methods over double arrays do not depend on the browser.
+ */
+public class Stats {
+
+    private Stats() {
+    }
+
+    // ============== bisection ==============
+
+    /**
+     * Return the insertion point of x in the sorted array, before any value equal to x.
+     * 
+     * @param sorted
+     *            the values, in increasing order
+     * @param x
+     *            the value to insert
+     * @return the index i such that all the values before i are lower than x, and all the values from i are greater
+     *         than or equal to x
+     */
+    public static int bisectLeft(final double[] sorted, final double x) {
+        return bisectLeft(sorted, x, 0, sorted.length);
+    }
+
+    /**
+     * Return the insertion point of x in the sorted range of the array, before any value equal to x.
+     * 
+     * @param sorted
+     *            the values, in increasing order between lo and hi
+     * @param x
+     *            the value to insert
+     * @param lo
+     *            the first index of the range, inclusive
+     * @param hi
+     *            the last index of the range, exclusive
+     * @return the insertion point, between lo and hi
+     */
+    public static int bisectLeft(final double[] sorted, final double x, final int lo, final int hi) {
+        int a = lo;
+        int b = hi;
+        while (a < b) {
+            int mid = (a + b) >>> 1;
+            if (sorted[mid] < x) {
+                a = mid + 1;
+            } else {
+                b = mid;
+            }
+        }
+        return a;
+    }
+
+    /**
+     * Return the insertion point of x in the sorted array, after any value equal to x.
+     * 
+     * @param sorted
+     *            the values, in increasing order
+     * @param x
+     *            the value to insert
+     * @return the index i such that all the values before i are lower than or equal to x, and all the values from i
+     *         are greater than x
+     */
+    public static int bisectRight(final double[] sorted, final double x) {
+        return bisectRight(sorted, x, 0, sorted.length);
+    }
+
+    /**
+     * Return the insertion point of x in the sorted range of the array, after any value equal to x.
+     * 
+     * @param sorted
+     *            the values, in increasing order between lo and hi
+     * @param x
+     *            the value to insert
+     * @param lo
+     *            the first index of the range, inclusive
+     * @param hi
+     *            the last index of the range, exclusive
+     * @return the insertion point, between lo and hi
+     */
+    public static int bisectRight(final double[] sorted, final double x, final int lo, final int hi) {
+        int a = lo;
+        int b = hi;
+        while (a < b) {
+            int mid = (a + b) >>> 1;
+            if (x < sorted[mid]) {
+                b = mid;
+            } else {
+                a = mid + 1;
+            }
+        }
+        return a;
+    }
+
+    /**
+     * See {@link #bisectLeft(double[], double)}.
+     * 
+     * @param sorted
+     *            the values, in increasing order
+     * @param x
+     *            the value to insert
+     * @return the insertion point
+     */
+    public static int bisectLeft(final Float64Array sorted, final double x) {
+        int a = 0;
+        int b = sorted.length();
+        while (a < b) {
+            int mid = (a + b) >>> 1;
+            if (sorted.get(mid) < x) {
+                a = mid + 1;
+            } else {
+                b = mid;
+            }
+        }
+        return a;
+    }
+
+    /**
+     * See {@link #bisectRight(double[], double)}.
+     * 
+     * @param sorted
+     *            the values, in increasing order
+     * @param x
+     *            the value to insert
+     * @return the insertion point
+     */
+    public static int bisectRight(final Float64Array sorted, final double x) {
+        int a = 0;
+        int b = sorted.length();
+        while (a < b) {
+            int mid = (a + b) >>> 1;
+            if (x < sorted.get(mid)) {
+                b = mid;
+            } else {
+                a = mid + 1;
+            }
+        }
+        return a;
+    }
+
+    // ============== aggregates ==============
+
+    /**
+     * @param values
+     *            the values
+     * @return the sum of the values, ignoring NaN, or 0 if there is no value
+     */
+    public static double sum(final double[] values) {
+        double sum = 0;
+        for (double v : values) {
+            if (v == v) {
+                sum += v;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @param values
+     *            the values
+     * @return the sum of the values, ignoring NaN, or 0 if there is no value
+     */
+    public static double sum(final Float64Array values) {
+        double sum = 0;
+        for (int i = 0, n = values.length(); i < n; i++) {
+            double v = values.get(i);
+            if (v == v) {
+                sum += v;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @param values
+     *            the values
+     * @return the mean of the values, ignoring NaN, or NaN if there is no value
+     */
+    public static double mean(final double[] values) {
+        double sum = 0;
+        int count = 0;
+        for (double v : values) {
+            if (v == v) {
+                sum += v;
+                count++;
+            }
+        }
+        return count > 0 ? sum / count : Double.NaN;
+    }
+
+    /**
+     * @param values
+     *            the values
+     * @return the mean of the values, ignoring NaN, or NaN if there is no value
+     */
+    public static double mean(final Float64Array values) {
+        double sum = 0;
+        int count = 0;
+        for (int i = 0, n = values.length(); i < n; i++) {
+            double v = values.get(i);
+            if (v == v) {
+                sum += v;
+                count++;
+            }
+        }
+        return count > 0 ? sum / count : Double.NaN;
+    }
+
+    /**
+     * Return the unbiased estimator of the population variance of the values, computed in one pass with Welford's
+     * algorithm.
+     * 
+     * @param values
+     *            the values
+     * @return the variance of the values, ignoring NaN, or NaN if there are less than 2 values
+     */
+    public static double variance(final double[] values) {
+        double mean = 0;
+        double m2 = 0;
+        int count = 0;
+        for (double v : values) {
+            if (v == v) {
+                count++;
+                double delta = v - mean;
+                mean += delta / count;
+                m2 += delta * (v - mean);
+            }
+        }
+        return count > 1 ? m2 / (count - 1) : Double.NaN;
+    }
+
+    /**
+     * See {@link #variance(double[])}.
+     * 
+     * @param values
+     *            the values
+     * @return the variance of the values, ignoring NaN, or NaN if there are less than 2 values
+     */
+    public static double variance(final Float64Array values) {
+        double mean = 0;
+        double m2 = 0;
+        int count = 0;
+        for (int i = 0, n = values.length(); i < n; i++) {
+            double v = values.get(i);
+            if (v == v) {
+                count++;
+                double delta = v - mean;
+                mean += delta / count;
+                m2 += delta * (v - mean);
+            }
+        }
+        return count > 1 ? m2 / (count - 1) : Double.NaN;
+    }
+
+    /**
+     * @param values
+     *            the values
+     * @return the standard deviation of the values, the square root of {@link #variance(double[])}
+     */
+    public static double deviation(final double[] values) {
+        return Math.sqrt(variance(values));
+    }
+
+    /**
+     * @param values
+     *            the values
+     * @return the standard deviation of the values, the square root of {@link #variance(Float64Array)}
+     */
+    public static double deviation(final Float64Array values) {
+        return Math.sqrt(variance(values));
+    }
+
+    /**
+     * @param values
+     *            the values
+     * @return the minimum of the values, ignoring NaN, or NaN if there is no value
+     */
+    public static double min(final double[] values) {
+        double min = Double.NaN;
+        for (double v : values) {
+            if (v < min || (min != min && v == v)) {
+                min = v;
+            }
+        }
+        return min;
+    }
+
+    /**
+     * @param values
+     *            the values
+     * @return the maximum of the values, ignoring NaN, or NaN if there is no value
+     */
+    public static double max(final double[] values) {
+        double max = Double.NaN;
+        for (double v : values) {
+            if (v > max || (max != max && v == v)) {
+                max = v;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Compute the minimum and the maximum of the values, in one pass.
+     * 
+     * @param values
+     *            the values
+     * @param out
+     *            an array of 2 elements receiving the minimum and the maximum, or null to allocate it
+     * @return the array of the minimum and the maximum, ignoring NaN, both NaN if there is no value
+     */
+    public static double[] extent(final double[] values, final double[] out) {
+        double min = Double.NaN;
+        double max = Double.NaN;
+        for (double v : values) {
+            if (v == v) {
+                if (min != min) {
+                    min = v;
+                    max = v;
+                } else if (v < min) {
+                    min = v;
+                } else if (v > max) {
+                    max = v;
+                }
+            }
+        }
+        return pair(out, min, max);
+    }
+
+    /**
+     * See {@link #extent(double[], double[])}.
+     * 
+     * @param values
+     *            the values
+     * @param out
+     *            an array of 2 elements receiving the minimum and the maximum, or null to allocate it
+     * @return the array of the minimum and the maximum, ignoring NaN, both NaN if there is no value
+     */
+    public static double[] extent(final Float64Array values, final double[] out) {
+        double min = Double.NaN;
+        double max = Double.NaN;
+        for (int i = 0, n = values.length(); i < n; i++) {
+            double v = values.get(i);
+            if (v == v) {
+                if (min != min) {
+                    min = v;
+                    max = v;
+                } else if (v < min) {
+                    min = v;
+                } else if (v > max) {
+                    max = v;
+                }
+            }
+        }
+        return pair(out, min, max);
+    }
+
+    private static double[] pair(final double[] out, final double a, final double b) {
+        double[] result = out != null ? out : new double[2];
+        result[0] = a;
+        result[1] = b;
+        return result;
+    }
+
+    // ============== quantiles ==============
+
+    /**
+     * Return the p-quantile of the sorted values, interpolating between the two nearest values as d3.quantile does.
+     * 
+     * @param sorted
+     *            the values, in increasing order, without NaN
+     * @param p
+     *            the quantile, in [0, 1]
+     * @return the quantile, or NaN if there is no value
+     */
+    public static double quantile(final double[] sorted, final double p) {
+        int n = sorted.length;
+        if (n == 0) {
+            return Double.NaN;
+        }
+        double h = (n - 1) * p;
+        int i = (int) Math.floor(h);
+        double e = h - i;
+        return e != 0 ? sorted[i] + e * (sorted[i + 1] - sorted[i]) : sorted[i];
+    }
+
+    /**
+     * See {@link #quantile(double[], double)}.
+     * 
+     * @param sorted
+     *            the values, in increasing order, without NaN
+     * @param p
+     *            the quantile, in [0, 1]
+     * @return the quantile, or NaN if there is no value
+     */
+    public static double quantile(final Float64Array sorted, final double p) {
+        int n = sorted.length();
+        if (n == 0) {
+            return Double.NaN;
+        }
+        double h = (n - 1) * p;
+        int i = (int) Math.floor(h);
+        double e = h - i;
+        double v = sorted.get(i);
+        return e != 0 ? v + e * (sorted.get(i + 1) - v) : v;
+    }
+
+    /**
+     * Return the p-quantile of unsorted values, as {@link #quantile(double[], double)} would return for the sorted
+     * values. The values are not modified: the quantile is selected in a copy, in linear time on average.
+     * 
+     * @param values
+     *            the values
+     * @param p
+     *            the quantile, in [0, 1]
+     * @return the quantile, ignoring NaN, or NaN if there is no value
+     */
+    public static double quantileOf(final double[] values, final double p) {
+        double[] copy = new double[values.length];
+        int n = 0;
+        for (double v : values) {
+            if (v == v) {
+                copy[n++] = v;
+            }
+        }
+        return select(copy, n, p);
+    }
+
+    /**
+     * See {@link #quantileOf(double[], double)}.
+     * 
+     * @param values
+     *            the values
+     * @param p
+     *            the quantile, in [0, 1]
+     * @return the quantile, ignoring NaN, or NaN if there is no value
+     */
+    public static double quantileOf(final Float64Array values, final double p) {
+        double[] copy = new double[values.length()];
+        int n = 0;
+        for (int i = 0; i < copy.length; i++) {
+            double v = values.get(i);
+            if (v == v) {
+                copy[n++] = v;
+            }
+        }
+        return select(copy, n, p);
+    }
+
+    /**
+     * @param values
+     *            the values
+     * @return the median of the values, ignoring NaN, or NaN if there is no value
+     */
+    public static double median(final double[] values) {
+        return quantileOf(values, 0.5);
+    }
+
+    /**
+     * @param values
+     *            the values
+     * @return the median of the values, ignoring NaN, or NaN if there is no value
+     */
+    public static double median(final Float64Array values) {
+        return quantileOf(values, 0.5);
+    }
+
+    /**
+     * the p-quantile of the n first values of the array, which is reordered
+     */
+    private static double select(final double[] a, final int n, final double p) {
+        if (n == 0) {
+            return Double.NaN;
+        }
+        double h = (n - 1) * p;
+        int i = (int) Math.floor(h);
+        double e = h - i;
+        double v = select(a, n, i);
+        if (e == 0) {
+            return v;
+        }
+        // the next value is the minimum of the values after i
+        double next = a[i + 1];
+        for (int k = i + 2; k < n; k++) {
+            if (a[k] < next) {
+                next = a[k];
+            }
+        }
+        return v + e * (next - v);
+    }
+
+    /**
+     * Hoare's selection: reorder the n first values so that a[k] is the k-th smallest value, the values before being
+     * smaller or equal and the values after greater or equal
+     */
+    private static double select(final double[] a, final int n, final int k) {
+        int lo = 0;
+        int hi = n - 1;
+        while (hi > lo) {
+            // median of three pivot
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < a[lo]) {
+                swap(a, mid, lo);
+            }
+            if (a[hi] < a[lo]) {
+                swap(a, hi, lo);
+            }
+            if (a[hi] < a[mid]) {
+                swap(a, hi, mid);
+            }
+            double pivot = a[mid];
+            int i = lo;
+            int j = hi;
+            while (i <= j) {
+                while (a[i] < pivot) {
+                    i++;
+                }
+                while (a[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(a, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                hi = j;
+            } else if (k >= i) {
+                lo = i;
+            } else {
+                break;
+            }
+        }
+        return a[k];
+    }
+
+    private static void swap(final double[] a, final int i, final int j) {
+        double t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    // ============== columns ==============
+
+    /**
+     * Extract a numeric column of an array of objects, such as the {@link com.github.gwtd3.api.dsv.DsvRows} of a
+     * parsed file, into a typed array, converting each value to a number once; a missing or non numeric value gives
+     * NaN, which is ignored by the statistics.
+     * 
+     * @param rows
+     *            the array of objects
+     * @param field
+     *            the name of the field
+     * @return the values of the field
+     */
+    public static final native Float64ArrayNative column(JavaScriptObject rows, String field) /*-{
+        var n = rows.length, out = new Float64Array(n);
+        for ( var i = 0; i < n; i++) {
+            var v = rows[i][field];
+            out[i] = v == null || v === "" ? NaN : +v;
+        }
+        return out;
+    }-*/;
+}
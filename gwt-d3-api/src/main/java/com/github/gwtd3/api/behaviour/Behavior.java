@@ -55,4 +55,14 @@ public final native Drag drag()/*-{
 		return this.drag();
 	}-*/;
 
+	/**
+	 * Create a new {@link Zoom} behavior, that you will configure and apply to
+	 * a {@link Selection}.
+	 * 
+	 * @return the zoom behaviour
+	 */
+	public final native Zoom zoom()/*-{
+		return this.zoom();
+	}-*/;
+
 }
@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.behaviour;
+
+import com.github.gwtd3.api.core.Selection;
+import com.google.gwt.user.client.Timer;
+
+/**
+ * Applies the gestures of a {@link Zoom} as a single transform of a
+ * container, and renders the chart again only once the gesture settles.
+ * <p>
+ * Rendering a chart again for each wheel or move event is often too slow to
+ * follow the gesture. During the gesture, the fast zoom only sets the
+ * transform attribute of the container, relatively to the state of the last
+ * rendering: the content is scaled and moved as a picture. When no zoom event
+ * has been received for {@link #delay(int)} milliseconds, the
+ * {@link Renderer} is called to render the content for the new scale and
+ * translation (for instance with the scales given to {@link Zoom#x} and
+ * {@link Zoom#y}, whose domains have been updated), and the transform is
+ * removed:
+ * 
+ * <pre>
+ * {@code
+ * Zoom zoom = D3.behavior().zoom().x(x).y(y);
+ * new FastZoom(zoom, plot, new FastZoom.Renderer() {
+ *     public void render(Zoom zoom) {
+ *         circles.attr("cx", cx).attr("cy", cy);
+ *     }
+ * });
+ * svg.call(zoom);
+ * }
+ * </pre>
+ * <p>
+ * The container must contain the rendered content only, for instance an
+ * svg:g element; its transform when the fast zoom is created is kept as the
+ * base of the transforms. The fast zoom registers its listener under the
+ * "fast" namespace, so that the other listeners of the zoom are kept.
+ */
+public class FastZoom {
+
+    /**
+     * Renders the content of the container for the current state of a zoom.
+     */
+    public static interface Renderer {
+        /**
+         * Render the content for the current scale and translation of the
+         * zoom.
+         * 
+         * @param zoom
+         *            the zoom
+         */
+        void render(Zoom zoom);
+    }
+
+    private final Zoom zoom;
+
+    private final Selection container;
+
+    private final Renderer renderer;
+
+    private final String base;
+
+    private int delay = 150;
+
+    private double renderedScale;
+
+    private double renderedX;
+
+    private double renderedY;
+
+    private int transforms;
+
+    private int renders;
+
+    private final Timer timer = new Timer() {
+        @Override
+        public void run() {
+            render();
+        }
+    };
+
+    /**
+     * Create a fast zoom.
+     * 
+     * @param zoom
+     *            the zoom behavior
+     * @param container
+     *            the element to transform during the gestures
+     * @param renderer
+     *            the renderer of the content of the container
+     */
+    public FastZoom(final Zoom zoom, final Selection container, final Renderer renderer) {
+        super();
+        this.zoom = zoom;
+        this.container = container;
+        this.renderer = renderer;
+        String transform = container.attr("transform");
+        this.base = transform == null ? "" : transform;
+        rendered();
+        listen(zoom);
+    }
+
+    /**
+     * Set the time without zoom event after which the content is rendered
+     * again. Defaults to 150 milliseconds.
+     * 
+     * @param millis
+     *            the delay
+     * @return the current fast zoom
+     */
+    public FastZoom delay(final int millis) {
+        this.delay = millis;
+        return this;
+    }
+
+    /**
+     * Render the content now for the current state of the zoom, and cancel
+     * the pending rendering.
+     */
+    public void render() {
+        timer.cancel();
+        renders++;
+        renderer.render(zoom);
+        container.attr("transform", base.length() == 0 ? null : base);
+        rendered();
+    }
+
+    /**
+     * @return the number of transforms applied since the creation
+     */
+    public int transforms() {
+        return transforms;
+    }
+
+    /**
+     * @return the number of renderings since the creation
+     */
+    public int renders() {
+        return renders;
+    }
+
+    /**
+     * apply the zoom as a transform relative to the last rendering, and
+     * postpone the rendering
+     */
+    private void onZoom() {
+        double scale = zoom.scale();
+        double k = scale / renderedScale;
+        double x = zoom.translateX() - renderedX * k;
+        double y = zoom.translateY() - renderedY * k;
+        transforms++;
+        container.attr("transform", base + "translate(" + x + "," + y + ")scale(" + k + ")");
+        timer.schedule(delay);
+    }
+
+    private void rendered() {
+        renderedScale = zoom.scale();
+        renderedX = zoom.translateX();
+        renderedY = zoom.translateY();
+    }
+
+    private native void listen(Zoom zoom)/*-{
+		var self = this;
+		zoom.on("zoom.fast", function() {
+			self.@com.github.gwtd3.api.behaviour.FastZoom::onZoom()();
+		});
+    }-*/;
+}
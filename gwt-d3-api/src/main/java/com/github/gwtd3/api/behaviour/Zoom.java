@@ -0,0 +1,184 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.behaviour;
+
+import com.github.gwtd3.api.IsFunction;
+import com.github.gwtd3.api.functions.DatumFunction;
+import com.github.gwtd3.api.scales.Scale;
+import com.google.gwt.core.client.JavaScriptObject;
+
+/**
+ * This behavior automatically creates event listeners to handle zooming and
+ * panning gestures on an element: the mouse wheel, the double-click, the
+ * drag to pan and the touch gestures are supported.
+ * <p>
+ * The behavior does not change the elements: it maintains a scale and a
+ * translation, and the listeners of {@link ZoomEventType#zoom} apply them,
+ * for instance as the transform of a group. The domains of the scales given
+ * to {@link #x(Scale)} and {@link #y(Scale)} are also updated.
+ * <p>
+ * Usage:
+ * 
+ * <pre>
+ * {
+ *     &#064;code
+ *     Zoom zoom = D3.behavior().zoom().scaleExtent(1, 8).on(ZoomEventType.zoom, new MyZoomListener());
+ *     svg.call(zoom);
+ * }
+ * </pre>
+ * <p>
+ * See {@link FastZoom} to apply the gesture as a single transform and render
+ * the chart again only once the gesture is over.
+ */
+public class Zoom extends JavaScriptObject implements IsFunction {
+
+    protected Zoom() {
+
+    }
+
+    /**
+     * Type of zoom event to listen to. The zoomstart and zoomend events need
+     * d3 3.3 or later.
+     */
+    public static enum ZoomEventType {
+        /**
+         * Fired at the start of a gesture
+         */
+        zoomstart,
+        /**
+         * Fired when the scale or the translation changes
+         */
+        zoom,
+        /**
+         * Fired at the end of a gesture
+         */
+        zoomend;
+    }
+
+    /**
+     * Registers the specified listener to receive events of the specified
+     * type from the zoom behavior.
+     * 
+     * @param type
+     *            the type of event
+     * @param listener
+     *            the listener, or null to remove the current listener
+     * @return the current zoom
+     */
+    public final native Zoom on(ZoomEventType type, DatumFunction<Void> listener)/*-{
+		var l = listener == null ? null : function(d, index) {
+			listener.@com.github.gwtd3.api.functions.DatumFunction::apply(Lcom/google/gwt/dom/client/Element;Lcom/github/gwtd3/api/core/Value;I)(this,{datum:d},index);
+		};
+		return this.on(type.@com.github.gwtd3.api.behaviour.Zoom.ZoomEventType::name()(), l);
+    }-*/;
+
+    /**
+     * @return the current scale factor, 1 by default
+     */
+    public final native double scale()/*-{
+		return this.scale();
+    }-*/;
+
+    /**
+     * Sets the current scale factor.
+     * 
+     * @param scale
+     *            the scale factor
+     * @return the current zoom
+     */
+    public final native Zoom scale(double scale)/*-{
+		return this.scale(scale);
+    }-*/;
+
+    /**
+     * @return the current horizontal translation, 0 by default
+     */
+    public final native double translateX()/*-{
+		return this.translate()[0];
+    }-*/;
+
+    /**
+     * @return the current vertical translation, 0 by default
+     */
+    public final native double translateY()/*-{
+		return this.translate()[1];
+    }-*/;
+
+    /**
+     * Sets the current translation.
+     * 
+     * @param x
+     *            the horizontal translation
+     * @param y
+     *            the vertical translation
+     * @return the current zoom
+     */
+    public final native Zoom translate(double x, double y)/*-{
+		return this.translate([ x, y ]);
+    }-*/;
+
+    /**
+     * Sets the allowed range of the scale factor, [0, Infinity] by default.
+     * 
+     * @param min
+     *            the minimum scale factor
+     * @param max
+     *            the maximum scale factor
+     * @return the current zoom
+     */
+    public final native Zoom scaleExtent(double min, double max)/*-{
+		return this.scaleExtent([ min, max ]);
+    }-*/;
+
+    /**
+     * Sets the scale whose domain is updated when zooming horizontally. The
+     * domain of the scale must not be modified otherwise, or the scale must be
+     * given again.
+     * 
+     * @param scale
+     *            the scale
+     * @return the current zoom
+     */
+    public final native Zoom x(Scale<?> scale)/*-{
+		return this.x(scale);
+    }-*/;
+
+    /**
+     * Sets the scale whose domain is updated when zooming vertically. The
+     * domain of the scale must not be modified otherwise, or the scale must be
+     * given again.
+     * 
+     * @param scale
+     *            the scale
+     * @return the current zoom
+     */
+    public final native Zoom y(Scale<?> scale)/*-{
+		return this.y(scale);
+    }-*/;
+}
@@ -0,0 +1,640 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.core;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.github.gwtd3.api.D3;
+import com.github.gwtd3.api.Scales;
+
+/**
+ * Static color functions working on colors packed in a single int, with the
+ * red, green, blue and alpha channels laid out as 0xRRGGBBAA.
+ * <p>
+ * Unlike {@link RGBColor} and {@link HSLColor}, which are Javascript objects
+ * created by {@link D3#rgb(String)} and {@link D3#hsl(String)}, the methods of
+ * this class do not allocate any object (except when explicitly formatting a
+ * new color as a String), and are pure Java code, so they can also be used
+ * outside of the browser.
+ * <p>
+ * The conversions between the RGB, HSL and Lab color spaces follow the ones
+ * of D3. The methods returning the components of a color in another color
+ * space write them into an array given by the caller, so the same array can
+ * be reused for all the points of a chart.
+ */
+public final class Colors {
+
+	/**
+	 * The opaque black color.
+	 */
+	public static final int BLACK = 0x000000ff;
+
+	/**
+	 * The opaque white color.
+	 */
+	public static final int WHITE = 0xffffffff;
+
+	/**
+	 * The fully transparent color.
+	 */
+	public static final int TRANSPARENT = 0;
+
+	private static final double LAB_X = .950470;
+
+	private static final double LAB_Y = 1;
+
+	private static final double LAB_Z = 1.088830;
+
+	private static final int CACHE_SIZE = 1024;
+
+	private static final CacheEntry[] CACHE = new CacheEntry[CACHE_SIZE];
+
+	private static Map<String, Integer> names;
+
+	private Colors() {
+	}
+
+	// ============== packing methods ==============
+
+	/**
+	 * Pack the given channels into an opaque color.
+	 * <p>
+	 * The channels are clamped to [0;255].
+	 * 
+	 * @param r
+	 *            the red channel
+	 * @param g
+	 *            the green channel
+	 * @param b
+	 *            the blue channel
+	 * @return the packed color
+	 */
+	public static int rgb(final int r, final int g, final int b) {
+		return rgba(r, g, b, 255);
+	}
+
+	/**
+	 * Pack the given channels into a color.
+	 * <p>
+	 * The channels are clamped to [0;255].
+	 * 
+	 * @param r
+	 *            the red channel
+	 * @param g
+	 *            the green channel
+	 * @param b
+	 *            the blue channel
+	 * @param a
+	 *            the alpha channel
+	 * @return the packed color
+	 */
+	public static int rgba(final int r, final int g, final int b, final int a) {
+		return (clamp(r) << 24) | (clamp(g) << 16) | (clamp(b) << 8) | clamp(a);
+	}
+
+	/**
+	 * @param rgba
+	 *            the packed color
+	 * @return the red channel in the range [0;255]
+	 */
+	public static int red(final int rgba) {
+		return rgba >>> 24;
+	}
+
+	/**
+	 * @param rgba
+	 *            the packed color
+	 * @return the green channel in the range [0;255]
+	 */
+	public static int green(final int rgba) {
+		return (rgba >>> 16) & 0xff;
+	}
+
+	/**
+	 * @param rgba
+	 *            the packed color
+	 * @return the blue channel in the range [0;255]
+	 */
+	public static int blue(final int rgba) {
+		return (rgba >>> 8) & 0xff;
+	}
+
+	/**
+	 * @param rgba
+	 *            the packed color
+	 * @return the alpha channel in the range [0;255]
+	 */
+	public static int alpha(final int rgba) {
+		return rgba & 0xff;
+	}
+
+	/**
+	 * Return the same color with another alpha channel.
+	 * 
+	 * @param rgba
+	 *            the packed color
+	 * @param a
+	 *            the new alpha channel in the range [0;255]
+	 * @return the new packed color
+	 */
+	public static int withAlpha(final int rgba, final int a) {
+		return (rgba & 0xffffff00) | clamp(a);
+	}
+
+	private static int clamp(final int c) {
+		return c < 0 ? 0 : c > 255 ? 255 : c;
+	}
+
+	// ============== parsing ==============
+
+	/**
+	 * Parse the given CSS color. The color string may be in a variety of
+	 * formats:
+	 * <ul>
+	 * <li>rgb decimal - "rgb(255,255,255)" or "rgb(100%,50%,0%)"
+	 * <li>rgba decimal - "rgba(255,255,255,0.5)"
+	 * <li>hsl decimal - "hsl(120,50%,20%)"
+	 * <li>rgb hexadecimal - "#ffeeaa"
+	 * <li>rgb shorthand hexadecimal - "#fea"
+	 * <li>named - "red", "white", "blue", "transparent"
+	 * </ul>
+	 * 
+	 * @param color
+	 *            the color string representation
+	 * @return the packed color
+	 * @throws IllegalArgumentException
+	 *             if the color cannot be parsed
+	 */
+	public static int parse(final String color) {
+		String s = color.trim().toLowerCase();
+		try {
+			if (s.startsWith("#")) {
+				return parseHex(s);
+			}
+			int open = s.indexOf('(');
+			if ((open > 0) && s.endsWith(")")) {
+				String[] args = s.substring(open + 1, s.length() - 1).split(",");
+				String fn = s.substring(0, open).trim();
+				if ("rgb".equals(fn) && (args.length == 3)) {
+					return rgb(parseChannel(args[0]), parseChannel(args[1]), parseChannel(args[2]));
+				}
+				if ("rgba".equals(fn) && (args.length == 4)) {
+					return rgba(parseChannel(args[0]), parseChannel(args[1]), parseChannel(args[2]),
+							(int) Math.round(Double.parseDouble(args[3].trim()) * 255));
+				}
+				if ("hsl".equals(fn) && (args.length == 3)) {
+					return hsl(Double.parseDouble(args[0].trim()), parsePercent(args[1]), parsePercent(args[2]));
+				}
+			}
+			Integer named = names().get(s);
+			if (named != null) {
+				return named.intValue();
+			}
+		} catch (NumberFormatException e) {
+			// handled below
+		}
+		throw new IllegalArgumentException("cannot parse the color " + color);
+	}
+
+	private static int parseHex(final String s) {
+		if (s.length() == 7) {
+			return (Integer.parseInt(s.substring(1), 16) << 8) | 0xff;
+		}
+		if (s.length() == 4) {
+			int r = Character.digit(s.charAt(1), 16);
+			int g = Character.digit(s.charAt(2), 16);
+			int b = Character.digit(s.charAt(3), 16);
+			if ((r >= 0) && (g >= 0) && (b >= 0)) {
+				return rgb(r * 17, g * 17, b * 17);
+			}
+		}
+		throw new NumberFormatException(s);
+	}
+
+	private static int parseChannel(final String arg) {
+		String s = arg.trim();
+		if (s.endsWith("%")) {
+			return (int) Math.round(Double.parseDouble(s.substring(0, s.length() - 1)) * 2.55);
+		}
+		return (int) Math.round(Double.parseDouble(s));
+	}
+
+	private static double parsePercent(final String arg) {
+		String s = arg.trim();
+		if (s.endsWith("%")) {
+			s = s.substring(0, s.length() - 1);
+		}
+		return Double.parseDouble(s) / 100;
+	}
+
+	// ============== formatting ==============
+
+	/**
+	 * Format the given color as a CSS string: "#rrggbb" for opaque colors, and
+	 * "rgba(r,g,b,a)" for the others.
+	 * <p>
+	 * The last formatted colors are kept in a small cache, so that formatting
+	 * the same colors again and again, such as the colors of a categorical
+	 * palette, returns the same String instances.
+	 * 
+	 * @param rgba
+	 *            the packed color
+	 * @return the CSS string
+	 */
+	public static String format(final int rgba) {
+		int slot = (rgba ^ (rgba >>> 10) ^ (rgba >>> 20)) & (CACHE_SIZE - 1);
+		CacheEntry entry = CACHE[slot];
+		if ((entry != null) && (entry.rgba == rgba)) {
+			return entry.css;
+		}
+		String css = alpha(rgba) == 255 ? toHexString(rgba) : toRgbaString(rgba);
+		CACHE[slot] = new CacheEntry(rgba, css);
+		return css;
+	}
+
+	/**
+	 * Format the RGB channels of the given color as a "#rrggbb" string,
+	 * ignoring the alpha channel.
+	 * 
+	 * @param rgba
+	 *            the packed color
+	 * @return the hexadecimal string
+	 */
+	public static String toHexString(final int rgba) {
+		return "#" + Integer.toHexString((rgba >>> 8) | 0x1000000).substring(1);
+	}
+
+	private static String toRgbaString(final int rgba) {
+		StringBuilder sb = new StringBuilder(24);
+		sb.append("rgba(").append(red(rgba)).append(',').append(green(rgba)).append(',').append(blue(rgba)).append(',');
+		int thousandths = (int) Math.round((alpha(rgba) * 1000) / 255.0);
+		if (thousandths == 0) {
+			sb.append('0');
+		}
+		else {
+			String digits = Integer.toString(1000 + thousandths).substring(1);
+			int end = digits.length();
+			while (digits.charAt(end - 1) == '0') {
+				end--;
+			}
+			sb.append("0.").append(digits.substring(0, end));
+		}
+		return sb.append(')').toString();
+	}
+
+	private static class CacheEntry {
+		private final int rgba;
+		private final String css;
+
+		CacheEntry(final int rgba, final String css) {
+			this.rgba = rgba;
+			this.css = css;
+		}
+	}
+
+	// ============== HSL ==============
+
+	/**
+	 * Create a color from the given hue, saturation and lightness.
+	 * 
+	 * @param h
+	 *            the hue in degrees
+	 * @param s
+	 *            the saturation in the range [0;1]
+	 * @param l
+	 *            the lightness in the range [0;1]
+	 * @return the packed opaque color
+	 */
+	public static int hsl(double h, double s, double l) {
+		h = h % 360;
+		if (h < 0) {
+			h += 360;
+		}
+		s = s < 0 ? 0 : s > 1 ? 1 : s;
+		l = l < 0 ? 0 : l > 1 ? 1 : l;
+		double m2 = l <= .5 ? l * (1 + s) : (l + s) - (l * s);
+		double m1 = (2 * l) - m2;
+		return rgb(hslChannel(m1, m2, h + 120), hslChannel(m1, m2, h), hslChannel(m1, m2, h - 120));
+	}
+
+	private static int hslChannel(final double m1, final double m2, double h) {
+		if (h > 360) {
+			h -= 360;
+		}
+		else if (h < 0) {
+			h += 360;
+		}
+		double v;
+		if (h < 60) {
+			v = m1 + (((m2 - m1) * h) / 60);
+		}
+		else if (h < 180) {
+			v = m2;
+		}
+		else if (h < 240) {
+			v = m1 + (((m2 - m1) * (240 - h)) / 60);
+		}
+		else {
+			v = m1;
+		}
+		return (int) Math.round(v * 255);
+	}
+
+	/**
+	 * Convert the given color to the HSL color space.
+	 * 
+	 * @param rgba
+	 *            the packed color
+	 * @param hsl
+	 *            the array receiving the hue in [0;360[, the saturation and
+	 *            the lightness in [0;1], or null to allocate a new array
+	 * @return the hsl array
+	 */
+	public static double[] toHsl(final int rgba, double[] hsl) {
+		if (hsl == null) {
+			hsl = new double[3];
+		}
+		double r = red(rgba) / 255.0;
+		double g = green(rgba) / 255.0;
+		double b = blue(rgba) / 255.0;
+		double min = Math.min(r, Math.min(g, b));
+		double max = Math.max(r, Math.max(g, b));
+		double d = max - min;
+		double l = (max + min) / 2;
+		double h = 0;
+		double s = 0;
+		if (d != 0) {
+			s = l < .5 ? d / (max + min) : d / (2 - max - min);
+			if (r == max) {
+				h = ((g - b) / d) + (g < b ? 6 : 0);
+			}
+			else if (g == max) {
+				h = ((b - r) / d) + 2;
+			}
+			else {
+				h = ((r - g) / d) + 4;
+			}
+			h *= 60;
+		}
+		hsl[0] = h;
+		hsl[1] = s;
+		hsl[2] = l;
+		return hsl;
+	}
+
+	// ============== Lab ==============
+
+	/**
+	 * Create a color from the given CIE L*a*b* components.
+	 * <p>
+	 * Out of gamut colors are clamped to the RGB color space.
+	 * 
+	 * @param l
+	 *            the lightness
+	 * @param a
+	 *            the a component
+	 * @param b
+	 *            the b component
+	 * @return the packed opaque color
+	 */
+	public static int lab(final double l, final double a, final double b) {
+		double y = (l + 16) / 116;
+		double x = y + (a / 500);
+		double z = y - (b / 200);
+		x = labXyz(x) * LAB_X;
+		y = labXyz(y) * LAB_Y;
+		z = labXyz(z) * LAB_Z;
+		return rgb(xyzRgb((3.2404542 * x) - (1.5371385 * y) - (.4985314 * z)),
+				xyzRgb((-.969266 * x) + (1.8760108 * y) + (.041556 * z)),
+				xyzRgb(((.0556434 * x) - (.2040259 * y)) + (1.0572252 * z)));
+	}
+
+	/**
+	 * Convert the given color to the CIE L*a*b* color space.
+	 * 
+	 * @param rgba
+	 *            the packed color
+	 * @param lab
+	 *            the array receiving the l, a and b components, or null to
+	 *            allocate a new array
+	 * @return the lab array
+	 */
+	public static double[] toLab(final int rgba, double[] lab) {
+		if (lab == null) {
+			lab = new double[3];
+		}
+		double r = rgbXyz(red(rgba));
+		double g = rgbXyz(green(rgba));
+		double b = rgbXyz(blue(rgba));
+		double x = xyzLab(((.4124564 * r) + (.3575761 * g) + (.1804375 * b)) / LAB_X);
+		double y = xyzLab(((.2126729 * r) + (.7151522 * g) + (.072175 * b)) / LAB_Y);
+		double z = xyzLab(((.0193339 * r) + (.119192 * g) + (.9503041 * b)) / LAB_Z);
+		lab[0] = (116 * y) - 16;
+		lab[1] = 500 * (x - y);
+		lab[2] = 200 * (y - z);
+		return lab;
+	}
+
+	private static double rgbXyz(final int c) {
+		double r = c / 255.0;
+		return r <= .04045 ? r / 12.92 : Math.pow((r + .055) / 1.055, 2.4);
+	}
+
+	private static double xyzLab(final double x) {
+		return x > .008856 ? Math.pow(x, 1.0 / 3) : (7.787037 * x) + (4.0 / 29);
+	}
+
+	private static double labXyz(final double x) {
+		return x > .206893034 ? x * x * x : (x - (4.0 / 29)) / 7.787037;
+	}
+
+	private static int xyzRgb(final double r) {
+		return (int) Math.round(255 * (r <= .00304 ? 12.92 * r : (1.055 * Math.pow(r, 1 / 2.4)) - .055));
+	}
+
+	// ============== manipulation ==============
+
+	/**
+	 * Returns a brighter copy of the given color, as {@link RGBColor#brighter(int)}
+	 * does: each channel is multiplied by 0.7 ^ -k.
+	 * 
+	 * @param rgba
+	 *            the packed color
+	 * @param k
+	 *            the gamma value
+	 * @return the brighter packed color
+	 */
+	public static int brighter(final int rgba, final double k) {
+		double f = Math.pow(.7, k);
+		int r = red(rgba);
+		int g = green(rgba);
+		int b = blue(rgba);
+		int i = 30;
+		if ((r == 0) && (g == 0) && (b == 0)) {
+			return rgba(i, i, i, alpha(rgba));
+		}
+		if ((r != 0) && (r < i)) {
+			r = i;
+		}
+		if ((g != 0) && (g < i)) {
+			g = i;
+		}
+		if ((b != 0) && (b < i)) {
+			b = i;
+		}
+		return rgba((int) Math.floor(r / f), (int) Math.floor(g / f), (int) Math.floor(b / f), alpha(rgba));
+	}
+
+	/**
+	 * Returns a darker copy of the given color, as {@link RGBColor#darker(int)}
+	 * does: each channel is multiplied by 0.7 ^ k.
+	 * 
+	 * @param rgba
+	 *            the packed color
+	 * @param k
+	 *            the gamma value
+	 * @return the darker packed color
+	 */
+	public static int darker(final int rgba, final double k) {
+		double f = Math.pow(.7, k);
+		return rgba((int) Math.floor(f * red(rgba)), (int) Math.floor(f * green(rgba)), (int) Math.floor(f * blue(rgba)),
+				alpha(rgba));
+	}
+
+	/**
+	 * Interpolate the channels of the two colors in the RGB color space, the
+	 * same way as {@link D3#interpolateRgb(Color, Color)}.
+	 * 
+	 * @param a
+	 *            the start packed color
+	 * @param b
+	 *            the end packed color
+	 * @param t
+	 *            the parameter in [0;1]
+	 * @return the interpolated packed color
+	 */
+	public static int interpolateRgb(final int a, final int b, final double t) {
+		return rgba(lerp(red(a), red(b), t), lerp(green(a), green(b), t), lerp(blue(a), blue(b), t),
+				lerp(alpha(a), alpha(b), t));
+	}
+
+	private static int lerp(final int a, final int b, final double t) {
+		return (int) Math.round(a + ((b - a) * t));
+	}
+
+	// ============== palettes ==============
+
+	/**
+	 * @return the colors of {@link Scales#category10()}
+	 */
+	public static int[] category10() {
+		return palette(0x1f77b4, 0xff7f0e, 0x2ca02c, 0xd62728, 0x9467bd, 0x8c564b, 0xe377c2, 0x7f7f7f, 0xbcbd22, 0x17becf);
+	}
+
+	/**
+	 * @return the colors of {@link Scales#category20()}
+	 */
+	public static int[] category20() {
+		return palette(0x1f77b4, 0xaec7e8, 0xff7f0e, 0xffbb78, 0x2ca02c, 0x98df8a, 0xd62728, 0xff9896, 0x9467bd, 0xc5b0d5,
+				0x8c564b, 0xc49c94, 0xe377c2, 0xf7b6d2, 0x7f7f7f, 0xc7c7c7, 0xbcbd22, 0xdbdb8d, 0x17becf, 0x9edae5);
+	}
+
+	/**
+	 * @return the colors of {@link Scales#category20b()}
+	 */
+	public static int[] category20b() {
+		return palette(0x393b79, 0x5254a3, 0x6b6ecf, 0x9c9ede, 0x637939, 0x8ca252, 0xb5cf6b, 0xcedb9c, 0x8c6d31, 0xbd9e39,
+				0xe7ba52, 0xe7cb94, 0x843c39, 0xad494a, 0xd6616b, 0xe7969c, 0x7b4173, 0xa55194, 0xce6dbd, 0xde9ed6);
+	}
+
+	/**
+	 * @return the colors of {@link Scales#category20c()}
+	 */
+	public static int[] category20c() {
+		return palette(0x3182bd, 0x6baed6, 0x9ecae1, 0xc6dbef, 0xe6550d, 0xfd8d3c, 0xfdae6b, 0xfdd0a2, 0x31a354, 0x74c476,
+				0xa1d99b, 0xc7e9c0, 0x756bb1, 0x9e9ac8, 0xbcbddc, 0xdadaeb, 0x636363, 0x969696, 0xbdbdbd, 0xd9d9d9);
+	}
+
+	private static int[] palette(final int... rgb) {
+		for (int i = 0; i < rgb.length; i++) {
+			rgb[i] = (rgb[i] << 8) | 0xff;
+		}
+		return rgb;
+	}
+
+	// ============== named colors ==============
+
+	private static Map<String, Integer> names() {
+		if (names == null) {
+			String[] keys = { "aliceblue", "antiquewhite", "aqua", "aquamarine", "azure", "beige", "bisque", "black",
+					"blanchedalmond", "blue", "blueviolet", "brown", "burlywood", "cadetblue", "chartreuse", "chocolate",
+					"coral", "cornflowerblue", "cornsilk", "crimson", "cyan", "darkblue", "darkcyan", "darkgoldenrod",
+					"darkgray", "darkgreen", "darkgrey", "darkkhaki", "darkmagenta", "darkolivegreen", "darkorange",
+					"darkorchid", "darkred", "darksalmon", "darkseagreen", "darkslateblue", "darkslategray",
+					"darkslategrey", "darkturquoise", "darkviolet", "deeppink", "deepskyblue", "dimgray", "dimgrey",
+					"dodgerblue", "firebrick", "floralwhite", "forestgreen", "fuchsia", "gainsboro", "ghostwhite", "gold",
+					"goldenrod", "gray", "green", "greenyellow", "grey", "honeydew", "hotpink", "indianred", "indigo",
+					"ivory", "khaki", "lavender", "lavenderblush", "lawngreen", "lemonchiffon", "lightblue", "lightcoral",
+					"lightcyan", "lightgoldenrodyellow", "lightgray", "lightgreen", "lightgrey", "lightpink",
+					"lightsalmon", "lightseagreen", "lightskyblue", "lightslategray", "lightslategrey", "lightsteelblue",
+					"lightyellow", "lime", "limegreen", "linen", "magenta", "maroon", "mediumaquamarine", "mediumblue",
+					"mediumorchid", "mediumpurple", "mediumseagreen", "mediumslateblue", "mediumspringgreen",
+					"mediumturquoise", "mediumvioletred", "midnightblue", "mintcream", "mistyrose", "moccasin",
+					"navajowhite", "navy", "oldlace", "olive", "olivedrab", "orange", "orangered", "orchid",
+					"palegoldenrod", "palegreen", "paleturquoise", "palevioletred", "papayawhip", "peachpuff", "peru",
+					"pink", "plum", "powderblue", "purple", "red", "rosybrown", "royalblue", "saddlebrown", "salmon",
+					"sandybrown", "seagreen", "seashell", "sienna", "silver", "skyblue", "slateblue", "slategray",
+					"slategrey", "snow", "springgreen", "steelblue", "tan", "teal", "thistle", "tomato", "turquoise",
+					"violet", "wheat", "white", "whitesmoke", "yellow", "yellowgreen" };
+			int[] values = { 0xf0f8ff, 0xfaebd7, 0x00ffff, 0x7fffd4, 0xf0ffff, 0xf5f5dc, 0xffe4c4, 0x000000, 0xffebcd,
+					0x0000ff, 0x8a2be2, 0xa52a2a, 0xdeb887, 0x5f9ea0, 0x7fff00, 0xd2691e, 0xff7f50, 0x6495ed, 0xfff8dc,
+					0xdc143c, 0x00ffff, 0x00008b, 0x008b8b, 0xb8860b, 0xa9a9a9, 0x006400, 0xa9a9a9, 0xbdb76b, 0x8b008b,
+					0x556b2f, 0xff8c00, 0x9932cc, 0x8b0000, 0xe9967a, 0x8fbc8f, 0x483d8b, 0x2f4f4f, 0x2f4f4f, 0x00ced1,
+					0x9400d3, 0xff1493, 0x00bfff, 0x696969, 0x696969, 0x1e90ff, 0xb22222, 0xfffaf0, 0x228b22, 0xff00ff,
+					0xdcdcdc, 0xf8f8ff, 0xffd700, 0xdaa520, 0x808080, 0x008000, 0xadff2f, 0x808080, 0xf0fff0, 0xff69b4,
+					0xcd5c5c, 0x4b0082, 0xfffff0, 0xf0e68c, 0xe6e6fa, 0xfff0f5, 0x7cfc00, 0xfffacd, 0xadd8e6, 0xf08080,
+					0xe0ffff, 0xfafad2, 0xd3d3d3, 0x90ee90, 0xd3d3d3, 0xffb6c1, 0xffa07a, 0x20b2aa, 0x87cefa, 0x778899,
+					0x778899, 0xb0c4de, 0xffffe0, 0x00ff00, 0x32cd32, 0xfaf0e6, 0xff00ff, 0x800000, 0x66cdaa, 0x0000cd,
+					0xba55d3, 0x9370db, 0x3cb371, 0x7b68ee, 0x00fa9a, 0x48d1cc, 0xc71585, 0x191970, 0xf5fffa, 0xffe4e1,
+					0xffe4b5, 0xffdead, 0x000080, 0xfdf5e6, 0x808000, 0x6b8e23, 0xffa500, 0xff4500, 0xda70d6, 0xeee8aa,
+					0x98fb98, 0xafeeee, 0xdb7093, 0xffefd5, 0xffdab9, 0xcd853f, 0xffc0cb, 0xdda0dd, 0xb0e0e6, 0x800080,
+					0xff0000, 0xbc8f8f, 0x4169e1, 0x8b4513, 0xfa8072, 0xf4a460, 0x2e8b57, 0xfff5ee, 0xa0522d, 0xc0c0c0,
+					0x87ceeb, 0x6a5acd, 0x708090, 0x708090, 0xfffafa, 0x00ff7f, 0x4682b4, 0xd2b48c, 0x008080, 0xd8bfd8,
+					0xff6347, 0x40e0d0, 0xee82ee, 0xf5deb3, 0xffffff, 0xf5f5f5, 0xffff00, 0x9acd32 };
+			Map<String, Integer> map = new HashMap<String, Integer>();
+			for (int i = 0; i < keys.length; i++) {
+				map.put(keys[i], Integer.valueOf((values[i] << 8) | 0xff));
+			}
+			map.put("transparent", Integer.valueOf(TRANSPARENT));
+			names = map;
+		}
+		return names;
+	}
+}
@@ -0,0 +1,185 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.core;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.gwtd3.api.D3;
+import com.github.gwtd3.api.functions.TimerFunction;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+
+/**
+ * Batches the reads and the writes of the DOM, so that the layout is computed
+ * at most once per frame.
+ * <p>
+ * Reading a value depending on the layout (such as the computed style, the
+ * bounding box or the mouse position) after a write forces the browser to
+ * compute the layout synchronously; interleaving reads and writes, for
+ * instance in {@link Selection#each(com.github.gwtd3.api.functions.DatumFunction)},
+ * computes it once per element. The reads given to {@link #measure} and the
+ * writes given to {@link #mutate} are instead queued and run in the next
+ * frame, by a {@link D3#timer(TimerFunction)} callback: all the reads first,
+ * then all the writes:
+ * 
+ * <pre>
+ * {@code
+ * labels.measure(new DatumFunction<Void>() {
+ *     public Void apply(Element e, Value d, int i) {
+ *         widths[i] = e.getOffsetWidth();
+ *         return null;
+ *     }
+ * }).mutate(new DatumFunction<Void>() {
+ *     public Void apply(Element e, Value d, int i) {
+ *         e.setAttribute("x", String.valueOf(x - widths[i] / 2));
+ *         return null;
+ *     }
+ * });
+ * }
+ * </pre>
+ * <p>
+ * The writes queued by a read run in the same frame, after the reads; the
+ * reads queued by a write run in the next frame, so that they do not force
+ * the layout.
+ */
+public class DomBatch {
+
+	private static List<ScheduledCommand> reads = new ArrayList<ScheduledCommand>();
+
+	private static List<ScheduledCommand> writes = new ArrayList<ScheduledCommand>();
+
+	private static List<ScheduledCommand> running = new ArrayList<ScheduledCommand>();
+
+	private static boolean scheduled;
+
+	private static boolean flushing;
+
+	private static int frames;
+
+	private DomBatch() {
+	}
+
+	/**
+	 * Queue a read of the DOM, to run in the read phase of the next frame.
+	 * 
+	 * @param read
+	 *            the read
+	 */
+	public static void measure(final ScheduledCommand read) {
+		reads.add(read);
+		schedule();
+	}
+
+	/**
+	 * Queue a write of the DOM, to run in the write phase of the current
+	 * frame if the reads are running, or of the next frame otherwise.
+	 * 
+	 * @param write
+	 *            the write
+	 */
+	public static void mutate(final ScheduledCommand write) {
+		writes.add(write);
+		schedule();
+	}
+
+	/**
+	 * Run now the queued reads, then the queued writes. Does nothing if
+	 * called from a read or a write.
+	 */
+	public static void flush() {
+		if (flushing) {
+			return;
+		}
+		flushing = true;
+		frames++;
+		try {
+			while (!reads.isEmpty()) {
+				run(reads);
+			}
+			while (!writes.isEmpty()) {
+				run(writes);
+			}
+		} finally {
+			flushing = false;
+			if (!reads.isEmpty() || !writes.isEmpty()) {
+				schedule();
+			}
+		}
+	}
+
+	/**
+	 * @return the number of reads and writes waiting for the next frame
+	 */
+	public static int pending() {
+		return reads.size() + writes.size();
+	}
+
+	/**
+	 * @return the number of frames in which the queues have been run
+	 */
+	public static int frames() {
+		return frames;
+	}
+
+	/**
+	 * run the commands of the queue, and empty it; the commands queued
+	 * meanwhile are kept for the next run
+	 */
+	private static void run(final List<ScheduledCommand> queue) {
+		List<ScheduledCommand> commands = queue;
+		if (queue == reads) {
+			reads = running;
+		} else {
+			writes = running;
+		}
+		try {
+			for (int i = 0, n = commands.size(); i < n; i++) {
+				commands.get(i).execute();
+			}
+		} finally {
+			commands.clear();
+			running = commands;
+		}
+	}
+
+	private static void schedule() {
+		if (scheduled) {
+			return;
+		}
+		scheduled = true;
+		D3.timer(new TimerFunction() {
+			@Override
+			public boolean execute() {
+				scheduled = false;
+				flush();
+				return true;
+			}
+		});
+	}
+}
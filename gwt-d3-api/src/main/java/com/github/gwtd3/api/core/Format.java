@@ -0,0 +1,526 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.core;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.github.gwtd3.api.D3;
+
+/**
+ * A number format implemented in Java, the counterpart of {@link Formatter}.
+ * <p>
+ * {@link Format} understands the same specifier language as
+ * {@link D3#format(String)} (see {@link Formatter} for its description) and
+ * produces the same strings, but the specifier is parsed once, in
+ * {@link #of(String)}, which also caches the parsed formats, and each
+ * number is formatted without calling Javascript functions or allocating
+ * intermediate objects: {@link #format(double, StringBuilder)} appends to a
+ * given builder, which can be reused for a whole table or axis.
+ * <p>
+ * As the D3 3.1 formatters, the special values are not treated apart:
+ * negative zero is formatted without a minus sign, as zero, and NaN and the
+ * infinities are formatted by the integer types too (later versions of D3
+ * print "-0", and the empty string for the integer types).
+ * <p>
+ * The SI prefix of the type "s" is also available without allocating a
+ * {@link Prefix}, with {@link #prefixExponent(double, int)},
+ * {@link #prefixSymbol(int)} and {@link #prefixScale(double, int)}.
+ * <p>
+ * The class does not depend on the browser and can be used on the JVM. A
+ * {@link Format} keeps internal buffers: an instance must not be used by
+ * several threads at the same time.
+ */
+public final class Format {
+
+	private static final int CACHE_SIZE = 1024;
+
+	private static final Map<String, Format> CACHE = new HashMap<String, Format>();
+
+	private static final String[] PREFIXES = { "y", "z", "a", "f", "p", "n", "\u00b5", "m", "", "k", "M", "G", "T",
+			"P", "E", "Z", "Y" };
+
+	/**
+	 * the Javascript value of Math.LN10
+	 */
+	private static final double LN10 = 2.302585092994046;
+
+	private final String specifier;
+
+	private final char fill;
+
+	private final char align;
+
+	private final String sign;
+
+	private final String basePrefix;
+
+	private final boolean zfill;
+
+	private final int width;
+
+	private final boolean comma;
+
+	/**
+	 * the precision, or -1 if not specified
+	 */
+	private final int precision;
+
+	private final char type;
+
+	private final double scale;
+
+	private final String suffix;
+
+	private final boolean integer;
+
+	private final StringBuilder value = new StringBuilder(32);
+
+	private final StringBuilder text = new StringBuilder(40);
+
+	private Format(final String specifier) {
+		super();
+		this.specifier = specifier;
+		int length = specifier.length();
+		int i = 0;
+
+		// [[fill]align]
+		char fill = ' ';
+		char align = '>';
+		if (length > 1 && specifier.charAt(0) != '{' && isAlign(specifier.charAt(1))) {
+			fill = specifier.charAt(0);
+			align = specifier.charAt(1);
+			i = 2;
+		} else if (length > 0 && isAlign(specifier.charAt(0))) {
+			align = specifier.charAt(0);
+			i = 1;
+		}
+		// [sign]
+		String sign = "";
+		if (i < length) {
+			char c = specifier.charAt(i);
+			if (c == '+' || c == ' ') {
+				sign = String.valueOf(c);
+				i++;
+			} else if (c == '-') {
+				i++;
+			}
+		}
+		// [#]
+		boolean base = i < length && specifier.charAt(i) == '#';
+		if (base) {
+			i++;
+		}
+		// [0]
+		boolean zfill = i < length && specifier.charAt(i) == '0';
+		if (zfill) {
+			i++;
+		}
+		// [width]
+		int width = 0;
+		while (i < length && isDigit(specifier.charAt(i))) {
+			width = width * 10 + specifier.charAt(i++) - '0';
+		}
+		// [,]
+		boolean comma = i < length && specifier.charAt(i) == ',';
+		if (comma) {
+			i++;
+		}
+		// [.precision]
+		int precision = -1;
+		if (i + 1 < length && specifier.charAt(i) == '.' && isDigit(specifier.charAt(i + 1))) {
+			precision = 0;
+			i++;
+			while (i < length && isDigit(specifier.charAt(i))) {
+				precision = precision * 10 + specifier.charAt(i++) - '0';
+			}
+		}
+		// [type]
+		char type = 0;
+		if (i < length) {
+			char c = specifier.charAt(i);
+			if (c == '%' || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+				type = c;
+			}
+		}
+
+		if (zfill || (fill == '0' && align == '=')) {
+			zfill = true;
+			fill = '0';
+			align = '=';
+			if (comma) {
+				width -= (width - 1) / 4;
+			}
+		}
+
+		double scale = 1;
+		String suffix = "";
+		String basePrefix = base ? "#" : "";
+		boolean integer = false;
+		switch (type) {
+		case 'n':
+			comma = true;
+			type = 'g';
+			break;
+		case '%':
+			scale = 100;
+			suffix = "%";
+			type = 'f';
+			break;
+		case 'p':
+			scale = 100;
+			suffix = "%";
+			type = 'r';
+			break;
+		case 'b':
+		case 'o':
+		case 'x':
+		case 'X':
+			if (base) {
+				basePrefix = "0" + Character.toLowerCase(type);
+			}
+			integer = true;
+			precision = 0;
+			break;
+		case 'c':
+		case 'd':
+			integer = true;
+			precision = 0;
+			break;
+		case 's':
+			scale = -1;
+			type = 'r';
+			break;
+		default:
+			break;
+		}
+		if ("#".equals(basePrefix)) {
+			basePrefix = "";
+		}
+		if (type == 'r' && precision <= 0) {
+			type = 'g';
+		}
+		if (precision >= 0) {
+			if (type == 'g') {
+				precision = Math.max(1, Math.min(21, precision));
+			} else if (type == 'e' || type == 'f') {
+				precision = Math.max(0, Math.min(20, precision));
+			}
+		}
+
+		this.fill = fill;
+		this.align = align;
+		this.sign = sign;
+		this.basePrefix = basePrefix;
+		this.zfill = zfill;
+		this.width = width;
+		this.comma = comma;
+		this.precision = precision;
+		this.type = type;
+		this.scale = scale;
+		this.suffix = suffix;
+		this.integer = integer;
+	}
+
+	/**
+	 * Return the {@link Format} of the given specifier.
+	 * <p>
+	 * The formats are cached: calling this method with the same specifier
+	 * returns the same instance.
+	 * 
+	 * @param specifier
+	 *            the format specifier, as documented in {@link Formatter}
+	 * @return the format
+	 */
+	public static Format of(final String specifier) {
+		Format format = CACHE.get(specifier);
+		if (format == null) {
+			if (CACHE.size() >= CACHE_SIZE) {
+				CACHE.clear();
+			}
+			format = new Format(specifier);
+			CACHE.put(specifier, format);
+		}
+		return format;
+	}
+
+	/**
+	 * @return the specifier of this format
+	 */
+	public String specifier() {
+		return specifier;
+	}
+
+	/**
+	 * Return a String representation of the specified number formatted
+	 * according to the specifier of this {@link Format}.
+	 * 
+	 * @param d
+	 *            the number to be formatted
+	 * @return the formatted String representation of the number.
+	 */
+	public String format(final double d) {
+		text.setLength(0);
+		format(d, text);
+		return text.toString();
+	}
+
+	/**
+	 * Append the representation of the specified number formatted
+	 * according to the specifier of this {@link Format} to the given
+	 * builder.
+	 * 
+	 * @param d
+	 *            the number to be formatted
+	 * @param out
+	 *            the builder to append to
+	 * @return out
+	 */
+	public StringBuilder format(final double d, final StringBuilder out) {
+		// the empty string for floats formatted as integers
+		if (integer) {
+			double fraction = d % 1;
+			if (fraction != 0 && fraction == fraction) {
+				return out;
+			}
+		}
+		double x = d;
+		String negative = sign;
+		if (x < 0) {
+			negative = "-";
+			x = -x;
+		}
+		String unit = suffix;
+		if (scale < 0) {
+			int exponent = prefixExponent(x, precision);
+			x = prefixScale(x, exponent);
+			unit = prefixSymbol(exponent);
+		} else {
+			x *= scale;
+		}
+
+		StringBuilder v = value;
+		v.setLength(0);
+		convert(x, v);
+		boolean zcomma = zfill && comma;
+		if (!zfill && comma) {
+			v = group(v);
+		}
+
+		int length = basePrefix.length() + v.length() + (zcomma ? 0 : negative.length());
+		int padding = length < width ? width - length : 0;
+		if (zcomma) {
+			// group the zeros with the digits
+			for (int i = 0; i < padding; i++) {
+				v.insert(0, fill);
+			}
+			v = group(v);
+			padding = 0;
+		}
+
+		switch (align) {
+		case '<':
+			out.append(negative).append(basePrefix).append(v).append(unit);
+			padChars(out, padding);
+			break;
+		case '^':
+			int left = (padding + 1) >> 1;
+			padChars(out, left);
+			out.append(negative).append(basePrefix).append(v).append(unit);
+			padChars(out, padding - left);
+			break;
+		case '=':
+			out.append(negative).append(basePrefix);
+			padChars(out, padding);
+			out.append(v).append(unit);
+			break;
+		default:
+			padChars(out, padding);
+			out.append(negative).append(basePrefix).append(v).append(unit);
+			break;
+		}
+		return out;
+	}
+
+	/**
+	 * Return the exponent of the SI prefix of the given value, as
+	 * {@link D3#formatPrefix(double, double)}.
+	 * 
+	 * @param value
+	 *            the value
+	 * @param precision
+	 *            the number of significant digits the value will be rounded
+	 *            to, or a negative number to ignore rounding
+	 * @return the exponent, a multiple of 3 between -24 and 24
+	 */
+	public static int prefixExponent(final double value, final int precision) {
+		if (value == 0 || value != value) {
+			return 0;
+		}
+		double v = Math.abs(value);
+		if (precision > 0) {
+			v = round(v, digits(v, precision));
+		}
+		double i = 1 + Math.floor(1e-12 + Math.log(v) / LN10);
+		double exponent = Math.floor((i <= 0 ? i + 1 : i - 1) / 3) * 3;
+		return (int) Math.max(-24, Math.min(24, exponent));
+	}
+
+	/**
+	 * Return the symbol of the SI prefix of the given exponent.
+	 * 
+	 * @param exponent
+	 *            a multiple of 3 between -24 and 24, as returned by
+	 *            {@link #prefixExponent(double, int)}
+	 * @return the symbol, such as "k" for 3, "m" for -3, or the empty
+	 *         string for 0
+	 */
+	public static String prefixSymbol(final int exponent) {
+		return PREFIXES[8 + exponent / 3];
+	}
+
+	/**
+	 * Scale the value by the SI prefix of the given exponent, so that
+	 * 1500 is 1.5 for the exponent 3.
+	 * 
+	 * @param value
+	 *            the value
+	 * @param exponent
+	 *            a multiple of 3 between -24 and 24, as returned by
+	 *            {@link #prefixExponent(double, int)}
+	 * @return the scaled value
+	 */
+	public static double prefixScale(final double value, final int exponent) {
+		double k = Math.pow(10, Math.abs(exponent));
+		return exponent > 0 ? value / k : value * k;
+	}
+
+	/**
+	 * converts the non negative x according to the type
+	 */
+	private void convert(final double x, final StringBuilder out) {
+		switch (type) {
+		case 'g':
+			if (precision < 0) {
+				NumberText.toString(x, out);
+			} else {
+				NumberText.toPrecision(x, precision, out);
+			}
+			break;
+		case 'e':
+			NumberText.toExponential(x, precision, out);
+			break;
+		case 'f':
+			NumberText.toFixed(x, Math.max(precision, 0), out);
+			break;
+		case 'r':
+			double rounded = round(x, digits(x, precision));
+			double fixed = Math.max(0, Math.min(20, digits(rounded * (1 + 1e-15), precision)));
+			NumberText.toFixed(rounded, (int) fixed, out);
+			break;
+		case 'b':
+			NumberText.toString(x, 2, out);
+			break;
+		case 'o':
+			NumberText.toString(x, 8, out);
+			break;
+		case 'x':
+			NumberText.toString(x, 16, out);
+			break;
+		case 'X':
+			int start = out.length();
+			NumberText.toString(x, 16, out);
+			for (int i = start; i < out.length(); i++) {
+				out.setCharAt(i, Character.toUpperCase(out.charAt(i)));
+			}
+			break;
+		case 'c':
+			// String.fromCharCode keeps the low 16 bits
+			out.append((char) (int) (x % 65536));
+			break;
+		default:
+			NumberText.toString(x, out);
+			break;
+		}
+	}
+
+	/**
+	 * Inserts the thousands separators in the integer part, as
+	 * d3_format_group.
+	 */
+	private StringBuilder group(final StringBuilder v) {
+		int point = v.lastIndexOf(".");
+		int integers = point < 0 ? v.length() : point;
+		for (int i = integers - 3; i > 0; i -= 3) {
+			v.insert(i, ',');
+		}
+		return v;
+	}
+
+	private void padChars(final StringBuilder out, final int count) {
+		for (int i = 0; i < count; i++) {
+			out.append(fill);
+		}
+	}
+
+	/**
+	 * the number of decimals of x rounded to p significant digits, as
+	 * d3_format_precision
+	 */
+	private static double digits(final double x, final int p) {
+		return p - (x != 0 && x == x ? Math.ceil(Math.log(x) / LN10) : 1);
+	}
+
+	/**
+	 * d3.round(x, n)
+	 */
+	private static double round(final double x, final double n) {
+		if (n != 0 && n == n) {
+			double k = Math.pow(10, n);
+			return jsRound(x * k) / k;
+		}
+		return jsRound(x);
+	}
+
+	/**
+	 * Math.round of Javascript, which rounds the halves up
+	 */
+	private static double jsRound(final double x) {
+		double floor = Math.floor(x);
+		return x - floor >= .5 ? floor + 1 : floor;
+	}
+
+	private static boolean isAlign(final char c) {
+		return c == '<' || c == '>' || c == '=' || c == '^';
+	}
+
+	private static boolean isDigit(final char c) {
+		return c >= '0' && c <= '9';
+	}
+}
@@ -90,6 +90,9 @@
  * </ul>
  * The type "n" is also supported as shorthand for ",g".
  * <p>
+ * {@link Format} implements the same specifiers in Java, for code formatting
+ * many numbers or running outside the browser.
+ * <p>
  * 
  * @author <a href="mailto:schiochetanthoni@gmail.com">Anthony Schiochet</a>
  * 
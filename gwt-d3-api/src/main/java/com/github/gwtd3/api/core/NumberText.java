@@ -0,0 +1,372 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.core;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+import com.google.gwt.core.client.GWT;
+
+/**
+ * The Javascript conversions of numbers to strings used by {@link Format}:
+ * Number.toString, toFixed, toPrecision and toExponential.
+ * <p>
+ * In production mode, the native methods are called. Elsewhere, in the
+ * development mode or on the JVM, they are reproduced in Java: the digits
+ * are rounded from the exact binary value of the number, half up as
+ * specified by ECMAScript, with a double precision fast path and an exact
+ * {@link BigDecimal} fallback near the ties.
+ */
+final class NumberText {
+
+	private static final double[] POW10 = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12,
+			1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	/**
+	 * 2^53, the limit of the exactly represented integers
+	 */
+	private static final double EXACT_INTEGERS = 9007199254740992.0;
+
+	/**
+	 * the margin to a tie, relative to the scaled value, below which the
+	 * rounding of the fast path is not trusted
+	 */
+	private static final double TIE_MARGIN = 5e-16;
+
+	private NumberText() {
+	}
+
+	/**
+	 * Number.prototype.toString(): the shortest digits identifying the
+	 * number.
+	 */
+	static void toString(final double x, final StringBuilder out) {
+		if (GWT.isScript()) {
+			out.append(toStringNative(x, 10));
+			return;
+		}
+		if (special(x, out)) {
+			return;
+		}
+		if (x == 0) {
+			out.append('0');
+			return;
+		}
+		double v = x;
+		if (v < 0) {
+			out.append('-');
+			v = -v;
+		}
+		StringBuilder digits = new StringBuilder(20);
+		int e = shortestDigits(v, digits);
+		int k = digits.length();
+		int n = e + 1;
+		if (k <= n && n <= 21) {
+			out.append(digits);
+			zeros(n - k, out);
+		} else if (0 < n && n <= 21) {
+			out.append(digits, 0, n).append('.').append(digits, n, k);
+		} else if (-6 < n && n <= 0) {
+			out.append("0.");
+			zeros(-n, out);
+			out.append(digits);
+		} else {
+			exponential(digits, e, out);
+		}
+	}
+
+	/**
+	 * Number.prototype.toString(radix), for integers.
+	 */
+	static void toString(final double x, final int radix, final StringBuilder out) {
+		if (GWT.isScript()) {
+			out.append(toStringNative(x, radix));
+			return;
+		}
+		if (special(x, out)) {
+			return;
+		}
+		double v = x;
+		if (v < 0) {
+			out.append('-');
+			v = -v;
+		}
+		if (v < EXACT_INTEGERS && v == Math.floor(v)) {
+			out.append(Long.toString((long) v, radix));
+		} else {
+			out.append(new BigDecimal(v).toBigInteger().toString(radix));
+		}
+	}
+
+	/**
+	 * Number.prototype.toFixed(digits).
+	 */
+	static void toFixed(final double x, final int digits, final StringBuilder out) {
+		if (GWT.isScript()) {
+			out.append(toFixedNative(x, digits));
+			return;
+		}
+		double v = x;
+		if (v < 0) {
+			out.append('-');
+			v = -v;
+		}
+		if (!(v < 1e21)) {
+			toString(v, out);
+			return;
+		}
+		double y = v * POW10[digits];
+		if (y < EXACT_INTEGERS) {
+			double n = Math.floor(y);
+			double fraction = y - n;
+			if (Math.abs(fraction - .5) > y * TIE_MARGIN) {
+				String s = Long.toString((long) (fraction > .5 ? n + 1 : n));
+				if (digits == 0) {
+					out.append(s);
+				} else {
+					int integers = s.length() - digits;
+					if (integers <= 0) {
+						out.append("0.");
+						zeros(-integers, out);
+						out.append(s);
+					} else {
+						out.append(s, 0, integers).append('.').append(s, integers, s.length());
+					}
+				}
+				return;
+			}
+		}
+		out.append(new BigDecimal(v).setScale(digits, RoundingMode.HALF_UP).toPlainString());
+	}
+
+	/**
+	 * Number.prototype.toPrecision(precision).
+	 */
+	static void toPrecision(final double x, final int precision, final StringBuilder out) {
+		if (GWT.isScript()) {
+			out.append(toPrecisionNative(x, precision));
+			return;
+		}
+		if (special(x, out)) {
+			return;
+		}
+		double v = x;
+		if (v < 0) {
+			out.append('-');
+			v = -v;
+		}
+		StringBuilder digits = new StringBuilder(precision + 1);
+		int e;
+		if (v == 0) {
+			zeros(precision, digits);
+			e = 0;
+		} else {
+			e = roundedDigits(v, precision, digits);
+		}
+		if (e < -6 || e >= precision) {
+			exponential(digits, e, out);
+		} else if (e >= 0) {
+			out.append(digits, 0, e + 1);
+			if (e + 1 < precision) {
+				out.append('.').append(digits, e + 1, precision);
+			}
+		} else {
+			out.append("0.");
+			zeros(-e - 1, out);
+			out.append(digits);
+		}
+	}
+
+	/**
+	 * Number.prototype.toExponential(fractionDigits), or toExponential()
+	 * with as many digits as necessary if fractionDigits is negative.
+	 */
+	static void toExponential(final double x, final int fractionDigits, final StringBuilder out) {
+		if (GWT.isScript()) {
+			out.append(toExponentialNative(x, fractionDigits));
+			return;
+		}
+		if (special(x, out)) {
+			return;
+		}
+		double v = x;
+		if (v < 0) {
+			out.append('-');
+			v = -v;
+		}
+		StringBuilder digits = new StringBuilder(22);
+		int e;
+		if (v == 0) {
+			zeros(fractionDigits < 0 ? 1 : fractionDigits + 1, digits);
+			e = 0;
+		} else if (fractionDigits < 0) {
+			e = shortestDigits(v, digits);
+		} else {
+			e = roundedDigits(v, fractionDigits + 1, digits);
+		}
+		exponential(digits, e, out);
+	}
+
+	/**
+	 * Writes NaN and the infinities.
+	 * 
+	 * @return true if x was not finite
+	 */
+	private static boolean special(final double x, final StringBuilder out) {
+		if (x != x) {
+			out.append("NaN");
+			return true;
+		}
+		if (Double.isInfinite(x)) {
+			out.append(x > 0 ? "Infinity" : "-Infinity");
+			return true;
+		}
+		return false;
+	}
+
+	private static void zeros(final int count, final StringBuilder out) {
+		for (int i = 0; i < count; i++) {
+			out.append('0');
+		}
+	}
+
+	/**
+	 * Writes d.ddde+x.
+	 */
+	private static void exponential(final CharSequence digits, final int e, final StringBuilder out) {
+		out.append(digits.charAt(0));
+		if (digits.length() > 1) {
+			out.append('.').append(digits, 1, digits.length());
+		}
+		out.append(e < 0 ? "e-" : "e+").append(Math.abs(e));
+	}
+
+	/**
+	 * Writes the digits of v > 0 rounded half up to the given number of
+	 * significant digits.
+	 * 
+	 * @return the decimal exponent of the first digit
+	 */
+	private static int roundedDigits(final double v, final int precision, final StringBuilder digits) {
+		if (precision <= 15) {
+			int e = (int) Math.floor(Math.log10(v));
+			for (int attempt = 0; attempt < 2; attempt++) {
+				int shift = precision - 1 - e;
+				if (shift < -22 || shift > 22) {
+					break;
+				}
+				double y = shift >= 0 ? v * POW10[shift] : v / POW10[-shift];
+				double n = Math.floor(y);
+				double fraction = y - n;
+				if (!(Math.abs(fraction - .5) > y * TIE_MARGIN)) {
+					break;
+				}
+				if (fraction > .5) {
+					n++;
+				}
+				if (n < POW10[precision - 1]) {
+					// the exponent was overestimated
+					e--;
+					continue;
+				}
+				if (n > POW10[precision]) {
+					e++;
+					continue;
+				}
+				if (n == POW10[precision]) {
+					// rounded up to the next power of ten
+					n = POW10[precision - 1];
+					e++;
+				}
+				digits.append(Long.toString((long) n));
+				return e;
+			}
+		}
+		BigDecimal rounded = new BigDecimal(v).round(new MathContext(precision, RoundingMode.HALF_UP));
+		String unscaled = rounded.unscaledValue().toString();
+		digits.append(unscaled);
+		zeros(precision - unscaled.length(), digits);
+		return rounded.precision() - rounded.scale() - 1;
+	}
+
+	/**
+	 * Writes the shortest digits of v > 0 which read back as v.
+	 * 
+	 * @return the decimal exponent of the first digit
+	 */
+	private static int shortestDigits(final double v, final StringBuilder digits) {
+		// Double.toString reads back as v, but may not be the shortest, nor
+		// the closest to v when several digit strings of its length do
+		String s = Double.toString(v);
+		int exponentIndex = s.indexOf('E');
+		int exponent = exponentIndex < 0 ? 0 : Integer.parseInt(s.substring(exponentIndex + 1));
+		String mantissa = exponentIndex < 0 ? s : s.substring(0, exponentIndex);
+		int point = mantissa.indexOf('.');
+		String all = mantissa.substring(0, point) + mantissa.substring(point + 1);
+		int first = 0;
+		while (first < all.length() - 1 && all.charAt(first) == '0') {
+			first++;
+		}
+		int last = all.length();
+		while (last > first + 1 && all.charAt(last - 1) == '0') {
+			last--;
+		}
+		int e = exponent + point - 1 - first;
+		String significant = all.substring(first, last);
+		if (significant.length() >= 16) {
+			for (int precision = 1; precision <= significant.length(); precision++) {
+				BigDecimal rounded = new BigDecimal(v).round(new MathContext(precision, RoundingMode.HALF_EVEN));
+				if (rounded.doubleValue() == v) {
+					String unscaled = rounded.stripTrailingZeros().unscaledValue().toString();
+					digits.append(unscaled);
+					return rounded.precision() - rounded.scale() - 1;
+				}
+			}
+		}
+		digits.append(significant);
+		return e;
+	}
+
+	private static native String toStringNative(double x, int radix)/*-{
+		return x.toString(radix);
+	}-*/;
+
+	private static native String toFixedNative(double x, int digits)/*-{
+		return x.toFixed(digits);
+	}-*/;
+
+	private static native String toPrecisionNative(double x, int precision)/*-{
+		return x.toPrecision(precision);
+	}-*/;
+
+	private static native String toExponentialNative(double x, int fractionDigits)/*-{
+		return fractionDigits < 0 ? x.toExponential() : x.toExponential(fractionDigits);
+	}-*/;
+}
@@ -119,4 +119,14 @@ public native final RGBColor darker(int k)/*-{
 		return this.darker(k);
 	}-*/;
 
+	/**
+	 * Returns this color packed in a single int, as 0xRRGGBBAA.
+	 * 
+	 * @see Colors
+	 * @return the packed color
+	 */
+	public final int rgba() {
+		return Colors.rgb(r(), g(), b());
+	}
+
 }
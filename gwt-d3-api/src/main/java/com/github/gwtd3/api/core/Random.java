@@ -38,6 +38,9 @@
  * <p>
  * The {@link #generate()} method is then used to generate numbers.
  * <p>
+ * {@link RandomGenerator} provides the same distributions in Java, with a
+ * seed.
+ * <p>
  * 
  * @author <a href="mailto:schiochetanthoni@gmail.com">Anthony Schiochet</a>
  * 
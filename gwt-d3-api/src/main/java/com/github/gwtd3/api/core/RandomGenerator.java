@@ -0,0 +1,429 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.core;
+
+import com.google.gwt.core.client.GWT;
+
+/**
+ * A seedable pseudorandom number generator, the Java counterpart of the
+ * {@link Random} distributions of D3.
+ * <p>
+ * The generator implements <a
+ * href="http://prng.di.unimi.it/">xoshiro128**</a>: its state and
+ * arithmetic use 32 bits integers only, so that it is fast in the browser as
+ * well as on the JVM. GWT does not wrap the overflows of int additions and
+ * multiplications in Javascript: they are narrowed to 32 bits explicitly,
+ * so that two generators created with the same seed produce the same
+ * sequence everywhere.
+ * <p>
+ * The distributions are created with {@link #uniform(double, double)},
+ * {@link #normal(double, double)}, {@link #logNormal(double, double)},
+ * {@link #irwinHall(int)} and {@link #exponential(double)}, and generate one
+ * number with {@link Distribution#next()} or fill an array with
+ * {@link Distribution#fill(double[])}.
+ */
+public final class RandomGenerator {
+
+	/**
+	 * 2^-32
+	 */
+	private static final double TWO_POW_M32 = 1.0 / 4294967296.0;
+
+	/**
+	 * 2^-53
+	 */
+	private static final double TWO_POW_M53 = 1.0 / 9007199254740992.0;
+
+	/**
+	 * the tables of the ziggurat of the normal distribution, see
+	 * Marsaglia and Tsang, "The Ziggurat Method for Generating Random
+	 * Variables", 2000
+	 */
+	private static final int[] KN = new int[128];
+
+	private static final double[] WN = new double[128];
+
+	private static final double[] FN = new double[128];
+
+	/**
+	 * the start of the tail of the ziggurat
+	 */
+	private static final double R = 3.442619855899;
+
+	static {
+		double m1 = 2147483648.0;
+		double dn = R;
+		double tn = dn;
+		double vn = 9.91256303526217e-3;
+		double q = vn / Math.exp(-.5 * dn * dn);
+		KN[0] = (int) ((dn / q) * m1);
+		KN[1] = 0;
+		WN[0] = q / m1;
+		WN[127] = dn / m1;
+		FN[0] = 1;
+		FN[127] = Math.exp(-.5 * dn * dn);
+		for (int i = 126; i >= 1; i--) {
+			dn = Math.sqrt(-2 * Math.log(vn / dn + Math.exp(-.5 * dn * dn)));
+			KN[i + 1] = (int) ((dn / tn) * m1);
+			tn = dn;
+			FN[i] = Math.exp(-.5 * dn * dn);
+			WN[i] = dn / m1;
+		}
+	}
+
+	private int s0;
+
+	private int s1;
+
+	private int s2;
+
+	private int s3;
+
+	/**
+	 * Create a generator seeded from {@link Math#random()}.
+	 */
+	public RandomGenerator() {
+		// two 16 bits draws: a cast of a double above 2^31 saturates
+		this((int) (Math.random() * 65536) << 16 | (int) (Math.random() * 65536));
+	}
+
+	/**
+	 * Create a generator with the given seed.
+	 * 
+	 * @param seed
+	 *            the seed
+	 */
+	public RandomGenerator(final int seed) {
+		super();
+		seed(seed);
+	}
+
+	/**
+	 * Reset the generator to the start of the sequence of the given seed.
+	 * 
+	 * @param seed
+	 *            the seed
+	 * @return this generator
+	 */
+	public RandomGenerator seed(final int seed) {
+		// spread the seed over the 128 bits of state with additions and
+		// shifts only
+		int z = seed;
+		s0 = z = scramble(add(z, 0x9e3779b9));
+		s1 = z = scramble(add(z, 0x9e3779b9));
+		s2 = z = scramble(add(z, 0x9e3779b9));
+		s3 = scramble(add(z, 0x9e3779b9));
+		if ((s0 | s1 | s2 | s3) == 0) {
+			s0 = 1;
+		}
+		return this;
+	}
+
+	private static int scramble(final int x) {
+		int z = x;
+		for (int i = 0; i < 4; i++) {
+			z ^= z << 13;
+			z ^= z >>> 17;
+			z ^= z << 5;
+			z = add(z, 0x6d2b79f5);
+		}
+		return z;
+	}
+
+	/**
+	 * the sum of a and b, wrapped to 32 bits in Javascript too
+	 */
+	private static int add(final int a, final int b) {
+		return GWT.isScript() ? addNative(a, b) : a + b;
+	}
+
+	private static native int addNative(int a, int b) /*-{
+		return (a + b) | 0;
+	}-*/;
+
+	/**
+	 * the product of a by a small factor, wrapped to 32 bits in Javascript
+	 * too: the exact product, below 2^53, is narrowed
+	 */
+	private static int multiply(final int a, final int factor) {
+		return GWT.isScript() ? multiplyNative(a, factor) : a * factor;
+	}
+
+	private static native int multiplyNative(int a, int factor) /*-{
+		return (a * factor) | 0;
+	}-*/;
+
+	/**
+	 * Return the next 32 random bits.
+	 * 
+	 * @return a uniformly distributed int
+	 */
+	public int nextInt() {
+		int r = multiply(s1, 5);
+		r = multiply((r << 7) | (r >>> 25), 9);
+		int t = s1 << 9;
+		s2 ^= s0;
+		s3 ^= s1;
+		s1 ^= s2;
+		s0 ^= s3;
+		s2 ^= t;
+		s3 = (s3 << 11) | (s3 >>> 21);
+		return r;
+	}
+
+	/**
+	 * Return a random integer uniformly distributed in [0, bound).
+	 * 
+	 * @param bound
+	 *            the upper bound, exclusive, which must be positive
+	 * @return the random integer
+	 */
+	public int nextInt(final int bound) {
+		if (bound <= 0) {
+			throw new IllegalArgumentException("bound must be positive: " + bound);
+		}
+		if ((bound & -bound) == bound) {
+			// power of two: the high bits
+			return bound == 1 ? 0 : nextInt() >>> (32 - Integer.numberOfTrailingZeros(bound));
+		}
+		// rejects the values of the last incomplete interval, as
+		// java.util.Random
+		int bits;
+		int value;
+		do {
+			bits = nextInt() >>> 1;
+			value = bits % bound;
+		} while (add(bits - value, bound - 1) < 0);
+		return value;
+	}
+
+	/**
+	 * Return a random number uniformly distributed in [0, 1), with 53 random
+	 * bits.
+	 * 
+	 * @return the random number
+	 */
+	public double nextDouble() {
+		return ((nextInt() >>> 5) * 67108864.0 + (nextInt() >>> 6)) * TWO_POW_M53;
+	}
+
+	/**
+	 * Return a random number with the standard normal distribution, with the
+	 * ziggurat method.
+	 * 
+	 * @return the random number
+	 */
+	public double nextGaussian() {
+		int hz = nextInt();
+		int iz = hz & 127;
+		if (hz < KN[iz] && hz > -KN[iz]) {
+			return hz * WN[iz];
+		}
+		for (;;) {
+			double x = hz * WN[iz];
+			if (iz == 0) {
+				// the tail
+				double y;
+				do {
+					x = -Math.log(1 - nextDouble()) / R;
+					y = -Math.log(1 - nextDouble());
+				} while (y + y < x * x);
+				return hz > 0 ? R + x : -R - x;
+			}
+			if (FN[iz] + nextDouble() * (FN[iz - 1] - FN[iz]) < Math.exp(-.5 * x * x)) {
+				return x;
+			}
+			hz = nextInt();
+			iz = hz & 127;
+			if (hz < KN[iz] && hz > -KN[iz]) {
+				return hz * WN[iz];
+			}
+		}
+	}
+
+	/**
+	 * Fill the array with random numbers uniformly distributed in [0, 1).
+	 * 
+	 * @param out
+	 *            the array to fill
+	 * @return out
+	 */
+	public double[] fill(final double[] out) {
+		for (int i = 0; i < out.length; i++) {
+			out[i] = ((nextInt() >>> 5) * 67108864.0 + (nextInt() >>> 6)) * TWO_POW_M53;
+		}
+		return out;
+	}
+
+	/**
+	 * Returns the uniform distribution in [min, max).
+	 * 
+	 * @param min
+	 *            the minimum, inclusive
+	 * @param max
+	 *            the maximum, exclusive
+	 * @return the distribution
+	 */
+	public Distribution uniform(final double min, final double max) {
+		final double range = max - min;
+		return new Distribution() {
+			@Override
+			public double next() {
+				return min + nextDouble() * range;
+			}
+		};
+	}
+
+	/**
+	 * Returns the <a
+	 * href="http://en.wikipedia.org/wiki/Normal_distribution">normal
+	 * (Gaussian) distribution</a> with the given mean and deviation, as
+	 * {@link Random#normal(double, double)}.
+	 * 
+	 * @param mean
+	 *            the mean
+	 * @param deviation
+	 *            the deviation
+	 * @return the distribution
+	 */
+	public Distribution normal(final double mean, final double deviation) {
+		return new Distribution() {
+			@Override
+			public double next() {
+				return mean + deviation * nextGaussian();
+			}
+		};
+	}
+
+	/**
+	 * Returns the <a
+	 * href="http://en.wikipedia.org/wiki/Log-normal_distribution">log-normal
+	 * distribution</a> whose logarithm has the given mean and deviation, as
+	 * {@link Random#logNormal(double, double)}.
+	 * 
+	 * @param mean
+	 *            the mean of the logarithm
+	 * @param deviation
+	 *            the deviation of the logarithm
+	 * @return the distribution
+	 */
+	public Distribution logNormal(final double mean, final double deviation) {
+		return new Distribution() {
+			@Override
+			public double next() {
+				return Math.exp(mean + deviation * nextGaussian());
+			}
+		};
+	}
+
+	/**
+	 * Returns the <a
+	 * href="http://en.wikipedia.org/wiki/Irwin%E2%80%93Hall_distribution"
+	 * >Irwin-Hall</a> distribution of count independent variables, divided
+	 * by count as {@link Random#irwinHall(int)}, so that the numbers are in
+	 * [0, 1).
+	 * 
+	 * @param count
+	 *            the number of independent variables
+	 * @return the distribution
+	 */
+	public Distribution irwinHall(final int count) {
+		return new Distribution() {
+			@Override
+			public double next() {
+				double s = 0;
+				for (int i = 0; i < count; i++) {
+					s += nextInt() * TWO_POW_M32;
+				}
+				// each term is in [-0.5, 0.5)
+				return s / count + .5;
+			}
+		};
+	}
+
+	/**
+	 * Returns the <a
+	 * href="http://en.wikipedia.org/wiki/Exponential_distribution">exponential
+	 * distribution</a> of the given rate, whose mean is 1 / lambda.
+	 * 
+	 * @param lambda
+	 *            the rate
+	 * @return the distribution
+	 */
+	public Distribution exponential(final double lambda) {
+		return new Distribution() {
+			@Override
+			public double next() {
+				return -Math.log(1 - nextDouble()) / lambda;
+			}
+		};
+	}
+
+	/**
+	 * A distribution of the numbers generated by a {@link RandomGenerator}.
+	 */
+	public static abstract class Distribution {
+
+		/**
+		 * Generate a new number with this distribution.
+		 * 
+		 * @return the new generated number.
+		 */
+		public abstract double next();
+
+		/**
+		 * Fill the array with numbers of this distribution.
+		 * 
+		 * @param out
+		 *            the array to fill
+		 * @return out
+		 */
+		public double[] fill(final double[] out) {
+			return fill(out, 0, out.length);
+		}
+
+		/**
+		 * Fill a range of the array with numbers of this distribution.
+		 * 
+		 * @param out
+		 *            the array to fill
+		 * @param from
+		 *            the first index to fill
+		 * @param to
+		 *            the index after the last one to fill
+		 * @return out
+		 */
+		public double[] fill(final double[] out, final int from, final int to) {
+			for (int i = from; i < to; i++) {
+				out[i] = next();
+			}
+			return out;
+		}
+	}
+}
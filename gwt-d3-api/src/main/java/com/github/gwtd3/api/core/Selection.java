@@ -44,6 +44,7 @@
 import com.github.gwtd3.api.svg.PathDataGenerator;
 import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.core.client.JsArrayUtils;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
 import com.google.gwt.dom.client.BrowserEvents;
 import com.google.gwt.dom.client.Element;
 
@@ -129,6 +130,12 @@ public class Selection extends EnteringSelection {
 	 */
 	public static final String DATA_PROPERTY = "__data__";
 
+	/**
+	 * Number of containers identified by
+	 * {@link #onDelegated(Element, String, DatumFunction, boolean)}.
+	 */
+	private static int delegationContainers;
+
 	protected Selection() {
 	}
 
@@ -788,6 +795,52 @@ public native final Selection each(DatumFunction<Void> func) /*-{
 				});
 	}-*/;
 
+	/**
+	 * Invokes the specified function for each element in the current selection
+	 * in the read phase of the next frame, before any write queued with
+	 * {@link #mutate(DatumFunction)}.
+	 * <p>
+	 * The function should only read the DOM, for instance the size of the
+	 * elements or their computed style, so that the layout is computed at most
+	 * once for all the reads. See {@link DomBatch}.
+	 * 
+	 * @param reader
+	 *            the callback function
+	 * @return the current selection
+	 */
+	public final Selection measure(final DatumFunction<Void> reader) {
+		final Selection selection = this;
+		DomBatch.measure(new ScheduledCommand() {
+			@Override
+			public void execute() {
+				selection.each(reader);
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * Invokes the specified function for each element in the current selection
+	 * in the write phase of the next frame, after the reads queued with
+	 * {@link #measure(DatumFunction)}.
+	 * <p>
+	 * The function should only write the DOM. See {@link DomBatch}.
+	 * 
+	 * @param writer
+	 *            the callback function
+	 * @return the current selection
+	 */
+	public final Selection mutate(final DatumFunction<Void> writer) {
+		final Selection selection = this;
+		DomBatch.mutate(new ScheduledCommand() {
+			@Override
+			public void execute() {
+				selection.each(writer);
+			}
+		});
+		return this;
+	}
+
 	/**
 	 * Invokes the specified function once, passing in the current selection as
 	 * a single parameter.
@@ -1360,4 +1413,107 @@ public native final Selection on(String eventType, DatumFunction<Void> listener,
 		return this.on(eventType, l, useCapture);
 	}-*/;
 
+	/**
+	 * Adds or removes a single event listener on the container, invoked for
+	 * the events whose target is one of the elements of the current selection
+	 * or a descendant of one of them.
+	 * <p>
+	 * This is equivalent to {@link #on(String, DatumFunction)} on each element,
+	 * but only one listener is registered on the container, whatever the size
+	 * of the selection: the elements are only marked with their index. When
+	 * an event is dispatched, the listener is invoked with the nearest marked
+	 * ancestor of the target (or the target itself) as the context element,
+	 * its bound datum and its index. The container must contain the elements
+	 * of the selection.
+	 * <p>
+	 * As with {@link #on(String, DatumFunction)}, the current event is
+	 * available with {@link D3#event()} and the type may have a namespace;
+	 * delegating again the same type on the same container replaces the
+	 * listener and the marked elements. The marks are specific to the
+	 * container, so that delegations of the same type may be nested: the
+	 * listener of the outer container is still invoked for the events of the
+	 * elements of the inner one.
+	 * <p>
+	 * The datum is read when the event is dispatched, but the elements and
+	 * their indices are those of the selection at the time of the call:
+	 * elements appended to the container afterwards are not marked, and their
+	 * events are ignored. Delegate again with a selection including them,
+	 * typically the update selection after the entered elements have been
+	 * appended, to take them into account.
+	 * 
+	 * @param container
+	 *            the element receiving the events
+	 * @param eventType
+	 *            the type of the event to listen to
+	 * @param listener
+	 *            the listener to be added or to replace the previous one, or
+	 *            null to remove the previous listener
+	 * @return the current selection
+	 */
+	public final Selection onDelegated(final Element container, final String eventType,
+			final DatumFunction<Void> listener) {
+		return onDelegated(container, eventType, listener, false);
+	}
+
+	/**
+	 * Adds or removes a single event listener on the container, invoked for
+	 * the events whose target is one of the elements of the current selection
+	 * or a descendant of one of them. See
+	 * {@link #onDelegated(Element, String, DatumFunction)}.
+	 * 
+	 * @param container
+	 *            the element receiving the events
+	 * @param eventType
+	 *            the type of the event to listen to
+	 * @param listener
+	 *            the listener to be added or to replace the previous one, or
+	 *            null to remove the previous listener
+	 * @param useCapture
+	 *            true to listen to the events in the capture phase of the
+	 *            container, see {@link #on(String, DatumFunction, boolean)}
+	 * @return the current selection
+	 */
+	public native final Selection onDelegated(Element container, String eventType, DatumFunction<Void> listener,
+			boolean useCapture) /*-{
+		// the elements are marked with a key specific to the container, so
+		// that the walk of an outer container does not stop at the elements
+		// of a nested one; the index of the marked elements and the
+		// selection stored on the container use different keys, so that the
+		// container is never taken for a marked element
+		var id = container.__on_container__;
+		if (!id) {
+			id = container.__on_container__ = @com.github.gwtd3.api.core.Selection::delegationContainers + 1;
+			@com.github.gwtd3.api.core.Selection::delegationContainers = id;
+		}
+		var key = "__on_" + id + "_" + eventType + "__", selectionKey = "__on_" + eventType + "_selection__", previous = container[selectionKey];
+		if (previous) {
+			// unmark the elements of the previous delegation
+			previous.each(function() {
+				delete this[key];
+			});
+		}
+		if (listener == null) {
+			delete container[selectionKey];
+			$wnd.d3.select(container).on(eventType, null);
+			return this;
+		}
+		container[selectionKey] = this.each(function(d, i) {
+			this[key] = i;
+		});
+		$wnd.d3
+				.select(container)
+				.on(
+						eventType,
+						function() {
+							var node = $wnd.d3.event.target;
+							while (node && node !== container && !(key in node)) {
+								node = node.parentNode;
+							}
+							if (node && node !== container) {
+								listener.@com.github.gwtd3.api.functions.DatumFunction::apply(Lcom/google/gwt/dom/client/Element;Lcom/github/gwtd3/api/core/Value;I)(node,{datum:node.__data__},node[key]);
+							}
+						}, useCapture);
+		return this;
+	}-*/;
+
 }
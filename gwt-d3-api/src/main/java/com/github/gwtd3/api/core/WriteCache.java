@@ -0,0 +1,337 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.core;
+
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.dom.client.Element;
+
+/**
+ * An opt-in write-through cache of the values written by selections.
+ * <p>
+ * Once {@link #enable()}d, {@link Selection#attr(String, String)},
+ * {@link Selection#style(String, String)},
+ * {@link Selection#property(String, String)} and
+ * {@link Selection#text(String)} (and their function variants) remember on
+ * each element the last value they wrote, and do not write again a value
+ * which did not change. Re-applying every attribute of a chart on every tick
+ * then only touches the DOM for the values which actually changed, and does
+ * not invalidate the style and the layout of the other elements:
+ * 
+ * <pre>
+ * {@code
+ * WriteCache.enable();
+ * circles.attr("cx", x).attr("cy", y).attr("r", 3);
+ * GWT.log(WriteCache.skipped() + " skipped, " + WriteCache.performed() + " written");
+ * }
+ * </pre>
+ * <p>
+ * The cache only knows about the writes done through selections: a
+ * transition started from a selection clears the cache of its elements, but
+ * the elements modified by other means (for instance by
+ * {@link Element#setAttribute(String, String)}) must be cleared with
+ * {@link #invalidate(Element)}. Properties are compared with the current
+ * value of the element, since they may be changed by the user (such as the
+ * value of an input), and the text is written again when the element has
+ * other children.
+ */
+public class WriteCache {
+
+	private static JavaScriptObject state;
+
+	private WriteCache() {
+	}
+
+	/**
+	 * Start caching the writes of all the selections.
+	 */
+	public static void enable() {
+		if (state == null) {
+			state = install();
+		}
+	}
+
+	/**
+	 * Stop caching the writes, and restore the original selection methods.
+	 * The counters are kept.
+	 */
+	public static void disable() {
+		if (state != null) {
+			uninstall(state);
+			state = null;
+		}
+	}
+
+	/**
+	 * @return true if the writes are cached
+	 */
+	public static boolean isEnabled() {
+		return state != null;
+	}
+
+	/**
+	 * @return the number of writes skipped because the value did not change,
+	 *         since the cache was enabled or the counters reset
+	 */
+	public static int skipped() {
+		return state == null ? 0 : counter(state, "skipped");
+	}
+
+	/**
+	 * @return the number of writes performed on the DOM, since the cache was
+	 *         enabled or the counters reset
+	 */
+	public static int performed() {
+		return state == null ? 0 : counter(state, "performed");
+	}
+
+	/**
+	 * Reset the counters to 0.
+	 */
+	public static void resetCounters() {
+		if (state != null) {
+			reset(state);
+		}
+	}
+
+	/**
+	 * Forget the values written on the elements of the selection, so that
+	 * the next writes are performed.
+	 * 
+	 * @param selection
+	 *            the selection
+	 */
+	public static native void invalidate(Selection selection)/*-{
+		selection.each(function() {
+			delete this.__writes__;
+		});
+	}-*/;
+
+	/**
+	 * Forget the values written on the element, so that the next writes are
+	 * performed.
+	 * 
+	 * @param element
+	 *            the element
+	 */
+	public static native void invalidate(Element element)/*-{
+		delete element.__writes__;
+	}-*/;
+
+	private static native int counter(JavaScriptObject state, String name)/*-{
+		return state[name];
+	}-*/;
+
+	private static native void reset(JavaScriptObject state)/*-{
+		state.skipped = state.performed = 0;
+	}-*/;
+
+	private static native void uninstall(JavaScriptObject state)/*-{
+		var proto = $wnd.d3.selection.prototype, name;
+		for (name in state.originals) {
+			proto[name] = state.originals[name];
+		}
+	}-*/;
+
+	private static native JavaScriptObject install()/*-{
+		var d3 = $wnd.d3, proto = d3.selection.prototype;
+		var state = {
+			skipped : 0,
+			performed : 0,
+			originals : {
+				attr : proto.attr,
+				style : proto.style,
+				property : proto.property,
+				text : proto.text,
+				html : proto.html,
+				classed : proto.classed,
+				transition : proto.transition
+			}
+		};
+		var originals = state.originals;
+
+		// true if the value must be written, and remember it
+		function changed(node, key, value) {
+			var writes = node.__writes__ || (node.__writes__ = {});
+			if (key in writes && writes[key] === value) {
+				state.skipped++;
+				return false;
+			}
+			writes[key] = value;
+			state.performed++;
+			return true;
+		}
+		function forget(selection, key) {
+			selection.each(function() {
+				if (this.__writes__) {
+					delete this.__writes__[key];
+				}
+			});
+		}
+		// apply write(node, value) with the value or the function of the datum
+		function each(selection, value, write) {
+			return selection.each(typeof value === "function" ? function() {
+				write(this, value.apply(this, arguments));
+			} : function() {
+				write(this, value);
+			});
+		}
+
+		function writeAttr(name) {
+			var qualified = d3.ns.qualify(name), key = "a" + name;
+			return function(node, value) {
+				value = value == null ? null : "" + value;
+				if (!changed(node, key, value)) {
+					return;
+				}
+				if (value == null) {
+					if (qualified.local) {
+						node.removeAttributeNS(qualified.space, qualified.local);
+					} else {
+						node.removeAttribute(qualified);
+					}
+				} else if (qualified.local) {
+					node.setAttributeNS(qualified.space, qualified.local, value);
+				} else {
+					node.setAttribute(qualified, value);
+				}
+			};
+		}
+		proto.attr = function(name, value) {
+			if (arguments.length < 2) {
+				if (typeof name === "string") {
+					return originals.attr.call(this, name);
+				}
+				for (value in name) {
+					each(this, name[value], writeAttr(value));
+				}
+				return this;
+			}
+			return each(this, value, writeAttr(name));
+		};
+
+		function writeStyle(name, priority) {
+			var key = "s" + name;
+			priority = priority || "";
+			return function(node, value) {
+				value = value == null ? null : "" + value;
+				if (!changed(node, key, value == null ? null : value + "!"
+						+ priority)) {
+					return;
+				}
+				if (value == null) {
+					node.style.removeProperty(name);
+				} else {
+					node.style.setProperty(name, value, priority);
+				}
+			};
+		}
+		proto.style = function(name, value, priority) {
+			var n = arguments.length, key;
+			if (n < 3) {
+				if (typeof name !== "string") {
+					// the second argument is the priority
+					for (key in name) {
+						each(this, name[key], writeStyle(key, value));
+					}
+					return this;
+				}
+				if (n < 2) {
+					return originals.style.call(this, name);
+				}
+			}
+			return each(this, value, writeStyle(name, priority));
+		};
+
+		function writeProperty(name) {
+			return function(node, value) {
+				// compared with the element, which may change by itself
+				if (value != null && node[name] === value) {
+					state.skipped++;
+					return;
+				}
+				state.performed++;
+				if (value == null) {
+					delete node[name];
+				} else {
+					node[name] = value;
+				}
+			};
+		}
+		proto.property = function(name, value) {
+			if (arguments.length < 2) {
+				if (typeof name === "string") {
+					return originals.property.call(this, name);
+				}
+				for (value in name) {
+					each(this, name[value], writeProperty(value));
+				}
+				return this;
+			}
+			return each(this, value, writeProperty(name));
+		};
+
+		function writeText(node, value) {
+			value = value == null ? "" : "" + value;
+			// appended children are not known to the cache
+			if (node.childNodes.length > 1 && node.__writes__) {
+				delete node.__writes__.t;
+			}
+			if (changed(node, "t", value)) {
+				node.textContent = value;
+			}
+		}
+		proto.text = function(value) {
+			if (arguments.length < 1) {
+				return originals.text.call(this);
+			}
+			return each(this, value, writeText);
+		};
+
+		// the methods writing behind the cache
+		proto.html = function(value) {
+			if (arguments.length > 0) {
+				forget(this, "t");
+			}
+			return originals.html.apply(this, arguments);
+		};
+		proto.classed = function(name, value) {
+			if (arguments.length > 1 || typeof name !== "string") {
+				forget(this, "aclass");
+			}
+			return originals.classed.apply(this, arguments);
+		};
+		proto.transition = function() {
+			this.each(function() {
+				delete this.__writes__;
+			});
+			return originals.transition.apply(this, arguments);
+		};
+		return state;
+	}-*/;
+}
@@ -0,0 +1,318 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.dsv;
+
+import com.github.gwtd3.api.arrays.Factor;
+
+/**
+ * The content of a DSV file, parsed in Java into columns.
+ * <p>
+ * Unlike {@link Dsv#parse(String)}, which creates one javascript object per row, the cells are stored column by
+ * column, in one array of strings per column; {@link #numbers(String)} and {@link #factor(String)} convert a column
+ * into a double array or a dictionary-encoded {@link Factor}, for instance to group the rows with
+ * {@link com.github.gwtd3.api.arrays.Nest}. As with d3.csv.parse, the first line contains the names of the columns,
+ * and the file is assumed to be RFC4180-compliant.
+ * <p>
+ * The class does not depend on the browser.
+ */
+public class DsvColumns {
+
+    private final String[] names;
+
+    private final String[][] columns;
+
+    private final int rowCount;
+
+    private DsvColumns(final String[] names, final String[][] columns, final int rowCount) {
+        super();
+        this.names = names;
+        this.columns = columns;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Parse a CSV text.
+     * 
+     * @param text
+     *            the content of the file
+     * @return the columns
+     */
+    public static DsvColumns parseCsv(final String text) {
+        return parse(text, ',');
+    }
+
+    /**
+     * Parse a TSV text.
+     * 
+     * @param text
+     *            the content of the file
+     * @return the columns
+     */
+    public static DsvColumns parseTsv(final String text) {
+        return parse(text, '\t');
+    }
+
+    /**
+     * Parse a delimiter-separated text.
+     * 
+     * @param text
+     *            the content of the file
+     * @param delimiter
+     *            the delimiter of the cells
+     * @return the columns
+     */
+    public static DsvColumns parse(final String text, final char delimiter) {
+        Parser parser = new Parser(text, delimiter);
+        // header
+        String[] header = new String[8];
+        int columnCount = 0;
+        while (parser.hasCell()) {
+            if (columnCount == header.length) {
+                String[] grown = new String[columnCount * 2];
+                System.arraycopy(header, 0, grown, 0, columnCount);
+                header = grown;
+            }
+            header[columnCount++] = parser.next();
+            if (parser.endOfLine) {
+                break;
+            }
+        }
+        String[] names = new String[columnCount];
+        System.arraycopy(header, 0, names, 0, columnCount);
+        // rows
+        int capacity = Math.max(16, text.length() / Math.max(1, 8 * columnCount));
+        String[][] columns = new String[columnCount][capacity];
+        int row = 0;
+        while (parser.hasCell()) {
+            if (row == capacity) {
+                capacity *= 2;
+                for (int c = 0; c < columnCount; c++) {
+                    String[] grown = new String[capacity];
+                    System.arraycopy(columns[c], 0, grown, 0, row);
+                    columns[c] = grown;
+                }
+            }
+            int c = 0;
+            while (true) {
+                String cell = parser.next();
+                if (c < columnCount) {
+                    columns[c][row] = cell;
+                }
+                c++;
+                if (parser.endOfLine) {
+                    break;
+                }
+            }
+            // missing cells are empty
+            for (; c < columnCount; c++) {
+                columns[c][row] = "";
+            }
+            row++;
+        }
+        return new DsvColumns(names, columns, row);
+    }
+
+    /**
+     * @return the number of rows, the header excluded
+     */
+    public int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return the names of the columns
+     */
+    public String[] names() {
+        return names;
+    }
+
+    /**
+     * @param name
+     *            the name of a column
+     * @return the index of the column, or -1 if there is no such column
+     */
+    public int indexOf(final String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Return the cells of a column. The array may be longer than {@link #rowCount()}.
+     * 
+     * @param name
+     *            the name of the column
+     * @return the cells, indexed by row
+     * @throws IllegalArgumentException
+     *             if there is no such column
+     */
+    public String[] strings(final String name) {
+        return columns[column(name)];
+    }
+
+    /**
+     * @param row
+     *            the index of a row
+     * @param name
+     *            the name of a column
+     * @return the cell
+     */
+    public String get(final int row, final String name) {
+        return columns[column(name)][row];
+    }
+
+    /**
+     * Convert a column to numbers.
+     * 
+     * @param name
+     *            the name of the column
+     * @return the numbers, indexed by row; the empty and non numeric cells are NaN
+     */
+    public double[] numbers(final String name) {
+        String[] cells = columns[column(name)];
+        double[] numbers = new double[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            numbers[i] = toNumber(cells[i]);
+        }
+        return numbers;
+    }
+
+    /**
+     * Encode a column as a {@link Factor}.
+     * 
+     * @param name
+     *            the name of the column
+     * @return the factor
+     */
+    public Factor factor(final String name) {
+        return Factor.of(columns[column(name)], rowCount);
+    }
+
+    private int column(final String name) {
+        int index = indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("no column " + name);
+        }
+        return index;
+    }
+
+    private static double toNumber(final String cell) {
+        if (cell.length() == 0) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(cell);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * reads the cells of the text one by one
+     */
+    private static class Parser {
+        private final String text;
+
+        private final char delimiter;
+
+        private final int length;
+
+        private int position;
+
+        /**
+         * true if the last cell read ended its line
+         */
+        boolean endOfLine;
+
+        Parser(final String text, final char delimiter) {
+            this.text = text;
+            this.delimiter = delimiter;
+            this.length = text.length();
+        }
+
+        boolean hasCell() {
+            return position < length;
+        }
+
+        String next() {
+            String cell;
+            if (position < length && text.charAt(position) == '"') {
+                // quoted cell, with "" escaping a quote
+                StringBuilder builder = null;
+                int start = position + 1;
+                int i = start;
+                while (true) {
+                    int quote = text.indexOf('"', i);
+                    if (quote < 0) {
+                        quote = length;
+                    }
+                    if (quote + 1 < length && text.charAt(quote + 1) == '"') {
+                        if (builder == null) {
+                            builder = new StringBuilder();
+                        }
+                        builder.append(text.substring(i, quote + 1));
+                        i = quote + 2;
+                        continue;
+                    }
+                    String last = text.substring(i, quote);
+                    cell = builder == null ? last : builder.append(last).toString();
+                    position = Math.min(length, quote + 1);
+                    break;
+                }
+                // skip anything up to the delimiter or the end of line
+                while (position < length && !isSeparator(text.charAt(position))) {
+                    position++;
+                }
+            } else {
+                int start = position;
+                while (position < length && !isSeparator(text.charAt(position))) {
+                    position++;
+                }
+                cell = text.substring(start, position);
+            }
+            endOfLine = true;
+            if (position < length) {
+                char c = text.charAt(position++);
+                if (c == delimiter) {
+                    endOfLine = false;
+                } else if (c == '\r' && position < length && text.charAt(position) == '\n') {
+                    position++;
+                }
+            }
+            return cell;
+        }
+
+        private boolean isSeparator(final char c) {
+            return c == delimiter || c == '\n' || c == '\r';
+        }
+    }
+}
@@ -0,0 +1,297 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.events;
+
+import com.github.gwtd3.api.D3;
+import com.github.gwtd3.api.behaviour.Drag;
+import com.github.gwtd3.api.core.Selection;
+import com.github.gwtd3.api.core.Value;
+import com.github.gwtd3.api.functions.DatumFunction;
+import com.github.gwtd3.api.functions.TimerFunction;
+import com.github.gwtd3.api.svg.Brush;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.Node;
+
+/**
+ * Coalesces the pointer events to at most one call of a
+ * {@link CoalescedListener} per animation frame.
+ * <p>
+ * Pointer devices fire mousemove, drag and brush events much more often than
+ * a chart can be rendered. The coalescer can be registered in place of the
+ * listener with {@link Selection#on(String, DatumFunction)},
+ * {@link Drag#on(Drag.DragEventType, DatumFunction)} or
+ * {@link Brush#on(Brush.BrushEvent, EventListener)}: it only records the
+ * position of each event, and calls the listener once in the next frame, by a
+ * {@link D3#timer(TimerFunction)} callback, with the last position and the
+ * number of events received:
+ * 
+ * <pre>
+ * {@code
+ * PointerCoalescer coalescer = new PointerCoalescer(new CoalescedListener() {
+ *     public void onEvents(PointerCoalescer events) {
+ *         crosshair.attr("x1", events.x()).attr("x2", events.x());
+ *     }
+ * }).relativeTo(svg.node());
+ * svg.on("mousemove", coalescer);
+ * }
+ * </pre>
+ * <p>
+ * The position is the one returned by {@link D3#mouse(Node)} if a container
+ * is given, the x and y of the event for the drag events (see
+ * {@link D3#eventAsCoords()}), or the client coordinates of the event
+ * otherwise. For the drag events, {@link #dx()} and {@link #dy()} are the sums
+ * of the moves of the coalesced events.
+ * <p>
+ * Since the listener is called after the events, {@link D3#event()} is not
+ * available anymore: its state must be read from the coalescer. To handle the
+ * last event before an end event (such as dragend), call {@link #flush()} in
+ * the end listener.
+ */
+public class PointerCoalescer implements DatumFunction<Void>, EventListener {
+
+	private final CoalescedListener listener;
+
+	private Node container;
+
+	private boolean scheduled;
+
+	private int count;
+
+	private int received;
+
+	private int delivered;
+
+	private String type;
+
+	private double x;
+
+	private double y;
+
+	private double dx;
+
+	private double dy;
+
+	private Element context;
+
+	private Value datum;
+
+	private int index = -1;
+
+	private final TimerFunction timer = new TimerFunction() {
+		@Override
+		public boolean execute() {
+			scheduled = false;
+			flush();
+			return true;
+		}
+	};
+
+	/**
+	 * Create a coalescer calling the given listener.
+	 * 
+	 * @param listener
+	 *            the listener
+	 */
+	public PointerCoalescer(final CoalescedListener listener) {
+		super();
+		this.listener = listener;
+	}
+
+	/**
+	 * Set the container the positions are relative to, as returned by
+	 * {@link D3#mouse(Node)}.
+	 * 
+	 * @param container
+	 *            the container, or null to use the positions of the events
+	 * @return the current coalescer
+	 */
+	public PointerCoalescer relativeTo(final Node container) {
+		this.container = container;
+		return this;
+	}
+
+	/**
+	 * Record the current event, as a listener of
+	 * {@link Selection#on(String, DatumFunction)} or
+	 * {@link Drag#on(Drag.DragEventType, DatumFunction)}.
+	 */
+	@Override
+	public Void apply(final Element context, final Value d, final int index) {
+		record(context, d, index);
+		return null;
+	}
+
+	/**
+	 * Record the current event, as a listener of
+	 * {@link Brush#on(Brush.BrushEvent, EventListener)}.
+	 */
+	@Override
+	public void onEvent() {
+		record(null, null, -1);
+	}
+
+	/**
+	 * Call the listener now if events have been received since the last call.
+	 */
+	public void flush() {
+		if (count == 0) {
+			return;
+		}
+		delivered++;
+		try {
+			listener.onEvents(this);
+		} finally {
+			count = 0;
+			dx = 0;
+			dy = 0;
+		}
+	}
+
+	private void record(final Element context, final Value d, final int index) {
+		this.context = context;
+		this.datum = d;
+		this.index = index;
+		JavaScriptObject event = D3.event();
+		if (event != null) {
+			type = type(event);
+			if (container != null) {
+				x = D3.mouseX(container);
+				y = D3.mouseY(container);
+			} else {
+				x = number(event, "x", "clientX");
+				y = number(event, "y", "clientY");
+			}
+			dx += number(event, "dx", null);
+			dy += number(event, "dy", null);
+		}
+		count++;
+		received++;
+		if (!scheduled) {
+			scheduled = true;
+			D3.timer(timer);
+		}
+	}
+
+	private static native String type(JavaScriptObject event)/*-{
+		return event.type;
+	}-*/;
+
+	/**
+	 * the numeric field of the event, or the fallback field, or 0
+	 */
+	private static native double number(JavaScriptObject event, String field, String fallback)/*-{
+		var value = event[field];
+		if (typeof value !== "number" && fallback != null) {
+			value = event[fallback];
+		}
+		return typeof value === "number" ? value : 0;
+	}-*/;
+
+	/**
+	 * @return the number of events coalesced in the current call
+	 */
+	public int count() {
+		return count;
+	}
+
+	/**
+	 * @return the type of the last event
+	 */
+	public String type() {
+		return type;
+	}
+
+	/**
+	 * @return the x coordinate of the last event
+	 */
+	public double x() {
+		return x;
+	}
+
+	/**
+	 * @return the y coordinate of the last event
+	 */
+	public double y() {
+		return y;
+	}
+
+	/**
+	 * @return the sum of the horizontal moves of the coalesced drag events
+	 */
+	public double dx() {
+		return dx;
+	}
+
+	/**
+	 * @return the sum of the vertical moves of the coalesced drag events
+	 */
+	public double dy() {
+		return dy;
+	}
+
+	/**
+	 * @return the element of the last event, or null for the brush events
+	 */
+	public Element context() {
+		return context;
+	}
+
+	/**
+	 * @return the datum of the element of the last event, or null for the
+	 *         brush events
+	 */
+	public Value datum() {
+		return datum;
+	}
+
+	/**
+	 * @return the index of the element of the last event, or -1 for the
+	 *         brush events
+	 */
+	public int index() {
+		return index;
+	}
+
+	/**
+	 * @return the number of events received since the creation of the
+	 *         coalescer
+	 */
+	public int received() {
+		return received;
+	}
+
+	/**
+	 * @return the number of calls of the listener since the creation of the
+	 *         coalescer
+	 */
+	public int delivered() {
+		return delivered;
+	}
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.geo;
+
+/**
+ * The Albers equal-area conic projection.
+ * <p>
+ * The defaults are those of d3.geo.albers, for maps of the United States:
+ * the standard parallels 29.5 and 45.5, the rotation (96, 0), the center
+ * (-0.6, 38.7) and the scale 1070.
+ */
+public class Albers extends Projection {
+
+	private double phi0;
+
+	private double phi1;
+
+	private double n;
+
+	private double c;
+
+	private double rho0;
+
+	public Albers() {
+		parallels(29.5, 45.5);
+		rotate(96, 0);
+		center(-.6, 38.7);
+		scale(1070);
+	}
+
+	/**
+	 * Sets the standard parallels, where the projection has no distortion.
+	 * 
+	 * @param phi0
+	 *            the first parallel, in degrees
+	 * @param phi1
+	 *            the second parallel, in degrees
+	 * @return this projection
+	 * @throws IllegalArgumentException
+	 *             if the parallels are symmetric around the equator
+	 */
+	public Albers parallels(final double phi0, final double phi1) {
+		double sinPhi0 = Math.sin(phi0 * Spherical.RADIANS);
+		double n = (sinPhi0 + Math.sin(phi1 * Spherical.RADIANS)) / 2;
+		if (Math.abs(n) < Spherical.EPSILON) {
+			throw new IllegalArgumentException("the parallels are symmetric around the equator");
+		}
+		this.phi0 = phi0 * Spherical.RADIANS;
+		this.phi1 = phi1 * Spherical.RADIANS;
+		this.n = n;
+		c = 1 + sinPhi0 * (2 * n - sinPhi0);
+		rho0 = Math.sqrt(c) / n;
+		invalidate();
+		return this;
+	}
+
+	/**
+	 * @return the first standard parallel, in degrees
+	 */
+	public double parallel0() {
+		return phi0 * Spherical.DEGREES;
+	}
+
+	/**
+	 * @return the second standard parallel, in degrees
+	 */
+	public double parallel1() {
+		return phi1 * Spherical.DEGREES;
+	}
+
+	@Override
+	protected void forward(final double lambda, final double phi, final double[] out) {
+		double rho = Math.sqrt(c - 2 * n * Math.sin(phi)) / n;
+		double theta = lambda * n;
+		out[0] = rho * Math.sin(theta);
+		out[1] = rho0 - rho * Math.cos(theta);
+	}
+
+	@Override
+	protected void inverse(final double x, final double y, final double[] out) {
+		double rho0y = rho0 - y;
+		out[0] = Math.atan2(x, rho0y) / n;
+		out[1] = Spherical.asin((c - (x * x + rho0y * rho0y) * n * n) / (2 * n));
+	}
+}
@@ -0,0 +1,432 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.geo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The first stage of a projection stream: converts the longitudes and
+ * latitudes from degrees to radians, rotates them, and clips the geometry to
+ * the region of the {@link Clipper}, before forwarding it to the next stage.
+ * <p>
+ * The points of lines and of rings which do not cross the clip edge are
+ * buffered in flat arrays. The rings which do are cut into segments, which are
+ * joined along the clip edge when the polygon ends.
+ */
+final class Clip implements GeoStream {
+
+	private static final int POINT = 0;
+
+	private static final int LINE = 1;
+
+	private static final int RING = 2;
+
+	/**
+	 * sorts the intersections along the clip edge
+	 */
+	private static final Comparator<Intersection> ALONG_EDGE = new Comparator<Intersection>() {
+		@Override
+		public int compare(final Intersection a, final Intersection b) {
+			double da = a.x[0] < 0 ? a.x[1] - Spherical.HALF_PI - Spherical.EPSILON : Spherical.HALF_PI - a.x[1];
+			double db = b.x[0] < 0 ? b.x[1] - Spherical.HALF_PI - Spherical.EPSILON : Spherical.HALF_PI - b.x[1];
+			return Double.compare(da, db);
+		}
+	};
+
+	private final Clipper clipper;
+
+	private final Rotation rotation;
+
+	private final GeoStream listener;
+
+	private final Clipper.ClipLine line;
+
+	private final Buffer buffer = new Buffer();
+
+	private final Clipper.ClipLine ringLine;
+
+	private final double[] clipStart = new double[2];
+
+	private final double[] rotated = new double[2];
+
+	private int mode = POINT;
+
+	private boolean inPolygon;
+
+	private boolean polygonStarted;
+
+	private final List<double[]> segments = new ArrayList<double[]>();
+
+	// the rings of the current polygon, in radians and not rotated
+	private double[][] rings = new double[4][];
+
+	private int[] ringLengths = new int[4];
+
+	private int ringCount;
+
+	Clip(final Clipper clipper, final Rotation rotation, final GeoStream listener) {
+		this.clipper = clipper;
+		this.rotation = rotation;
+		this.listener = listener;
+		this.line = clipper.line(listener);
+		this.ringLine = clipper.line(buffer);
+		rotation.invert(clipper.clipStartLambda, clipper.clipStartPhi, clipStart);
+	}
+
+	@Override
+	public void point(double lambda, double phi) {
+		lambda *= Spherical.RADIANS;
+		phi *= Spherical.RADIANS;
+		if (mode == RING) {
+			double[] ring = rings[ringCount];
+			int length = ringLengths[ringCount];
+			if (length + 2 > ring.length) {
+				double[] grown = new double[ring.length * 2];
+				System.arraycopy(ring, 0, grown, 0, length);
+				rings[ringCount] = ring = grown;
+			}
+			ring[length] = lambda;
+			ring[length + 1] = phi;
+			ringLengths[ringCount] = length + 2;
+		}
+		rotation.rotate(lambda, phi, rotated);
+		if (mode == POINT) {
+			if (clipper.visible(rotated[0], rotated[1])) {
+				listener.point(rotated[0], rotated[1]);
+			}
+		} else if (mode == LINE) {
+			line.point(rotated[0], rotated[1]);
+		} else {
+			ringLine.point(rotated[0], rotated[1]);
+		}
+	}
+
+	@Override
+	public void lineStart() {
+		if (inPolygon) {
+			if (ringCount == rings.length) {
+				double[][] grown = new double[ringCount * 2][];
+				System.arraycopy(rings, 0, grown, 0, ringCount);
+				rings = grown;
+				int[] lengths = new int[ringCount * 2];
+				System.arraycopy(ringLengths, 0, lengths, 0, ringCount);
+				ringLengths = lengths;
+			}
+			if (rings[ringCount] == null) {
+				rings[ringCount] = new double[64];
+			}
+			ringLengths[ringCount] = 0;
+			mode = RING;
+			ringLine.lineStart();
+		} else {
+			mode = LINE;
+			line.lineStart();
+		}
+	}
+
+	@Override
+	public void lineEnd() {
+		if (mode == RING) {
+			ringEnd();
+		} else {
+			line.lineEnd();
+		}
+		mode = POINT;
+	}
+
+	private void ringEnd() {
+		double[] ring = rings[ringCount];
+		int length = ringLengths[ringCount];
+		if (length == 0) {
+			ringLine.lineEnd();
+			buffer.buffer();
+			return;
+		}
+		// close the ring
+		rotation.rotate(ring[0], ring[1], rotated);
+		ringLine.point(rotated[0], rotated[1]);
+		ringLine.lineEnd();
+		ringCount++;
+
+		int clean = ringLine.clean();
+		List<double[]> ringSegments = buffer.buffer();
+		int n = ringSegments.size();
+		if (n == 0) {
+			return;
+		}
+		if ((clean & 1) != 0) {
+			// no intersection with the clip edge: the ring as is
+			double[] segment = ringSegments.get(0);
+			int m = segment.length / 2 - 1;
+			if (m > 0) {
+				startPolygon();
+				listener.lineStart();
+				for (int i = 0; i < m; i++) {
+					listener.point(segment[i * 2], segment[i * 2 + 1]);
+				}
+				listener.lineEnd();
+			}
+			return;
+		}
+		if (n > 1 && (clean & 2) != 0) {
+			// the ring started inside: the last segment continues with the first
+			double[] last = ringSegments.remove(n - 1);
+			double[] first = ringSegments.remove(0);
+			double[] joined = new double[last.length + first.length];
+			System.arraycopy(last, 0, joined, 0, last.length);
+			System.arraycopy(first, 0, joined, last.length, first.length);
+			ringSegments.add(joined);
+		}
+		for (double[] segment : ringSegments) {
+			if (segment.length > 2) {
+				segments.add(segment);
+			}
+		}
+	}
+
+	@Override
+	public void polygonStart() {
+		inPolygon = true;
+		ringCount = 0;
+		segments.clear();
+	}
+
+	@Override
+	public void polygonEnd() {
+		inPolygon = false;
+		boolean clipStartInside = Spherical.polygonContains(clipStart[0], clipStart[1], rings, ringLengths,
+				ringCount);
+		if (!segments.isEmpty()) {
+			startPolygon();
+			rejoin(clipStartInside);
+		} else if (clipStartInside) {
+			// the polygon contains the whole clip edge
+			startPolygon();
+			listener.lineStart();
+			clipper.interpolate(null, null, 1, listener);
+			listener.lineEnd();
+		}
+		if (polygonStarted) {
+			listener.polygonEnd();
+			polygonStarted = false;
+		}
+		segments.clear();
+	}
+
+	private void startPolygon() {
+		if (!polygonStarted) {
+			listener.polygonStart();
+			polygonStarted = true;
+		}
+	}
+
+	/**
+	 * Joins the segments of the rings along the clip edge, into closed rings.
+	 */
+	private void rejoin(final boolean clipStartInside) {
+		List<Intersection> subject = new ArrayList<Intersection>();
+		List<Intersection> clip = new ArrayList<Intersection>();
+		for (double[] segment : segments) {
+			int n = segment.length - 2;
+			double[] p0 = { segment[0], segment[1] };
+			double[] p1 = { segment[n], segment[n + 1] };
+			if (Spherical.equal(p0, p1)) {
+				// closed after the join
+				listener.lineStart();
+				for (int i = 0; i < n; i += 2) {
+					listener.point(segment[i], segment[i + 1]);
+				}
+				listener.lineEnd();
+				continue;
+			}
+			Intersection a = new Intersection(p0, segment, null, true);
+			Intersection b = new Intersection(p0, null, a, false);
+			a.other = b;
+			subject.add(a);
+			clip.add(b);
+			a = new Intersection(p1, segment, null, false);
+			b = new Intersection(p1, null, a, true);
+			a.other = b;
+			subject.add(a);
+			clip.add(b);
+		}
+		if (subject.isEmpty()) {
+			return;
+		}
+		Collections.sort(clip, ALONG_EDGE);
+		link(subject);
+		link(clip);
+		boolean entry = clipStartInside;
+		for (Intersection i : clip) {
+			i.entry = entry = !entry;
+		}
+
+		Intersection start = subject.get(0);
+		while (true) {
+			Intersection current = start;
+			boolean isSubject = true;
+			while (current.visited) {
+				if ((current = current.next) == start) {
+					return;
+				}
+			}
+			double[] points = current.segment;
+			listener.lineStart();
+			do {
+				current.visited = current.other.visited = true;
+				if (current.entry) {
+					if (isSubject) {
+						for (int i = 0; i < points.length; i += 2) {
+							listener.point(points[i], points[i + 1]);
+						}
+					} else {
+						clipper.interpolate(current.x, current.next.x, 1, listener);
+					}
+					current = current.next;
+				} else {
+					if (isSubject) {
+						points = current.previous.segment;
+						for (int i = points.length - 2; i >= 0; i -= 2) {
+							listener.point(points[i], points[i + 1]);
+						}
+					} else {
+						clipper.interpolate(current.x, current.previous.x, -1, listener);
+					}
+					current = current.previous;
+				}
+				current = current.other;
+				points = current.segment;
+				isSubject = !isSubject;
+			} while (!current.visited);
+			listener.lineEnd();
+		}
+	}
+
+	private static void link(final List<Intersection> list) {
+		int n = list.size();
+		for (int i = 0; i < n; i++) {
+			Intersection a = list.get(i);
+			Intersection b = list.get(i + 1 < n ? i + 1 : 0);
+			a.next = b;
+			b.previous = a;
+		}
+	}
+
+	/**
+	 * An end of a segment, in the list of the segments and in the list of the
+	 * points along the clip edge.
+	 */
+	private static class Intersection {
+
+		final double[] x;
+
+		final double[] segment;
+
+		Intersection other;
+
+		boolean entry;
+
+		boolean visited;
+
+		Intersection next;
+
+		Intersection previous;
+
+		Intersection(final double[] x, final double[] segment, final Intersection other, final boolean entry) {
+			this.x = x;
+			this.segment = segment;
+			this.other = other;
+			this.entry = entry;
+		}
+	}
+
+	/**
+	 * Buffers the lines output by the ring clipper, as flat arrays.
+	 */
+	private static class Buffer implements GeoStream {
+
+		private final List<double[]> lines = new ArrayList<double[]>();
+
+		private double[] line = new double[64];
+
+		private int length = -1;
+
+		@Override
+		public void point(final double x, final double y) {
+			if (length + 2 > line.length) {
+				double[] grown = new double[line.length * 2];
+				System.arraycopy(line, 0, grown, 0, length);
+				line = grown;
+			}
+			line[length] = x;
+			line[length + 1] = y;
+			length += 2;
+		}
+
+		@Override
+		public void lineStart() {
+			flush();
+			length = 0;
+		}
+
+		@Override
+		public void lineEnd() {
+		}
+
+		@Override
+		public void polygonStart() {
+		}
+
+		@Override
+		public void polygonEnd() {
+		}
+
+		private void flush() {
+			if (length >= 0) {
+				double[] copy = new double[length];
+				System.arraycopy(line, 0, copy, 0, length);
+				lines.add(copy);
+				length = -1;
+			}
+		}
+
+		/**
+		 * @return the lines buffered since the last call
+		 */
+		List<double[]> buffer() {
+			flush();
+			List<double[]> result = new ArrayList<double[]>(lines);
+			lines.clear();
+			return result;
+		}
+	}
+}
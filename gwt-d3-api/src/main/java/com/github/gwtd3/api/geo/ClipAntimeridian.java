@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.geo;
+
+/**
+ * Cuts the lines and polygons crossing the antimeridian, for the
+ * projections of the whole sphere.
+ */
+final class ClipAntimeridian extends Clipper {
+
+	static final ClipAntimeridian INSTANCE = new ClipAntimeridian();
+
+	private ClipAntimeridian() {
+		super(-Math.PI, -Spherical.HALF_PI);
+	}
+
+	@Override
+	boolean visible(final double lambda, final double phi) {
+		return true;
+	}
+
+	@Override
+	ClipLine line(final GeoStream listener) {
+		return new ClipLine() {
+			private double lambda0 = Double.NaN;
+
+			private double phi0 = Double.NaN;
+
+			private double sLambda0 = Double.NaN;
+
+			private int clean;
+
+			@Override
+			void lineStart() {
+				listener.lineStart();
+				clean = 1;
+			}
+
+			@Override
+			void point(double lambda1, final double phi1) {
+				double sLambda1 = lambda1 > 0 ? Math.PI : -Math.PI;
+				double dLambda = Math.abs(lambda1 - lambda0);
+				if (Math.abs(dLambda - Math.PI) < Spherical.EPSILON) {
+					// through a pole
+					phi0 = (phi0 + phi1) / 2 > 0 ? Spherical.HALF_PI : -Spherical.HALF_PI;
+					listener.point(lambda0, phi0);
+					listener.point(sLambda0, phi0);
+					listener.lineEnd();
+					listener.lineStart();
+					listener.point(sLambda1, phi0);
+					listener.point(lambda1, phi0);
+					clean = 0;
+				} else if (sLambda0 != sLambda1 && dLambda >= Math.PI) {
+					// across the antimeridian
+					if (Math.abs(lambda0 - sLambda0) < Spherical.EPSILON) {
+						lambda0 -= sLambda0 * Spherical.EPSILON;
+					}
+					if (Math.abs(lambda1 - sLambda1) < Spherical.EPSILON) {
+						lambda1 -= sLambda1 * Spherical.EPSILON;
+					}
+					phi0 = intersect(lambda0, phi0, lambda1, phi1);
+					listener.point(sLambda0, phi0);
+					listener.lineEnd();
+					listener.lineStart();
+					listener.point(sLambda1, phi0);
+					clean = 0;
+				}
+				listener.point(lambda0 = lambda1, phi0 = phi1);
+				sLambda0 = sLambda1;
+			}
+
+			@Override
+			void lineEnd() {
+				listener.lineEnd();
+				lambda0 = phi0 = Double.NaN;
+			}
+
+			@Override
+			int clean() {
+				return 2 - clean;
+			}
+		};
+	}
+
+	/**
+	 * @return the latitude where the great arc between the points crosses
+	 *         the antimeridian
+	 */
+	private static double intersect(final double lambda0, final double phi0, final double lambda1,
+			final double phi1) {
+		double sinLambda0Lambda1 = Math.sin(lambda0 - lambda1);
+		if (Math.abs(sinLambda0Lambda1) > Spherical.EPSILON) {
+			double cosPhi0 = Math.cos(phi0);
+			double cosPhi1 = Math.cos(phi1);
+			return Math.atan((Math.sin(phi0) * cosPhi1 * Math.sin(lambda1) - Math.sin(phi1) * cosPhi0
+					* Math.sin(lambda0))
+					/ (cosPhi0 * cosPhi1 * sinLambda0Lambda1));
+		}
+		return (phi0 + phi1) / 2;
+	}
+
+	@Override
+	void interpolate(final double[] from, final double[] to, final int direction, final GeoStream listener) {
+		if (from == null) {
+			double phi = direction * Spherical.HALF_PI;
+			listener.point(-Math.PI, phi);
+			listener.point(0, phi);
+			listener.point(Math.PI, phi);
+			listener.point(Math.PI, 0);
+			listener.point(Math.PI, -phi);
+			listener.point(0, -phi);
+			listener.point(-Math.PI, -phi);
+			listener.point(-Math.PI, 0);
+			listener.point(-Math.PI, phi);
+		} else if (Math.abs(from[0] - to[0]) > Spherical.EPSILON) {
+			double s = from[0] < to[0] ? Math.PI : -Math.PI;
+			double phi = direction * s / 2;
+			listener.point(-s, phi);
+			listener.point(0, phi);
+			listener.point(s, phi);
+		} else {
+			listener.point(to[0], to[1]);
+		}
+	}
+}
@@ -0,0 +1,314 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.geo;
+
+/**
+ * Clips to a small circle of the given radius around the rotated origin, as
+ * for the hemisphere visible in the orthographic projection.
+ */
+final class ClipCircle extends Clipper {
+
+	/**
+	 * the step between the points drawn along the clip edge
+	 */
+	private static final double PRECISION = 6 * Spherical.RADIANS;
+
+	private final double radius;
+
+	private final double cr;
+
+	private final double sr;
+
+	private final boolean smallRadius;
+
+	private final boolean notHemisphere;
+
+	/**
+	 * @param radius
+	 *            the radius of the visible circle, in radians
+	 */
+	ClipCircle(final double radius) {
+		super(Math.cos(radius) > 0 ? 0 : -Math.PI, Math.cos(radius) > 0 ? -radius : radius - Math.PI);
+		this.radius = radius;
+		this.cr = Math.cos(radius);
+		this.sr = Math.sin(radius);
+		this.smallRadius = cr > 0;
+		this.notHemisphere = Math.abs(cr) > Spherical.EPSILON;
+	}
+
+	double radius() {
+		return radius;
+	}
+
+	@Override
+	boolean visible(final double lambda, final double phi) {
+		return Math.cos(lambda) * Math.cos(phi) > cr;
+	}
+
+	@Override
+	ClipLine line(final GeoStream listener) {
+		return new ClipLine() {
+			private final double[] point0 = new double[2];
+
+			private final double[] point1 = new double[2];
+
+			private boolean hasPoint0;
+
+			private boolean v0;
+
+			private boolean v00;
+
+			private int c0;
+
+			private int clean;
+
+			@Override
+			void lineStart() {
+				v00 = v0 = false;
+				clean = 1;
+			}
+
+			@Override
+			void point(final double lambda, final double phi) {
+				point1[0] = lambda;
+				point1[1] = phi;
+				boolean v = visible(lambda, phi);
+				int c = smallRadius ? v ? 0 : code(lambda, phi) : v ? code(lambda + (lambda < 0 ? Math.PI : -Math.PI),
+						phi) : 0;
+				if (!hasPoint0) {
+					v00 = v0 = v;
+					if (v) {
+						listener.lineStart();
+					}
+				}
+				double[] last = point0;
+				if (v != v0) {
+					double[] point2 = intersect(point0, point1);
+					if (Spherical.equal(point0, point2) || Spherical.equal(point1, point2)) {
+						point1[0] += Spherical.EPSILON;
+						point1[1] += Spherical.EPSILON;
+						v = visible(point1[0], point1[1]);
+					}
+				}
+				if (v != v0) {
+					clean = 0;
+					double[] point2;
+					if (v) {
+						// entering
+						listener.lineStart();
+						point2 = intersect(point1, point0);
+						listener.point(point2[0], point2[1]);
+					} else {
+						// leaving
+						point2 = intersect(point0, point1);
+						listener.point(point2[0], point2[1]);
+						listener.lineEnd();
+					}
+					last = point2;
+				} else if (notHemisphere && hasPoint0 && smallRadius ^ v) {
+					// both points outside, the arc may cross the circle twice
+					double[] t;
+					if ((c & c0) == 0 && (t = intersectTwo(point1, point0)) != null) {
+						clean = 0;
+						if (smallRadius) {
+							listener.lineStart();
+							listener.point(t[0], t[1]);
+							listener.point(t[2], t[3]);
+							listener.lineEnd();
+						} else {
+							listener.point(t[2], t[3]);
+							listener.lineEnd();
+							listener.lineStart();
+							listener.point(t[0], t[1]);
+						}
+					}
+				}
+				if (v && (!hasPoint0 || !Spherical.equal(last, point1))) {
+					listener.point(point1[0], point1[1]);
+				}
+				point0[0] = point1[0];
+				point0[1] = point1[1];
+				hasPoint0 = true;
+				v0 = v;
+				c0 = c;
+			}
+
+			@Override
+			void lineEnd() {
+				if (v0) {
+					listener.lineEnd();
+				}
+				hasPoint0 = false;
+			}
+
+			@Override
+			int clean() {
+				return clean | (v00 && v0 ? 2 : 0);
+			}
+		};
+	}
+
+	/**
+	 * @return the intersection of the arc from a to b with the circle, or a
+	 *         if the arc is degenerate
+	 */
+	private double[] intersect(final double[] a, final double[] b) {
+		double[] q = intersect(a, b, false);
+		return q == null ? new double[] { a[0], a[1] } : q;
+	}
+
+	/**
+	 * @return the two intersections of the arc from a to b with the circle,
+	 *         or null if the arc does not cross it twice
+	 */
+	private double[] intersectTwo(final double[] a, final double[] b) {
+		return intersect(a, b, true);
+	}
+
+	private double[] intersect(final double[] a, final double[] b, final boolean two) {
+		double[] pa = new double[3];
+		double[] pb = new double[3];
+		Spherical.cartesian(a[0], a[1], pa);
+		Spherical.cartesian(b[0], b[1], pb);
+
+		// the plane of the arc, and the plane of the circle x = cr
+		double[] n2 = new double[3];
+		Spherical.cross(pa, pb, n2);
+		double n2n2 = Spherical.dot(n2, n2);
+		double n1n2 = n2[0];
+		double determinant = n2n2 - n1n2 * n1n2;
+		if (determinant == 0) {
+			return null;
+		}
+		double c1 = cr * n2n2 / determinant;
+		double c2 = -cr * n1n2 / determinant;
+		// the line of the two planes: A + t u, with u = n1 x n2
+		double[] u = { 0, -n2[2], n2[1] };
+		double[] A = { c1 + c2 * n2[0], c2 * n2[1], c2 * n2[2] };
+		double w = Spherical.dot(A, u);
+		double uu = Spherical.dot(u, u);
+		double t2 = w * w - uu * (Spherical.dot(A, A) - 1);
+		if (t2 < 0) {
+			return null;
+		}
+		double t = Math.sqrt(t2);
+		double s = (-w - t) / uu;
+		double[] q = Spherical.spherical(new double[] { A[0] + u[0] * s, A[1] + u[1] * s, A[2] + u[2] * s });
+		if (!two) {
+			return q;
+		}
+
+		// both intersections, if the first one is on the arc
+		double lambda0 = a[0];
+		double lambda1 = b[0];
+		double phi0 = a[1];
+		double phi1 = b[1];
+		double z;
+		if (lambda1 < lambda0) {
+			z = lambda0;
+			lambda0 = lambda1;
+			lambda1 = z;
+		}
+		double dLambda = lambda1 - lambda0;
+		boolean polar = Math.abs(dLambda - Math.PI) < Spherical.EPSILON;
+		boolean meridian = polar || dLambda < Spherical.EPSILON;
+		if (!polar && phi1 < phi0) {
+			z = phi0;
+			phi0 = phi1;
+			phi1 = z;
+		}
+		boolean onArc;
+		if (meridian) {
+			onArc = polar ? phi0 + phi1 > 0 ^ q[1] < (Math.abs(q[0] - lambda0) < Spherical.EPSILON ? phi0 : phi1)
+					: phi0 <= q[1] && q[1] <= phi1;
+		} else {
+			onArc = dLambda > Math.PI ^ (lambda0 <= q[0] && q[0] <= lambda1);
+		}
+		if (!onArc) {
+			return null;
+		}
+		s = (-w + t) / uu;
+		double[] q1 = Spherical.spherical(new double[] { A[0] + u[0] * s, A[1] + u[1] * s, A[2] + u[2] * s });
+		return new double[] { q[0], q[1], q1[0], q1[1] };
+	}
+
+	/**
+	 * @return the outcode of the point with respect to the square around the
+	 *         circle
+	 */
+	private int code(final double lambda, final double phi) {
+		double r = smallRadius ? radius : Math.PI - radius;
+		int code = 0;
+		if (lambda < -r) {
+			code |= 1;
+		} else if (lambda > r) {
+			code |= 2;
+		}
+		if (phi < -r) {
+			code |= 4;
+		} else if (phi > r) {
+			code |= 8;
+		}
+		return code;
+	}
+
+	@Override
+	void interpolate(final double[] from, final double[] to, final int direction, final GeoStream listener) {
+		double step = direction * PRECISION;
+		double start;
+		double end;
+		if (from != null) {
+			start = angle(from);
+			end = angle(to);
+			if (direction > 0 ? start < end : start > end) {
+				start += direction * Spherical.TAU;
+			}
+		} else {
+			start = radius + direction * Spherical.TAU;
+			end = radius - .5 * step;
+		}
+		for (double t = start; direction > 0 ? t > end : t < end; t -= step) {
+			double y = -sr * Math.cos(t);
+			double z = -sr * Math.sin(t);
+			listener.point(Math.atan2(y, cr), Spherical.asin(z));
+		}
+	}
+
+	/**
+	 * @return the angle of a point of the circle around its center
+	 */
+	private double angle(final double[] point) {
+		double[] a = new double[3];
+		Spherical.cartesian(point[0], point[1], a);
+		a[0] -= cr;
+		Spherical.normalize(a);
+		double angle = Spherical.acos(-a[1]);
+		return ((-a[2] < 0 ? -angle : angle) + Spherical.TAU - Spherical.EPSILON) % Spherical.TAU;
+	}
+}
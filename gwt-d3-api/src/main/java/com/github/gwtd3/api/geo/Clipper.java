@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.geo;
+
+/**
+ * The clip region of a {@link Clip} stage: the antimeridian cut of the
+ * cylindrical and conic projections, or the small circle of the azimuthal
+ * projections. Coordinates are rotated longitudes and latitudes, in radians.
+ */
+abstract class Clipper {
+
+	/**
+	 * A line clipper, forwarding the visible parts of a line to a listener.
+	 */
+	abstract static class ClipLine {
+
+		abstract void lineStart();
+
+		abstract void point(double lambda, double phi);
+
+		abstract void lineEnd();
+
+		/**
+		 * @return 1 if the last line did not intersect the clip edge, 2 if
+		 *         its first and last parts should be joined
+		 */
+		abstract int clean();
+	}
+
+	/**
+	 * the longitude of the start of the clip edge
+	 */
+	final double clipStartLambda;
+
+	/**
+	 * the latitude of the start of the clip edge
+	 */
+	final double clipStartPhi;
+
+	Clipper(final double clipStartLambda, final double clipStartPhi) {
+		this.clipStartLambda = clipStartLambda;
+		this.clipStartPhi = clipStartPhi;
+	}
+
+	abstract boolean visible(double lambda, double phi);
+
+	abstract ClipLine line(GeoStream listener);
+
+	/**
+	 * Follows the clip edge between two points of it, or around the whole
+	 * edge if from is null.
+	 * 
+	 * @param from
+	 *            the start point, or null
+	 * @param to
+	 *            the end point, or null
+	 * @param direction
+	 *            1 or -1
+	 * @param listener
+	 *            the stream receiving the points of the edge
+	 */
+	abstract void interpolate(double[] from, double[] to, int direction, GeoStream listener);
+}
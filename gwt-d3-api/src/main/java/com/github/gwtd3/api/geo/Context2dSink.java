@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.geo;
+
+import com.google.gwt.canvas.dom.client.Context2d;
+
+/**
+ * A sink drawing the geometry of a stream to a canvas context.
+ * <p>
+ * The sink only adds subpaths to the current path of the context: call
+ * {@link Context2d#beginPath()} before streaming, and fill or stroke after.
+ * Point geometries are drawn as circles of {@link #pointRadius(double)
+ * radius} 4.5.
+ */
+public class Context2dSink implements GeoStream {
+
+	private final Context2d context;
+
+	private double pointRadius = 4.5;
+
+	private boolean inLine;
+
+	private boolean lineStarted;
+
+	private boolean inPolygon;
+
+	/**
+	 * @param context
+	 *            the context to draw to
+	 */
+	public Context2dSink(final Context2d context) {
+		this.context = context;
+	}
+
+	/**
+	 * Sets the radius of the circles drawn for the point geometries.
+	 * 
+	 * @param radius
+	 *            the radius
+	 * @return this sink
+	 */
+	public Context2dSink pointRadius(final double radius) {
+		this.pointRadius = radius;
+		return this;
+	}
+
+	@Override
+	public void point(final double x, final double y) {
+		if (!inLine) {
+			context.moveTo(x + pointRadius, y);
+			context.arc(x, y, pointRadius, 0, Spherical.TAU);
+		} else if (lineStarted) {
+			context.lineTo(x, y);
+		} else {
+			context.moveTo(x, y);
+			lineStarted = true;
+		}
+	}
+
+	@Override
+	public void lineStart() {
+		inLine = true;
+		lineStarted = false;
+	}
+
+	@Override
+	public void lineEnd() {
+		if (inPolygon) {
+			context.closePath();
+		}
+		inLine = false;
+	}
+
+	@Override
+	public void polygonStart() {
+		inPolygon = true;
+	}
+
+	@Override
+	public void polygonEnd() {
+		inPolygon = false;
+	}
+}
@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.geo;
+
+import com.github.gwtd3.api.core.Value;
+import com.github.gwtd3.api.functions.DatumFunction;
+import com.google.gwt.canvas.dom.client.Context2d;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.dom.client.Element;
+
+/**
+ * Projects GeoJSON objects to SVG path data or to a canvas, through the
+ * {@link Projection#stream(GeoStream) stream} of a projection.
+ * <p>
+ * Features, feature collections, geometry collections and all the geometry
+ * types are supported. The coordinates are read from the GeoJSON arrays and
+ * streamed one by one, so that no projected array is built:
+ * 
+ * <pre>
+ * {@code
+ * GeoPath path = new GeoPath(new Albers());
+ * svg.selectAll("path").data(features).enter().append("path").attr("d", path.d());
+ * }
+ * </pre>
+ */
+public class GeoPath {
+
+	private final Projection projection;
+
+	private final PathStringSink sink = new PathStringSink();
+
+	/**
+	 * @param projection
+	 *            the projection, or null if the coordinates are already in
+	 *            pixels
+	 */
+	public GeoPath(final Projection projection) {
+		this.projection = projection;
+	}
+
+	/**
+	 * @return the projection, or null
+	 */
+	public Projection projection() {
+		return projection;
+	}
+
+	/**
+	 * @return the sink writing the path data, to set its point radius
+	 */
+	public PathStringSink sink() {
+		return sink;
+	}
+
+	/**
+	 * Projects a GeoJSON object to SVG path data.
+	 * 
+	 * @param object
+	 *            the GeoJSON object
+	 * @return the path data, or null if the object is not visible
+	 */
+	public String svg(final JavaScriptObject object) {
+		stream(object, projection == null ? sink : projection.stream(sink));
+		return sink.result();
+	}
+
+	/**
+	 * Adds a GeoJSON object to the current path of a canvas context.
+	 * 
+	 * @param context
+	 *            the context
+	 * @param object
+	 *            the GeoJSON object
+	 */
+	public void draw(final Context2d context, final JavaScriptObject object) {
+		Context2dSink contextSink = new Context2dSink(context);
+		stream(object, projection == null ? contextSink : projection.stream(contextSink));
+	}
+
+	/**
+	 * @return a function returning the path data of the datum, for the "d"
+	 *         attribute of the path elements bound to GeoJSON objects
+	 */
+	public DatumFunction<String> d() {
+		return new DatumFunction<String>() {
+			@Override
+			public String apply(final Element context, final Value d, final int index) {
+				JavaScriptObject object = d.as();
+				return svg(object);
+			}
+		};
+	}
+
+	/**
+	 * Streams the coordinates of a GeoJSON object.
+	 * 
+	 * @param object
+	 *            the GeoJSON object
+	 * @param stream
+	 *            the stream
+	 */
+	public static native void stream(JavaScriptObject object, GeoStream stream)/*-{
+		function point(c) {
+			stream.@com.github.gwtd3.api.geo.GeoStream::point(DD)(c[0], c[1]);
+		}
+		function line(coordinates, closed) {
+			var n = coordinates.length - closed;
+			stream.@com.github.gwtd3.api.geo.GeoStream::lineStart()();
+			for ( var i = 0; i < n; i++) {
+				point(coordinates[i]);
+			}
+			stream.@com.github.gwtd3.api.geo.GeoStream::lineEnd()();
+		}
+		function polygon(rings) {
+			stream.@com.github.gwtd3.api.geo.GeoStream::polygonStart()();
+			for ( var i = 0; i < rings.length; i++) {
+				line(rings[i], 1);
+			}
+			stream.@com.github.gwtd3.api.geo.GeoStream::polygonEnd()();
+		}
+		function geometry(o) {
+			var c = o.coordinates, i;
+			switch (o.type) {
+			case "Point":
+				point(c);
+				break;
+			case "MultiPoint":
+				for (i = 0; i < c.length; i++) {
+					point(c[i]);
+				}
+				break;
+			case "LineString":
+				line(c, 0);
+				break;
+			case "MultiLineString":
+				for (i = 0; i < c.length; i++) {
+					line(c[i], 0);
+				}
+				break;
+			case "Polygon":
+				polygon(c);
+				break;
+			case "MultiPolygon":
+				for (i = 0; i < c.length; i++) {
+					polygon(c[i]);
+				}
+				break;
+			case "GeometryCollection":
+				for (i = 0; i < o.geometries.length; i++) {
+					geometry(o.geometries[i]);
+				}
+				break;
+			}
+		}
+		function any(o) {
+			if (!o) {
+				return;
+			}
+			if (o.type == "FeatureCollection") {
+				for ( var i = 0; i < o.features.length; i++) {
+					any(o.features[i]);
+				}
+			} else if (o.type == "Feature") {
+				if (o.geometry) {
+					geometry(o.geometry);
+				}
+			} else {
+				geometry(o);
+			}
+		}
+		any(object);
+	}-*/;
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.geo;
+
+/**
+ * A stream of geometry, as in the d3.geo streams.
+ * <p>
+ * A geometry is described by a sequence of calls rather than by arrays of
+ * coordinates: a point outside of any line is a point geometry; the points
+ * between {@link #lineStart()} and {@link #lineEnd()} form a line; and the
+ * lines between {@link #polygonStart()} and {@link #polygonEnd()} are the
+ * rings of a polygon, the first point of a ring not being repeated at its
+ * end.
+ * <p>
+ * The streams returned by {@link Projection#stream(GeoStream)} take
+ * longitudes and latitudes in degrees, and forward projected coordinates in
+ * pixels to the given sink, such as a {@link PathStringSink} or a
+ * {@link Context2dSink}.
+ */
+public interface GeoStream {
+
+	/**
+	 * A point of a line or of a ring, or a point geometry.
+	 * 
+	 * @param x
+	 *            the x coordinate, or the longitude
+	 * @param y
+	 *            the y coordinate, or the latitude
+	 */
+	void point(double x, double y);
+
+	/**
+	 * Starts a line or a ring.
+	 */
+	void lineStart();
+
+	/**
+	 * Ends a line or a ring.
+	 */
+	void lineEnd();
+
+	/**
+	 * Starts a polygon: the following lines are its rings.
+	 */
+	void polygonStart();
+
+	/**
+	 * Ends a polygon.
+	 */
+	void polygonEnd();
+}
@@ -0,0 +1,57 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.geo;
+
+/**
+ * The spherical Mercator projection.
+ * <p>
+ * The latitudes are clamped to the latitude where the projected world is a
+ * square, about 85.05 degrees, as in the web maps: the poles would be
+ * projected to infinity.
+ */
+public class Mercator extends Projection {
+
+	/**
+	 * the latitude where y is pi, in radians
+	 */
+	private static final double MAX_LATITUDE = 2 * Math.atan(Math.exp(Math.PI)) - Math.PI / 2;
+
+	@Override
+	protected void forward(final double lambda, double phi, final double[] out) {
+		phi = phi > MAX_LATITUDE ? MAX_LATITUDE : phi < -MAX_LATITUDE ? -MAX_LATITUDE : phi;
+		out[0] = lambda;
+		out[1] = Math.log(Math.tan(Math.PI / 4 + phi / 2));
+	}
+
+	@Override
+	protected void inverse(final double x, final double y, final double[] out) {
+		out[0] = x;
+		out[1] = 2 * Math.atan(Math.exp(y)) - Spherical.HALF_PI;
+	}
+}
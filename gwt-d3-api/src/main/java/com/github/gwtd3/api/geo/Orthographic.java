@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.geo;
+
+/**
+ * The orthographic projection, showing the globe as seen from space.
+ * <p>
+ * The geometry is clipped to the visible hemisphere: the clip angle is 90
+ * degrees. Use {@link #rotate(double, double)} to turn the globe.
+ */
+public class Orthographic extends Projection {
+
+	public Orthographic() {
+		clipAngle(90);
+	}
+
+	@Override
+	protected void forward(final double lambda, final double phi, final double[] out) {
+		double cosPhi = Math.cos(phi);
+		out[0] = cosPhi * Math.sin(lambda);
+		out[1] = Math.sin(phi);
+	}
+
+	@Override
+	protected void inverse(final double x, final double y, final double[] out) {
+		double rho = Math.sqrt(x * x + y * y);
+		double c = Spherical.asin(rho);
+		double sinC = Math.sin(c);
+		double cosC = Math.cos(c);
+		out[0] = Math.atan2(x * sinC, rho * cosC);
+		out[1] = Spherical.asin(rho == 0 ? 0 : y * sinC / rho);
+	}
+}
@@ -0,0 +1,194 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.geo;
+
+/**
+ * A sink writing the geometry of a stream as SVG path data.
+ * <p>
+ * The coordinates are written directly to a {@link StringBuilder}, rounded
+ * to a fixed number of decimals, 3 by default. Lines are written as
+ * moveto/lineto commands, the rings of the polygons are closed, and point
+ * geometries are drawn as circles of {@link #pointRadius(double) radius}
+ * 4.5.
+ */
+public class PathStringSink implements GeoStream {
+
+	private final StringBuilder buffer = new StringBuilder();
+
+	private final int factor;
+
+	private String pointCircle;
+
+	private boolean inLine;
+
+	private boolean lineStarted;
+
+	private boolean inPolygon;
+
+	/**
+	 * Creates a sink rounding the coordinates to 3 decimals.
+	 */
+	public PathStringSink() {
+		this(3);
+	}
+
+	/**
+	 * Creates a sink rounding the coordinates to the given number of
+	 * decimals.
+	 * 
+	 * @param decimals
+	 *            the number of decimals, between 0 and 6
+	 */
+	public PathStringSink(final int decimals) {
+		int factor = 1;
+		for (int i = 0; i < Math.max(0, Math.min(6, decimals)); i++) {
+			factor *= 10;
+		}
+		this.factor = factor;
+		pointRadius(4.5);
+	}
+
+	/**
+	 * Sets the radius of the circles drawn for the point geometries.
+	 * 
+	 * @param radius
+	 *            the radius
+	 * @return this sink
+	 */
+	public PathStringSink pointRadius(final double radius) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("m0,");
+		appendNumber(sb, radius);
+		sb.append('a');
+		appendNumber(sb, radius);
+		sb.append(',');
+		appendNumber(sb, radius);
+		sb.append(" 0 1,1 0,");
+		appendNumber(sb, -2 * radius);
+		sb.append('a');
+		appendNumber(sb, radius);
+		sb.append(',');
+		appendNumber(sb, radius);
+		sb.append(" 0 1,1 0,");
+		appendNumber(sb, 2 * radius);
+		sb.append('z');
+		pointCircle = sb.toString();
+		return this;
+	}
+
+	@Override
+	public void point(final double x, final double y) {
+		if (inLine) {
+			buffer.append(lineStarted ? 'L' : 'M');
+			lineStarted = true;
+		} else {
+			buffer.append('M');
+		}
+		appendNumber(buffer, x);
+		buffer.append(',');
+		appendNumber(buffer, y);
+		if (!inLine) {
+			buffer.append(pointCircle);
+		}
+	}
+
+	@Override
+	public void lineStart() {
+		inLine = true;
+		lineStarted = false;
+	}
+
+	@Override
+	public void lineEnd() {
+		if (inPolygon) {
+			buffer.append('Z');
+		}
+		inLine = false;
+	}
+
+	@Override
+	public void polygonStart() {
+		inPolygon = true;
+	}
+
+	@Override
+	public void polygonEnd() {
+		inPolygon = false;
+	}
+
+	/**
+	 * @return the number of characters written since the last call to
+	 *         {@link #result()}
+	 */
+	public int length() {
+		return buffer.length();
+	}
+
+	/**
+	 * Returns the path data written since the last call, and clears the
+	 * sink.
+	 * 
+	 * @return the path data, or null if nothing was written
+	 */
+	public String result() {
+		if (buffer.length() == 0) {
+			return null;
+		}
+		String result = buffer.toString();
+		buffer.setLength(0);
+		return result;
+	}
+
+	/**
+	 * Appends a number rounded to the decimals of the sink, without trailing
+	 * zeros nor exponent.
+	 */
+	private void appendNumber(final StringBuilder sb, final double v) {
+		double scaled = Math.floor(v * factor + .5);
+		if (!(Math.abs(scaled) < Integer.MAX_VALUE)) {
+			// NaN, infinite or far outside any viewport
+			sb.append(v);
+			return;
+		}
+		int i = (int) scaled;
+		if (i < 0) {
+			sb.append('-');
+			i = -i;
+		}
+		sb.append(i / factor);
+		int fraction = i % factor;
+		if (fraction != 0) {
+			sb.append('.');
+			for (int d = factor / 10; fraction != 0; d /= 10) {
+				sb.append((char) ('0' + fraction / d));
+				fraction %= d;
+			}
+		}
+	}
+}
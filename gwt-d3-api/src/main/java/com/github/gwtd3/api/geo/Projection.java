@@ -0,0 +1,401 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.geo;
+
+/**
+ * A geographic projection, computed in Java.
+ * <p>
+ * A projection maps longitudes and latitudes in degrees to pixels: the raw
+ * projection of the subclass, in radians and for a unit sphere, is applied
+ * after the {@link #rotate(double, double, double) rotation}, then
+ * {@link #scale(double) scaled} and {@link #translate(double, double)
+ * translated} so that the {@link #center(double, double) center} is at the
+ * translation point.
+ * <p>
+ * Geometry is projected by {@link #stream(GeoStream) streams}, which rotate
+ * and clip the points, add points along the lines where the projection is
+ * curved, and forward the pixels to a sink without building intermediate
+ * arrays:
+ * 
+ * <pre>
+ * {@code
+ * Projection projection = new Mercator().scale(120).translate(480, 250);
+ * PathStringSink sink = new PathStringSink();
+ * GeoStream stream = projection.stream(sink);
+ * stream.lineStart();
+ * for (int i = 0; i < lons.length; i++) {
+ *     stream.point(lons[i], lats[i]);
+ * }
+ * stream.lineEnd();
+ * path.attr("d", sink.result());
+ * }
+ * </pre>
+ * <p>
+ * {@link GeoPath} streams GeoJSON objects.
+ */
+public abstract class Projection {
+
+	private double k = 150;
+
+	private double x = 480;
+
+	private double y = 250;
+
+	// the center, in radians
+	private double lambda;
+
+	private double phi;
+
+	// the rotation, in radians
+	private double deltaLambda;
+
+	private double deltaPhi;
+
+	private double deltaGamma;
+
+	private double delta2 = .5;
+
+	/**
+	 * the clip angle in radians, or NaN for the antimeridian cut
+	 */
+	private double clipAngle = Double.NaN;
+
+	private boolean valid;
+
+	// the derived state
+	private double dx;
+
+	private double dy;
+
+	private Rotation rotation;
+
+	private Clipper clipper;
+
+	private final double[] tmp = new double[2];
+
+	protected Projection() {
+	}
+
+	/**
+	 * The raw projection: projects a point of the unit sphere, with the y
+	 * axis pointing up.
+	 * 
+	 * @param lambda
+	 *            the longitude, in radians
+	 * @param phi
+	 *            the latitude, in radians
+	 * @param out
+	 *            an array receiving x and y
+	 */
+	protected abstract void forward(double lambda, double phi, double[] out);
+
+	/**
+	 * The inverse of the raw projection.
+	 * 
+	 * @param x
+	 *            the x coordinate
+	 * @param y
+	 *            the y coordinate
+	 * @param out
+	 *            an array receiving the longitude and latitude, in radians
+	 */
+	protected abstract void inverse(double x, double y, double[] out);
+
+	/**
+	 * Subclasses call this method when the parameters of their raw
+	 * projection change.
+	 */
+	protected final void invalidate() {
+		valid = false;
+	}
+
+	private void validate() {
+		if (valid) {
+			return;
+		}
+		rotation = new Rotation(deltaLambda, deltaPhi, deltaGamma);
+		if (Double.isNaN(clipAngle)) {
+			clipper = ClipAntimeridian.INSTANCE;
+		} else if (!(clipper instanceof ClipCircle) || ((ClipCircle) clipper).radius() != clipAngle) {
+			clipper = new ClipCircle(clipAngle);
+		}
+		forward(lambda, phi, tmp);
+		dx = x - tmp[0] * k;
+		dy = y + tmp[1] * k;
+		valid = true;
+	}
+
+	/**
+	 * @return the scale factor, the default being 150
+	 */
+	public double scale() {
+		return k;
+	}
+
+	/**
+	 * Sets the scale factor.
+	 * 
+	 * @param k
+	 *            the scale factor
+	 * @return this projection
+	 */
+	public Projection scale(final double k) {
+		this.k = k;
+		invalidate();
+		return this;
+	}
+
+	/**
+	 * @return the x coordinate of the translation, the default being 480
+	 */
+	public double translateX() {
+		return x;
+	}
+
+	/**
+	 * @return the y coordinate of the translation, the default being 250
+	 */
+	public double translateY() {
+		return y;
+	}
+
+	/**
+	 * Sets the pixel position of the center of the projection.
+	 * 
+	 * @param x
+	 *            the x coordinate
+	 * @param y
+	 *            the y coordinate
+	 * @return this projection
+	 */
+	public Projection translate(final double x, final double y) {
+		this.x = x;
+		this.y = y;
+		invalidate();
+		return this;
+	}
+
+	/**
+	 * @return the longitude of the center, in degrees
+	 */
+	public double centerLongitude() {
+		return lambda * Spherical.DEGREES;
+	}
+
+	/**
+	 * @return the latitude of the center, in degrees
+	 */
+	public double centerLatitude() {
+		return phi * Spherical.DEGREES;
+	}
+
+	/**
+	 * Sets the center of the projection, which is projected to the
+	 * translation point.
+	 * 
+	 * @param longitude
+	 *            the longitude in degrees
+	 * @param latitude
+	 *            the latitude in degrees
+	 * @return this projection
+	 */
+	public Projection center(final double longitude, final double latitude) {
+		this.lambda = longitude % 360 * Spherical.RADIANS;
+		this.phi = latitude % 360 * Spherical.RADIANS;
+		invalidate();
+		return this;
+	}
+
+	/**
+	 * Sets the rotation of the sphere, applied before the projection.
+	 * 
+	 * @param lambda
+	 *            the rotation around the polar axis, in degrees
+	 * @param phi
+	 *            the rotation around the y axis, in degrees
+	 * @return this projection
+	 */
+	public Projection rotate(final double lambda, final double phi) {
+		return rotate(lambda, phi, 0);
+	}
+
+	/**
+	 * Sets the rotation of the sphere, applied before the projection.
+	 * 
+	 * @param lambda
+	 *            the rotation around the polar axis, in degrees
+	 * @param phi
+	 *            the rotation around the y axis, in degrees
+	 * @param gamma
+	 *            the rotation around the x axis, in degrees
+	 * @return this projection
+	 */
+	public Projection rotate(final double lambda, final double phi, final double gamma) {
+		this.deltaLambda = lambda % 360 * Spherical.RADIANS;
+		this.deltaPhi = phi % 360 * Spherical.RADIANS;
+		this.deltaGamma = gamma % 360 * Spherical.RADIANS;
+		invalidate();
+		return this;
+	}
+
+	/**
+	 * @return the rotation around the polar axis, in degrees
+	 */
+	public double rotateLambda() {
+		return deltaLambda * Spherical.DEGREES;
+	}
+
+	/**
+	 * @return the rotation around the y axis, in degrees
+	 */
+	public double rotatePhi() {
+		return deltaPhi * Spherical.DEGREES;
+	}
+
+	/**
+	 * @return the rotation around the x axis, in degrees
+	 */
+	public double rotateGamma() {
+		return deltaGamma * Spherical.DEGREES;
+	}
+
+	/**
+	 * @return the resampling precision, in pixels
+	 */
+	public double precision() {
+		return Math.sqrt(delta2);
+	}
+
+	/**
+	 * Sets the precision of the adaptive resampling: the maximum distance in
+	 * pixels between the projected lines and the curves they approximate. 0
+	 * disables the resampling. The default is about 0.7.
+	 * 
+	 * @param precision
+	 *            the precision, in pixels
+	 * @return this projection
+	 */
+	public Projection precision(final double precision) {
+		this.delta2 = precision * precision;
+		return this;
+	}
+
+	/**
+	 * @return the clip angle in degrees, or NaN if the geometry is cut along
+	 *         the antimeridian
+	 */
+	public double clipAngle() {
+		return clipAngle * Spherical.DEGREES;
+	}
+
+	/**
+	 * Sets the radius of the small circle around the center of the rotation
+	 * the geometry is clipped to, or NaN to cut the geometry along the
+	 * antimeridian instead.
+	 * 
+	 * @param angle
+	 *            the clip angle in degrees, or NaN
+	 * @return this projection
+	 */
+	public Projection clipAngle(final double angle) {
+		this.clipAngle = angle * Spherical.RADIANS;
+		invalidate();
+		return this;
+	}
+
+	/**
+	 * Projects a point.
+	 * 
+	 * @param longitude
+	 *            the longitude in degrees
+	 * @param latitude
+	 *            the latitude in degrees
+	 * @param out
+	 *            an array receiving x and y, or null
+	 * @return out, or a new array
+	 */
+	public double[] project(final double longitude, final double latitude, double[] out) {
+		validate();
+		if (out == null) {
+			out = new double[2];
+		}
+		rotation.rotate(longitude * Spherical.RADIANS, latitude * Spherical.RADIANS, out);
+		projectRotated(out[0], out[1], out);
+		return out;
+	}
+
+	/**
+	 * Projects a point from pixels back to the sphere.
+	 * 
+	 * @param x
+	 *            the x coordinate
+	 * @param y
+	 *            the y coordinate
+	 * @param out
+	 *            an array receiving the longitude and the latitude in degrees,
+	 *            or null
+	 * @return out, or a new array
+	 */
+	public double[] invert(final double x, final double y, double[] out) {
+		validate();
+		if (out == null) {
+			out = new double[2];
+		}
+		inverse((x - dx) / k, (dy - y) / k, out);
+		rotation.invert(out[0], out[1], out);
+		out[0] *= Spherical.DEGREES;
+		out[1] *= Spherical.DEGREES;
+		return out;
+	}
+
+	/**
+	 * Projects a rotated point, in radians, to pixels.
+	 */
+	final void projectRotated(final double lambda, final double phi, final double[] out) {
+		forward(lambda, phi, out);
+		out[0] = out[0] * k + dx;
+		out[1] = dy - out[1] * k;
+	}
+
+	/**
+	 * Creates a stream projecting geometry to the given sink. The stream
+	 * takes longitudes and latitudes in degrees; the sink receives pixels.
+	 * <p>
+	 * Streams are not updated when the projection changes: create a new
+	 * stream after changing it.
+	 * 
+	 * @param sink
+	 *            the sink
+	 * @return the stream
+	 */
+	public GeoStream stream(final GeoStream sink) {
+		validate();
+		return new Clip(clipper, rotation, new Resample(this, delta2, sink));
+	}
+}
@@ -0,0 +1,173 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.geo;
+
+/**
+ * The stage of a projection stream projecting the points, and adding points
+ * along the lines where their projection is curved, by recursive subdivision
+ * of the great arcs: an arc is split when its midpoint is farther than the
+ * precision from the projected chord, or when the arc spans more than 30
+ * degrees.
+ */
+final class Resample implements GeoStream {
+
+	private static final double COS_MIN_DISTANCE = Math.cos(30 * Spherical.RADIANS);
+
+	private static final int MAX_DEPTH = 16;
+
+	private static final int POINT = 0;
+
+	private static final int LINE = 1;
+
+	private static final int RING_START = 2;
+
+	private final Projection projection;
+
+	private final GeoStream stream;
+
+	/**
+	 * the square of the precision, in pixels
+	 */
+	private final double delta2;
+
+	private final int maxDepth;
+
+	private final double[] p = new double[2];
+
+	private int mode = POINT;
+
+	private boolean inPolygon;
+
+	// the last point of the line
+	private double lambda0, x0, y0, a0, b0, c0;
+
+	// the first point of the ring
+	private double lambda00, x00, y00, a00, b00, c00;
+
+	Resample(final Projection projection, final double delta2, final GeoStream stream) {
+		this.projection = projection;
+		this.stream = stream;
+		this.delta2 = delta2;
+		this.maxDepth = delta2 > 0 ? MAX_DEPTH : 0;
+	}
+
+	@Override
+	public void point(final double lambda, final double phi) {
+		if (mode == POINT || maxDepth == 0) {
+			projection.projectRotated(lambda, phi, p);
+			stream.point(p[0], p[1]);
+			return;
+		}
+		double cosPhi = Math.cos(phi);
+		double a = cosPhi * Math.cos(lambda);
+		double b = cosPhi * Math.sin(lambda);
+		double c = Math.sin(phi);
+		projection.projectRotated(lambda, phi, p);
+		double x = p[0];
+		double y = p[1];
+		resampleLineTo(x0, y0, lambda0, a0, b0, c0, x, y, lambda, a, b, c, maxDepth);
+		stream.point(x, y);
+		x0 = x;
+		y0 = y;
+		lambda0 = lambda;
+		a0 = a;
+		b0 = b;
+		c0 = c;
+		if (mode == RING_START) {
+			lambda00 = lambda;
+			x00 = x;
+			y00 = y;
+			a00 = a;
+			b00 = b;
+			c00 = c;
+			mode = LINE;
+		}
+	}
+
+	@Override
+	public void lineStart() {
+		x0 = Double.NaN;
+		mode = inPolygon ? RING_START : LINE;
+		stream.lineStart();
+	}
+
+	@Override
+	public void lineEnd() {
+		if (inPolygon && mode == LINE && maxDepth > 0) {
+			// the closing edge of the ring
+			resampleLineTo(x0, y0, lambda0, a0, b0, c0, x00, y00, lambda00, a00, b00, c00, maxDepth);
+		}
+		mode = POINT;
+		stream.lineEnd();
+	}
+
+	@Override
+	public void polygonStart() {
+		inPolygon = true;
+		stream.polygonStart();
+	}
+
+	@Override
+	public void polygonEnd() {
+		inPolygon = false;
+		stream.polygonEnd();
+	}
+
+	private void resampleLineTo(final double x0, final double y0, final double lambda0, final double a0,
+			final double b0, final double c0, final double x1, final double y1, final double lambda1,
+			final double a1, final double b1, final double c1, int depth) {
+		double dx = x1 - x0;
+		double dy = y1 - y0;
+		double d2 = dx * dx + dy * dy;
+		if (d2 > 4 * delta2 && depth-- > 0) {
+			double a = a0 + a1;
+			double b = b0 + b1;
+			double c = c0 + c1;
+			double m = Math.sqrt(a * a + b * b + c * c);
+			c /= m;
+			double phi2 = Math.asin(c);
+			double lambda2 = Math.abs(Math.abs(c) - 1) < Spherical.EPSILON
+					|| Math.abs(lambda0 - lambda1) < Spherical.EPSILON ? (lambda0 + lambda1) / 2 : Math.atan2(b, a);
+			projection.projectRotated(lambda2, phi2, p);
+			double x2 = p[0];
+			double y2 = p[1];
+			double dx2 = x2 - x0;
+			double dy2 = y2 - y0;
+			double dz = dy * dx2 - dx * dy2;
+			if (dz * dz / d2 > delta2 || Math.abs((dx * dx2 + dy * dy2) / d2 - .5) > .3
+					|| a0 * a1 + b0 * b1 + c0 * c1 < COS_MIN_DISTANCE) {
+				a /= m;
+				b /= m;
+				resampleLineTo(x0, y0, lambda0, a0, b0, c0, x2, y2, lambda2, a, b, c, depth);
+				stream.point(x2, y2);
+				resampleLineTo(x2, y2, lambda2, a, b, c, x1, y1, lambda1, a1, b1, c1, depth);
+			}
+		}
+	}
+}
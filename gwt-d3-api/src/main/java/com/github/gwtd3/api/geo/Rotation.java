@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.geo;
+
+/**
+ * A rotation of the sphere by three Euler angles, as the d3.geo rotations:
+ * the rotation of the longitudes around the polar axis, then the rotations
+ * around the y and x axes.
+ */
+final class Rotation {
+
+	private final double deltaLambda;
+
+	private final boolean rotatesPhiGamma;
+
+	private final double cosDeltaPhi;
+
+	private final double sinDeltaPhi;
+
+	private final double cosDeltaGamma;
+
+	private final double sinDeltaGamma;
+
+	/**
+	 * @param deltaLambda
+	 *            the rotation around the polar axis, in radians
+	 * @param deltaPhi
+	 *            the rotation around the y axis, in radians
+	 * @param deltaGamma
+	 *            the rotation around the x axis, in radians
+	 */
+	Rotation(final double deltaLambda, final double deltaPhi, final double deltaGamma) {
+		this.deltaLambda = deltaLambda;
+		this.rotatesPhiGamma = deltaPhi != 0 || deltaGamma != 0;
+		this.cosDeltaPhi = Math.cos(deltaPhi);
+		this.sinDeltaPhi = Math.sin(deltaPhi);
+		this.cosDeltaGamma = Math.cos(deltaGamma);
+		this.sinDeltaGamma = Math.sin(deltaGamma);
+	}
+
+	/**
+	 * Rotates the point, and stores the result in out.
+	 */
+	void rotate(double lambda, final double phi, final double[] out) {
+		if (deltaLambda != 0) {
+			lambda += deltaLambda;
+			lambda = lambda > Math.PI ? lambda - Spherical.TAU : lambda < -Math.PI ? lambda + Spherical.TAU : lambda;
+		}
+		if (!rotatesPhiGamma) {
+			out[0] = lambda;
+			out[1] = phi;
+			return;
+		}
+		double cosPhi = Math.cos(phi);
+		double x = Math.cos(lambda) * cosPhi;
+		double y = Math.sin(lambda) * cosPhi;
+		double z = Math.sin(phi);
+		double k = z * cosDeltaPhi + x * sinDeltaPhi;
+		out[0] = Math.atan2(y * cosDeltaGamma - k * sinDeltaGamma, x * cosDeltaPhi - z * sinDeltaPhi);
+		out[1] = Spherical.asin(k * cosDeltaGamma + y * sinDeltaGamma);
+	}
+
+	/**
+	 * Applies the inverse rotation, and stores the result in out.
+	 */
+	void invert(double lambda, double phi, final double[] out) {
+		if (rotatesPhiGamma) {
+			double cosPhi = Math.cos(phi);
+			double x = Math.cos(lambda) * cosPhi;
+			double y = Math.sin(lambda) * cosPhi;
+			double z = Math.sin(phi);
+			double k = z * cosDeltaGamma - y * sinDeltaGamma;
+			lambda = Math.atan2(y * cosDeltaGamma + z * sinDeltaGamma, x * cosDeltaPhi + k * sinDeltaPhi);
+			phi = Spherical.asin(k * cosDeltaPhi - x * sinDeltaPhi);
+		}
+		if (deltaLambda != 0) {
+			lambda -= deltaLambda;
+			lambda = lambda > Math.PI ? lambda - Spherical.TAU : lambda < -Math.PI ? lambda + Spherical.TAU : lambda;
+		}
+		out[0] = lambda;
+		out[1] = phi;
+	}
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.geo;
+
+/**
+ * Spherical and cartesian helpers of the geo pipeline. Angles are in radians.
+ */
+final class Spherical {
+
+	static final double EPSILON = 1e-6;
+
+	static final double HALF_PI = Math.PI / 2;
+
+	static final double TAU = Math.PI * 2;
+
+	static final double RADIANS = Math.PI / 180;
+
+	static final double DEGREES = 180 / Math.PI;
+
+	private Spherical() {
+	}
+
+	static double asin(final double x) {
+		return x > 1 ? HALF_PI : x < -1 ? -HALF_PI : Math.asin(x);
+	}
+
+	static double acos(final double x) {
+		return x > 1 ? 0 : x < -1 ? Math.PI : Math.acos(x);
+	}
+
+	/**
+	 * Stores the unit vector of the given longitude and latitude in out.
+	 */
+	static void cartesian(final double lambda, final double phi, final double[] out) {
+		double cosPhi = Math.cos(phi);
+		out[0] = cosPhi * Math.cos(lambda);
+		out[1] = cosPhi * Math.sin(lambda);
+		out[2] = Math.sin(phi);
+	}
+
+	/**
+	 * @return the longitude and latitude of the given unit vector
+	 */
+	static double[] spherical(final double[] c) {
+		return new double[] { Math.atan2(c[1], c[0]), asin(c[2]) };
+	}
+
+	static double dot(final double[] a, final double[] b) {
+		return a[0] * b[0] + a[1] * b[1] + a[2] * b[2];
+	}
+
+	static void cross(final double[] a, final double[] b, final double[] out) {
+		double x = a[1] * b[2] - a[2] * b[1];
+		double y = a[2] * b[0] - a[0] * b[2];
+		double z = a[0] * b[1] - a[1] * b[0];
+		out[0] = x;
+		out[1] = y;
+		out[2] = z;
+	}
+
+	static void normalize(final double[] a) {
+		double l = Math.sqrt(a[0] * a[0] + a[1] * a[1] + a[2] * a[2]);
+		a[0] /= l;
+		a[1] /= l;
+		a[2] /= l;
+	}
+
+	static boolean equal(final double[] a, final double[] b) {
+		return Math.abs(a[0] - b[0]) < EPSILON && Math.abs(a[1] - b[1]) < EPSILON;
+	}
+
+	/**
+	 * Tests whether a point is inside a polygon on the sphere, by winding
+	 * number around the point and, for polygons around a pole, by the sign of
+	 * their area.
+	 * 
+	 * @param lambda
+	 *            the longitude of the point
+	 * @param phi
+	 *            the latitude of the point
+	 * @param rings
+	 *            the rings, as flat arrays of longitudes and latitudes
+	 * @param lengths
+	 *            the number of coordinates used in each ring
+	 * @param ringCount
+	 *            the number of rings
+	 * @return true if the point is inside
+	 */
+	static boolean polygonContains(final double lambda, final double phi, final double[][] rings,
+			final int[] lengths, final int ringCount) {
+		double[] meridianNormal = { Math.sin(lambda), -Math.cos(lambda), 0 };
+		double[] a = new double[3];
+		double[] b = new double[3];
+		double polarAngle = 0;
+		double area = 0;
+		int winding = 0;
+		for (int r = 0; r < ringCount; r++) {
+			double[] ring = rings[r];
+			int m = lengths[r] / 2;
+			if (m == 0) {
+				continue;
+			}
+			double lambda0 = ring[0];
+			double phi0 = ring[1];
+			double phi0h = phi0 / 2 + Math.PI / 4;
+			double sinPhi0 = Math.sin(phi0h);
+			double cosPhi0 = Math.cos(phi0h);
+			int j = 1;
+			while (true) {
+				if (j == m) {
+					j = 0;
+				}
+				double lambda1 = ring[j * 2];
+				double phi1 = ring[j * 2 + 1];
+				double phi1h = phi1 / 2 + Math.PI / 4;
+				double sinPhi = Math.sin(phi1h);
+				double cosPhi = Math.cos(phi1h);
+				double dLambda = lambda1 - lambda0;
+				double sdLambda = dLambda >= 0 ? 1 : -1;
+				double adLambda = sdLambda * dLambda;
+				boolean antimeridian = adLambda > Math.PI;
+				double k = sinPhi0 * sinPhi;
+				area += Math.atan2(k * sdLambda * Math.sin(adLambda), cosPhi0 * cosPhi + k * Math.cos(adLambda));
+				polarAngle += antimeridian ? dLambda + sdLambda * TAU : dLambda;
+				if (antimeridian ^ lambda0 >= lambda ^ lambda1 >= lambda) {
+					cartesian(lambda0, phi0, a);
+					cartesian(lambda1, phi1, b);
+					cross(a, b, a);
+					normalize(a);
+					cross(meridianNormal, a, b);
+					normalize(b);
+					double phiArc = (antimeridian ^ dLambda >= 0 ? -1 : 1) * asin(b[2]);
+					if (phi > phiArc || phi == phiArc && (a[0] != 0 || a[1] != 0)) {
+						winding += antimeridian ^ dLambda >= 0 ? 1 : -1;
+					}
+				}
+				if (j++ == 0) {
+					break;
+				}
+				lambda0 = lambda1;
+				phi0 = phi1;
+				sinPhi0 = sinPhi;
+				cosPhi0 = cosPhi;
+			}
+		}
+		return (polarAngle < -EPSILON || polarAngle < EPSILON && area < 0) ^ (winding & 1) != 0;
+	}
+}
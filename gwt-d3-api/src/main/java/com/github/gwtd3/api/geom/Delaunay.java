@@ -0,0 +1,761 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.geom;
+
+import com.github.gwtd3.api.D3;
+import com.google.gwt.dom.client.Node;
+
+/**
+ * The Delaunay triangulation of a set of points, computed in Java.
+ * <p>
+ * The triangulation is computed with a sweep-hull algorithm, in O(n log n):
+ * the points are added in order of their distance to a seed triangle,
+ * connected to the visible edges of the convex hull, and the triangles are
+ * flipped until they satisfy the Delaunay condition. The result is stored in
+ * flat int arrays: the triangles as triplets of point indices, and the
+ * half-edges, giving for each edge of a triangle the opposite edge of the
+ * adjacent triangle, or -1 on the hull.
+ * <p>
+ * {@link #find(double, double)} returns the nearest point by walking the
+ * triangulation from the last point found: for hover tooltips the walk is
+ * typically a few steps, and O(sqrt(n)) from a random point:
+ * 
+ * <pre>
+ * {@code
+ * Delaunay delaunay = Delaunay.from(xs, ys);
+ * svg.on("mousemove", new DatumFunction<Void>() {
+ *     public Void apply(Element context, Value d, int index) {
+ *         highlight(delaunay.findMouse(context));
+ *         return null;
+ *     }
+ * });
+ * }
+ * </pre>
+ * <p>
+ * See {@link Voronoi} for the cells of the points.
+ */
+public class Delaunay {
+
+	private static final double EPSILON = Math.pow(2, -52);
+
+	private final double[] coords;
+
+	private final int size;
+
+	private int[] triangles;
+
+	private int[] halfedges;
+
+	private int[] hull;
+
+	/**
+	 * for each point, a half-edge ending at the point, starting on the hull
+	 * for the points of the hull, or -1 for the points skipped as duplicates
+	 */
+	private int[] inedges;
+
+	/**
+	 * for each point, its index in the hull, or -1
+	 */
+	private int[] hullIndex;
+
+	private int last;
+
+	// the state of the sweep
+	private int trianglesLength;
+
+	private int[] hullPrev;
+
+	private int[] hullNext;
+
+	private int[] hullTri;
+
+	private int[] hullHash;
+
+	private int hullStart;
+
+	private double cx;
+
+	private double cy;
+
+	private int[] edgeStack = new int[512];
+
+	/**
+	 * Triangulate the points.
+	 * 
+	 * @param x
+	 *            the x coordinates of the points
+	 * @param y
+	 *            the y coordinates of the points
+	 * @return the triangulation
+	 */
+	public static Delaunay from(final double[] x, final double[] y) {
+		int n = Math.min(x.length, y.length);
+		double[] coords = new double[n * 2];
+		for (int i = 0; i < n; i++) {
+			coords[2 * i] = x[i];
+			coords[2 * i + 1] = y[i];
+		}
+		return new Delaunay(coords);
+	}
+
+	/**
+	 * Triangulate the points.
+	 * 
+	 * @param coords
+	 *            the coordinates of the points, as x0, y0, x1, y1...; the
+	 *            array is kept and must not be modified
+	 */
+	public Delaunay(final double[] coords) {
+		super();
+		this.coords = coords;
+		this.size = coords.length >> 1;
+		triangulate();
+		index();
+	}
+
+	/**
+	 * @return the number of points
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the coordinates of the points, as x0, y0, x1, y1...
+	 */
+	public double[] coords() {
+		return coords;
+	}
+
+	/**
+	 * @return the indices of the points of the triangles, by triplets in
+	 *         counterclockwise order (on screen, with y down: clockwise)
+	 */
+	public int[] triangles() {
+		return triangles;
+	}
+
+	/**
+	 * @return the number of triangles
+	 */
+	public int triangleCount() {
+		return triangles.length / 3;
+	}
+
+	/**
+	 * @return for the edge e of the triangle e / 3, the index of the opposite
+	 *         edge in the adjacent triangle, or -1 if the edge is on the hull
+	 */
+	public int[] halfedges() {
+		return halfedges;
+	}
+
+	/**
+	 * @return the indices of the points of the convex hull
+	 */
+	public int[] hull() {
+		return hull;
+	}
+
+	int inedge(final int i) {
+		return inedges[i];
+	}
+
+	int hullIndex(final int i) {
+		return hullIndex[i];
+	}
+
+	/**
+	 * Return the index of the point nearest to the given position, walking
+	 * the triangulation from the point found by the previous call.
+	 * 
+	 * @param x
+	 *            the x coordinate
+	 * @param y
+	 *            the y coordinate
+	 * @return the index of the nearest point, or -1 if there is no point or
+	 *         the position is NaN
+	 */
+	public int find(final double x, final double y) {
+		int found = find(x, y, last);
+		if (found >= 0) {
+			last = found;
+		}
+		return found;
+	}
+
+	/**
+	 * Return the index of the point nearest to the given position, walking
+	 * the triangulation from the given point.
+	 * 
+	 * @param x
+	 *            the x coordinate
+	 * @param y
+	 *            the y coordinate
+	 * @param start
+	 *            the index of the point to start from
+	 * @return the index of the nearest point, or -1 if there is no point or
+	 *         the position is NaN
+	 */
+	public int find(final double x, final double y, final int start) {
+		if (x != x || y != y || size == 0) {
+			return -1;
+		}
+		if (triangles.length == 0) {
+			return scan(x, y);
+		}
+		int i = start < 0 || start >= size ? 0 : start;
+		int c;
+		while ((c = step(i, x, y)) >= 0 && c != i && c != start) {
+			i = c;
+		}
+		return c;
+	}
+
+	/**
+	 * Return the index of the point nearest to the mouse, with the
+	 * coordinates of {@link D3#mouse(Node)}.
+	 * 
+	 * @param container
+	 *            the container the coordinates of the points are relative to
+	 * @return the index of the nearest point
+	 */
+	public int findMouse(final Node container) {
+		return find(D3.mouseX(container), D3.mouseY(container));
+	}
+
+	/**
+	 * one step of the walk: the neighbor of i nearest to the position, or i
+	 */
+	private int step(final int i, final double x, final double y) {
+		int e0 = inedges[i];
+		if (e0 == -1) {
+			// a duplicate point
+			return (i + 1) % size;
+		}
+		int c = i;
+		double dc = dist2(i, x, y);
+		int e = e0;
+		do {
+			int t = triangles[e];
+			double dt = dist2(t, x, y);
+			if (dt < dc) {
+				dc = dt;
+				c = t;
+			}
+			e = e % 3 == 2 ? e - 2 : e + 1;
+			if (triangles[e] != i) {
+				break;
+			}
+			e = halfedges[e];
+			if (e == -1) {
+				// around a point of the hull, the last neighbor is the next
+				// point of the hull
+				int h = hull[(hullIndex[i] + 1) % hull.length];
+				if (h != t && dist2(h, x, y) < dc) {
+					return h;
+				}
+				break;
+			}
+		} while (e != e0);
+		return c;
+	}
+
+	private int scan(final double x, final double y) {
+		int c = -1;
+		double dc = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < size; i++) {
+			double d = dist2(i, x, y);
+			if (d < dc) {
+				dc = d;
+				c = i;
+			}
+		}
+		return c;
+	}
+
+	private double dist2(final int i, final double x, final double y) {
+		double dx = coords[2 * i] - x;
+		double dy = coords[2 * i + 1] - y;
+		return dx * dx + dy * dy;
+	}
+
+	private void index() {
+		inedges = new int[size];
+		hullIndex = new int[size];
+		for (int i = 0; i < size; i++) {
+			inedges[i] = -1;
+			hullIndex[i] = -1;
+		}
+		for (int e = 0; e < halfedges.length; e++) {
+			int p = triangles[e % 3 == 2 ? e - 2 : e + 1];
+			if (halfedges[e] == -1 || inedges[p] == -1) {
+				inedges[p] = e;
+			}
+		}
+		for (int i = 0; i < hull.length; i++) {
+			hullIndex[hull[i]] = i;
+		}
+	}
+
+	// ================ sweep-hull triangulation ================
+
+	private void triangulate() {
+		int n = size;
+		int maxTriangles = Math.max(2 * n - 5, 0);
+		triangles = new int[maxTriangles * 3];
+		halfedges = new int[maxTriangles * 3];
+		if (n == 0) {
+			hull = new int[0];
+			return;
+		}
+		int hashSize = (int) Math.ceil(Math.sqrt(n));
+		hullPrev = new int[n];
+		hullNext = new int[n];
+		hullTri = new int[n];
+		hullHash = new int[hashSize];
+		int[] ids = new int[n];
+		double[] dists = new double[n];
+
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			double x = coords[2 * i];
+			double y = coords[2 * i + 1];
+			minX = Math.min(minX, x);
+			minY = Math.min(minY, y);
+			maxX = Math.max(maxX, x);
+			maxY = Math.max(maxY, y);
+			ids[i] = i;
+		}
+		double mx = (minX + maxX) / 2;
+		double my = (minY + maxY) / 2;
+
+		// the seed triangle: the point nearest to the center, its nearest
+		// point, and the point making the smallest circumcircle with them
+		int i0 = 0;
+		int i1 = 0;
+		int i2 = 0;
+		double minDist = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			double d = dist2(i, mx, my);
+			if (d < minDist) {
+				i0 = i;
+				minDist = d;
+			}
+		}
+		double i0x = coords[2 * i0];
+		double i0y = coords[2 * i0 + 1];
+		minDist = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			if (i == i0) {
+				continue;
+			}
+			double d = dist2(i, i0x, i0y);
+			if (d < minDist && d > 0) {
+				i1 = i;
+				minDist = d;
+			}
+		}
+		double i1x = coords[2 * i1];
+		double i1y = coords[2 * i1 + 1];
+		double minRadius = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			if (i == i0 || i == i1) {
+				continue;
+			}
+			double r = circumradius(i0x, i0y, i1x, i1y, coords[2 * i], coords[2 * i + 1]);
+			if (r < minRadius) {
+				i2 = i;
+				minRadius = r;
+			}
+		}
+
+		if (minRadius == Double.POSITIVE_INFINITY) {
+			// all the points are collinear: the hull is the points sorted
+			// along the line, without triangles
+			for (int i = 0; i < n; i++) {
+				double d = coords[2 * i] - coords[0];
+				dists[i] = d != 0 ? d : coords[2 * i + 1] - coords[1];
+			}
+			quicksort(ids, dists, 0, n - 1);
+			int[] edge = new int[n];
+			int j = 0;
+			double d0 = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < n; i++) {
+				int id = ids[i];
+				if (dists[id] > d0) {
+					edge[j++] = id;
+					d0 = dists[id];
+				}
+			}
+			hull = new int[j];
+			System.arraycopy(edge, 0, hull, 0, j);
+			triangles = new int[0];
+			halfedges = new int[0];
+			return;
+		}
+
+		double i2x = coords[2 * i2];
+		double i2y = coords[2 * i2 + 1];
+		if (orient(i0x, i0y, i1x, i1y, i2x, i2y)) {
+			int i = i1;
+			double x = i1x;
+			double y = i1y;
+			i1 = i2;
+			i1x = i2x;
+			i1y = i2y;
+			i2 = i;
+			i2x = x;
+			i2y = y;
+		}
+
+		// the center of the seed circumcircle
+		double dx = i1x - i0x;
+		double dy = i1y - i0y;
+		double ex = i2x - i0x;
+		double ey = i2y - i0y;
+		double bl = dx * dx + dy * dy;
+		double cl = ex * ex + ey * ey;
+		double d = 0.5 / (dx * ey - dy * ex);
+		cx = i0x + (ey * bl - dy * cl) * d;
+		cy = i0y + (dx * cl - ex * bl) * d;
+
+		for (int i = 0; i < n; i++) {
+			dists[i] = dist2(i, cx, cy);
+		}
+		quicksort(ids, dists, 0, n - 1);
+
+		hullStart = i0;
+		int hullSize = 3;
+		hullNext[i0] = hullPrev[i2] = i1;
+		hullNext[i1] = hullPrev[i0] = i2;
+		hullNext[i2] = hullPrev[i1] = i0;
+		hullTri[i0] = 0;
+		hullTri[i1] = 1;
+		hullTri[i2] = 2;
+		for (int i = 0; i < hashSize; i++) {
+			hullHash[i] = -1;
+		}
+		hullHash[hashKey(i0x, i0y)] = i0;
+		hullHash[hashKey(i1x, i1y)] = i1;
+		hullHash[hashKey(i2x, i2y)] = i2;
+
+		trianglesLength = 0;
+		addTriangle(i0, i1, i2, -1, -1, -1);
+
+		double xp = 0;
+		double yp = 0;
+		for (int k = 0; k < n; k++) {
+			int i = ids[k];
+			double x = coords[2 * i];
+			double y = coords[2 * i + 1];
+
+			// skip the near-duplicate points
+			if (k > 0 && Math.abs(x - xp) <= EPSILON && Math.abs(y - yp) <= EPSILON) {
+				continue;
+			}
+			xp = x;
+			yp = y;
+			if (i == i0 || i == i1 || i == i2) {
+				continue;
+			}
+
+			// a visible edge of the hull, found with the hash of the angles
+			int start = 0;
+			int key = hashKey(x, y);
+			for (int j = 0; j < hashSize; j++) {
+				start = hullHash[(key + j) % hashSize];
+				if (start != -1 && start != hullNext[start]) {
+					break;
+				}
+			}
+			start = hullPrev[start];
+			int e = start;
+			int q = hullNext[e];
+			while (!orient(x, y, coords[2 * e], coords[2 * e + 1], coords[2 * q], coords[2 * q + 1])) {
+				e = q;
+				if (e == start) {
+					e = -1;
+					break;
+				}
+				q = hullNext[e];
+			}
+			if (e == -1) {
+				// a near-duplicate point
+				continue;
+			}
+
+			// the first triangle from the point
+			int t = addTriangle(e, i, hullNext[e], -1, -1, hullTri[e]);
+			hullTri[i] = legalize(t + 2);
+			hullTri[e] = t;
+			hullSize++;
+
+			// walk forward through the hull, adding more triangles
+			int next = hullNext[e];
+			q = hullNext[next];
+			while (orient(x, y, coords[2 * next], coords[2 * next + 1], coords[2 * q], coords[2 * q + 1])) {
+				t = addTriangle(next, i, q, hullTri[i], -1, hullTri[next]);
+				hullTri[i] = legalize(t + 2);
+				hullNext[next] = next;
+				hullSize--;
+				next = q;
+				q = hullNext[next];
+			}
+
+			// walk backward from the other side
+			if (e == start) {
+				q = hullPrev[e];
+				while (orient(x, y, coords[2 * q], coords[2 * q + 1], coords[2 * e], coords[2 * e + 1])) {
+					t = addTriangle(q, i, e, -1, hullTri[e], hullTri[q]);
+					legalize(t + 2);
+					hullTri[q] = t;
+					hullNext[e] = e;
+					hullSize--;
+					e = q;
+					q = hullPrev[e];
+				}
+			}
+
+			// update the hull
+			hullStart = hullPrev[i] = e;
+			hullNext[e] = hullPrev[next] = i;
+			hullNext[i] = next;
+			hullHash[hashKey(x, y)] = i;
+			hullHash[hashKey(coords[2 * e], coords[2 * e + 1])] = e;
+		}
+
+		hull = new int[hullSize];
+		for (int i = 0, e = hullStart; i < hullSize; i++) {
+			hull[i] = e;
+			e = hullNext[e];
+		}
+		int[] trimmed = new int[trianglesLength];
+		System.arraycopy(triangles, 0, trimmed, 0, trianglesLength);
+		triangles = trimmed;
+		trimmed = new int[trianglesLength];
+		System.arraycopy(halfedges, 0, trimmed, 0, trianglesLength);
+		halfedges = trimmed;
+		// the sweep state is not needed anymore
+		hullPrev = hullNext = hullTri = hullHash = null;
+		edgeStack = null;
+	}
+
+	private int hashKey(final double x, final double y) {
+		return (int) Math.floor(pseudoAngle(x - cx, y - cy) * hullHash.length) % hullHash.length;
+	}
+
+	/**
+	 * a monotonic function of the angle of the vector, in [0, 1)
+	 */
+	private static double pseudoAngle(final double dx, final double dy) {
+		double p = dx / (Math.abs(dx) + Math.abs(dy));
+		return (dy > 0 ? 3 - p : 1 + p) / 4;
+	}
+
+	/**
+	 * flip the triangles until the edge a and the edges behind it satisfy
+	 * the Delaunay condition
+	 */
+	private int legalize(int a) {
+		int i = 0;
+		int ar;
+		while (true) {
+			int b = halfedges[a];
+			int a0 = a - a % 3;
+			ar = a0 + (a + 2) % 3;
+			if (b == -1) {
+				if (i == 0) {
+					break;
+				}
+				a = edgeStack[--i];
+				continue;
+			}
+			int b0 = b - b % 3;
+			int al = a0 + (a + 1) % 3;
+			int bl = b0 + (b + 2) % 3;
+			int p0 = triangles[ar];
+			int pr = triangles[a];
+			int pl = triangles[al];
+			int p1 = triangles[bl];
+			if (inCircle(p0, pr, pl, p1)) {
+				triangles[a] = p1;
+				triangles[b] = p0;
+				int hbl = halfedges[bl];
+				// the edge swapped on the other side of the hull
+				if (hbl == -1) {
+					int e = hullStart;
+					do {
+						if (hullTri[e] == bl) {
+							hullTri[e] = a;
+							break;
+						}
+						e = hullPrev[e];
+					} while (e != hullStart);
+				}
+				link(a, hbl);
+				link(b, halfedges[ar]);
+				link(ar, bl);
+				int br = b0 + (b + 1) % 3;
+				if (i == edgeStack.length) {
+					int[] grown = new int[i * 2];
+					System.arraycopy(edgeStack, 0, grown, 0, i);
+					edgeStack = grown;
+				}
+				edgeStack[i++] = br;
+			} else {
+				if (i == 0) {
+					break;
+				}
+				a = edgeStack[--i];
+			}
+		}
+		return ar;
+	}
+
+	private boolean inCircle(final int a, final int b, final int c, final int p) {
+		double px = coords[2 * p];
+		double py = coords[2 * p + 1];
+		double dx = coords[2 * a] - px;
+		double dy = coords[2 * a + 1] - py;
+		double ex = coords[2 * b] - px;
+		double ey = coords[2 * b + 1] - py;
+		double fx = coords[2 * c] - px;
+		double fy = coords[2 * c + 1] - py;
+		double ap = dx * dx + dy * dy;
+		double bp = ex * ex + ey * ey;
+		double cp = fx * fx + fy * fy;
+		return dx * (ey * cp - bp * fy) - dy * (ex * cp - bp * fx) + ap * (ex * fy - ey * fx) < 0;
+	}
+
+	private int addTriangle(final int i0, final int i1, final int i2, final int a, final int b, final int c) {
+		int t = trianglesLength;
+		triangles[t] = i0;
+		triangles[t + 1] = i1;
+		triangles[t + 2] = i2;
+		link(t, a);
+		link(t + 1, b);
+		link(t + 2, c);
+		trianglesLength += 3;
+		return t;
+	}
+
+	private void link(final int a, final int b) {
+		halfedges[a] = b;
+		if (b != -1) {
+			halfedges[b] = a;
+		}
+	}
+
+	private static boolean orient(final double px, final double py, final double qx, final double qy,
+			final double rx, final double ry) {
+		return (qy - py) * (rx - qx) - (qx - px) * (ry - qy) < 0;
+	}
+
+	private static double circumradius(final double ax, final double ay, final double bx, final double by,
+			final double cx, final double cy) {
+		double dx = bx - ax;
+		double dy = by - ay;
+		double ex = cx - ax;
+		double ey = cy - ay;
+		double bl = dx * dx + dy * dy;
+		double cl = ex * ex + ey * ey;
+		double d = 0.5 / (dx * ey - dy * ex);
+		double x = (ey * bl - dy * cl) * d;
+		double y = (dx * cl - ex * bl) * d;
+		double r = x * x + y * y;
+		// NaN or infinite for collinear points
+		return r == r ? r : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * sort the ids by their distance, insertion sort for the small ranges
+	 */
+	private static void quicksort(final int[] ids, final double[] dists, final int left, final int right) {
+		if (right - left <= 20) {
+			for (int i = left + 1; i <= right; i++) {
+				int temp = ids[i];
+				double tempDist = dists[temp];
+				int j = i - 1;
+				while (j >= left && dists[ids[j]] > tempDist) {
+					ids[j + 1] = ids[j];
+					j--;
+				}
+				ids[j + 1] = temp;
+			}
+			return;
+		}
+		int median = (left + right) >> 1;
+		int i = left + 1;
+		int j = right;
+		swap(ids, median, i);
+		if (dists[ids[left]] > dists[ids[right]]) {
+			swap(ids, left, right);
+		}
+		if (dists[ids[i]] > dists[ids[right]]) {
+			swap(ids, i, right);
+		}
+		if (dists[ids[left]] > dists[ids[i]]) {
+			swap(ids, left, i);
+		}
+		int temp = ids[i];
+		double tempDist = dists[temp];
+		while (true) {
+			do {
+				i++;
+			} while (dists[ids[i]] < tempDist);
+			do {
+				j--;
+			} while (dists[ids[j]] > tempDist);
+			if (j < i) {
+				break;
+			}
+			swap(ids, i, j);
+		}
+		ids[left + 1] = ids[j];
+		ids[j] = temp;
+		if (right - i + 1 >= j - left) {
+			quicksort(ids, dists, i, right);
+			quicksort(ids, dists, left, j - 1);
+		} else {
+			quicksort(ids, dists, left, j - 1);
+			quicksort(ids, dists, i, right);
+		}
+	}
+
+	private static void swap(final int[] array, final int i, final int j) {
+		int tmp = array[i];
+		array[i] = array[j];
+		array[j] = tmp;
+	}
+}
@@ -0,0 +1,827 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.geom;
+
+import com.github.gwtd3.api.geo.GeoStream;
+
+/**
+ * Simplifies a set of lines and rings sharing borders, by ranking their
+ * vertices once and filtering them by a threshold at each zoom level.
+ * <p>
+ * {@link #visvalingam()} or {@link #douglasPeucker()} computes the importance
+ * of every vertex, in O(n log n): the effective area of the vertex for
+ * Visvalingam, or its distance to the simplified line for Douglas-Peucker.
+ * The importances are made monotonic, so that the simplifications of higher
+ * thresholds are subsets of the ones of lower thresholds. The vertices kept
+ * at a given threshold are then found in O(n), by
+ * {@link #filter(int, double, double[])}, {@link #indices(int, double, int[])}
+ * or {@link #stream(int, double, GeoStream)}.
+ * <p>
+ * The simplification is topology-aware: the lines are cut into arcs at the
+ * junctions, the vertices shared by several lines with different neighbors
+ * (and the ends of the open lines), which are always kept. Each arc is ranked
+ * once, so that a border shared by two polygons is simplified the same way
+ * in both, and no gap nor overlap appears between them.
+ * <p>
+ * The thresholds are in the units of the coordinates, squared for the
+ * Visvalingam areas: to remove the details smaller than one pixel at a zoom
+ * scale k, use the threshold 1 / (k * k) with Visvalingam, or 1 / k with
+ * Douglas-Peucker.
+ * 
+ * <pre>
+ * {@code
+ * Simplification simplification = new Simplification();
+ * int ring = simplification.add(coords, true);
+ * simplification.visvalingam();
+ * 
+ * // on each zoom
+ * GeoStream stream = projection.stream(new Context2dSink(context));
+ * stream.polygonStart();
+ * simplification.stream(ring, 1 / (k * k), stream);
+ * stream.polygonEnd();
+ * }
+ * </pre>
+ */
+public class Simplification {
+
+	private double[][] lines = new double[8][];
+
+	private boolean[] closed = new boolean[8];
+
+	private int lineCount;
+
+	private double[][] importances;
+
+	/**
+	 * Adds a line or a ring.
+	 * 
+	 * @param coords
+	 *            the coordinates of the vertices, as x0, y0, x1, y1...; the
+	 *            array is kept and must not be modified
+	 * @param closed
+	 *            true for a ring; its first vertex may be repeated at its end
+	 * @return the index of the line
+	 */
+	public int add(double[] coords, final boolean closed) {
+		int n = coords.length & ~1;
+		if (closed && n >= 4 && coords[0] == coords[n - 2] && coords[1] == coords[n - 1]) {
+			n -= 2;
+		}
+		if (n != coords.length) {
+			double[] copy = new double[n];
+			System.arraycopy(coords, 0, copy, 0, n);
+			coords = copy;
+		}
+		if (lineCount == lines.length) {
+			double[][] grownLines = new double[lineCount * 2][];
+			System.arraycopy(lines, 0, grownLines, 0, lineCount);
+			lines = grownLines;
+			boolean[] grownClosed = new boolean[lineCount * 2];
+			System.arraycopy(this.closed, 0, grownClosed, 0, lineCount);
+			this.closed = grownClosed;
+		}
+		lines[lineCount] = coords;
+		this.closed[lineCount] = closed;
+		importances = null;
+		return lineCount++;
+	}
+
+	/**
+	 * Adds a line or a ring.
+	 * 
+	 * @param x
+	 *            the x coordinates of the vertices
+	 * @param y
+	 *            the y coordinates of the vertices
+	 * @param closed
+	 *            true for a ring; its first vertex may be repeated at its end
+	 * @return the index of the line
+	 */
+	public int add(final double[] x, final double[] y, final boolean closed) {
+		int n = Math.min(x.length, y.length);
+		double[] coords = new double[n * 2];
+		for (int i = 0; i < n; i++) {
+			coords[2 * i] = x[i];
+			coords[2 * i + 1] = y[i];
+		}
+		return add(coords, closed);
+	}
+
+	/**
+	 * @return the number of lines
+	 */
+	public int size() {
+		return lineCount;
+	}
+
+	/**
+	 * @param line
+	 *            the index of the line
+	 * @return the number of vertices of the line
+	 */
+	public int vertexCount(final int line) {
+		return lines[line].length >> 1;
+	}
+
+	/**
+	 * @param line
+	 *            the index of the line
+	 * @return the coordinates of the line, without the repeated first vertex
+	 *         of the rings
+	 */
+	public double[] coords(final int line) {
+		return lines[line];
+	}
+
+	/**
+	 * @param line
+	 *            the index of the line
+	 * @return true if the line is a ring
+	 */
+	public boolean isClosed(final int line) {
+		return closed[line];
+	}
+
+	/**
+	 * Ranks the vertices by their effective area, the area of the triangle
+	 * they form with their neighbors when the less important vertices have
+	 * been removed.
+	 * 
+	 * @return this object
+	 */
+	public Simplification visvalingam() {
+		rank(true);
+		return this;
+	}
+
+	/**
+	 * Ranks the vertices by their distance to the line simplified by the
+	 * Douglas-Peucker algorithm.
+	 * 
+	 * @return this object
+	 */
+	public Simplification douglasPeucker() {
+		rank(false);
+		return this;
+	}
+
+	/**
+	 * @param line
+	 *            the index of the line
+	 * @return the importance of each vertex of the line, infinite for the
+	 *         junctions; the array must not be modified
+	 * @throws IllegalStateException
+	 *             if the vertices have not been ranked since the last line was
+	 *             added
+	 */
+	public double[] importance(final int line) {
+		if (importances == null) {
+			throw new IllegalStateException("the vertices are not ranked: call visvalingam() or douglasPeucker()");
+		}
+		return importances[line];
+	}
+
+	/**
+	 * @param line
+	 *            the index of the line
+	 * @param threshold
+	 *            the minimum importance of the kept vertices
+	 * @return the number of vertices kept
+	 */
+	public int keptCount(final int line, final double threshold) {
+		double[] importance = importance(line);
+		int count = 0;
+		for (int i = 0; i < importance.length; i++) {
+			if (importance[i] >= threshold) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Copies the coordinates of the kept vertices.
+	 * 
+	 * @param line
+	 *            the index of the line
+	 * @param threshold
+	 *            the minimum importance of the kept vertices
+	 * @param out
+	 *            the array receiving the coordinates, as x0, y0, x1, y1...,
+	 *            long enough for all the vertices of the line
+	 * @return the number of vertices kept
+	 */
+	public int filter(final int line, final double threshold, final double[] out) {
+		double[] importance = importance(line);
+		double[] coords = lines[line];
+		int count = 0;
+		for (int i = 0; i < importance.length; i++) {
+			if (importance[i] >= threshold) {
+				out[count * 2] = coords[i * 2];
+				out[count * 2 + 1] = coords[i * 2 + 1];
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Finds the indices of the kept vertices, for instance to select the data
+	 * of a {@link com.github.gwtd3.api.svg.Line} or of an
+	 * {@link com.github.gwtd3.api.svg.Area}.
+	 * 
+	 * @param line
+	 *            the index of the line
+	 * @param threshold
+	 *            the minimum importance of the kept vertices
+	 * @param out
+	 *            the array receiving the indices, long enough for all the
+	 *            vertices of the line
+	 * @return the number of vertices kept
+	 */
+	public int indices(final int line, final double threshold, final int[] out) {
+		double[] importance = importance(line);
+		int count = 0;
+		for (int i = 0; i < importance.length; i++) {
+			if (importance[i] >= threshold) {
+				out[count++] = i;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Streams the kept vertices of a line, between lineStart and lineEnd, for
+	 * instance to a {@link com.github.gwtd3.api.geo.Projection#stream(GeoStream)
+	 * projection}, a {@link com.github.gwtd3.api.geo.PathStringSink} or a
+	 * {@link com.github.gwtd3.api.geo.Context2dSink}. Nothing is streamed for
+	 * a line of less than 2 vertices or a ring of less than 3 vertices.
+	 * 
+	 * @param line
+	 *            the index of the line
+	 * @param threshold
+	 *            the minimum importance of the kept vertices
+	 * @param stream
+	 *            the stream
+	 * @return the number of vertices streamed
+	 */
+	public int stream(final int line, final double threshold, final GeoStream stream) {
+		int count = keptCount(line, threshold);
+		if (count < (closed[line] ? 3 : 2)) {
+			return 0;
+		}
+		double[] importance = importances[line];
+		double[] coords = lines[line];
+		stream.lineStart();
+		for (int i = 0; i < importance.length; i++) {
+			if (importance[i] >= threshold) {
+				stream.point(coords[i * 2], coords[i * 2 + 1]);
+			}
+		}
+		stream.lineEnd();
+		return count;
+	}
+
+	// ============== ranking ==============
+
+	private void rank(final boolean visvalingam) {
+		// identify the points shared by the lines
+		PointTable points = new PointTable();
+		int[][] ids = new int[lineCount][];
+		for (int l = 0; l < lineCount; l++) {
+			double[] coords = lines[l];
+			int[] lineIds = ids[l] = new int[coords.length >> 1];
+			for (int i = 0; i < lineIds.length; i++) {
+				lineIds[i] = points.id(coords[i * 2], coords[i * 2 + 1]);
+			}
+		}
+
+		// the junctions: the ends of the open lines, and the points with
+		// different neighbors in different lines
+		int pointCount = points.size;
+		int[] neighbor0 = new int[pointCount];
+		int[] neighbor1 = new int[pointCount];
+		boolean[] junction = new boolean[pointCount];
+		for (int p = 0; p < pointCount; p++) {
+			neighbor0[p] = -2;
+		}
+		for (int l = 0; l < lineCount; l++) {
+			int[] lineIds = ids[l];
+			int m = lineIds.length;
+			for (int i = 0; i < m; i++) {
+				int p = lineIds[i];
+				int previous = i > 0 ? lineIds[i - 1] : closed[l] ? lineIds[m - 1] : -1;
+				int next = i < m - 1 ? lineIds[i + 1] : closed[l] ? lineIds[0] : -1;
+				int a = Math.min(previous, next);
+				int b = Math.max(previous, next);
+				if (!closed[l] && (i == 0 || i == m - 1)) {
+					junction[p] = true;
+				}
+				if (neighbor0[p] == -2) {
+					neighbor0[p] = a;
+					neighbor1[p] = b;
+				} else if (neighbor0[p] != a || neighbor1[p] != b) {
+					junction[p] = true;
+				}
+			}
+		}
+
+		// rank each arc between two junctions once
+		importances = new double[lineCount][];
+		PairTable arcKeys = new PairTable();
+		double[][] arcs = new double[16][];
+		int arcCount = 0;
+		int[] starts = new int[16];
+		double[] xs = new double[16];
+		double[] ys = new double[16];
+		for (int l = 0; l < lineCount; l++) {
+			int[] lineIds = ids[l];
+			double[] coords = lines[l];
+			int m = lineIds.length;
+			double[] importance = importances[l] = new double[m];
+			if (m < (closed[l] ? 4 : 3)) {
+				fill(importance, Double.POSITIVE_INFINITY);
+				continue;
+			}
+
+			// the positions of the junctions
+			int startCount = 0;
+			for (int i = 0; i < m; i++) {
+				if (junction[lineIds[i]]) {
+					if (startCount == starts.length) {
+						int[] grown = new int[startCount * 2];
+						System.arraycopy(starts, 0, grown, 0, startCount);
+						starts = grown;
+					}
+					starts[startCount++] = i;
+				}
+			}
+			if (startCount == 0) {
+				// a ring without junction starts at its lowest point, which
+				// any identical ring would start at too
+				int lowest = 0;
+				for (int i = 1; i < m; i++) {
+					if (coords[i * 2] < coords[lowest * 2] || coords[i * 2] == coords[lowest * 2]
+							&& coords[i * 2 + 1] < coords[lowest * 2 + 1]) {
+						lowest = i;
+					}
+				}
+				starts[startCount++] = lowest;
+			}
+
+			int arcsInLine = closed[l] ? startCount : startCount - 1;
+			for (int k = 0; k < arcsInLine; k++) {
+				int start = starts[k];
+				int end = k + 1 < startCount ? starts[k + 1] : starts[0] + m;
+				int length = end - start + 1;
+				int second = lineIds[(start + 1) % m];
+				int code = arcKeys.get(lineIds[start], second);
+				double[] arc = code < 0 ? null : arcs[code >> 1];
+				boolean reversed = (code & 1) != 0;
+				if (arc == null || arc.length != length) {
+					if (xs.length < length) {
+						xs = new double[length * 2];
+						ys = new double[length * 2];
+					}
+					for (int t = 0; t < length; t++) {
+						int i = (start + t) % m;
+						xs[t] = coords[i * 2];
+						ys[t] = coords[i * 2 + 1];
+					}
+					arc = visvalingam ? visvalingam(xs, ys, length) : douglasPeucker(xs, ys, length);
+					reversed = false;
+					if (arcCount == arcs.length) {
+						double[][] grown = new double[arcCount * 2][];
+						System.arraycopy(arcs, 0, grown, 0, arcCount);
+						arcs = grown;
+					}
+					arcs[arcCount] = arc;
+					int last = lineIds[end % m];
+					int beforeLast = lineIds[(end - 1) % m];
+					arcKeys.put(lineIds[start], second, arcCount * 2);
+					if (last != lineIds[start] || beforeLast != second) {
+						arcKeys.put(last, beforeLast, arcCount * 2 + 1);
+					}
+					arcCount++;
+				}
+				for (int t = 0; t < length; t++) {
+					importance[(start + t) % m] = reversed ? arc[length - 1 - t] : arc[t];
+				}
+			}
+		}
+	}
+
+	private static void fill(final double[] array, final double value) {
+		for (int i = 0; i < array.length; i++) {
+			array[i] = value;
+		}
+	}
+
+	/**
+	 * @return the effective areas of the vertices of an arc, infinite at its
+	 *         ends
+	 */
+	private static double[] visvalingam(final double[] xs, final double[] ys, final int n) {
+		double[] importance = new double[n];
+		importance[0] = importance[n - 1] = Double.POSITIVE_INFINITY;
+		int[] previous = new int[n];
+		int[] next = new int[n];
+		double[] areas = new double[n];
+		for (int i = 0; i < n; i++) {
+			previous[i] = i - 1;
+			next[i] = i + 1;
+		}
+		AreaHeap heap = new AreaHeap(areas, n);
+		for (int i = 1; i < n - 1; i++) {
+			areas[i] = area(xs, ys, i - 1, i, i + 1);
+			heap.push(i);
+		}
+		double max = 0;
+		while (heap.size > 0) {
+			int i = heap.pop();
+			double area = areas[i];
+			// the area of a vertex is at least the one of the vertices removed
+			// before it
+			if (area < max) {
+				area = max;
+			} else {
+				max = area;
+			}
+			importance[i] = area;
+			int p = previous[i];
+			int q = next[i];
+			next[p] = q;
+			previous[q] = p;
+			if (p > 0) {
+				areas[p] = area(xs, ys, previous[p], p, q);
+				heap.update(p);
+			}
+			if (q < n - 1) {
+				areas[q] = area(xs, ys, p, q, next[q]);
+				heap.update(q);
+			}
+		}
+		return importance;
+	}
+
+	private static double area(final double[] xs, final double[] ys, final int a, final int b, final int c) {
+		return Math.abs((xs[a] - xs[b]) * (ys[c] - ys[b]) - (xs[c] - xs[b]) * (ys[a] - ys[b])) / 2;
+	}
+
+	/**
+	 * @return the Douglas-Peucker distances of the vertices of an arc,
+	 *         infinite at its ends
+	 */
+	private static double[] douglasPeucker(final double[] xs, final double[] ys, final int n) {
+		double[] importance = new double[n];
+		importance[0] = importance[n - 1] = Double.POSITIVE_INFINITY;
+		int[] stack = new int[64];
+		int top = 0;
+		stack[top++] = 0;
+		stack[top++] = n - 1;
+		while (top > 0) {
+			int b = stack[--top];
+			int a = stack[--top];
+			if (b - a < 2) {
+				continue;
+			}
+			int farthest = -1;
+			double max = -1;
+			for (int i = a + 1; i < b; i++) {
+				double d = distance(xs, ys, i, a, b);
+				if (d > max) {
+					max = d;
+					farthest = i;
+				}
+			}
+			// a vertex is at most as important as the one splitting its part
+			double parent = Math.min(importance[a], importance[b]);
+			importance[farthest] = Math.min(max, parent);
+			if (top + 4 > stack.length) {
+				int[] grown = new int[stack.length * 2];
+				System.arraycopy(stack, 0, grown, 0, top);
+				stack = grown;
+			}
+			stack[top++] = a;
+			stack[top++] = farthest;
+			stack[top++] = farthest;
+			stack[top++] = b;
+		}
+		return importance;
+	}
+
+	/**
+	 * @return the distance of the vertex i to the segment from a to b
+	 */
+	private static double distance(final double[] xs, final double[] ys, final int i, final int a, final int b) {
+		double dx = xs[b] - xs[a];
+		double dy = ys[b] - ys[a];
+		double px = xs[i] - xs[a];
+		double py = ys[i] - ys[a];
+		double l2 = dx * dx + dy * dy;
+		if (l2 > 0) {
+			double t = (px * dx + py * dy) / l2;
+			if (t > 1) {
+				px = xs[i] - xs[b];
+				py = ys[i] - ys[b];
+			} else if (t > 0) {
+				px -= t * dx;
+				py -= t * dy;
+			}
+		}
+		return Math.sqrt(px * px + py * py);
+	}
+
+	/**
+	 * A binary min-heap of vertices, ordered by area then by index.
+	 */
+	private static class AreaHeap {
+
+		private final double[] areas;
+
+		private final int[] heap;
+
+		private final int[] positions;
+
+		int size;
+
+		AreaHeap(final double[] areas, final int n) {
+			this.areas = areas;
+			this.heap = new int[n];
+			this.positions = new int[n];
+		}
+
+		void push(final int i) {
+			heap[size] = i;
+			positions[i] = size;
+			up(size++);
+		}
+
+		int pop() {
+			int top = heap[0];
+			int last = heap[--size];
+			if (size > 0) {
+				heap[0] = last;
+				positions[last] = 0;
+				down(0);
+			}
+			positions[top] = -1;
+			return top;
+		}
+
+		void update(final int i) {
+			int position = positions[i];
+			if (position >= 0) {
+				up(position);
+				down(positions[i]);
+			}
+		}
+
+		private boolean less(final int a, final int b) {
+			return areas[a] < areas[b] || areas[a] == areas[b] && a < b;
+		}
+
+		private void up(int position) {
+			int i = heap[position];
+			while (position > 0) {
+				int parentPosition = (position - 1) >> 1;
+				int parent = heap[parentPosition];
+				if (!less(i, parent)) {
+					break;
+				}
+				heap[position] = parent;
+				positions[parent] = position;
+				position = parentPosition;
+			}
+			heap[position] = i;
+			positions[i] = position;
+		}
+
+		private void down(int position) {
+			int i = heap[position];
+			while (true) {
+				int child = position * 2 + 1;
+				if (child >= size) {
+					break;
+				}
+				if (child + 1 < size && less(heap[child + 1], heap[child])) {
+					child++;
+				}
+				if (!less(heap[child], i)) {
+					break;
+				}
+				heap[position] = heap[child];
+				positions[heap[child]] = position;
+				position = child;
+			}
+			heap[position] = i;
+			positions[i] = position;
+		}
+	}
+
+	/**
+	 * Gives an id to each distinct point.
+	 */
+	private static class PointTable {
+
+		int size;
+
+		private double[] xs = new double[16];
+
+		private double[] ys = new double[16];
+
+		private int[] hashes = new int[16];
+
+		private int[] table = new int[64];
+
+		private int mask = 63;
+
+		PointTable() {
+			fillTable();
+		}
+
+		private void fillTable() {
+			for (int i = 0; i < table.length; i++) {
+				table[i] = -1;
+			}
+		}
+
+		int id(final double x, final double y) {
+			int h = hash(x, y);
+			int i = h & mask;
+			while (true) {
+				int p = table[i];
+				if (p < 0) {
+					break;
+				}
+				if (xs[p] == x && ys[p] == y) {
+					return p;
+				}
+				i = (i + 1) & mask;
+			}
+			int p = size++;
+			if (p == xs.length) {
+				double[] grown = new double[p * 2];
+				System.arraycopy(xs, 0, grown, 0, p);
+				xs = grown;
+				grown = new double[p * 2];
+				System.arraycopy(ys, 0, grown, 0, p);
+				ys = grown;
+				int[] grownHashes = new int[p * 2];
+				System.arraycopy(hashes, 0, grownHashes, 0, p);
+				hashes = grownHashes;
+			}
+			xs[p] = x;
+			ys[p] = y;
+			hashes[p] = h;
+			table[i] = p;
+			if (size * 2 > table.length) {
+				table = new int[table.length * 2];
+				mask = table.length - 1;
+				fillTable();
+				for (int q = 0; q < size; q++) {
+					int j = hashes[q] & mask;
+					while (table[j] >= 0) {
+						j = (j + 1) & mask;
+					}
+					table[j] = q;
+				}
+			}
+			return p;
+		}
+
+		private static int hash(final double x, final double y) {
+			int h = hash(x) * 31 + hash(y);
+			return h ^ (h >>> 16);
+		}
+
+		private static int hash(final double v) {
+			double scaled = v * 1e6;
+			int h = (int) scaled;
+			if (h == Integer.MAX_VALUE || h == Integer.MIN_VALUE) {
+				// saturated: keep the low digits
+				h = (int) (scaled % 2147483647.0);
+			}
+			return h;
+		}
+	}
+
+	/**
+	 * Maps pairs of point ids to values.
+	 */
+	private static class PairTable {
+
+		private int size;
+
+		private int[] keys0 = new int[16];
+
+		private int[] keys1 = new int[16];
+
+		private int[] values = new int[16];
+
+		private int[] table = new int[64];
+
+		private int mask = 63;
+
+		PairTable() {
+			fillTable();
+		}
+
+		private void fillTable() {
+			for (int i = 0; i < table.length; i++) {
+				table[i] = -1;
+			}
+		}
+
+		/**
+		 * @return the value of the pair, or -1
+		 */
+		int get(final int a, final int b) {
+			int i = hash(a, b) & mask;
+			while (true) {
+				int e = table[i];
+				if (e < 0) {
+					return -1;
+				}
+				if (keys0[e] == a && keys1[e] == b) {
+					return values[e];
+				}
+				i = (i + 1) & mask;
+			}
+		}
+
+		void put(final int a, final int b, final int value) {
+			int i = hash(a, b) & mask;
+			while (true) {
+				int e = table[i];
+				if (e < 0) {
+					break;
+				}
+				if (keys0[e] == a && keys1[e] == b) {
+					values[e] = value;
+					return;
+				}
+				i = (i + 1) & mask;
+			}
+			int e = size++;
+			if (e == keys0.length) {
+				keys0 = grow(keys0);
+				keys1 = grow(keys1);
+				values = grow(values);
+			}
+			keys0[e] = a;
+			keys1[e] = b;
+			values[e] = value;
+			table[i] = e;
+			if (size * 2 > table.length) {
+				table = new int[table.length * 2];
+				mask = table.length - 1;
+				fillTable();
+				for (int f = 0; f < size; f++) {
+					int j = hash(keys0[f], keys1[f]) & mask;
+					while (table[j] >= 0) {
+						j = (j + 1) & mask;
+					}
+					table[j] = f;
+				}
+			}
+		}
+
+		private static int[] grow(final int[] array) {
+			int[] grown = new int[array.length * 2];
+			System.arraycopy(array, 0, grown, 0, array.length);
+			return grown;
+		}
+
+		private static int hash(final int a, final int b) {
+			int h = a * 0x9E3779B1 + b;
+			return h ^ (h >>> 15);
+		}
+	}
+}
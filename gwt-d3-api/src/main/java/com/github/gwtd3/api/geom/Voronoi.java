@@ -0,0 +1,466 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.geom;
+
+/**
+ * The Voronoi diagram of a {@link Delaunay} triangulation, clipped to a
+ * rectangle.
+ * <p>
+ * The cell of a point is the region of the positions nearer to this point
+ * than to any other: its vertices are the circumcenters of the triangles
+ * around the point, and the cells of the points of the hull are extended to
+ * the rectangle. The cells can be drawn as an invisible overlay, so that the
+ * hover events select the nearest point:
+ * 
+ * <pre>
+ * {@code
+ * Voronoi voronoi = new Voronoi(Delaunay.from(xs, ys), 0, 0, width, height);
+ * overlay.selectAll("path").data(data).enter().append("path").attr("d", new DatumFunction<String>() {
+ *     public String apply(Element context, Value d, int index) {
+ *         return voronoi.cellPath(index);
+ *     }
+ * });
+ * }
+ * </pre>
+ * 
+ * Finding the cell of a position does not need the diagram: see
+ * {@link Delaunay#find(double, double)}.
+ */
+public class Voronoi {
+
+	private final Delaunay delaunay;
+
+	private final double xmin;
+
+	private final double ymin;
+
+	private final double xmax;
+
+	private final double ymax;
+
+	/**
+	 * the circumcenters of the triangles, as x0, y0, x1, y1...
+	 */
+	private final double[] circumcenters;
+
+	/**
+	 * for each point of the hull, the outward directions of the first and of
+	 * the last edge of its cell
+	 */
+	private final double[] vectors;
+
+	/**
+	 * Compute the Voronoi diagram of the triangulation.
+	 * 
+	 * @param delaunay
+	 *            the triangulation
+	 * @param xmin
+	 *            the left of the rectangle
+	 * @param ymin
+	 *            the top of the rectangle
+	 * @param xmax
+	 *            the right of the rectangle
+	 * @param ymax
+	 *            the bottom of the rectangle
+	 */
+	public Voronoi(final Delaunay delaunay, final double xmin, final double ymin, final double xmax,
+			final double ymax) {
+		super();
+		this.delaunay = delaunay;
+		this.xmin = xmin;
+		this.ymin = ymin;
+		this.xmax = xmax;
+		this.ymax = ymax;
+		double[] coords = delaunay.coords();
+		int[] triangles = delaunay.triangles();
+		int n = triangles.length / 3;
+		circumcenters = new double[n * 2];
+		double bx = Double.NaN;
+		double by = Double.NaN;
+		for (int t = 0; t < n; t++) {
+			int i1 = 2 * triangles[3 * t];
+			int i2 = 2 * triangles[3 * t + 1];
+			int i3 = 2 * triangles[3 * t + 2];
+			double x1 = coords[i1];
+			double y1 = coords[i1 + 1];
+			double dx = coords[i2] - x1;
+			double dy = coords[i2 + 1] - y1;
+			double ex = coords[i3] - x1;
+			double ey = coords[i3 + 1] - y1;
+			double ab = (dx * ey - dy * ex) * 2;
+			double x;
+			double y;
+			if (Math.abs(ab) < 1e-9) {
+				// a flat triangle on the hull: its circumcenter is at the
+				// infinity, away from the barycenter of the hull
+				if (Double.isNaN(bx)) {
+					bx = 0;
+					by = 0;
+					for (int h : delaunay.hull()) {
+						bx += coords[2 * h];
+						by += coords[2 * h + 1];
+					}
+					bx /= delaunay.hull().length;
+					by /= delaunay.hull().length;
+				}
+				double a = 1e9 * Math.signum((bx - x1) * ey - (by - y1) * ex);
+				x = (x1 + coords[i3]) / 2 - a * ey;
+				y = (y1 + coords[i3 + 1]) / 2 + a * ex;
+			} else {
+				double d = 1 / ab;
+				double bl = dx * dx + dy * dy;
+				double cl = ex * ex + ey * ey;
+				x = x1 + (ey * bl - dy * cl) * d;
+				y = y1 + (dx * cl - ex * bl) * d;
+			}
+			circumcenters[2 * t] = x;
+			circumcenters[2 * t + 1] = y;
+		}
+		vectors = new double[delaunay.size() * 4];
+		int[] hull = delaunay.hull();
+		if (hull.length > 0) {
+			int p0;
+			int p1 = hull[hull.length - 1];
+			double x0;
+			double y0;
+			double x1 = coords[2 * p1];
+			double y1 = coords[2 * p1 + 1];
+			for (int h : hull) {
+				p0 = p1;
+				x0 = x1;
+				y0 = y1;
+				p1 = h;
+				x1 = coords[2 * p1];
+				y1 = coords[2 * p1 + 1];
+				vectors[4 * p0 + 2] = vectors[4 * p1] = y0 - y1;
+				vectors[4 * p0 + 3] = vectors[4 * p1 + 1] = x1 - x0;
+			}
+		}
+	}
+
+	/**
+	 * @return the triangulation
+	 */
+	public Delaunay delaunay() {
+		return delaunay;
+	}
+
+	/**
+	 * @return the circumcenters of the triangles, as x0, y0, x1, y1...
+	 */
+	public double[] circumcenters() {
+		return circumcenters;
+	}
+
+	/**
+	 * Return the polygon of the cell of a point, clipped to the rectangle.
+	 * 
+	 * @param i
+	 *            the index of the point
+	 * @return the coordinates of the vertices of the polygon, as x0, y0, x1,
+	 *         y1..., or null if the cell is empty (a duplicate point, or a
+	 *         cell outside the rectangle)
+	 */
+	public double[] cellPolygon(final int i) {
+		double[] points = cell(i);
+		if (points == null) {
+			return null;
+		}
+		double[] clipped = dedupe(clip(points));
+		return clipped.length < 6 ? null : clipped;
+	}
+
+	/**
+	 * Return the SVG path data of the cell of a point, clipped to the
+	 * rectangle.
+	 * 
+	 * @param i
+	 *            the index of the point
+	 * @return the path data, or null if the cell is empty
+	 */
+	public String cellPath(final int i) {
+		double[] polygon = cellPolygon(i);
+		if (polygon == null) {
+			return null;
+		}
+		StringBuilder path = new StringBuilder();
+		for (int j = 0; j < polygon.length; j += 2) {
+			path.append(j == 0 ? 'M' : 'L').append(round(polygon[j])).append(',').append(round(polygon[j + 1]));
+		}
+		return path.append('Z').toString();
+	}
+
+	private static String round(final double value) {
+		double rounded = Math.round(value * 1000) / 1000.0;
+		if (rounded == (int) rounded) {
+			return Integer.toString((int) rounded);
+		}
+		return Double.toString(rounded);
+	}
+
+	/**
+	 * the unclipped cell, closed for the inner points, and extended along the
+	 * outward directions for the points of the hull
+	 */
+	private double[] cell(final int i) {
+		int e0 = delaunay.inedge(i);
+		if (e0 == -1) {
+			if (delaunay.triangles().length == 0 && delaunay.size() > 0) {
+				return collinearCell(i);
+			}
+			return null;
+		}
+		int[] triangles = delaunay.triangles();
+		int[] halfedges = delaunay.halfedges();
+		double[] points = new double[16];
+		int length = 0;
+		int e = e0;
+		do {
+			int t = e / 3;
+			if (length + 2 > points.length) {
+				points = grow(points);
+			}
+			points[length++] = circumcenters[2 * t];
+			points[length++] = circumcenters[2 * t + 1];
+			e = e % 3 == 2 ? e - 2 : e + 1;
+			if (triangles[e] != i) {
+				break;
+			}
+			e = halfedges[e];
+		} while (e != e0 && e != -1);
+		if (delaunay.hullIndex(i) < 0) {
+			return trim(points, length);
+		}
+		// a point of the hull: add far points along the first and the last
+		// directions, and their bisector to close the cell outside
+		double[] coords = delaunay.coords();
+		double x = coords[2 * i];
+		double y = coords[2 * i + 1];
+		double far = far(x, y, points, length);
+		double[] open = new double[length + 6];
+		double vx0 = vectors[4 * i];
+		double vy0 = vectors[4 * i + 1];
+		double vxn = vectors[4 * i + 2];
+		double vyn = vectors[4 * i + 3];
+		double l0 = Math.sqrt(vx0 * vx0 + vy0 * vy0);
+		double ln = Math.sqrt(vxn * vxn + vyn * vyn);
+		open[0] = points[0] + vx0 / l0 * far;
+		open[1] = points[1] + vy0 / l0 * far;
+		System.arraycopy(points, 0, open, 2, length);
+		open[length + 2] = points[length - 2] + vxn / ln * far;
+		open[length + 3] = points[length - 1] + vyn / ln * far;
+		double bx = vx0 / l0 + vxn / ln;
+		double by = vy0 / l0 + vyn / ln;
+		double lb = Math.sqrt(bx * bx + by * by);
+		open[length + 4] = x + bx / lb * far * 2;
+		open[length + 5] = y + by / lb * far * 2;
+		return open;
+	}
+
+	/**
+	 * the cell of a point on a line: the band between the bisectors with its
+	 * neighbors
+	 */
+	private double[] collinearCell(final int i) {
+		int[] hull = delaunay.hull();
+		int h = -1;
+		for (int j = 0; j < hull.length; j++) {
+			if (hull[j] == i) {
+				h = j;
+			}
+		}
+		if (h < 0) {
+			return null;
+		}
+		double[] coords = delaunay.coords();
+		double x = coords[2 * i];
+		double y = coords[2 * i + 1];
+		double far = far(x, y, null, 0);
+		// the direction of the line, and its normal
+		int other = hull.length > 1 ? hull[h == 0 ? 1 : h - 1] : i;
+		double ux = coords[2 * other] - x;
+		double uy = coords[2 * other + 1] - y;
+		double lu = Math.sqrt(ux * ux + uy * uy);
+		if (lu == 0) {
+			ux = 1;
+			uy = 0;
+		} else {
+			ux /= lu;
+			uy /= lu;
+			if (h != 0) {
+				// from the previous point to the next one
+				ux = -ux;
+				uy = -uy;
+			}
+		}
+		double back = far;
+		double ahead = far;
+		if (h > 0) {
+			back = distance(i, hull[h - 1]) / 2;
+		}
+		if (h < hull.length - 1) {
+			ahead = distance(i, hull[h + 1]) / 2;
+		}
+		double ax = x - ux * back;
+		double ay = y - uy * back;
+		double bx = x + ux * ahead;
+		double by = y + uy * ahead;
+		return new double[] { ax - uy * far, ay + ux * far, bx - uy * far, by + ux * far, bx + uy * far,
+				by - ux * far, ax + uy * far, ay - ux * far };
+	}
+
+	private double distance(final int a, final int b) {
+		double[] coords = delaunay.coords();
+		double dx = coords[2 * a] - coords[2 * b];
+		double dy = coords[2 * a + 1] - coords[2 * b + 1];
+		return Math.sqrt(dx * dx + dy * dy);
+	}
+
+	/**
+	 * a distance from the point large enough to be outside the rectangle
+	 * from any of the points
+	 */
+	private double far(final double x, final double y, final double[] points, final int length) {
+		double w = xmax - xmin;
+		double h = ymax - ymin;
+		double dx = Math.max(Math.abs(x - xmin), Math.abs(x - xmax));
+		double dy = Math.max(Math.abs(y - ymin), Math.abs(y - ymax));
+		double far = Math.sqrt(w * w + h * h) + Math.sqrt(dx * dx + dy * dy);
+		for (int j = 0; j < length; j += 2) {
+			double px = points[j] - x;
+			double py = points[j + 1] - y;
+			far = Math.max(far, Math.sqrt(px * px + py * py));
+		}
+		return far * 2 + 1;
+	}
+
+	/**
+	 * Sutherland-Hodgman clipping of the convex cell to the rectangle
+	 */
+	private double[] clip(final double[] points) {
+		double[] result = points;
+		for (int side = 0; side < 4 && result.length >= 6; side++) {
+			result = clip(result, side);
+		}
+		return result;
+	}
+
+	private double[] clip(final double[] points, final int side) {
+		int n = points.length;
+		double[] out = new double[n + 4];
+		int length = 0;
+		double px = points[n - 2];
+		double py = points[n - 1];
+		boolean pin = inside(px, py, side);
+		for (int j = 0; j < n; j += 2) {
+			double x = points[j];
+			double y = points[j + 1];
+			boolean in = inside(x, y, side);
+			if (in != pin) {
+				// the intersection with the side
+				double t;
+				if (side == 0) {
+					t = (xmin - px) / (x - px);
+				} else if (side == 1) {
+					t = (xmax - px) / (x - px);
+				} else if (side == 2) {
+					t = (ymin - py) / (y - py);
+				} else {
+					t = (ymax - py) / (y - py);
+				}
+				if (length + 2 > out.length) {
+					out = grow(out);
+				}
+				out[length++] = side == 0 ? xmin : side == 1 ? xmax : px + t * (x - px);
+				out[length++] = side == 2 ? ymin : side == 3 ? ymax : py + t * (y - py);
+			}
+			if (in) {
+				if (length + 2 > out.length) {
+					out = grow(out);
+				}
+				out[length++] = x;
+				out[length++] = y;
+			}
+			px = x;
+			py = y;
+			pin = in;
+		}
+		return trim(out, length);
+	}
+
+	/**
+	 * remove the consecutive equal vertices, created by the clipping of the
+	 * vertices on the sides
+	 */
+	private static double[] dedupe(final double[] points) {
+		int length = 0;
+		for (int j = 0; j < points.length; j += 2) {
+			double x = points[j];
+			double y = points[j + 1];
+			if (length > 0 && Math.abs(x - points[length - 2]) < 1e-9 && Math.abs(y - points[length - 1]) < 1e-9) {
+				continue;
+			}
+			points[length++] = x;
+			points[length++] = y;
+		}
+		while (length >= 4 && Math.abs(points[0] - points[length - 2]) < 1e-9
+				&& Math.abs(points[1] - points[length - 1]) < 1e-9) {
+			length -= 2;
+		}
+		return trim(points, length);
+	}
+
+	private boolean inside(final double x, final double y, final int side) {
+		switch (side) {
+		case 0:
+			return x >= xmin;
+		case 1:
+			return x <= xmax;
+		case 2:
+			return y >= ymin;
+		default:
+			return y <= ymax;
+		}
+	}
+
+	private static double[] grow(final double[] array) {
+		double[] grown = new double[array.length * 2];
+		System.arraycopy(array, 0, grown, 0, array.length);
+		return grown;
+	}
+
+	private static double[] trim(final double[] array, final int length) {
+		if (array.length == length) {
+			return array;
+		}
+		double[] trimmed = new double[length];
+		System.arraycopy(array, 0, trimmed, 0, length);
+		return trimmed;
+	}
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.layout;
+
+/**
+ * The dendrogram of a {@link Hierarchy}: the leaves are placed side by side
+ * at the bottom of the layout, and each parent is centered above its
+ * children.
+ * <p>
+ * {@link Hierarchy#x(int)} and {@link Hierarchy#y(int)} are the coordinates
+ * of the center of each node, the root being at the top. The layout is
+ * computed in linear time; since the position of every leaf depends on all
+ * the leaves before it, {@link #relayout(Hierarchy, int)} lays out the whole
+ * tree.
+ */
+public class ClusterLayout extends HierarchyLayout<ClusterLayout> {
+
+	private double siblings = 1;
+
+	private double cousins = 2;
+
+	/**
+	 * Set the separation between adjacent leaves, as a multiple of the
+	 * separation between siblings. Defaults to 1 for siblings and 2 for
+	 * other nodes.
+	 * 
+	 * @param siblings
+	 *            the separation between two leaves of the same parent
+	 * @param cousins
+	 *            the separation between two leaves of different parents
+	 * @return the current layout
+	 */
+	public ClusterLayout separation(final double siblings, final double cousins) {
+		this.siblings = siblings;
+		this.cousins = cousins;
+		return this;
+	}
+
+	private double separation(final Hierarchy h, final int a, final int b) {
+		return h.parent(a) == h.parent(b) ? siblings : cousins;
+	}
+
+	@Override
+	public ClusterLayout layout(final Hierarchy hierarchy) {
+		Hierarchy h = hierarchy;
+		int[] nodes = h.visibleNodes();
+		int count = h.visibleCount();
+		// leaves, left to right
+		int first = -1;
+		int previous = -1;
+		double x = 0;
+		for (int k = 0; k < count; k++) {
+			int i = nodes[k];
+			if (h.isLeaf(i)) {
+				if (previous >= 0) {
+					x += separation(h, i, previous);
+				}
+				else {
+					first = i;
+				}
+				h.x[i] = x;
+				h.y[i] = 0;
+				previous = i;
+			}
+		}
+		// parents, after their children
+		for (int k = count - 1; k >= 0; k--) {
+			int i = nodes[k];
+			int children = h.visibleChildCount(i);
+			if (children > 0) {
+				double sum = 0;
+				double max = 0;
+				for (int c = 0; c < children; c++) {
+					int child = h.child(i, c);
+					sum += h.x[child];
+					max = Math.max(max, h.y[child]);
+				}
+				h.x[i] = sum / children;
+				h.y[i] = max + 1;
+			}
+		}
+		int root = h.root();
+		double x0 = h.x[first] - separation(h, first, previous) / 2;
+		double x1 = h.x[previous] + separation(h, previous, first) / 2;
+		double rootHeight = h.y[root];
+		for (int k = 0; k < count; k++) {
+			int i = nodes[k];
+			h.x[i] = (h.x[i] - x0) / (x1 - x0) * width;
+			h.y[i] = (1 - (rootHeight != 0 ? h.y[i] / rootHeight : 1)) * height;
+		}
+		return this;
+	}
+}
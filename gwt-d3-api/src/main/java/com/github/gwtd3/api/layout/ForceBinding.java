@@ -0,0 +1,381 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.layout;
+
+import com.github.gwtd3.api.arrays.Array;
+import com.github.gwtd3.api.core.Selection;
+import com.google.gwt.core.client.JavaScriptObject;
+
+/**
+ * Publishes the positions of a {@link ForceLayout} to the DOM.
+ * <p>
+ * The binding maintains a Javascript array of {@link Node} objects (and of
+ * {@link Link} objects) to bind to the selections with
+ * {@link Selection#data(JavaScriptObject)}. {@link #publish()} copies into
+ * them the positions of the nodes which moved by more than a threshold
+ * since they were last published, and the apply methods only write the
+ * attributes of those nodes and of their links:
+ * 
+ * <pre>
+ * {@code
+ * ForceBinding binding = new ForceBinding(force).threshold(0.5);
+ * Selection lines = svg.selectAll("line").data(binding.links()).enter().append("line");
+ * Selection circles = svg.selectAll("circle").data(binding.nodes()).enter().append("circle").attr("r", 3);
+ * 
+ * force.tick();
+ * if (binding.publish() > 0) {
+ *     binding.applyLinks(lines);
+ *     binding.apply(circles, "cx", "cy");
+ * }
+ * }
+ * </pre>
+ * Once the layout cools down, most nodes move by less than the threshold,
+ * and nothing is written.
+ */
+public class ForceBinding {
+
+	private final ForceLayout layout;
+
+	private double threshold2 = 0.25;
+
+	private Array<Node> nodes;
+
+	private Array<Link> links;
+
+	private double[] publishedX = new double[0];
+
+	private double[] publishedY = new double[0];
+
+	private int stamp;
+
+	private int linkVersion;
+
+	private int published;
+
+	/**
+	 * Create a binding of the given layout.
+	 * 
+	 * @param layout
+	 *            the layout
+	 */
+	public ForceBinding(final ForceLayout layout) {
+		super();
+		this.layout = layout;
+	}
+
+	/**
+	 * Set the distance a node must move before its new position is
+	 * published. Defaults to 0.5 pixel.
+	 * 
+	 * @param distance
+	 *            the threshold
+	 * @return the current binding
+	 */
+	public ForceBinding threshold(final double distance) {
+		this.threshold2 = distance * distance;
+		return this;
+	}
+
+	/**
+	 * Return the array of the nodes, to bind to the selection of the node
+	 * elements. When nodes are added to the layout, the new nodes are
+	 * appended to the same array, so that binding it again only enters the
+	 * new nodes.
+	 * 
+	 * @return the nodes
+	 */
+	public Array<Node> nodes() {
+		int n = layout.size();
+		if (nodes == null || nodes.length() > n) {
+			nodes = Array.create();
+			links = null;
+		}
+		int length = nodes.length();
+		if (length < n) {
+			double[] x = layout.x();
+			double[] y = layout.y();
+			publishedX = ForceQuadTree.grow(publishedX, n);
+			publishedY = ForceQuadTree.grow(publishedY, n);
+			for (int i = length; i < n; i++) {
+				push(nodes, Node.create(i, x[i], y[i], stamp));
+				publishedX[i] = x[i];
+				publishedY[i] = y[i];
+			}
+		}
+		return nodes;
+	}
+
+	/**
+	 * Return the array of the links, to bind to the selection of the link
+	 * elements. When links are added to the layout, the new links are
+	 * appended to the same array. When the links of the layout are replaced,
+	 * the existing link objects get their new nodes. In both cases, the
+	 * lines of the new and changed links are written after the next call to
+	 * {@link #publish()}.
+	 * 
+	 * @return the links
+	 */
+	public Array<Link> links() {
+		Array<Node> ns = nodes();
+		int m = layout.linkCount();
+		if (links == null || links.length() > m) {
+			links = Array.create();
+			linkVersion = layout.linkVersion();
+		}
+		int next = stamp + 1;
+		if (linkVersion != layout.linkVersion()) {
+			for (int l = 0; l < links.length(); l++) {
+				links.get(l).set(ns.get(layout.source(l)), ns.get(layout.target(l)), next);
+			}
+			linkVersion = layout.linkVersion();
+		}
+		for (int l = links.length(); l < m; l++) {
+			push(links, Link.create(l, ns.get(layout.source(l)), ns.get(layout.target(l)), next));
+		}
+		return links;
+	}
+
+	/**
+	 * Copy the positions of the nodes which moved by more than the threshold
+	 * into the node objects.
+	 * 
+	 * @return the number of nodes whose position was published
+	 */
+	public int publish() {
+		Array<Node> ns = nodes();
+		if (links != null) {
+			// the changed links are published with the nodes
+			links();
+		}
+		double[] x = layout.x();
+		double[] y = layout.y();
+		int n = layout.size();
+		int moved = 0;
+		int next = stamp + 1;
+		for (int i = 0; i < n; i++) {
+			double dx = x[i] - publishedX[i];
+			double dy = y[i] - publishedY[i];
+			if (dx * dx + dy * dy > threshold2) {
+				ns.get(i).set(x[i], y[i], next);
+				publishedX[i] = x[i];
+				publishedY[i] = y[i];
+				moved++;
+			}
+		}
+		// even when nothing moved, so that the apply methods write nothing
+		stamp = next;
+		published = moved;
+		return moved;
+	}
+
+	/**
+	 * @return the number of nodes published by the last call to
+	 *         {@link #publish()}
+	 */
+	public int lastPublished() {
+		return published;
+	}
+
+	/**
+	 * Write the given position attributes of the elements whose node was
+	 * published by the last call to {@link #publish()}, for instance "cx"
+	 * and "cy" for circles.
+	 * 
+	 * @param selection
+	 *            the selection of the elements bound to {@link #nodes()}
+	 * @param xAttribute
+	 *            the name of the x attribute
+	 * @param yAttribute
+	 *            the name of the y attribute
+	 * @return the number of elements updated
+	 */
+	public int apply(final Selection selection, final String xAttribute, final String yAttribute) {
+		return apply(selection, xAttribute, yAttribute, stamp);
+	}
+
+	/**
+	 * Write the transform attribute of the elements whose node was published
+	 * by the last call to {@link #publish()}, translating them to the
+	 * position of the node.
+	 * 
+	 * @param selection
+	 *            the selection of the elements bound to {@link #nodes()}
+	 * @return the number of elements updated
+	 */
+	public int applyTransform(final Selection selection) {
+		return applyTransform(selection, stamp);
+	}
+
+	/**
+	 * Write the x1, y1, x2 and y2 attributes of the line elements of the
+	 * links with a node published by the last call to {@link #publish()},
+	 * and of the links added or changed before that call.
+	 * 
+	 * @param selection
+	 *            the selection of the line elements bound to
+	 *            {@link #links()}
+	 * @return the number of elements updated
+	 */
+	public int applyLinks(final Selection selection) {
+		return applyLinks(selection, stamp);
+	}
+
+	private static final native int apply(Selection selection, String xAttribute, String yAttribute, int stamp) /*-{
+		var count = 0;
+		selection.each(function(d) {
+			if (d.stamp === stamp) {
+				this.setAttribute(xAttribute, d.x);
+				this.setAttribute(yAttribute, d.y);
+				count++;
+			}
+		});
+		return count;
+	}-*/;
+
+	private static final native int applyTransform(Selection selection, int stamp) /*-{
+		var count = 0;
+		selection.each(function(d) {
+			if (d.stamp === stamp) {
+				this.setAttribute("transform", "translate(" + d.x + "," + d.y + ")");
+				count++;
+			}
+		});
+		return count;
+	}-*/;
+
+	private static final native int applyLinks(Selection selection, int stamp) /*-{
+		var count = 0;
+		selection.each(function(d) {
+			var s = d.source, t = d.target;
+			if (d.stamp === stamp || s.stamp === stamp || t.stamp === stamp) {
+				this.setAttribute("x1", s.x);
+				this.setAttribute("y1", s.y);
+				this.setAttribute("x2", t.x);
+				this.setAttribute("y2", t.y);
+				count++;
+			}
+		});
+		return count;
+	}-*/;
+
+	private static final native <T> void push(Array<T> array, T value) /*-{
+		array.push(value);
+	}-*/;
+
+	/**
+	 * A node of a {@link ForceBinding}: its index in the layout, and its last
+	 * published position.
+	 */
+	public static class Node extends JavaScriptObject {
+		protected Node() {
+			super();
+		}
+
+		static final native Node create(int index, double x, double y, int stamp) /*-{
+			return {
+				index : index,
+				x : x,
+				y : y,
+				stamp : stamp
+			};
+		}-*/;
+
+		final native void set(double x, double y, int stamp) /*-{
+			this.x = x;
+			this.y = y;
+			this.stamp = stamp;
+		}-*/;
+
+		/**
+		 * @return the index of the node in the layout
+		 */
+		public final native int index() /*-{
+			return this.index;
+		}-*/;
+
+		/**
+		 * @return the published x coordinate
+		 */
+		public final native double x() /*-{
+			return this.x;
+		}-*/;
+
+		/**
+		 * @return the published y coordinate
+		 */
+		public final native double y() /*-{
+			return this.y;
+		}-*/;
+	}
+
+	/**
+	 * A link of a {@link ForceBinding}.
+	 */
+	public static class Link extends JavaScriptObject {
+		protected Link() {
+			super();
+		}
+
+		static final native Link create(int index, Node source, Node target, int stamp) /*-{
+			return {
+				index : index,
+				source : source,
+				target : target,
+				stamp : stamp
+			};
+		}-*/;
+
+		final native void set(Node source, Node target, int stamp) /*-{
+			this.source = source;
+			this.target = target;
+			this.stamp = stamp;
+		}-*/;
+
+		/**
+		 * @return the index of the link in the layout
+		 */
+		public final native int index() /*-{
+			return this.index;
+		}-*/;
+
+		/**
+		 * @return the source node
+		 */
+		public final native Node source() /*-{
+			return this.source;
+		}-*/;
+
+		/**
+		 * @return the target node
+		 */
+		public final native Node target() /*-{
+			return this.target;
+		}-*/;
+	}
+}
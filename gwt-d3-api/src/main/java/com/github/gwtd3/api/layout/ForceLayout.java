@@ -0,0 +1,962 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.layout;
+
+/**
+ * A force-directed graph layout, computed in Java.
+ * <p>
+ * The nodes are identified by their index, and their positions and
+ * velocities are stored in primitive arrays, which are updated in place by
+ * {@link #tick()}. The simulation uses velocity Verlet integration, with:
+ * <ul>
+ * <li>a many-body charge force, approximated with the Barnes–Hut algorithm
+ * (see {@link #theta(double)});
+ * <li>link springs, pulling the linked nodes to the link distance;
+ * <li>an optional collision force, keeping the nodes apart by their radius;
+ * <li>a gravity pulling the nodes to the center.
+ * </ul>
+ * Each tick moves the nodes by a step proportional to the current alpha,
+ * the "temperature" of the simulation, which decays at each tick until it
+ * reaches {@link #alphaMin(double)}: the layout is then stable.
+ * <p>
+ * The class does not depend on the browser: the layout may be computed on
+ * the JVM (for instance on the server), in the browser, or in a worker.
+ * {@link ForceBinding} publishes the positions to the DOM.
+ * 
+ * <pre>
+ * {@code
+ * ForceLayout force = new ForceLayout(nodeCount).links(sources, targets).charge(-30).linkDistance(20);
+ * while (force.tick()) {
+ * }
+ * double[] x = force.x();
+ * }
+ * </pre>
+ */
+public class ForceLayout {
+
+	private static final double INITIAL_RADIUS = 10;
+
+	private static final double INITIAL_ANGLE = Math.PI * (3 - Math.sqrt(5));
+
+	private int n;
+
+	private double[] x;
+
+	private double[] y;
+
+	private double[] vx;
+
+	private double[] vy;
+
+	/**
+	 * the fixed positions, NaN for the free nodes
+	 */
+	private double[] fx;
+
+	private double[] fy;
+
+	private double[] charges;
+
+	private double[] radii;
+
+	private int[] sources = new int[0];
+
+	private int[] targets = new int[0];
+
+	/**
+	 * per link distance, strength and bias, computed from the degrees
+	 */
+	private double[] distances = new double[0];
+
+	private double[] strengths = new double[0];
+
+	private double[] bias = new double[0];
+
+	private boolean linksChanged;
+
+	/**
+	 * incremented when the links are replaced or removed, so that a
+	 * {@link ForceBinding} updates its link objects
+	 */
+	private int linkVersion;
+
+	// ============== parameters ==============
+
+	private double alpha = 1;
+
+	private double alphaMin = 0.001;
+
+	private double alphaDecay = 1 - Math.pow(0.001, 1.0 / 300);
+
+	private double alphaTarget = 0;
+
+	private double velocityDecay = 0.4;
+
+	private double theta2 = 0.81;
+
+	private double distanceMin2 = 1;
+
+	private double distanceMax2 = Double.POSITIVE_INFINITY;
+
+	private double linkDistance = 30;
+
+	private double linkStrength = Double.NaN;
+
+	private double gravity = 0;
+
+	private double centerX = 0;
+
+	private double centerY = 0;
+
+	private double collisionStrength = 1;
+
+	private boolean collide;
+
+	private int ticks;
+
+	// ============== working structures ==============
+
+	private final ForceQuadTree tree = new ForceQuadTree();
+
+	private int[] stack = new int[64];
+
+	private int jiggle = 1;
+
+	/**
+	 * Create a layout of the given number of nodes, placed on a phyllotaxis
+	 * arrangement around the origin.
+	 * 
+	 * @param nodeCount
+	 *            the number of nodes
+	 */
+	public ForceLayout(final int nodeCount) {
+		super();
+		this.n = 0;
+		this.x = new double[nodeCount];
+		this.y = new double[nodeCount];
+		this.vx = new double[nodeCount];
+		this.vy = new double[nodeCount];
+		this.fx = new double[nodeCount];
+		this.fy = new double[nodeCount];
+		this.charges = new double[nodeCount];
+		this.radii = new double[nodeCount];
+		resize(nodeCount);
+	}
+
+	// ============== nodes ==============
+
+	/**
+	 * @return the number of nodes
+	 */
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * Change the number of nodes. The existing nodes keep their position and
+	 * velocity; the new nodes are placed around the center of the existing
+	 * ones. When the layout shrinks, the links to the removed nodes are
+	 * removed too, the other ones keeping their order.
+	 * 
+	 * @param nodeCount
+	 *            the new number of nodes
+	 * @return the current layout
+	 */
+	public ForceLayout resize(final int nodeCount) {
+		if (nodeCount > x.length) {
+			int capacity = Math.max(nodeCount, x.length + (x.length >> 1));
+			x = ForceQuadTree.grow(x, capacity);
+			y = ForceQuadTree.grow(y, capacity);
+			vx = ForceQuadTree.grow(vx, capacity);
+			vy = ForceQuadTree.grow(vy, capacity);
+			fx = ForceQuadTree.grow(fx, capacity);
+			fy = ForceQuadTree.grow(fy, capacity);
+			charges = ForceQuadTree.grow(charges, capacity);
+			radii = ForceQuadTree.grow(radii, capacity);
+		}
+		double ox = 0;
+		double oy = 0;
+		if (n > 0) {
+			for (int i = 0; i < n; i++) {
+				ox += x[i];
+				oy += y[i];
+			}
+			ox /= n;
+			oy /= n;
+		}
+		double charge = n > 0 ? charges[n - 1] : -30;
+		double radius = n > 0 ? radii[n - 1] : 0;
+		for (int i = n; i < nodeCount; i++) {
+			double r = INITIAL_RADIUS * Math.sqrt(0.5 + i);
+			double a = i * INITIAL_ANGLE;
+			x[i] = ox + r * Math.cos(a);
+			y[i] = oy + r * Math.sin(a);
+			vx[i] = 0;
+			vy[i] = 0;
+			fx[i] = Double.NaN;
+			fy[i] = Double.NaN;
+			charges[i] = charge;
+			radii[i] = radius;
+		}
+		if (nodeCount < n) {
+			int m = 0;
+			for (int l = 0; l < sources.length; l++) {
+				if (sources[l] < nodeCount && targets[l] < nodeCount) {
+					sources[m] = sources[l];
+					targets[m] = targets[l];
+					m++;
+				}
+			}
+			sources = ForceQuadTree.grow(sources, m);
+			targets = ForceQuadTree.grow(targets, m);
+			linkVersion++;
+		}
+		n = nodeCount;
+		linksChanged = true;
+		return this;
+	}
+
+	/**
+	 * The x coordinates of the nodes, updated in place by the ticks. The
+	 * array may be longer than the number of nodes.
+	 * 
+	 * @return the x coordinates
+	 */
+	public double[] x() {
+		return x;
+	}
+
+	/**
+	 * The y coordinates of the nodes, updated in place by the ticks. The
+	 * array may be longer than the number of nodes.
+	 * 
+	 * @return the y coordinates
+	 */
+	public double[] y() {
+		return y;
+	}
+
+	/**
+	 * @return the x velocities of the nodes
+	 */
+	public double[] vx() {
+		return vx;
+	}
+
+	/**
+	 * @return the y velocities of the nodes
+	 */
+	public double[] vy() {
+		return vy;
+	}
+
+	/**
+	 * Set the position of a node.
+	 * 
+	 * @param i
+	 *            the index of the node
+	 * @param px
+	 *            the x coordinate
+	 * @param py
+	 *            the y coordinate
+	 * @return the current layout
+	 */
+	public ForceLayout position(final int i, final double px, final double py) {
+		x[i] = px;
+		y[i] = py;
+		vx[i] = 0;
+		vy[i] = 0;
+		return this;
+	}
+
+	/**
+	 * Fix the position of a node: the forces no longer move it, for instance
+	 * while it is dragged.
+	 * 
+	 * @param i
+	 *            the index of the node
+	 * @param px
+	 *            the fixed x coordinate
+	 * @param py
+	 *            the fixed y coordinate
+	 * @return the current layout
+	 */
+	public ForceLayout fix(final int i, final double px, final double py) {
+		fx[i] = px;
+		fy[i] = py;
+		return this;
+	}
+
+	/**
+	 * Release a node fixed by {@link #fix(int, double, double)}.
+	 * 
+	 * @param i
+	 *            the index of the node
+	 * @return the current layout
+	 */
+	public ForceLayout unfix(final int i) {
+		fx[i] = Double.NaN;
+		fy[i] = Double.NaN;
+		return this;
+	}
+
+	/**
+	 * @param i
+	 *            the index of the node
+	 * @return true if the node is fixed
+	 */
+	public boolean isFixed(final int i) {
+		return !Double.isNaN(fx[i]);
+	}
+
+	// ============== links ==============
+
+	/**
+	 * Set the links between the nodes, given as the parallel arrays of their
+	 * source and target node indices.
+	 * 
+	 * @param sources
+	 *            the indices of the sources
+	 * @param targets
+	 *            the indices of the targets
+	 * @return the current layout
+	 */
+	public ForceLayout links(final int[] sources, final int[] targets) {
+		if (sources.length != targets.length) {
+			throw new IllegalArgumentException("sources and targets must have the same length: " + sources.length
+					+ " != " + targets.length);
+		}
+		this.sources = ForceQuadTree.grow(sources, sources.length);
+		this.targets = ForceQuadTree.grow(targets, targets.length);
+		this.linksChanged = true;
+		this.linkVersion++;
+		return this;
+	}
+
+	/**
+	 * Add links to the existing ones.
+	 * 
+	 * @param sources
+	 *            the indices of the sources of the new links
+	 * @param targets
+	 *            the indices of the targets of the new links
+	 * @return the current layout
+	 */
+	public ForceLayout addLinks(final int[] sources, final int[] targets) {
+		if (sources.length != targets.length) {
+			throw new IllegalArgumentException("sources and targets must have the same length: " + sources.length
+					+ " != " + targets.length);
+		}
+		int m = this.sources.length;
+		this.sources = ForceQuadTree.grow(this.sources, m + sources.length);
+		this.targets = ForceQuadTree.grow(this.targets, m + targets.length);
+		System.arraycopy(sources, 0, this.sources, m, sources.length);
+		System.arraycopy(targets, 0, this.targets, m, targets.length);
+		this.linksChanged = true;
+		return this;
+	}
+
+	/**
+	 * @return the number of links
+	 */
+	public int linkCount() {
+		return sources.length;
+	}
+
+	/**
+	 * @return the version of the links, changed when they are replaced or
+	 *         removed
+	 */
+	int linkVersion() {
+		return linkVersion;
+	}
+
+	/**
+	 * @param l
+	 *            the index of the link
+	 * @return the index of the source node of the link
+	 */
+	public int source(final int l) {
+		return sources[l];
+	}
+
+	/**
+	 * @param l
+	 *            the index of the link
+	 * @return the index of the target node of the link
+	 */
+	public int target(final int l) {
+		return targets[l];
+	}
+
+	/**
+	 * Set the target distance of the links. Defaults to 30.
+	 * 
+	 * @param distance
+	 *            the distance
+	 * @return the current layout
+	 */
+	public ForceLayout linkDistance(final double distance) {
+		this.linkDistance = distance;
+		this.linksChanged = true;
+		return this;
+	}
+
+	/**
+	 * Set the strength of the links, in [0;1]. By default, the strength of
+	 * a link is the inverse of the degree of its least connected node, which
+	 * avoids the oscillations of the highly connected nodes.
+	 * 
+	 * @param strength
+	 *            the strength, or NaN for the default strength
+	 * @return the current layout
+	 */
+	public ForceLayout linkStrength(final double strength) {
+		this.linkStrength = strength;
+		this.linksChanged = true;
+		return this;
+	}
+
+	// ============== forces ==============
+
+	/**
+	 * Set the charge of all the nodes. Negative charges repel, positive
+	 * charges attract. Defaults to -30.
+	 * 
+	 * @param charge
+	 *            the charge
+	 * @return the current layout
+	 */
+	public ForceLayout charge(final double charge) {
+		for (int i = 0; i < n; i++) {
+			charges[i] = charge;
+		}
+		return this;
+	}
+
+	/**
+	 * Set the charge of one node.
+	 * 
+	 * @param i
+	 *            the index of the node
+	 * @param charge
+	 *            the charge
+	 * @return the current layout
+	 */
+	public ForceLayout charge(final int i, final double charge) {
+		charges[i] = charge;
+		return this;
+	}
+
+	/**
+	 * Set the Barnes–Hut approximation criterion. A cell of the quadtree of
+	 * width w, at a distance l of a node, is treated as a single charge if
+	 * w / l &lt; theta. Defaults to 0.9; smaller values are more accurate and
+	 * slower.
+	 * 
+	 * @param theta
+	 *            the criterion
+	 * @return the current layout
+	 */
+	public ForceLayout theta(final double theta) {
+		this.theta2 = theta * theta;
+		return this;
+	}
+
+	/**
+	 * Set the minimum and maximum distances of the charge force. The minimum
+	 * avoids infinite forces between close nodes; the maximum limits the
+	 * force to the neighbourhood of each node. Defaults to 1 and infinity.
+	 * 
+	 * @param min
+	 *            the minimum distance
+	 * @param max
+	 *            the maximum distance
+	 * @return the current layout
+	 */
+	public ForceLayout chargeDistance(final double min, final double max) {
+		this.distanceMin2 = min * min;
+		this.distanceMax2 = max * max;
+		return this;
+	}
+
+	/**
+	 * Set the strength of the pull of the nodes to the center. Defaults to 0.
+	 * 
+	 * @param gravity
+	 *            the gravity
+	 * @return the current layout
+	 */
+	public ForceLayout gravity(final double gravity) {
+		this.gravity = gravity;
+		return this;
+	}
+
+	/**
+	 * Set the center the gravity pulls the nodes to. Defaults to the origin.
+	 * 
+	 * @param cx
+	 *            the x coordinate of the center
+	 * @param cy
+	 *            the y coordinate of the center
+	 * @return the current layout
+	 */
+	public ForceLayout center(final double cx, final double cy) {
+		this.centerX = cx;
+		this.centerY = cy;
+		return this;
+	}
+
+	/**
+	 * Enable the collision force, with the same radius for all the nodes.
+	 * 
+	 * @param radius
+	 *            the radius of the nodes, 0 to disable the collisions
+	 * @return the current layout
+	 */
+	public ForceLayout collide(final double radius) {
+		for (int i = 0; i < n; i++) {
+			radii[i] = radius;
+		}
+		this.collide = radius > 0;
+		return this;
+	}
+
+	/**
+	 * Set the radius of one node, and enable the collision force.
+	 * 
+	 * @param i
+	 *            the index of the node
+	 * @param radius
+	 *            the radius
+	 * @return the current layout
+	 */
+	public ForceLayout collide(final int i, final double radius) {
+		radii[i] = radius;
+		this.collide = true;
+		return this;
+	}
+
+	/**
+	 * Set the strength of the collision force, in [0;1]. Defaults to 1.
+	 * 
+	 * @param strength
+	 *            the strength
+	 * @return the current layout
+	 */
+	public ForceLayout collisionStrength(final double strength) {
+		this.collisionStrength = strength;
+		return this;
+	}
+
+	// ============== cooling ==============
+
+	/**
+	 * @return the current alpha
+	 */
+	public double alpha() {
+		return alpha;
+	}
+
+	/**
+	 * Set the current alpha, for instance to 1 to restart the simulation.
+	 * 
+	 * @param alpha
+	 *            the alpha
+	 * @return the current layout
+	 */
+	public ForceLayout alpha(final double alpha) {
+		this.alpha = alpha;
+		return this;
+	}
+
+	/**
+	 * Set the alpha under which the simulation stops. Defaults to 0.001.
+	 * 
+	 * @param alphaMin
+	 *            the minimum alpha
+	 * @return the current layout
+	 */
+	public ForceLayout alphaMin(final double alphaMin) {
+		this.alphaMin = alphaMin;
+		return this;
+	}
+
+	/**
+	 * Set the decay rate of alpha. The default is about 0.0228, which cools
+	 * the simulation from 1 to 0.001 in 300 ticks.
+	 * 
+	 * @param alphaDecay
+	 *            the decay, in [0;1]
+	 * @return the current layout
+	 */
+	public ForceLayout alphaDecay(final double alphaDecay) {
+		this.alphaDecay = alphaDecay;
+		return this;
+	}
+
+	/**
+	 * Set the alpha the simulation converges to. Defaults to 0; a positive
+	 * target keeps the simulation running, for instance during a drag.
+	 * 
+	 * @param alphaTarget
+	 *            the target
+	 * @return the current layout
+	 */
+	public ForceLayout alphaTarget(final double alphaTarget) {
+		this.alphaTarget = alphaTarget;
+		return this;
+	}
+
+	/**
+	 * Set the fraction of the velocity lost at each tick, like a friction.
+	 * Defaults to 0.4.
+	 * 
+	 * @param decay
+	 *            the decay, in [0;1]
+	 * @return the current layout
+	 */
+	public ForceLayout velocityDecay(final double decay) {
+		this.velocityDecay = decay;
+		return this;
+	}
+
+	/**
+	 * @return true if alpha is below the minimum: the layout is stable
+	 */
+	public boolean isStable() {
+		return alpha < alphaMin;
+	}
+
+	/**
+	 * @return the number of ticks computed since the creation of the layout
+	 */
+	public int ticks() {
+		return ticks;
+	}
+
+	// ============== simulation ==============
+
+	/**
+	 * Compute one step of the simulation.
+	 * 
+	 * @return false if the layout is stable, and no step was computed
+	 */
+	public boolean tick() {
+		if (isStable()) {
+			return false;
+		}
+		alpha += (alphaTarget - alpha) * alphaDecay;
+		if (linksChanged) {
+			initializeLinks();
+		}
+		applyLinks();
+		applyCharges();
+		if (collide) {
+			applyCollisions();
+		}
+		if (gravity != 0) {
+			applyGravity();
+		}
+		double friction = 1 - velocityDecay;
+		for (int i = 0; i < n; i++) {
+			if (Double.isNaN(fx[i])) {
+				vx[i] *= friction;
+				vy[i] *= friction;
+				x[i] += vx[i];
+				y[i] += vy[i];
+			}
+			else {
+				x[i] = fx[i];
+				y[i] = fy[i];
+				vx[i] = 0;
+				vy[i] = 0;
+			}
+		}
+		ticks++;
+		return true;
+	}
+
+	/**
+	 * Compute at most the given number of steps, stopping when the layout is
+	 * stable.
+	 * 
+	 * @param count
+	 *            the maximum number of ticks
+	 * @return the number of ticks computed
+	 */
+	public int tick(final int count) {
+		int done = 0;
+		while (done < count && tick()) {
+			done++;
+		}
+		return done;
+	}
+
+	private void initializeLinks() {
+		int m = sources.length;
+		int[] degrees = new int[n];
+		for (int l = 0; l < m; l++) {
+			checkNode(sources[l]);
+			checkNode(targets[l]);
+			degrees[sources[l]]++;
+			degrees[targets[l]]++;
+		}
+		if (distances.length != m) {
+			distances = new double[m];
+			strengths = new double[m];
+			bias = new double[m];
+		}
+		for (int l = 0; l < m; l++) {
+			int s = degrees[sources[l]];
+			int t = degrees[targets[l]];
+			distances[l] = linkDistance;
+			strengths[l] = Double.isNaN(linkStrength) ? 1.0 / Math.min(s, t) : linkStrength;
+			bias[l] = (double) s / (s + t);
+		}
+		linksChanged = false;
+	}
+
+	private void checkNode(final int i) {
+		if (i < 0 || i >= n) {
+			throw new IndexOutOfBoundsException("no node " + i + " in a layout of " + n + " nodes");
+		}
+	}
+
+	private void applyLinks() {
+		for (int l = 0; l < sources.length; l++) {
+			int s = sources[l];
+			int t = targets[l];
+			double dx = x[t] + vx[t] - x[s] - vx[s];
+			double dy = y[t] + vy[t] - y[s] - vy[s];
+			if (dx == 0) {
+				dx = jiggle();
+			}
+			if (dy == 0) {
+				dy = jiggle();
+			}
+			double d = Math.sqrt(dx * dx + dy * dy);
+			d = (d - distances[l]) / d * alpha * strengths[l];
+			dx *= d;
+			dy *= d;
+			double b = bias[l];
+			vx[t] -= dx * b;
+			vy[t] -= dy * b;
+			vx[s] += dx * (1 - b);
+			vy[s] += dy * (1 - b);
+		}
+	}
+
+	private void applyCharges() {
+		tree.build(n, x, y, null, null);
+		if (tree.cellCount == 0) {
+			return;
+		}
+		tree.accumulateSum(charges);
+		int[] children = tree.children;
+		int[] point = tree.point;
+		int[] next = tree.next;
+		double[] size = tree.size;
+		double[] value = tree.value;
+		double[] cx = tree.cx;
+		double[] cy = tree.cy;
+		for (int i = 0; i < n; i++) {
+			double xi = x[i];
+			double yi = y[i];
+			double fxi = 0;
+			double fyi = 0;
+			int top = 0;
+			stack[top++] = 0;
+			while (top > 0) {
+				int cell = stack[--top];
+				if (value[cell] == 0) {
+					continue;
+				}
+				double dx = cx[cell] - xi;
+				double dy = cy[cell] - yi;
+				double w = size[cell];
+				double l = dx * dx + dy * dy;
+				int p = point[cell];
+				// far enough: the cell is a single charge
+				if (w * w / theta2 < l) {
+					if (l < distanceMax2) {
+						if (dx == 0) {
+							dx = jiggle();
+							l += dx * dx;
+						}
+						if (dy == 0) {
+							dy = jiggle();
+							l += dy * dy;
+						}
+						if (l < distanceMin2) {
+							l = Math.sqrt(distanceMin2 * l);
+						}
+						fxi += dx * value[cell] * alpha / l;
+						fyi += dy * value[cell] * alpha / l;
+					}
+					continue;
+				}
+				if (p == ForceQuadTree.NONE) {
+					// too close: visit the children
+					int base = cell * 4;
+					if (top + 4 > stack.length) {
+						stack = ForceQuadTree.grow(stack, stack.length * 2);
+					}
+					for (int q = 0; q < 4; q++) {
+						int child = children[base + q];
+						if (child != ForceQuadTree.NONE) {
+							stack[top++] = child;
+						}
+					}
+					continue;
+				}
+				// a leaf: the points, except the current node
+				for (; p != ForceQuadTree.NONE; p = next[p]) {
+					if (p == i) {
+						continue;
+					}
+					double px = x[p] - xi;
+					double py = y[p] - yi;
+					if (px == 0) {
+						px = jiggle();
+					}
+					if (py == 0) {
+						py = jiggle();
+					}
+					double lp = px * px + py * py;
+					if (lp >= distanceMax2) {
+						continue;
+					}
+					if (lp < distanceMin2) {
+						lp = Math.sqrt(distanceMin2 * lp);
+					}
+					double k = charges[p] * alpha / lp;
+					fxi += px * k;
+					fyi += py * k;
+				}
+			}
+			vx[i] += fxi;
+			vy[i] += fyi;
+		}
+	}
+
+	private void applyCollisions() {
+		tree.build(n, x, y, vx, vy);
+		if (tree.cellCount == 0) {
+			return;
+		}
+		tree.accumulateMax(radii);
+		int[] children = tree.children;
+		int[] point = tree.point;
+		int[] next = tree.next;
+		double[] x0 = tree.x0;
+		double[] y0 = tree.y0;
+		double[] size = tree.size;
+		double[] maxRadius = tree.value;
+		double[] px = tree.px;
+		double[] py = tree.py;
+		for (int i = 0; i < n; i++) {
+			double ri = radii[i];
+			double ri2 = ri * ri;
+			double xi = px[i];
+			double yi = py[i];
+			int top = 0;
+			stack[top++] = 0;
+			while (top > 0) {
+				int cell = stack[--top];
+				double r = ri + maxRadius[cell];
+				if (x0[cell] > xi + r || x0[cell] + size[cell] < xi - r || y0[cell] > yi + r
+						|| y0[cell] + size[cell] < yi - r) {
+					continue;
+				}
+				int p = point[cell];
+				if (p == ForceQuadTree.NONE) {
+					int base = cell * 4;
+					if (top + 4 > stack.length) {
+						stack = ForceQuadTree.grow(stack, stack.length * 2);
+					}
+					for (int q = 0; q < 4; q++) {
+						int child = children[base + q];
+						if (child != ForceQuadTree.NONE) {
+							stack[top++] = child;
+						}
+					}
+					continue;
+				}
+				for (; p != ForceQuadTree.NONE; p = next[p]) {
+					// each pair is handled once
+					if (p <= i) {
+						continue;
+					}
+					double rj = radii[p];
+					double rr = ri + rj;
+					double dx = xi - x[p] - vx[p];
+					double dy = yi - y[p] - vy[p];
+					double l = dx * dx + dy * dy;
+					if (l < rr * rr) {
+						if (dx == 0) {
+							dx = jiggle();
+							l += dx * dx;
+						}
+						if (dy == 0) {
+							dy = jiggle();
+							l += dy * dy;
+						}
+						l = Math.sqrt(l);
+						l = (rr - l) / l * collisionStrength;
+						dx *= l;
+						dy *= l;
+						double rj2 = rj * rj;
+						double share = rj2 / (ri2 + rj2);
+						vx[i] += dx * share;
+						vy[i] += dy * share;
+						vx[p] -= dx * (1 - share);
+						vy[p] -= dy * (1 - share);
+					}
+				}
+			}
+		}
+	}
+
+	private void applyGravity() {
+		double k = gravity * alpha;
+		for (int i = 0; i < n; i++) {
+			vx[i] += (centerX - x[i]) * k;
+			vy[i] += (centerY - y[i]) * k;
+		}
+	}
+
+	/**
+	 * a tiny deterministic displacement for coincident nodes
+	 */
+	private double jiggle() {
+		jiggle = (jiggle * 1103 + 12345) & 0xffff;
+		return (jiggle / 65536.0 - 0.5) * 1e-6;
+	}
+}
@@ -0,0 +1,291 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.layout;
+
+/**
+ * A quadtree over the nodes of a {@link ForceLayout}, stored in primitive
+ * arrays so that it can be rebuilt at each tick without allocating.
+ * <p>
+ * The cells are numbered in creation order, so that the children of a cell
+ * always have greater indices than their parent: iterating the cells
+ * backward visits them in post-order.
+ */
+class ForceQuadTree {
+
+	static final int NONE = -1;
+
+	/**
+	 * the maximum depth, below which coincident-ish points are chained in
+	 * the same leaf
+	 */
+	private static final int MAX_DEPTH = 48;
+
+	int cellCount;
+
+	/**
+	 * the 4 children of each cell, or NONE
+	 */
+	int[] children = new int[0];
+
+	/**
+	 * the first point of a leaf, or NONE for an internal or empty cell
+	 */
+	int[] point = new int[0];
+
+	/**
+	 * the next point in the same leaf, or NONE
+	 */
+	int[] next = new int[0];
+
+	double[] x0 = new double[0];
+
+	double[] y0 = new double[0];
+
+	double[] size = new double[0];
+
+	/**
+	 * per cell accumulated value (charge or radius), and center of charge
+	 */
+	double[] value = new double[0];
+
+	double[] cx = new double[0];
+
+	double[] cy = new double[0];
+
+	/**
+	 * the positions the tree was built from
+	 */
+	double[] px = new double[0];
+
+	double[] py = new double[0];
+
+	/**
+	 * Build the tree over the n points (x + dx, y + dy); dx and dy may be
+	 * null.
+	 */
+	void build(final int n, final double[] x, final double[] y, final double[] dx, final double[] dy) {
+		if (px.length < n) {
+			px = new double[n];
+			py = new double[n];
+			next = new int[n];
+		}
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			double xi = dx == null ? x[i] : x[i] + dx[i];
+			double yi = dy == null ? y[i] : y[i] + dy[i];
+			px[i] = xi;
+			py[i] = yi;
+			next[i] = NONE;
+			if (xi < minX) {
+				minX = xi;
+			}
+			if (xi > maxX) {
+				maxX = xi;
+			}
+			if (yi < minY) {
+				minY = yi;
+			}
+			if (yi > maxY) {
+				maxY = yi;
+			}
+		}
+		cellCount = 0;
+		if (n == 0) {
+			return;
+		}
+		ensureCells(Math.max(16, 2 * n));
+		double extent = Math.max(maxX - minX, maxY - minY);
+		newCell(minX, minY, extent > 0 ? extent * (1 + 1e-9) : 1);
+		for (int i = 0; i < n; i++) {
+			insert(i);
+		}
+	}
+
+	private void insert(final int i) {
+		double xi = px[i];
+		double yi = py[i];
+		int cell = 0;
+		int depth = 0;
+		while (true) {
+			int first = point[cell];
+			if (first == NONE && !hasChildren(cell)) {
+				// empty leaf
+				point[cell] = i;
+				return;
+			}
+			if (first != NONE) {
+				if ((px[first] == xi && py[first] == yi) || depth >= MAX_DEPTH) {
+					// coincident points are chained
+					next[i] = next[first];
+					next[first] = i;
+					return;
+				}
+				// split the leaf: push its points down
+				point[cell] = NONE;
+				int child = childFor(cell, px[first], py[first]);
+				point[child] = first;
+			}
+			cell = childFor(cell, xi, yi);
+			depth++;
+		}
+	}
+
+	private boolean hasChildren(final int cell) {
+		int base = cell * 4;
+		return children[base] != NONE || children[base + 1] != NONE || children[base + 2] != NONE
+				|| children[base + 3] != NONE;
+	}
+
+	/**
+	 * return the child of the cell containing (x, y), creating it if needed
+	 */
+	private int childFor(final int cell, final double x, final double y) {
+		double half = size[cell] / 2;
+		double mx = x0[cell] + half;
+		double my = y0[cell] + half;
+		int q = (x >= mx ? 1 : 0) | (y >= my ? 2 : 0);
+		int index = cell * 4 + q;
+		int child = children[index];
+		if (child == NONE) {
+			child = newCell((q & 1) == 0 ? x0[cell] : mx, (q & 2) == 0 ? y0[cell] : my, half);
+			children[index] = child;
+		}
+		return child;
+	}
+
+	private int newCell(final double x, final double y, final double s) {
+		if (cellCount == point.length) {
+			ensureCells(cellCount * 2);
+		}
+		int cell = cellCount++;
+		int base = cell * 4;
+		children[base] = NONE;
+		children[base + 1] = NONE;
+		children[base + 2] = NONE;
+		children[base + 3] = NONE;
+		point[cell] = NONE;
+		x0[cell] = x;
+		y0[cell] = y;
+		size[cell] = s;
+		return cell;
+	}
+
+	private void ensureCells(final int capacity) {
+		if (point.length >= capacity) {
+			return;
+		}
+		children = grow(children, capacity * 4);
+		point = grow(point, capacity);
+		x0 = grow(x0, capacity);
+		y0 = grow(y0, capacity);
+		size = grow(size, capacity);
+		value = grow(value, capacity);
+		cx = grow(cx, capacity);
+		cy = grow(cy, capacity);
+	}
+
+	/**
+	 * Accumulate the sum of the given values of the points, and their
+	 * weighted center, in each cell.
+	 */
+	void accumulateSum(final double[] values) {
+		for (int cell = cellCount - 1; cell >= 0; cell--) {
+			double sum = 0;
+			double weight = 0;
+			double x = 0;
+			double y = 0;
+			int p = point[cell];
+			if (p != NONE) {
+				for (; p != NONE; p = next[p]) {
+					double v = values[p];
+					sum += v;
+					weight += Math.abs(v);
+					x += Math.abs(v) * px[p];
+					y += Math.abs(v) * py[p];
+				}
+			}
+			else {
+				int base = cell * 4;
+				for (int q = 0; q < 4; q++) {
+					int child = children[base + q];
+					if (child != NONE) {
+						double w = Math.abs(value[child]);
+						sum += value[child];
+						weight += w;
+						x += w * cx[child];
+						y += w * cy[child];
+					}
+				}
+			}
+			value[cell] = sum;
+			cx[cell] = weight > 0 ? x / weight : x0[cell] + size[cell] / 2;
+			cy[cell] = weight > 0 ? y / weight : y0[cell] + size[cell] / 2;
+		}
+	}
+
+	/**
+	 * Accumulate the maximum of the given values of the points in each cell.
+	 */
+	void accumulateMax(final double[] values) {
+		for (int cell = cellCount - 1; cell >= 0; cell--) {
+			double max = 0;
+			int p = point[cell];
+			if (p != NONE) {
+				for (; p != NONE; p = next[p]) {
+					max = Math.max(max, values[p]);
+				}
+			}
+			else {
+				int base = cell * 4;
+				for (int q = 0; q < 4; q++) {
+					int child = children[base + q];
+					if (child != NONE) {
+						max = Math.max(max, value[child]);
+					}
+				}
+			}
+			value[cell] = max;
+		}
+	}
+
+	static int[] grow(final int[] array, final int length) {
+		int[] grown = new int[length];
+		System.arraycopy(array, 0, grown, 0, Math.min(array.length, length));
+		return grown;
+	}
+
+	static double[] grow(final double[] array, final int length) {
+		double[] grown = new double[length];
+		System.arraycopy(array, 0, grown, 0, Math.min(array.length, length));
+		return grown;
+	}
+}
@@ -0,0 +1,465 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.layout;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.gwtd3.api.D3;
+import com.github.gwtd3.api.core.Selection;
+import com.github.gwtd3.api.functions.TimerFunction;
+import com.google.gwt.core.client.Duration;
+
+/**
+ * Runs a {@link ForceLayout} in the browser without blocking the page.
+ * <p>
+ * The simulation is driven by {@link D3#timer(TimerFunction)}: at each
+ * animation frame, it computes as many ticks as fit in a time budget, then
+ * yields to the browser. The positions are published to the bound
+ * selections through a {@link ForceBinding}, at most once per publish
+ * interval, and once more when the layout is stable:
+ * 
+ * <pre>
+ * {@code
+ * ForceSimulation simulation = new ForceSimulation(force).budget(8).publishInterval(32);
+ * simulation.bindLinks(svg.selectAll("line").data(simulation.binding().links()).enter().append("line"));
+ * simulation.bind(svg.selectAll("circle").data(simulation.binding().nodes()).enter().append("circle"), "cx", "cy");
+ * simulation.start();
+ * }
+ * </pre>
+ * <p>
+ * Nodes and links can be added while the simulation runs with
+ * {@link #add(int, int[], int[])}: the existing nodes keep their positions,
+ * the new nodes start next to the node they are linked to, and the
+ * simulation is only reheated to {@link #warmAlpha(double)} instead of
+ * being restarted from scratch.
+ */
+public class ForceSimulation {
+
+	/**
+	 * Listens to the publications of a {@link ForceSimulation}.
+	 */
+	public interface Listener {
+
+		/**
+		 * Called after positions were published to the bound selections.
+		 * 
+		 * @param simulation
+		 *            the simulation
+		 * @param published
+		 *            the number of nodes whose position changed
+		 */
+		void onPublish(ForceSimulation simulation, int published);
+
+		/**
+		 * Called when the layout is stable and the simulation stops.
+		 * 
+		 * @param simulation
+		 *            the simulation
+		 */
+		void onEnd(ForceSimulation simulation);
+	}
+
+	private final ForceLayout layout;
+
+	private final ForceBinding binding;
+
+	private final List<Selection> nodeSelections = new ArrayList<Selection>();
+
+	private final List<String[]> nodeAttributes = new ArrayList<String[]>();
+
+	private final List<Selection> linkSelections = new ArrayList<Selection>();
+
+	private final List<Listener> listeners = new ArrayList<Listener>();
+
+	private double budget = 8;
+
+	private double publishInterval = 32;
+
+	private double warmAlpha = 0.3;
+
+	private double lastPublish = Double.NEGATIVE_INFINITY;
+
+	/**
+	 * incremented at each start or stop, so that the timer of a previous run
+	 * stops itself
+	 */
+	private int generation;
+
+	private boolean running;
+
+	private int frames;
+
+	private int lastFrameTicks;
+
+	/**
+	 * Create a simulation of the given layout, with a new binding.
+	 * 
+	 * @param layout
+	 *            the layout
+	 */
+	public ForceSimulation(final ForceLayout layout) {
+		this(layout, new ForceBinding(layout));
+	}
+
+	/**
+	 * Create a simulation of the given layout.
+	 * 
+	 * @param layout
+	 *            the layout
+	 * @param binding
+	 *            the binding publishing the positions of the layout
+	 */
+	public ForceSimulation(final ForceLayout layout, final ForceBinding binding) {
+		super();
+		this.layout = layout;
+		this.binding = binding;
+	}
+
+	/**
+	 * @return the layout
+	 */
+	public ForceLayout layout() {
+		return layout;
+	}
+
+	/**
+	 * @return the binding
+	 */
+	public ForceBinding binding() {
+		return binding;
+	}
+
+	// ============== configuration ==============
+
+	/**
+	 * Set the time that may be spent computing ticks at each frame. Defaults
+	 * to 8 milliseconds, half of a 60 fps frame. At least one tick is
+	 * computed per frame.
+	 * 
+	 * @param millis
+	 *            the budget in milliseconds
+	 * @return the current simulation
+	 */
+	public ForceSimulation budget(final double millis) {
+		this.budget = millis;
+		return this;
+	}
+
+	/**
+	 * Set the minimum time between two publications of the positions to the
+	 * DOM. Defaults to 32 milliseconds; 0 publishes at each frame.
+	 * 
+	 * @param millis
+	 *            the interval in milliseconds
+	 * @return the current simulation
+	 */
+	public ForceSimulation publishInterval(final double millis) {
+		this.publishInterval = millis;
+		return this;
+	}
+
+	/**
+	 * Set the alpha the simulation is reheated to when nodes or links are
+	 * added. Defaults to 0.3.
+	 * 
+	 * @param alpha
+	 *            the alpha
+	 * @return the current simulation
+	 */
+	public ForceSimulation warmAlpha(final double alpha) {
+		this.warmAlpha = alpha;
+		return this;
+	}
+
+	/**
+	 * Publish the positions of the nodes to the given selection, by setting
+	 * the given attributes.
+	 * 
+	 * @param selection
+	 *            the selection, bound to the nodes of the binding
+	 * @param xAttribute
+	 *            the x attribute, for instance "cx"
+	 * @param yAttribute
+	 *            the y attribute, for instance "cy"
+	 * @return the current simulation
+	 */
+	public ForceSimulation bind(final Selection selection, final String xAttribute, final String yAttribute) {
+		nodeSelections.add(selection);
+		nodeAttributes.add(new String[] { xAttribute, yAttribute });
+		return this;
+	}
+
+	/**
+	 * Publish the positions of the nodes to the given selection, by setting
+	 * its transform attribute.
+	 * 
+	 * @param selection
+	 *            the selection, bound to the nodes of the binding
+	 * @return the current simulation
+	 */
+	public ForceSimulation bind(final Selection selection) {
+		nodeSelections.add(selection);
+		nodeAttributes.add(null);
+		return this;
+	}
+
+	/**
+	 * Publish the positions of the links to the given selection of line
+	 * elements.
+	 * 
+	 * @param selection
+	 *            the selection, bound to the links of the binding
+	 * @return the current simulation
+	 */
+	public ForceSimulation bindLinks(final Selection selection) {
+		linkSelections.add(selection);
+		return this;
+	}
+
+	/**
+	 * Forget the bound selections, for instance to bind the selections
+	 * updated after adding nodes.
+	 * 
+	 * @return the current simulation
+	 */
+	public ForceSimulation unbindAll() {
+		nodeSelections.clear();
+		nodeAttributes.clear();
+		linkSelections.clear();
+		return this;
+	}
+
+	/**
+	 * Add a listener.
+	 * 
+	 * @param listener
+	 *            the listener
+	 * @return the current simulation
+	 */
+	public ForceSimulation addListener(final Listener listener) {
+		listeners.add(listener);
+		return this;
+	}
+
+	/**
+	 * Remove a listener.
+	 * 
+	 * @param listener
+	 *            the listener
+	 * @return the current simulation
+	 */
+	public ForceSimulation removeListener(final Listener listener) {
+		listeners.remove(listener);
+		return this;
+	}
+
+	// ============== running ==============
+
+	/**
+	 * Start the simulation, if it is not already running.
+	 * 
+	 * @return the current simulation
+	 */
+	public ForceSimulation start() {
+		if (running) {
+			return this;
+		}
+		running = true;
+		final int current = ++generation;
+		D3.timer(new TimerFunction() {
+			@Override
+			public boolean execute() {
+				if (current != generation) {
+					return true;
+				}
+				return !step();
+			}
+		});
+		return this;
+	}
+
+	/**
+	 * Stop the simulation. The layout keeps its current alpha, so that
+	 * {@link #start()} resumes it.
+	 * 
+	 * @return the current simulation
+	 */
+	public ForceSimulation stop() {
+		running = false;
+		generation++;
+		return this;
+	}
+
+	/**
+	 * @return true if the simulation is running
+	 */
+	public boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Reheat the layout to the given alpha and start the simulation.
+	 * 
+	 * @param alpha
+	 *            the alpha
+	 * @return the current simulation
+	 */
+	public ForceSimulation restart(final double alpha) {
+		layout.alpha(alpha);
+		return start();
+	}
+
+	/**
+	 * Add nodes and links to the layout, and warm start the simulation. The
+	 * new nodes are placed next to the first existing node they are linked
+	 * to, the other ones keep their position.
+	 * <p>
+	 * The node and link arrays of the binding grow accordingly; the
+	 * selections must be bound to them again to create the elements of the
+	 * new nodes and links.
+	 * 
+	 * @param nodeCount
+	 *            the number of new nodes, with the indices following the
+	 *            existing ones
+	 * @param sources
+	 *            the sources of the new links
+	 * @param targets
+	 *            the targets of the new links
+	 * @return the current simulation
+	 */
+	public ForceSimulation add(final int nodeCount, final int[] sources, final int[] targets) {
+		int first = layout.size();
+		layout.resize(first + nodeCount);
+		layout.addLinks(sources, targets);
+		// place the new nodes next to their existing neighbour
+		double[] x = layout.x();
+		double[] y = layout.y();
+		for (int l = 0; l < sources.length; l++) {
+			int s = sources[l];
+			int t = targets[l];
+			if (s >= first && t < first) {
+				layout.position(s, x[t] + jitter(s), y[t] + jitter(s + 1));
+			}
+			else if (t >= first && s < first) {
+				layout.position(t, x[s] + jitter(t), y[s] + jitter(t + 1));
+			}
+		}
+		binding.nodes();
+		binding.links();
+		layout.alpha(Math.max(layout.alpha(), warmAlpha));
+		return start();
+	}
+
+	private static double jitter(final int i) {
+		return ((i * 37) % 11) - 5;
+	}
+
+	/**
+	 * Run one frame now: compute ticks until the budget is spent, and publish
+	 * if the publish interval elapsed. When the layout becomes stable, the
+	 * positions are published, the simulation stops and the listeners are
+	 * notified.
+	 * <p>
+	 * This is what the timer of {@link #start()} does at each animation
+	 * frame; it can also drive a simulation that was not started, for
+	 * instance to step it deterministically.
+	 * 
+	 * @return true if the layout is not stable yet
+	 */
+	public boolean step() {
+		double start = Duration.currentTimeMillis();
+		double deadline = start + budget;
+		int ticks = 0;
+		boolean stable = false;
+		do {
+			if (!layout.tick()) {
+				stable = true;
+				break;
+			}
+			ticks++;
+		} while (Duration.currentTimeMillis() < deadline);
+		frames++;
+		lastFrameTicks = ticks;
+		if (stable || start - lastPublish >= publishInterval) {
+			publish();
+			lastPublish = start;
+		}
+		if (stable) {
+			running = false;
+			for (Listener listener : new ArrayList<Listener>(listeners)) {
+				listener.onEnd(this);
+			}
+		}
+		return !stable;
+	}
+
+	/**
+	 * Publish the current positions to the bound selections.
+	 * 
+	 * @return the number of nodes whose position changed
+	 */
+	public int publish() {
+		int published = binding.publish();
+		if (published > 0) {
+			for (int i = 0; i < nodeSelections.size(); i++) {
+				String[] attributes = nodeAttributes.get(i);
+				if (attributes == null) {
+					binding.applyTransform(nodeSelections.get(i));
+				}
+				else {
+					binding.apply(nodeSelections.get(i), attributes[0], attributes[1]);
+				}
+			}
+			for (Selection selection : linkSelections) {
+				binding.applyLinks(selection);
+			}
+		}
+		for (Listener listener : new ArrayList<Listener>(listeners)) {
+			listener.onPublish(this, published);
+		}
+		return published;
+	}
+
+	// ============== instrumentation ==============
+
+	/**
+	 * @return the number of frames run since the creation of the simulation
+	 */
+	public int frames() {
+		return frames;
+	}
+
+	/**
+	 * @return the number of ticks computed during the last frame
+	 */
+	public int lastFrameTicks() {
+		return lastFrameTicks;
+	}
+}
@@ -0,0 +1,224 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.layout;
+
+import com.google.gwt.core.client.Duration;
+import com.google.gwt.typedarrays.client.Float64ArrayNative;
+import com.google.gwt.typedarrays.client.Int32ArrayNative;
+import com.google.gwt.typedarrays.shared.Float64Array;
+
+/**
+ * The worker side of a {@link ForceWorkerProxy}: runs a {@link ForceLayout}
+ * inside a dedicated Web Worker.
+ * <p>
+ * The worker script is the <code>com.github.gwtd3.ForceWorker</code> module,
+ * compiled to <code>force/force.worker.js</code>: its entry point,
+ * {@link ForceWorkerEntryPoint}, calls {@link #run()}. The module does not
+ * inherit D3, which needs a document, and is linked into a single script by
+ * {@link com.github.gwtd3.linker.WorkerLinker}. The application compiles it
+ * by listing it in the <code>modules</code> of its gwt-maven-plugin
+ * configuration, next to its own module, as the gwt-d3-demo pom does.
+ * <p>
+ * The worker computes ticks in slices of the time budget given by the
+ * proxy, and posts the positions as a {@link Float64Array} of interleaved x
+ * and y coordinates, transferring its buffer instead of copying it. A single
+ * buffer, created when the layout is initialized and replaced only when the
+ * number of nodes changes, shuttles between the worker and the proxy, which
+ * transfers it back once it has written the positions; while the proxy
+ * holds it, the worker keeps computing ticks and publishes at the next
+ * opportunity.
+ * <p>
+ * The messages are described in {@link ForceWorkerProxy}.
+ */
+public class ForceWorker {
+
+	private static ForceLayout layout;
+
+	private static Float64ArrayNative buffer;
+
+	private static double budget = 8;
+
+	private static double publishInterval = 32;
+
+	private static double lastPublish = Double.NEGATIVE_INFINITY;
+
+	private static boolean scheduled;
+
+	private static boolean pendingPublish;
+
+	private ForceWorker() {
+	}
+
+	/**
+	 * Install the message handler of the worker.
+	 */
+	public static native void run() /*-{
+		self.onmessage = function(e) {
+			var m = e.data;
+			switch (m.type) {
+			case "init":
+				@com.github.gwtd3.api.layout.ForceWorker::init(Lcom/google/gwt/typedarrays/client/Int32ArrayNative;Lcom/google/gwt/typedarrays/client/Int32ArrayNative;IDDDDDDDDD)(m.sources, m.targets, m.n, m.charge, m.linkDistance, m.theta, m.radius, m.gravity, m.cx, m.cy, m.budget, m.interval);
+				break;
+			case "pin":
+				@com.github.gwtd3.api.layout.ForceWorker::pin(IDD)(m.index, m.x, m.y);
+				break;
+			case "unpin":
+				@com.github.gwtd3.api.layout.ForceWorker::unpin(I)(m.index);
+				break;
+			case "alpha":
+				@com.github.gwtd3.api.layout.ForceWorker::alpha(D)(m.alpha);
+				break;
+			case "buffer":
+				@com.github.gwtd3.api.layout.ForceWorker::buffer(Lcom/google/gwt/typedarrays/client/Float64ArrayNative;)(m.positions);
+				break;
+			case "stop":
+				self.close();
+				break;
+			}
+		};
+	}-*/;
+
+	private static void init(final Int32ArrayNative sources, final Int32ArrayNative targets, final int n,
+			final double charge, final double linkDistance, final double theta, final double radius,
+			final double gravity, final double cx, final double cy, final double frameBudget, final double interval) {
+		int m = sources.length();
+		int[] s = new int[m];
+		int[] t = new int[m];
+		for (int l = 0; l < m; l++) {
+			s[l] = sources.get(l);
+			t[l] = targets.get(l);
+		}
+		layout = new ForceLayout(n).links(s, t).charge(charge).linkDistance(linkDistance).theta(theta)
+				.collide(radius).gravity(gravity).center(cx, cy);
+		budget = frameBudget;
+		publishInterval = interval;
+		buffer = createBuffer(2 * n);
+		schedule();
+	}
+
+	private static void pin(final int index, final double x, final double y) {
+		if (layout == null) {
+			return;
+		}
+		layout.fix(index, x, y).position(index, x, y);
+		// keep the simulation warm while dragging
+		alpha(0.3);
+	}
+
+	private static void unpin(final int index) {
+		if (layout != null) {
+			layout.unfix(index);
+		}
+	}
+
+	private static void alpha(final double alpha) {
+		if (layout == null) {
+			return;
+		}
+		layout.alpha(Math.max(layout.alpha(), alpha));
+		schedule();
+	}
+
+	private static void buffer(final Float64ArrayNative returned) {
+		buffer = returned;
+		if (pendingPublish) {
+			publish();
+		}
+	}
+
+	private static void schedule() {
+		if (!scheduled) {
+			scheduled = true;
+			setTimeout();
+		}
+	}
+
+	/**
+	 * called by the timeout: compute one slice of ticks
+	 */
+	private static void slice() {
+		scheduled = false;
+		double start = Duration.currentTimeMillis();
+		boolean stable = false;
+		do {
+			if (!layout.tick()) {
+				stable = true;
+				break;
+			}
+		} while (Duration.currentTimeMillis() - start < budget);
+		if (stable || start - lastPublish >= publishInterval) {
+			lastPublish = start;
+			publish();
+		}
+		if (!stable) {
+			schedule();
+		}
+	}
+
+	private static void publish() {
+		if (buffer == null) {
+			// the proxy still owns the buffer
+			pendingPublish = true;
+			return;
+		}
+		pendingPublish = false;
+		int n = layout.size();
+		if (buffer.length() != 2 * n) {
+			buffer = createBuffer(2 * n);
+		}
+		double[] x = layout.x();
+		double[] y = layout.y();
+		for (int i = 0; i < n; i++) {
+			buffer.set(2 * i, x[i]);
+			buffer.set(2 * i + 1, y[i]);
+		}
+		Float64ArrayNative sent = buffer;
+		buffer = null;
+		post(sent, layout.alpha(), layout.isStable());
+	}
+
+	private static native Float64ArrayNative createBuffer(int length) /*-{
+		return new Float64Array(length);
+	}-*/;
+
+	private static native void post(Float64ArrayNative positions, double alpha, boolean stable) /*-{
+		self.postMessage({
+			type : "positions",
+			positions : positions,
+			alpha : alpha,
+			stable : stable
+		}, [ positions.buffer ]);
+	}-*/;
+
+	private static native void setTimeout() /*-{
+		self.setTimeout(function() {
+			@com.github.gwtd3.api.layout.ForceWorker::slice()();
+		}, 0);
+	}-*/;
+}
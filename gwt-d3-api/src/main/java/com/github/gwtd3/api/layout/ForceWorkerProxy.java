@@ -0,0 +1,655 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.layout;
+
+import com.github.gwtd3.api.D3;
+import com.github.gwtd3.api.behaviour.Drag;
+import com.github.gwtd3.api.behaviour.Drag.DragEventType;
+import com.github.gwtd3.api.core.Selection;
+import com.github.gwtd3.api.core.Value;
+import com.github.gwtd3.api.functions.DatumFunction;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.typedarrays.client.Float64ArrayNative;
+import com.google.gwt.typedarrays.client.Int32ArrayNative;
+import com.google.gwt.typedarrays.shared.Float64Array;
+
+/**
+ * The main thread side of a force layout running in a Web Worker (see
+ * {@link ForceWorker}).
+ * <p>
+ * The proxy sends the graph to the worker, and receives the positions of
+ * the nodes as a {@link Float64Array} of interleaved x and y coordinates,
+ * whose buffer is transferred rather than copied. At most once per
+ * animation frame, the latest positions are written to the bound
+ * selections in a single pass, and the buffer is transferred back to the
+ * worker to be filled again.
+ * 
+ * <pre>
+ * {@code
+ * ForceWorkerProxy force = new ForceWorkerProxy("force/force.worker.js").charge(-30).linkDistance(20);
+ * force.bindLinks(lines).bind(circles, "cx", "cy");
+ * circles.call(force.drag());
+ * force.start(nodeCount, sources, targets);
+ * }
+ * </pre>
+ * <p>
+ * The messages sent to the worker are objects with a type property:
+ * <ul>
+ * <li>"init": the graph (n, sources, targets) and the parameters of the
+ * layout;
+ * <li>"pin" and "unpin": fix (index, x, y) or release (index) a node;
+ * <li>"alpha": reheat the layout (alpha);
+ * <li>"buffer": give back the positions buffer (positions);
+ * <li>"stop": terminate the worker.
+ * </ul>
+ * The worker answers with "positions" messages (positions, alpha, stable).
+ */
+public class ForceWorkerProxy {
+
+	/**
+	 * Listens to the positions received from the worker.
+	 */
+	public interface Listener {
+
+		/**
+		 * Called after the positions were written to the bound selections.
+		 * 
+		 * @param proxy
+		 *            the proxy
+		 * @param positions
+		 *            the interleaved x and y coordinates of the nodes, only
+		 *            valid during the call
+		 * @param alpha
+		 *            the alpha of the layout
+		 * @param stable
+		 *            true if the layout is stable
+		 */
+		void onPositions(ForceWorkerProxy proxy, Float64Array positions, double alpha, boolean stable);
+	}
+
+	private final String workerUrl;
+
+	private JavaScriptObject worker;
+
+	private double charge = -30;
+
+	private double linkDistance = 30;
+
+	private double theta = 0.9;
+
+	private double radius = 0;
+
+	private double gravity = 0;
+
+	private double centerX = 0;
+
+	private double centerY = 0;
+
+	private double budget = 8;
+
+	private double publishInterval = 32;
+
+	/**
+	 * copies of the links kept on the main thread, the ones sent to the
+	 * worker being transferred
+	 */
+	private Int32ArrayNative sources;
+
+	private Int32ArrayNative targets;
+
+	/**
+	 * the bound selections, as a javascript array of {selection, x, y,
+	 * links} objects
+	 */
+	private final JavaScriptObject bindings = JavaScriptObject.createArray();
+
+	private Listener listener;
+
+	private Float64ArrayNative latest;
+
+	private double alpha;
+
+	private boolean stable;
+
+	private boolean frameRequested;
+
+	private int received;
+
+	private int writes;
+
+	/**
+	 * Create a proxy of the worker loaded from the given script.
+	 * 
+	 * @param workerUrl
+	 *            the url of the worker script
+	 */
+	public ForceWorkerProxy(final String workerUrl) {
+		super();
+		this.workerUrl = workerUrl;
+	}
+
+	// ============== parameters, sent at start ==============
+
+	/**
+	 * Set the charge of the nodes. Defaults to -30.
+	 * 
+	 * @param charge
+	 *            the charge
+	 * @return the current proxy
+	 * @see ForceLayout#charge(double)
+	 */
+	public ForceWorkerProxy charge(final double charge) {
+		this.charge = charge;
+		return this;
+	}
+
+	/**
+	 * Set the distance of the links. Defaults to 30.
+	 * 
+	 * @param distance
+	 *            the distance
+	 * @return the current proxy
+	 * @see ForceLayout#linkDistance(double)
+	 */
+	public ForceWorkerProxy linkDistance(final double distance) {
+		this.linkDistance = distance;
+		return this;
+	}
+
+	/**
+	 * Set the Barnes–Hut criterion. Defaults to 0.9.
+	 * 
+	 * @param theta
+	 *            the criterion
+	 * @return the current proxy
+	 * @see ForceLayout#theta(double)
+	 */
+	public ForceWorkerProxy theta(final double theta) {
+		this.theta = theta;
+		return this;
+	}
+
+	/**
+	 * Set the collision radius of the nodes. Defaults to 0, no collision.
+	 * 
+	 * @param radius
+	 *            the radius
+	 * @return the current proxy
+	 * @see ForceLayout#collide(double)
+	 */
+	public ForceWorkerProxy collide(final double radius) {
+		this.radius = radius;
+		return this;
+	}
+
+	/**
+	 * Set the gravity. Defaults to 0.
+	 * 
+	 * @param gravity
+	 *            the gravity
+	 * @return the current proxy
+	 * @see ForceLayout#gravity(double)
+	 */
+	public ForceWorkerProxy gravity(final double gravity) {
+		this.gravity = gravity;
+		return this;
+	}
+
+	/**
+	 * Set the center of the gravity. Defaults to the origin.
+	 * 
+	 * @param cx
+	 *            the x coordinate of the center
+	 * @param cy
+	 *            the y coordinate of the center
+	 * @return the current proxy
+	 * @see ForceLayout#center(double, double)
+	 */
+	public ForceWorkerProxy center(final double cx, final double cy) {
+		this.centerX = cx;
+		this.centerY = cy;
+		return this;
+	}
+
+	/**
+	 * Set the time the worker spends computing ticks between two checks of
+	 * its messages. Defaults to 8 milliseconds.
+	 * 
+	 * @param millis
+	 *            the budget
+	 * @return the current proxy
+	 */
+	public ForceWorkerProxy budget(final double millis) {
+		this.budget = millis;
+		return this;
+	}
+
+	/**
+	 * Set the minimum time between two position messages of the worker.
+	 * Defaults to 32 milliseconds.
+	 * 
+	 * @param millis
+	 *            the interval
+	 * @return the current proxy
+	 */
+	public ForceWorkerProxy publishInterval(final double millis) {
+		this.publishInterval = millis;
+		return this;
+	}
+
+	// ============== bindings ==============
+
+	/**
+	 * Write the positions of the nodes to the given attributes of the
+	 * elements of the selection. The i-th element of the selection is the
+	 * i-th node.
+	 * 
+	 * @param selection
+	 *            the selection
+	 * @param xAttribute
+	 *            the x attribute, for instance "cx"
+	 * @param yAttribute
+	 *            the y attribute, for instance "cy"
+	 * @return the current proxy
+	 */
+	public ForceWorkerProxy bind(final Selection selection, final String xAttribute, final String yAttribute) {
+		addBinding(bindings, selection, xAttribute, yAttribute, false);
+		return this;
+	}
+
+	/**
+	 * Write the positions of the nodes to the transform attribute of the
+	 * elements of the selection. The i-th element of the selection is the
+	 * i-th node.
+	 * 
+	 * @param selection
+	 *            the selection
+	 * @return the current proxy
+	 */
+	public ForceWorkerProxy bind(final Selection selection) {
+		addBinding(bindings, selection, null, null, false);
+		return this;
+	}
+
+	/**
+	 * Write the positions of the links to the x1, y1, x2 and y2 attributes of
+	 * the line elements of the selection. The i-th element of the selection
+	 * is the i-th link given to {@link #start(int, int[], int[])}.
+	 * 
+	 * @param selection
+	 *            the selection
+	 * @return the current proxy
+	 */
+	public ForceWorkerProxy bindLinks(final Selection selection) {
+		addBinding(bindings, selection, null, null, true);
+		return this;
+	}
+
+	/**
+	 * Set the listener of the positions.
+	 * 
+	 * @param listener
+	 *            the listener
+	 * @return the current proxy
+	 */
+	public ForceWorkerProxy listener(final Listener listener) {
+		this.listener = listener;
+		return this;
+	}
+
+	// ============== control ==============
+
+	/**
+	 * Start the worker with the given graph.
+	 * 
+	 * @param nodeCount
+	 *            the number of nodes
+	 * @param sources
+	 *            the source nodes of the links
+	 * @param targets
+	 *            the target nodes of the links
+	 * @return the current proxy
+	 */
+	public ForceWorkerProxy start(final int nodeCount, final int[] sources, final int[] targets) {
+		if (sources.length != targets.length) {
+			throw new IllegalArgumentException("sources and targets must have the same length: " + sources.length
+					+ " != " + targets.length);
+		}
+		terminate();
+		Int32ArrayNative s = createInt32Array(sources.length);
+		Int32ArrayNative t = createInt32Array(targets.length);
+		for (int l = 0; l < sources.length; l++) {
+			s.set(l, sources[l]);
+			t.set(l, targets[l]);
+		}
+		this.sources = copy(s);
+		this.targets = copy(t);
+		worker = createWorker(workerUrl);
+		listen(worker);
+		postInit(worker, nodeCount, s, t, charge, linkDistance, theta, radius, gravity, centerX, centerY, budget,
+				publishInterval);
+		return this;
+	}
+
+	/**
+	 * Fix a node at the given position, for instance while it is dragged.
+	 * 
+	 * @param index
+	 *            the index of the node
+	 * @param x
+	 *            the x coordinate
+	 * @param y
+	 *            the y coordinate
+	 * @return the current proxy
+	 */
+	public ForceWorkerProxy pin(final int index, final double x, final double y) {
+		if (worker != null) {
+			postPin(worker, index, x, y);
+		}
+		return this;
+	}
+
+	/**
+	 * Release a node fixed with {@link #pin(int, double, double)}.
+	 * 
+	 * @param index
+	 *            the index of the node
+	 * @return the current proxy
+	 */
+	public ForceWorkerProxy unpin(final int index) {
+		if (worker != null) {
+			post(worker, "unpin", index);
+		}
+		return this;
+	}
+
+	/**
+	 * Reheat the layout.
+	 * 
+	 * @param alpha
+	 *            the new alpha
+	 * @return the current proxy
+	 */
+	public ForceWorkerProxy restart(final double alpha) {
+		if (worker != null) {
+			post(worker, "alpha", alpha);
+		}
+		return this;
+	}
+
+	/**
+	 * Terminate the worker.
+	 */
+	public void terminate() {
+		if (worker != null) {
+			post(worker, "stop", 0);
+			worker = null;
+			latest = null;
+			frameRequested = false;
+		}
+	}
+
+	/**
+	 * Return a drag behaviour pinning the dragged node to the position of the
+	 * pointer, and releasing it at the end of the gesture. The i-th element
+	 * of the selection the behaviour is called on is the i-th node.
+	 * 
+	 * @return the drag behaviour
+	 */
+	public Drag drag() {
+		return D3.behavior().drag().on(DragEventType.drag, new DatumFunction<Void>() {
+			@Override
+			public Void apply(final Element context, final Value d, final int index) {
+				pin(index, D3.eventAsCoords().x(), D3.eventAsCoords().y());
+				return null;
+			}
+		}).on(DragEventType.dragend, new DatumFunction<Void>() {
+			@Override
+			public Void apply(final Element context, final Value d, final int index) {
+				unpin(index);
+				return null;
+			}
+		});
+	}
+
+	// ============== receiving ==============
+
+	/**
+	 * @return the alpha of the last positions received
+	 */
+	public double alpha() {
+		return alpha;
+	}
+
+	/**
+	 * @return true if the last positions received are stable
+	 */
+	public boolean isStable() {
+		return stable;
+	}
+
+	/**
+	 * @return the number of position messages received
+	 */
+	public int received() {
+		return received;
+	}
+
+	/**
+	 * @return the number of batched writes to the bound selections, at most
+	 *         one per animation frame
+	 */
+	public int writes() {
+		return writes;
+	}
+
+	/**
+	 * called by the worker message handler
+	 */
+	private void onPositions(final Float64ArrayNative positions, final double alpha, final boolean stable) {
+		received++;
+		this.alpha = alpha;
+		this.stable = stable;
+		if (latest != null) {
+			// not written yet: the older snapshot is given back at once
+			giveBack(worker, latest);
+		}
+		latest = positions;
+		if (!frameRequested) {
+			frameRequested = true;
+			requestFrame();
+		}
+	}
+
+	/**
+	 * Write the latest positions received to the bound selections now,
+	 * instead of waiting for the next animation frame, and give their buffer
+	 * back to the worker. Does nothing if no positions are pending.
+	 * 
+	 * @return the current proxy
+	 */
+	public ForceWorkerProxy flush() {
+		Float64ArrayNative positions = latest;
+		latest = null;
+		if (positions == null || worker == null) {
+			return this;
+		}
+		writeAll(bindings, positions, sources, targets);
+		writes++;
+		if (listener != null) {
+			listener.onPositions(this, positions, alpha, stable);
+		}
+		giveBack(worker, positions);
+		return this;
+	}
+
+	/**
+	 * called at the animation frame
+	 */
+	private void onFrame() {
+		frameRequested = false;
+		flush();
+	}
+
+	// ============== JSNI ==============
+
+	private static native Int32ArrayNative createInt32Array(int length) /*-{
+		return new Int32Array(length);
+	}-*/;
+
+	private static native Int32ArrayNative copy(Int32ArrayNative array) /*-{
+		return new Int32Array(array);
+	}-*/;
+
+	/**
+	 * Create the worker the messages are posted to. Any object with the
+	 * postMessage and terminate functions of a Worker will do, for instance
+	 * to run the proxy against a fake worker: the proxy then handles the
+	 * messages given to the onmessage function of that object.
+	 * 
+	 * @param url
+	 *            the url of the worker script
+	 * @return the worker
+	 */
+	protected native JavaScriptObject createWorker(String url) /*-{
+		return new $wnd.Worker(url);
+	}-*/;
+
+	private native void listen(JavaScriptObject worker) /*-{
+		var self = this;
+		worker.onmessage = function(e) {
+			var m = e.data;
+			if (m.type === "positions") {
+				self.@com.github.gwtd3.api.layout.ForceWorkerProxy::onPositions(Lcom/google/gwt/typedarrays/client/Float64ArrayNative;DZ)(m.positions, m.alpha, m.stable);
+			}
+		};
+	}-*/;
+
+	private native void requestFrame() /*-{
+		var self = this;
+		var callback = function() {
+			self.@com.github.gwtd3.api.layout.ForceWorkerProxy::onFrame()();
+		};
+		if ($wnd.requestAnimationFrame) {
+			$wnd.requestAnimationFrame(callback);
+		} else {
+			$wnd.setTimeout(callback, 16);
+		}
+	}-*/;
+
+	private static native void postInit(JavaScriptObject worker, int n, Int32ArrayNative sources,
+			Int32ArrayNative targets, double charge, double linkDistance, double theta, double radius,
+			double gravity, double cx, double cy, double budget, double interval) /*-{
+		worker.postMessage({
+			type : "init",
+			n : n,
+			sources : sources,
+			targets : targets,
+			charge : charge,
+			linkDistance : linkDistance,
+			theta : theta,
+			radius : radius,
+			gravity : gravity,
+			cx : cx,
+			cy : cy,
+			budget : budget,
+			interval : interval
+		}, [ sources.buffer, targets.buffer ]);
+	}-*/;
+
+	private static native void postPin(JavaScriptObject worker, int index, double x, double y) /*-{
+		worker.postMessage({
+			type : "pin",
+			index : index,
+			x : x,
+			y : y
+		});
+	}-*/;
+
+	private static native void post(JavaScriptObject worker, String type, double value) /*-{
+		if (type === "stop") {
+			worker.postMessage({
+				type : type
+			});
+			worker.terminate();
+		} else if (type === "unpin") {
+			worker.postMessage({
+				type : type,
+				index : value
+			});
+		} else {
+			worker.postMessage({
+				type : type,
+				alpha : value
+			});
+		}
+	}-*/;
+
+	private static native void giveBack(JavaScriptObject worker, Float64ArrayNative positions) /*-{
+		worker.postMessage({
+			type : "buffer",
+			positions : positions
+		}, [ positions.buffer ]);
+	}-*/;
+
+	private static native void addBinding(JavaScriptObject bindings, Selection selection, String x, String y,
+			boolean links) /*-{
+		bindings.push({
+			selection : selection,
+			x : x,
+			y : y,
+			links : links
+		});
+	}-*/;
+
+	/**
+	 * write all the bound selections in one pass
+	 */
+	private static native void writeAll(JavaScriptObject bindings, Float64ArrayNative p, Int32ArrayNative sources,
+			Int32ArrayNative targets) /*-{
+		for ( var b = 0; b < bindings.length; b++) {
+			var binding = bindings[b];
+			binding.selection.each(function(d, i) {
+				if (binding.links) {
+					var s = 2 * sources[i], t = 2 * targets[i];
+					this.setAttribute("x1", p[s]);
+					this.setAttribute("y1", p[s + 1]);
+					this.setAttribute("x2", p[t]);
+					this.setAttribute("y2", p[t + 1]);
+				} else if (binding.x) {
+					this.setAttribute(binding.x, p[2 * i]);
+					this.setAttribute(binding.y, p[2 * i + 1]);
+				} else {
+					this.setAttribute("transform", "translate(" + p[2 * i] + "," + p[2 * i + 1] + ")");
+				}
+			});
+		}
+	}-*/;
+}
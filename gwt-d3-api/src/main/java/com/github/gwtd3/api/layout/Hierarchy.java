@@ -0,0 +1,642 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.layout;
+
+/**
+ * A tree stored in flat, index based arrays, laid out by the
+ * {@link HierarchyLayout}s.
+ * <p>
+ * The nodes are identified by their index. The children of each node are
+ * stored contiguously in one int array, and the values and coordinates of
+ * the nodes in double arrays, so that a tree of hundreds of thousands of
+ * nodes costs a few arrays instead of one javascript object per node.
+ * <p>
+ * The tree is built from the parent of each node:
+ * 
+ * <pre>
+ * {@code
+ * // 0 is the root, 1 and 2 its children, 3 a child of 1
+ * Hierarchy tree = Hierarchy.fromParents(new int[] { -1, 0, 0, 1 }, new double[] { 0, 0, 5, 3 });
+ * new TreemapLayout().size(960, 500).layout(tree);
+ * double x = tree.x(3);
+ * }
+ * </pre>
+ * <p>
+ * The value of a node is the sum of its own value and of the values of its
+ * descendants. A node can be collapsed: its descendants are then hidden,
+ * and the layouts treat it as a leaf, keeping its value. After expanding or
+ * collapsing a node, {@link HierarchyLayout#relayout(Hierarchy, int)}
+ * updates only the affected branches when the layout allows it.
+ */
+public class Hierarchy {
+
+	/**
+	 * Length of the runs sorted by insertion by {@link #sortByValue()} before
+	 * being merged.
+	 */
+	private static final int SORT_RUN = 16;
+
+	private final int n;
+
+	private final int root;
+
+	private final int[] parents;
+
+	/**
+	 * the children of i are children[childStart[i]] to
+	 * children[childStart[i + 1] - 1]
+	 */
+	private final int[] childStart;
+
+	private final int[] children;
+
+	private final int[] depths;
+
+	private final double[] values;
+
+	private final double[] sums;
+
+	private final boolean[] collapsed;
+
+	// ============== coordinates, written by the layouts ==============
+
+	final double[] x;
+
+	final double[] y;
+
+	final double[] dx;
+
+	final double[] dy;
+
+	final double[] r;
+
+	/**
+	 * the visible nodes in pre-order, computed lazily
+	 */
+	private int[] visible;
+
+	private int visibleCount = -1;
+
+	private Hierarchy(final int[] parents, final int root, final int[] childStart, final int[] children,
+			final double[] values) {
+		super();
+		this.n = parents.length;
+		this.root = root;
+		this.parents = parents;
+		this.childStart = childStart;
+		this.children = children;
+		this.values = values;
+		this.depths = new int[n];
+		this.sums = new double[n];
+		this.collapsed = new boolean[n];
+		this.x = new double[n];
+		this.y = new double[n];
+		this.dx = new double[n];
+		this.dy = new double[n];
+		this.r = new double[n];
+		computeDepths();
+		revalue();
+	}
+
+	/**
+	 * Build a tree from the parent of each node. The children of a node are
+	 * ordered by index.
+	 * 
+	 * @param parents
+	 *            the index of the parent of each node, and -1 for the root
+	 * @param values
+	 *            the own value of each node, or null for a value of 1 for
+	 *            the leaves and 0 for the other nodes
+	 * @return the tree
+	 * @throws IllegalArgumentException
+	 *             if there is not exactly one root, or if a parent index is
+	 *             out of bounds, or if there is a cycle
+	 */
+	public static Hierarchy fromParents(final int[] parents, final double[] values) {
+		int n = parents.length;
+		if (values != null && values.length != n) {
+			throw new IllegalArgumentException("there must be one value per node: " + values.length + " != " + n);
+		}
+		int root = -1;
+		int[] counts = new int[n + 1];
+		for (int i = 0; i < n; i++) {
+			int p = parents[i];
+			if (p < 0) {
+				if (root >= 0) {
+					throw new IllegalArgumentException("more than one root: " + root + " and " + i);
+				}
+				root = i;
+			}
+			else if (p >= n) {
+				throw new IllegalArgumentException("no node " + p + " for the parent of " + i);
+			}
+			else {
+				counts[p + 1]++;
+			}
+		}
+		if (root < 0) {
+			throw new IllegalArgumentException("no root");
+		}
+		// counting sort of the nodes by parent
+		int[] childStart = counts;
+		for (int i = 0; i < n; i++) {
+			childStart[i + 1] += childStart[i];
+		}
+		int[] fill = new int[n];
+		System.arraycopy(childStart, 0, fill, 0, n);
+		int[] children = new int[Math.max(0, n - 1)];
+		for (int i = 0; i < n; i++) {
+			int p = parents[i];
+			if (p >= 0) {
+				children[fill[p]++] = i;
+			}
+		}
+		int[] ps = new int[n];
+		System.arraycopy(parents, 0, ps, 0, n);
+		double[] vs = new double[n];
+		for (int i = 0; i < n; i++) {
+			vs[i] = values != null ? values[i] : (childStart[i + 1] == childStart[i] ? 1 : 0);
+		}
+		return new Hierarchy(ps, root, childStart, children, vs);
+	}
+
+	private void computeDepths() {
+		int[] stack = new int[n];
+		int top = 0;
+		int reached = 0;
+		stack[top++] = root;
+		depths[root] = 0;
+		while (top > 0) {
+			int node = stack[--top];
+			reached++;
+			for (int c = childStart[node]; c < childStart[node + 1]; c++) {
+				int child = children[c];
+				depths[child] = depths[node] + 1;
+				stack[top++] = child;
+			}
+		}
+		if (reached != n) {
+			throw new IllegalArgumentException((n - reached) + " nodes are not reachable from the root " + root
+					+ ": the parents contain a cycle");
+		}
+	}
+
+	// ============== structure ==============
+
+	/**
+	 * @return the number of nodes
+	 */
+	public int size() {
+		return n;
+	}
+
+	/**
+	 * @return the index of the root
+	 */
+	public int root() {
+		return root;
+	}
+
+	/**
+	 * @param i
+	 *            the index of a node
+	 * @return the index of its parent, or -1 for the root
+	 */
+	public int parent(final int i) {
+		return parents[i];
+	}
+
+	/**
+	 * @param i
+	 *            the index of a node
+	 * @return the depth of the node, 0 for the root
+	 */
+	public int depth(final int i) {
+		return depths[i];
+	}
+
+	/**
+	 * @param i
+	 *            the index of a node
+	 * @return the number of children of the node, hidden or not
+	 */
+	public int childCount(final int i) {
+		return childStart[i + 1] - childStart[i];
+	}
+
+	/**
+	 * @param i
+	 *            the index of a node
+	 * @param k
+	 *            the rank of the child, between 0 and
+	 *            {@link #childCount(int)}
+	 * @return the index of the k-th child of the node
+	 */
+	public int child(final int i, final int k) {
+		return children[childStart[i] + k];
+	}
+
+	/**
+	 * @param i
+	 *            the index of a node
+	 * @return the number of visible children: 0 if the node is collapsed
+	 */
+	public int visibleChildCount(final int i) {
+		return collapsed[i] ? 0 : childStart[i + 1] - childStart[i];
+	}
+
+	/**
+	 * @param i
+	 *            the index of a node
+	 * @return true if the node has no visible children
+	 */
+	public boolean isLeaf(final int i) {
+		return visibleChildCount(i) == 0;
+	}
+
+	/**
+	 * @param i
+	 *            the index of a node
+	 * @return true if the node is visible, that is if none of its ancestors
+	 *         is collapsed
+	 */
+	public boolean isVisible(final int i) {
+		for (int p = parents[i]; p >= 0; p = parents[p]) {
+			if (collapsed[p]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Sort the children of each node by decreasing value, which gives the
+	 * best aspect ratios to the {@link TreemapLayout}. The sort is stable, and
+	 * takes O(k log k) for a node of k children.
+	 * 
+	 * @return the current hierarchy
+	 */
+	public Hierarchy sortByValue() {
+		int[] buffer = null;
+		for (int i = 0; i < n; i++) {
+			int from = childStart[i];
+			int to = childStart[i + 1];
+			if (to - from <= SORT_RUN) {
+				insertionSort(from, to);
+				continue;
+			}
+			if (buffer == null) {
+				buffer = new int[children.length];
+			}
+			mergeSort(from, to, buffer);
+		}
+		visibleCount = -1;
+		return this;
+	}
+
+	/**
+	 * Sort children[from] to children[to - 1] by decreasing value.
+	 */
+	private void insertionSort(final int from, final int to) {
+		for (int a = from + 1; a < to; a++) {
+			int child = children[a];
+			double v = sums[child];
+			int b = a - 1;
+			while (b >= from && sums[children[b]] < v) {
+				children[b + 1] = children[b];
+				b--;
+			}
+			children[b + 1] = child;
+		}
+	}
+
+	/**
+	 * Sort children[from] to children[to - 1] by decreasing value: bottom-up
+	 * merges of runs sorted by insertion, alternating between the children
+	 * and the buffer.
+	 */
+	private void mergeSort(final int from, final int to, final int[] buffer) {
+		for (int start = from; start < to; start += SORT_RUN) {
+			insertionSort(start, Math.min(start + SORT_RUN, to));
+		}
+		int[] source = children;
+		int[] target = buffer;
+		for (int width = SORT_RUN; width < to - from; width *= 2) {
+			for (int low = from; low < to; low += 2 * width) {
+				int middle = Math.min(low + width, to);
+				int high = Math.min(middle + width, to);
+				int a = low;
+				int b = middle;
+				int k = low;
+				while (a < middle && b < high) {
+					// ties are taken from the left run to keep the sort stable
+					target[k++] = sums[source[b]] > sums[source[a]] ? source[b++] : source[a++];
+				}
+				while (a < middle) {
+					target[k++] = source[a++];
+				}
+				while (b < high) {
+					target[k++] = source[b++];
+				}
+			}
+			int[] swap = source;
+			source = target;
+			target = swap;
+		}
+		if (source != children) {
+			System.arraycopy(source, from, children, from, to - from);
+		}
+	}
+
+	// ============== collapse ==============
+
+	/**
+	 * @param i
+	 *            the index of a node
+	 * @return true if the node is collapsed
+	 */
+	public boolean isCollapsed(final int i) {
+		return collapsed[i];
+	}
+
+	/**
+	 * Hide the descendants of a node.
+	 * 
+	 * @param i
+	 *            the index of the node
+	 * @return the current hierarchy
+	 */
+	public Hierarchy collapse(final int i) {
+		if (!collapsed[i]) {
+			collapsed[i] = true;
+			visibleCount = -1;
+		}
+		return this;
+	}
+
+	/**
+	 * Show the children of a collapsed node.
+	 * 
+	 * @param i
+	 *            the index of the node
+	 * @return the current hierarchy
+	 */
+	public Hierarchy expand(final int i) {
+		if (collapsed[i]) {
+			collapsed[i] = false;
+			visibleCount = -1;
+		}
+		return this;
+	}
+
+	/**
+	 * Collapse all the nodes at the given depth, and expand the other ones.
+	 * 
+	 * @param depth
+	 *            the depth of the collapsed nodes
+	 * @return the current hierarchy
+	 */
+	public Hierarchy collapseAt(final int depth) {
+		for (int i = 0; i < n; i++) {
+			collapsed[i] = depths[i] == depth;
+		}
+		visibleCount = -1;
+		return this;
+	}
+
+	// ============== visible nodes ==============
+
+	/**
+	 * @return the number of visible nodes
+	 */
+	public int visibleCount() {
+		ensureVisible();
+		return visibleCount;
+	}
+
+	/**
+	 * Return the visible nodes in pre-order: each node comes before its
+	 * descendants, and the children in their order. The array is shared, and
+	 * may be longer than {@link #visibleCount()}.
+	 * 
+	 * @return the visible nodes
+	 */
+	public int[] visibleNodes() {
+		ensureVisible();
+		return visible;
+	}
+
+	private void ensureVisible() {
+		if (visibleCount >= 0) {
+			return;
+		}
+		if (visible == null) {
+			visible = new int[n];
+		}
+		visibleCount = preorder(root, visible, 0, new int[n]);
+	}
+
+	/**
+	 * write the visible nodes of the subtree of the given node in pre-order
+	 * into out, from the offset
+	 * 
+	 * @return the offset after the last written node
+	 */
+	int preorder(final int node, final int[] out, final int offset, final int[] stack) {
+		int count = offset;
+		int top = 0;
+		stack[top++] = node;
+		while (top > 0) {
+			int i = stack[--top];
+			out[count++] = i;
+			if (!collapsed[i]) {
+				for (int c = childStart[i + 1] - 1; c >= childStart[i]; c--) {
+					stack[top++] = children[c];
+				}
+			}
+		}
+		return count;
+	}
+
+	// ============== values ==============
+
+	/**
+	 * @param i
+	 *            the index of a node
+	 * @return the own value of the node
+	 */
+	public double ownValue(final int i) {
+		return values[i];
+	}
+
+	/**
+	 * @param i
+	 *            the index of a node
+	 * @return the value of the node: the sum of its own value and of the
+	 *         values of its descendants, hidden or not
+	 */
+	public double value(final int i) {
+		return sums[i];
+	}
+
+	/**
+	 * Change the own value of a node. The values of its ancestors are
+	 * updated.
+	 * 
+	 * @param i
+	 *            the index of the node
+	 * @param value
+	 *            the new value
+	 * @return the current hierarchy
+	 */
+	public Hierarchy value(final int i, final double value) {
+		double delta = value - values[i];
+		values[i] = value;
+		for (int p = i; p >= 0; p = parents[p]) {
+			sums[p] += delta;
+		}
+		return this;
+	}
+
+	/**
+	 * Compute again the values of all the nodes from their own values.
+	 * 
+	 * @return the current hierarchy
+	 */
+	public Hierarchy revalue() {
+		int[] order = new int[n];
+		// all nodes, hidden or not, in pre-order
+		int count = 0;
+		int top = 0;
+		int[] stack = new int[n];
+		stack[top++] = root;
+		while (top > 0) {
+			int i = stack[--top];
+			order[count++] = i;
+			for (int c = childStart[i]; c < childStart[i + 1]; c++) {
+				stack[top++] = children[c];
+			}
+		}
+		for (int k = count - 1; k >= 0; k--) {
+			int i = order[k];
+			double sum = values[i];
+			for (int c = childStart[i]; c < childStart[i + 1]; c++) {
+				sum += sums[children[c]];
+			}
+			sums[i] = sum;
+		}
+		return this;
+	}
+
+	// ============== coordinates ==============
+
+	/**
+	 * @param i
+	 *            the index of a node
+	 * @return the x coordinate of the node: its center for the tree, cluster
+	 *         and pack layouts, its left side for the partition and treemap
+	 *         layouts
+	 */
+	public double x(final int i) {
+		return x[i];
+	}
+
+	/**
+	 * @param i
+	 *            the index of a node
+	 * @return the y coordinate of the node: its center for the tree, cluster
+	 *         and pack layouts, its top side for the partition and treemap
+	 *         layouts
+	 */
+	public double y(final int i) {
+		return y[i];
+	}
+
+	/**
+	 * @param i
+	 *            the index of a node
+	 * @return the width of the node, for the partition and treemap layouts
+	 */
+	public double dx(final int i) {
+		return dx[i];
+	}
+
+	/**
+	 * @param i
+	 *            the index of a node
+	 * @return the height of the node, for the partition and treemap layouts
+	 */
+	public double dy(final int i) {
+		return dy[i];
+	}
+
+	/**
+	 * @param i
+	 *            the index of a node
+	 * @return the radius of the node, for the pack layout
+	 */
+	public double r(final int i) {
+		return r[i];
+	}
+
+	/**
+	 * @return the x coordinates of all the nodes, indexed by node
+	 */
+	public double[] x() {
+		return x;
+	}
+
+	/**
+	 * @return the y coordinates of all the nodes, indexed by node
+	 */
+	public double[] y() {
+		return y;
+	}
+
+	/**
+	 * @return the widths of all the nodes, indexed by node
+	 */
+	public double[] dx() {
+		return dx;
+	}
+
+	/**
+	 * @return the heights of all the nodes, indexed by node
+	 */
+	public double[] dy() {
+		return dy;
+	}
+
+	/**
+	 * @return the radii of all the nodes, indexed by node
+	 */
+	public double[] r() {
+		return r;
+	}
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.layout;
+
+/**
+ * A layout of a {@link Hierarchy}, computed in Java, writing the
+ * coordinates of the visible nodes into the arrays of the hierarchy.
+ * <p>
+ * {@link #layout(Hierarchy)} lays out the whole visible tree.
+ * {@link #relayout(Hierarchy, int)} is called after a node has been
+ * expanded or collapsed, and updates only the branches affected by the
+ * change when the layout allows it. The default implementation lays out the
+ * whole tree again.
+ * 
+ * @param <L>
+ *            the type of the layout
+ */
+public abstract class HierarchyLayout<L extends HierarchyLayout<L>> {
+
+	protected double width = 1;
+
+	protected double height = 1;
+
+	/**
+	 * Set the size of the layout.
+	 * 
+	 * @param width
+	 *            the width
+	 * @param height
+	 *            the height
+	 * @return the current layout
+	 */
+	@SuppressWarnings("unchecked")
+	public L size(final double width, final double height) {
+		this.width = width;
+		this.height = height;
+		return (L) this;
+	}
+
+	/**
+	 * @return the width of the layout
+	 */
+	public double width() {
+		return width;
+	}
+
+	/**
+	 * @return the height of the layout
+	 */
+	public double height() {
+		return height;
+	}
+
+	/**
+	 * Lay out the visible nodes of the hierarchy.
+	 * 
+	 * @param hierarchy
+	 *            the hierarchy
+	 * @return the current layout
+	 */
+	public abstract L layout(Hierarchy hierarchy);
+
+	/**
+	 * Lay out the hierarchy again after the given node has been expanded or
+	 * collapsed, or after a change of the values of its descendants that
+	 * kept its own value.
+	 * 
+	 * @param hierarchy
+	 *            the hierarchy, laid out before by this layout
+	 * @param node
+	 *            the index of the changed node
+	 * @return the current layout
+	 */
+	public L relayout(final Hierarchy hierarchy, final int node) {
+		return layout(hierarchy);
+	}
+}
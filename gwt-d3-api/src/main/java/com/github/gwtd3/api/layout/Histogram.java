@@ -0,0 +1,478 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.layout;
+
+import com.google.gwt.typedarrays.shared.Float64Array;
+
+/**
+ * A histogram, counting the values falling in each bin, computed in Java.
+ * <p>
+ * The bins are delimited by thresholds: the bin i contains the values x such
+ * that threshold(i) &lt;= x &lt; threshold(i + 1), the last bin including
+ * its upper threshold. The values outside the thresholds are counted in
+ * {@link #underflow()} and {@link #overflow()}, and NaN values are ignored.
+ * <p>
+ * The bin of a value is found by arithmetic when the thresholds are
+ * uniform, and by binary search otherwise. The counts are kept in an int
+ * array; values can be added and removed, for instance to maintain the
+ * histogram of a sliding window:
+ * 
+ * <pre>
+ * {@code
+ * Histogram histogram = Histogram.uniform(0, 100, 20);
+ * histogram.add(samples);
+ * // the window moves
+ * histogram.remove(oldest).add(newest);
+ * int[] counts = histogram.counts();
+ * }
+ * </pre>
+ * <p>
+ * The class does not depend on the browser.
+ */
+public class Histogram {
+
+	private final double[] thresholds;
+
+	private final int[] counts;
+
+	private final boolean uniform;
+
+	/**
+	 * for uniform thresholds, the number of bins per unit
+	 */
+	private final double k;
+
+	private int total;
+
+	private int underflow;
+
+	private int overflow;
+
+	private Histogram(final double[] thresholds, final boolean uniform) {
+		super();
+		this.thresholds = thresholds;
+		int bins = thresholds.length - 1;
+		this.counts = new int[bins];
+		this.uniform = uniform;
+		this.k = bins / (thresholds[bins] - thresholds[0]);
+	}
+
+	/**
+	 * Create a histogram of bins of equal widths.
+	 * 
+	 * @param min
+	 *            the lower bound of the first bin
+	 * @param max
+	 *            the upper bound of the last bin
+	 * @param bins
+	 *            the number of bins
+	 * @return the histogram
+	 * @throws IllegalArgumentException
+	 *             if max is not greater than min, or if there is no bin
+	 */
+	public static Histogram uniform(final double min, final double max, final int bins) {
+		if (!(max > min) || bins < 1) {
+			throw new IllegalArgumentException("invalid bins: " + bins + " in [" + min + ", " + max + "]");
+		}
+		double[] thresholds = new double[bins + 1];
+		double step = (max - min) / bins;
+		for (int i = 0; i < bins; i++) {
+			thresholds[i] = min + i * step;
+		}
+		thresholds[bins] = max;
+		return new Histogram(thresholds, true);
+	}
+
+	/**
+	 * Create a histogram with the given thresholds.
+	 * 
+	 * @param thresholds
+	 *            the increasing thresholds, at least 2
+	 * @return the histogram
+	 * @throws IllegalArgumentException
+	 *             if there are less than 2 thresholds, or if they are not
+	 *             increasing
+	 */
+	public static Histogram thresholds(final double... thresholds) {
+		if (thresholds.length < 2) {
+			throw new IllegalArgumentException("at least 2 thresholds are required");
+		}
+		for (int i = 1; i < thresholds.length; i++) {
+			if (!(thresholds[i] > thresholds[i - 1])) {
+				throw new IllegalArgumentException("the thresholds must be increasing: " + thresholds[i - 1]
+						+ " then " + thresholds[i]);
+			}
+		}
+		double[] copy = new double[thresholds.length];
+		System.arraycopy(thresholds, 0, copy, 0, thresholds.length);
+		return new Histogram(copy, false);
+	}
+
+	/**
+	 * Create a histogram of the values, with uniform bins covering their
+	 * extent, the number of bins being given by Sturges' formula, as in
+	 * d3.layout.histogram.
+	 * 
+	 * @param values
+	 *            the values
+	 * @return the histogram of the values
+	 */
+	public static Histogram of(final double[] values) {
+		return of(values, sturges(values.length));
+	}
+
+	/**
+	 * Create a histogram of the values, with uniform bins covering their
+	 * extent.
+	 * 
+	 * @param values
+	 *            the values
+	 * @param bins
+	 *            the number of bins
+	 * @return the histogram of the values
+	 */
+	public static Histogram of(final double[] values, final int bins) {
+		double min = Double.POSITIVE_INFINITY;
+		double max = Double.NEGATIVE_INFINITY;
+		for (double v : values) {
+			if (v < min) {
+				min = v;
+			}
+			if (v > max) {
+				max = v;
+			}
+		}
+		if (!(min <= max)) {
+			min = 0;
+			max = 1;
+		}
+		else if (min == max) {
+			max = min + 1;
+		}
+		return uniform(min, max, bins).add(values);
+	}
+
+	/**
+	 * @param count
+	 *            the number of values
+	 * @return the number of bins given by Sturges' formula
+	 */
+	public static int sturges(final int count) {
+		return count > 0 ? (int) Math.ceil(Math.log(count) / Math.log(2) + 1) : 1;
+	}
+
+	// ============== bins ==============
+
+	/**
+	 * @return the number of bins
+	 */
+	public int bins() {
+		return counts.length;
+	}
+
+	/**
+	 * @return true if the bins have equal widths
+	 */
+	public boolean isUniform() {
+		return uniform;
+	}
+
+	/**
+	 * @param i
+	 *            the index of a bin
+	 * @return the lower bound of the bin
+	 */
+	public double x(final int i) {
+		return thresholds[i];
+	}
+
+	/**
+	 * @param i
+	 *            the index of a bin
+	 * @return the width of the bin
+	 */
+	public double dx(final int i) {
+		return thresholds[i + 1] - thresholds[i];
+	}
+
+	/**
+	 * Return the bin of the value.
+	 * 
+	 * @param x
+	 *            the value
+	 * @return the index of the bin containing the value, or -1 if the value
+	 *         is NaN or outside the thresholds
+	 */
+	public int binOf(final double x) {
+		int bins = counts.length;
+		if (!(x >= thresholds[0] && x <= thresholds[bins])) {
+			return -1;
+		}
+		if (uniform) {
+			int i = (int) ((x - thresholds[0]) * k);
+			// rounding errors: agree with the thresholds
+			if (i >= bins) {
+				i = bins - 1;
+			}
+			if (x < thresholds[i]) {
+				i--;
+			}
+			else if (i + 1 < bins && x >= thresholds[i + 1]) {
+				i++;
+			}
+			return i;
+		}
+		// the last threshold lower than or equal to x, in [0, bins - 1]
+		int lo = 1;
+		int hi = bins;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (x < thresholds[mid]) {
+				hi = mid;
+			}
+			else {
+				lo = mid + 1;
+			}
+		}
+		return lo - 1;
+	}
+
+	// ============== counts ==============
+
+	/**
+	 * Add a value.
+	 * 
+	 * @param x
+	 *            the value
+	 * @return the current histogram
+	 */
+	public Histogram add(final double x) {
+		count(x, 1);
+		return this;
+	}
+
+	/**
+	 * Remove a value added before.
+	 * 
+	 * @param x
+	 *            the value
+	 * @return the current histogram
+	 */
+	public Histogram remove(final double x) {
+		count(x, -1);
+		return this;
+	}
+
+	/**
+	 * Add the values.
+	 * 
+	 * @param values
+	 *            the values
+	 * @return the current histogram
+	 */
+	public Histogram add(final double[] values) {
+		return add(values, 0, values.length);
+	}
+
+	/**
+	 * Add the values between the given indices.
+	 * 
+	 * @param values
+	 *            the values
+	 * @param from
+	 *            the index of the first value, inclusive
+	 * @param to
+	 *            the index of the last value, exclusive
+	 * @return the current histogram
+	 */
+	public Histogram add(final double[] values, final int from, final int to) {
+		for (int i = from; i < to; i++) {
+			count(values[i], 1);
+		}
+		return this;
+	}
+
+	/**
+	 * Remove the values between the given indices, added before.
+	 * 
+	 * @param values
+	 *            the values
+	 * @param from
+	 *            the index of the first value, inclusive
+	 * @param to
+	 *            the index of the last value, exclusive
+	 * @return the current histogram
+	 */
+	public Histogram remove(final double[] values, final int from, final int to) {
+		for (int i = from; i < to; i++) {
+			count(values[i], -1);
+		}
+		return this;
+	}
+
+	/**
+	 * Add the values.
+	 * 
+	 * @param values
+	 *            the values
+	 * @return the current histogram
+	 */
+	public Histogram add(final Float64Array values) {
+		return add(values, 0, values.length());
+	}
+
+	/**
+	 * Add the values between the given indices.
+	 * 
+	 * @param values
+	 *            the values
+	 * @param from
+	 *            the index of the first value, inclusive
+	 * @param to
+	 *            the index of the last value, exclusive
+	 * @return the current histogram
+	 */
+	public Histogram add(final Float64Array values, final int from, final int to) {
+		for (int i = from; i < to; i++) {
+			count(values.get(i), 1);
+		}
+		return this;
+	}
+
+	/**
+	 * Remove the values between the given indices, added before.
+	 * 
+	 * @param values
+	 *            the values
+	 * @param from
+	 *            the index of the first value, inclusive
+	 * @param to
+	 *            the index of the last value, exclusive
+	 * @return the current histogram
+	 */
+	public Histogram remove(final Float64Array values, final int from, final int to) {
+		for (int i = from; i < to; i++) {
+			count(values.get(i), -1);
+		}
+		return this;
+	}
+
+	private void count(final double x, final int delta) {
+		int bin = binOf(x);
+		if (bin >= 0) {
+			counts[bin] += delta;
+			total += delta;
+		}
+		else if (x < thresholds[0]) {
+			underflow += delta;
+		}
+		else if (x > thresholds[counts.length]) {
+			overflow += delta;
+		}
+	}
+
+	/**
+	 * Reset all the counts to zero.
+	 * 
+	 * @return the current histogram
+	 */
+	public Histogram clear() {
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = 0;
+		}
+		total = 0;
+		underflow = 0;
+		overflow = 0;
+		return this;
+	}
+
+	/**
+	 * @param i
+	 *            the index of a bin
+	 * @return the number of values in the bin
+	 */
+	public int count(final int i) {
+		return counts[i];
+	}
+
+	/**
+	 * Return the counts of the bins. The array is the internal state of the
+	 * histogram: it must not be modified, and is updated by the following
+	 * additions and removals.
+	 * 
+	 * @return the counts, indexed by bin
+	 */
+	public int[] counts() {
+		return counts;
+	}
+
+	/**
+	 * @param i
+	 *            the index of a bin
+	 * @return the proportion of the values in the bins falling in the bin, as
+	 *         with d3.layout.histogram.frequency(false)
+	 */
+	public double probability(final int i) {
+		return total != 0 ? (double) counts[i] / total : 0;
+	}
+
+	/**
+	 * @return the largest count
+	 */
+	public int maxCount() {
+		int max = 0;
+		for (int c : counts) {
+			if (c > max) {
+				max = c;
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * @return the number of values in the bins
+	 */
+	public int total() {
+		return total;
+	}
+
+	/**
+	 * @return the number of values lower than the first threshold
+	 */
+	public int underflow() {
+		return underflow;
+	}
+
+	/**
+	 * @return the number of values greater than the last threshold
+	 */
+	public int overflow() {
+		return overflow;
+	}
+}
@@ -0,0 +1,286 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.layout;
+
+/**
+ * The circle packing of a {@link Hierarchy}.
+ * <p>
+ * Each leaf is a circle whose area is proportional to its value, and each
+ * parent is the smallest enclosing circle of its packed children, computed
+ * with the front-chain algorithm of Wang et al.
+ * {@link Hierarchy#x(int)}, {@link Hierarchy#y(int)} and
+ * {@link Hierarchy#r(int)} are the center and the radius of each node, the
+ * root filling the layout.
+ * <p>
+ * The packing of the children of a node is kept relative to the node: when
+ * a node is expanded or collapsed, {@link #relayout(Hierarchy, int)} packs
+ * again only its subtree and the children of its ancestors, then translates
+ * and scales the visible nodes.
+ */
+public class PackLayout extends HierarchyLayout<PackLayout> {
+
+	private Hierarchy packed;
+
+	// ============== the state of the packing, indexed by node ==============
+
+	/**
+	 * the center of the node, relative to the center of its parent
+	 */
+	private double[] rx;
+
+	private double[] ry;
+
+	/**
+	 * the radius of the node, before scaling
+	 */
+	private double[] pr;
+
+	/**
+	 * the front chain
+	 */
+	private int[] next;
+
+	private int[] prev;
+
+	private int[] nodes;
+
+	private int[] stack;
+
+	private double xMin;
+
+	private double xMax;
+
+	private double yMin;
+
+	private double yMax;
+
+	@Override
+	public PackLayout layout(final Hierarchy hierarchy) {
+		int n = hierarchy.size();
+		if (rx == null || rx.length < n) {
+			rx = new double[n];
+			ry = new double[n];
+			pr = new double[n];
+			next = new int[n];
+			prev = new int[n];
+			nodes = new int[n];
+			stack = new int[n];
+		}
+		packed = hierarchy;
+		packSubtree(hierarchy, hierarchy.root());
+		transform(hierarchy);
+		return this;
+	}
+
+	@Override
+	public PackLayout relayout(final Hierarchy hierarchy, final int node) {
+		if (packed != hierarchy) {
+			return layout(hierarchy);
+		}
+		packSubtree(hierarchy, node);
+		for (int p = hierarchy.parent(node); p >= 0; p = hierarchy.parent(p)) {
+			packSiblings(hierarchy, p);
+		}
+		transform(hierarchy);
+		return this;
+	}
+
+	private void packSubtree(final Hierarchy h, final int node) {
+		int count = h.preorder(node, nodes, 0, stack);
+		for (int k = count - 1; k >= 0; k--) {
+			int i = nodes[k];
+			if (h.isLeaf(i)) {
+				pr[i] = Math.sqrt(h.value(i));
+			}
+			else {
+				packSiblings(h, i);
+			}
+		}
+	}
+
+	/**
+	 * translate and scale the relative packing, so that the root fills the
+	 * layout
+	 */
+	private void transform(final Hierarchy h) {
+		int root = h.root();
+		double r = pr[root];
+		double k = r > 0 ? 1 / Math.max(2 * r / width, 2 * r / height) : 0;
+		int[] visible = h.visibleNodes();
+		int count = h.visibleCount();
+		for (int c = 0; c < count; c++) {
+			int i = visible[c];
+			if (i == root) {
+				h.x[i] = width / 2;
+				h.y[i] = height / 2;
+			}
+			else {
+				int p = h.parent(i);
+				h.x[i] = h.x[p] + k * rx[i];
+				h.y[i] = h.y[p] + k * ry[i];
+			}
+			h.r[i] = k * pr[i];
+		}
+	}
+
+	/**
+	 * pack the children of the node around its center, and set its radius
+	 */
+	private void packSiblings(final Hierarchy h, final int node) {
+		int n = h.visibleChildCount(node);
+		xMin = Double.POSITIVE_INFINITY;
+		xMax = Double.NEGATIVE_INFINITY;
+		yMin = Double.POSITIVE_INFINITY;
+		yMax = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			int c = h.child(node, i);
+			next[c] = c;
+			prev[c] = c;
+		}
+		int a = h.child(node, 0);
+		rx[a] = -pr[a];
+		ry[a] = 0;
+		bound(a);
+		if (n > 1) {
+			int b = h.child(node, 1);
+			rx[b] = pr[b];
+			ry[b] = 0;
+			bound(b);
+			if (n > 2) {
+				int c = h.child(node, 2);
+				place(a, b, c);
+				bound(c);
+				insert(a, c);
+				prev[a] = c;
+				insert(c, b);
+				b = next[a];
+				for (int i = 3; i < n; i++) {
+					c = h.child(node, i);
+					place(a, b, c);
+					// search the front chain for a circle intersecting c
+					boolean intersects = false;
+					int s1 = 1;
+					int s2 = 1;
+					int j;
+					for (j = next[b]; j != b; j = next[j], s1++) {
+						if (intersects(j, c)) {
+							intersects = true;
+							break;
+						}
+					}
+					if (intersects) {
+						int k;
+						for (k = prev[a]; k != prev[j]; k = prev[k], s2++) {
+							if (intersects(k, c)) {
+								break;
+							}
+						}
+						// remove the circles between a and b from the front
+						// chain, and try again
+						if (s1 < s2 || (s1 == s2 && pr[b] < pr[a])) {
+							b = j;
+							splice(a, b);
+						}
+						else {
+							a = k;
+							splice(a, b);
+						}
+						i--;
+					}
+					else {
+						insert(a, c);
+						b = c;
+						bound(c);
+					}
+				}
+			}
+		}
+		double cx = (xMin + xMax) / 2;
+		double cy = (yMin + yMax) / 2;
+		double cr = 0;
+		for (int i = 0; i < n; i++) {
+			int c = h.child(node, i);
+			rx[c] -= cx;
+			ry[c] -= cy;
+			cr = Math.max(cr, pr[c] + Math.sqrt(rx[c] * rx[c] + ry[c] * ry[c]));
+		}
+		pr[node] = cr;
+	}
+
+	private void bound(final int c) {
+		xMin = Math.min(rx[c] - pr[c], xMin);
+		xMax = Math.max(rx[c] + pr[c], xMax);
+		yMin = Math.min(ry[c] - pr[c], yMin);
+		yMax = Math.max(ry[c] + pr[c], yMax);
+	}
+
+	private void insert(final int a, final int b) {
+		int c = next[a];
+		next[a] = b;
+		prev[b] = a;
+		next[b] = c;
+		prev[c] = b;
+	}
+
+	private void splice(final int a, final int b) {
+		next[a] = b;
+		prev[b] = a;
+	}
+
+	private boolean intersects(final int a, final int b) {
+		double dx = rx[b] - rx[a];
+		double dy = ry[b] - ry[a];
+		double dr = pr[a] + pr[b];
+		return .999 * dr * dr > dx * dx + dy * dy;
+	}
+
+	/**
+	 * place c tangent to a and b
+	 */
+	private void place(final int a, final int b, final int c) {
+		double db = pr[a] + pr[c];
+		double dx = rx[b] - rx[a];
+		double dy = ry[b] - ry[a];
+		if (db != 0 && (dx != 0 || dy != 0)) {
+			double da = pr[b] + pr[c];
+			double dc = dx * dx + dy * dy;
+			da *= da;
+			db *= db;
+			double x = .5 + (db - da) / (2 * dc);
+			double db2 = db - dc;
+			double y = Math.sqrt(Math.max(0, 2 * da * (db + dc) - db2 * db2 - da * da)) / (2 * dc);
+			rx[c] = rx[a] + x * dx + y * dy;
+			ry[c] = ry[a] + x * dy - y * dx;
+		}
+		else {
+			rx[c] = rx[a] + db;
+			ry[c] = ry[a];
+		}
+	}
+}
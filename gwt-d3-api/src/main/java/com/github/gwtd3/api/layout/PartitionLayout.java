@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.layout;
+
+/**
+ * The adjacency diagram of a {@link Hierarchy}, also known as an icicle.
+ * <p>
+ * Each node spans {@link Hierarchy#dx(int)} horizontally, proportionally to
+ * its value, and its descendants are stacked below it, one band of
+ * {@link Hierarchy#dy(int)} per level. A node with an own value leaves a
+ * gap after its children.
+ * <p>
+ * The rectangle of a node depends only on its ancestors: when a node is
+ * expanded or collapsed, {@link #relayout(Hierarchy, int)} lays out only its
+ * subtree, unless the number of visible levels changed.
+ */
+public class PartitionLayout extends HierarchyLayout<PartitionLayout> {
+
+	private int levels = -1;
+
+	private int[] stack;
+
+	@Override
+	public PartitionLayout layout(final Hierarchy hierarchy) {
+		int root = hierarchy.root();
+		levels = levels(hierarchy);
+		hierarchy.x[root] = 0;
+		hierarchy.dx[root] = width;
+		position(hierarchy, root);
+		return this;
+	}
+
+	@Override
+	public PartitionLayout relayout(final Hierarchy hierarchy, final int node) {
+		if (levels != levels(hierarchy)) {
+			return layout(hierarchy);
+		}
+		position(hierarchy, node);
+		return this;
+	}
+
+	private static int levels(final Hierarchy h) {
+		int[] nodes = h.visibleNodes();
+		int count = h.visibleCount();
+		int max = 0;
+		for (int k = 0; k < count; k++) {
+			max = Math.max(max, h.depth(nodes[k]));
+		}
+		return max + 1;
+	}
+
+	/**
+	 * position the descendants of the node, whose x and dx are set
+	 */
+	private void position(final Hierarchy h, final int node) {
+		if (stack == null || stack.length < h.size()) {
+			stack = new int[h.size()];
+		}
+		double band = height / levels;
+		int top = 0;
+		stack[top++] = node;
+		while (top > 0) {
+			int i = stack[--top];
+			h.y[i] = h.depth(i) * band;
+			h.dy[i] = band;
+			int count = h.visibleChildCount(i);
+			double value = h.value(i);
+			double k = value != 0 ? h.dx[i] / value : 0;
+			double x = h.x[i];
+			for (int c = 0; c < count; c++) {
+				int child = h.child(i, c);
+				double d = h.value(child) * k;
+				h.x[child] = x;
+				h.dx[child] = d;
+				x += d;
+				stack[top++] = child;
+			}
+		}
+	}
+}
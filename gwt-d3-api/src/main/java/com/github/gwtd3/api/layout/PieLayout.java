@@ -0,0 +1,242 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.layout;
+
+/**
+ * The pie layout, computing the start and end angles of the arcs of a pie
+ * or donut chart.
+ * <p>
+ * The input is an array of values, and the output two arrays of angles in
+ * radians, {@link #startAngles()} and {@link #endAngles()}, indexed like the
+ * values, allocated once and reused while the number of values does not
+ * change. The arrays can be given directly to
+ * {@link com.github.gwtd3.api.svg.Arc#startAngle(double[])} and
+ * {@link com.github.gwtd3.api.svg.Arc#endAngle(double[])}:
+ * 
+ * <pre>
+ * {@code
+ * PieLayout pie = new PieLayout().padAngle(0.02);
+ * pie.layout(values);
+ * Arc arc = D3.svg().arc().innerRadius(40).outerRadius(100).startAngle(pie.startAngles()).endAngle(pie.endAngles());
+ * paths.attr("d", arc);
+ * }
+ * </pre>
+ * <p>
+ * The class does not depend on the browser.
+ */
+public class PieLayout {
+
+	private boolean sortByValue = true;
+
+	private double startAngle = 0;
+
+	private double endAngle = 2 * Math.PI;
+
+	private double padAngle = 0;
+
+	private double[] startAngles;
+
+	private double[] endAngles;
+
+	private int[] index;
+
+	private double pad;
+
+	/**
+	 * Set whether the arcs are placed by decreasing value, or in the order of
+	 * the values. Defaults to true, as in d3.
+	 * 
+	 * @param sortByValue
+	 *            true to place the arcs by decreasing value
+	 * @return the current layout
+	 */
+	public PieLayout sortByValue(final boolean sortByValue) {
+		this.sortByValue = sortByValue;
+		return this;
+	}
+
+	/**
+	 * Set the angle of the start of the pie, in radians, 0 being at 12
+	 * o'clock. Defaults to 0.
+	 * 
+	 * @param startAngle
+	 *            the angle in radians
+	 * @return the current layout
+	 */
+	public PieLayout startAngle(final double startAngle) {
+		this.startAngle = startAngle;
+		return this;
+	}
+
+	/**
+	 * Set the angle of the end of the pie, in radians. Defaults to 2π.
+	 * 
+	 * @param endAngle
+	 *            the angle in radians
+	 * @return the current layout
+	 */
+	public PieLayout endAngle(final double endAngle) {
+		this.endAngle = endAngle;
+		return this;
+	}
+
+	/**
+	 * Set the angle between adjacent arcs, in radians. Defaults to 0. The pad
+	 * is left empty after the end angle of each arc.
+	 * 
+	 * @param padAngle
+	 *            the angle in radians
+	 * @return the current layout
+	 */
+	public PieLayout padAngle(final double padAngle) {
+		this.padAngle = padAngle;
+		return this;
+	}
+
+	/**
+	 * Compute the angles of the arcs.
+	 * 
+	 * @param values
+	 *            the values
+	 * @return the current layout
+	 */
+	public PieLayout layout(final double[] values) {
+		int n = values.length;
+		if (startAngles == null || startAngles.length != n) {
+			startAngles = new double[n];
+			endAngles = new double[n];
+		}
+		return layout(values, startAngles, endAngles);
+	}
+
+	/**
+	 * Compute the angles of the arcs into the given arrays.
+	 * 
+	 * @param values
+	 *            the values
+	 * @param starts
+	 *            the array receiving the start angles, indexed like the values
+	 * @param ends
+	 *            the array receiving the end angles, indexed like the values
+	 * @return the current layout
+	 */
+	public PieLayout layout(final double[] values, final double[] starts, final double[] ends) {
+		int n = values.length;
+		startAngles = starts;
+		endAngles = ends;
+		double da = endAngle - startAngle;
+		pad = n > 0 ? Math.min(Math.abs(da) / n, padAngle) : 0;
+		double pa = da < 0 ? -pad : pad;
+		double sum = 0;
+		for (int i = 0; i < n; i++) {
+			sum += values[i];
+		}
+		double k = sum != 0 ? (da - n * pa) / sum : 0;
+		if (index == null || index.length != n) {
+			index = new int[n];
+		}
+		for (int i = 0; i < n; i++) {
+			index[i] = i;
+		}
+		if (sortByValue) {
+			sortIndex(index, values, true);
+		}
+		double a = startAngle;
+		for (int c = 0; c < n; c++) {
+			int i = index[c];
+			starts[i] = a;
+			a += values[i] * k;
+			ends[i] = a;
+			a += pa;
+		}
+		return this;
+	}
+
+	/**
+	 * @return the start angles of the arcs, indexed like the values
+	 */
+	public double[] startAngles() {
+		return startAngles;
+	}
+
+	/**
+	 * @return the end angles of the arcs, indexed like the values
+	 */
+	public double[] endAngles() {
+		return endAngles;
+	}
+
+	/**
+	 * @return the pad angle of the last layout, which may be smaller than the
+	 *         requested one when there are many values
+	 */
+	public double padAngle() {
+		return pad;
+	}
+
+	/**
+	 * stable sort of the indices by key, with a merge sort
+	 */
+	static void sortIndex(final int[] index, final double[] keys, final boolean descending) {
+		int n = index.length;
+		int[] src = index;
+		int[] dst = new int[n];
+		for (int width = 1; width < n; width *= 2) {
+			for (int lo = 0; lo < n; lo += 2 * width) {
+				int mid = Math.min(lo + width, n);
+				int hi = Math.min(lo + 2 * width, n);
+				int a = lo;
+				int b = mid;
+				int k = lo;
+				while (a < mid && b < hi) {
+					double ka = keys[src[a]];
+					double kb = keys[src[b]];
+					if (descending ? kb > ka : kb < ka) {
+						dst[k++] = src[b++];
+					}
+					else {
+						dst[k++] = src[a++];
+					}
+				}
+				while (a < mid) {
+					dst[k++] = src[a++];
+				}
+				while (b < hi) {
+					dst[k++] = src[b++];
+				}
+			}
+			int[] tmp = src;
+			src = dst;
+			dst = tmp;
+		}
+		if (src != index) {
+			System.arraycopy(src, 0, index, 0, n);
+		}
+	}
+}
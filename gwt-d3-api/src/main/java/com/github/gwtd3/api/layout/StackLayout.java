@@ -0,0 +1,375 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.layout;
+
+/**
+ * The stack layout, computing the baseline and the top of series stacked on
+ * each other, as in a stacked area chart or a streamgraph.
+ * <p>
+ * The input is columnar: one array of values per series, all the series
+ * having the same number of points. The output is one array of baselines
+ * {@link #y0(int)} and one array of tops {@link #y1(int)} per series,
+ * allocated once and reused while the shape of the input does not change;
+ * they can be given directly to {@link com.github.gwtd3.api.svg.Area#y0(double[])}
+ * and {@link com.github.gwtd3.api.svg.Area#y1(double[])}:
+ * 
+ * <pre>
+ * {@code
+ * StackLayout stack = new StackLayout().offset(Offset.WIGGLE).order(Order.INSIDE_OUT);
+ * stack.layout(series);
+ * Area area = D3.svg().area().x(x).y0(stack.y0(s)).y1(stack.y1(s));
+ * path.attr("d", area.generate(points));
+ * }
+ * </pre>
+ * <p>
+ * The class does not depend on the browser.
+ */
+public class StackLayout {
+
+	/**
+	 * The baseline of the stack.
+	 */
+	public static enum Offset {
+		/**
+		 * the baseline is zero
+		 */
+		ZERO,
+		/**
+		 * the baseline minimizes the weighted change in slope of the series,
+		 * as in a streamgraph
+		 */
+		WIGGLE,
+		/**
+		 * the stack is centered around zero, as in a streamgraph
+		 */
+		SILHOUETTE,
+		/**
+		 * the values are normalized so that the stack fills [0, 1]
+		 */
+		EXPAND;
+	}
+
+	/**
+	 * The order of the series in the stack, from the bottom.
+	 */
+	public static enum Order {
+		/**
+		 * the order of the input
+		 */
+		DEFAULT,
+		/**
+		 * the reverse order of the input
+		 */
+		REVERSE,
+		/**
+		 * the series with the earlier peaks inside, the series with the later
+		 * peaks on the outside, as in a streamgraph
+		 */
+		INSIDE_OUT;
+	}
+
+	private Offset offset = Offset.ZERO;
+
+	private Order order = Order.DEFAULT;
+
+	private double[][] y0;
+
+	private double[][] y1;
+
+	private int[] stackOrder;
+
+	private double[] baseline;
+
+	private double[] sums;
+
+	/**
+	 * Set the baseline of the stack. Defaults to {@link Offset#ZERO}.
+	 * 
+	 * @param offset
+	 *            the offset
+	 * @return the current layout
+	 */
+	public StackLayout offset(final Offset offset) {
+		this.offset = offset;
+		return this;
+	}
+
+	/**
+	 * @return the baseline of the stack
+	 */
+	public Offset offset() {
+		return offset;
+	}
+
+	/**
+	 * Set the order of the series. Defaults to {@link Order#DEFAULT}.
+	 * 
+	 * @param order
+	 *            the order
+	 * @return the current layout
+	 */
+	public StackLayout order(final Order order) {
+		this.order = order;
+		return this;
+	}
+
+	/**
+	 * @return the order of the series
+	 */
+	public Order order() {
+		return order;
+	}
+
+	/**
+	 * Stack the series, the points being at regular x intervals.
+	 * 
+	 * @param values
+	 *            the values of each series, indexed by series then by point
+	 * @return the current layout
+	 */
+	public StackLayout layout(final double[][] values) {
+		return layout(values, null);
+	}
+
+	/**
+	 * Stack the series.
+	 * 
+	 * @param values
+	 *            the values of each series, indexed by series then by point
+	 * @param x
+	 *            the x of each point, used by {@link Offset#WIGGLE}, or null
+	 *            for regular intervals
+	 * @return the current layout
+	 */
+	public StackLayout layout(final double[][] values, final double[] x) {
+		int n = values.length;
+		int m = n > 0 ? values[0].length : 0;
+		if (y0 == null || y0.length != n || (n > 0 && y0[0].length != m)) {
+			y0 = new double[n][m];
+			y1 = new double[n][m];
+		}
+		return layout(values, x, y0, y1);
+	}
+
+	/**
+	 * Stack the series into the given arrays.
+	 * 
+	 * @param values
+	 *            the values of each series, indexed by series then by point
+	 * @param x
+	 *            the x of each point, used by {@link Offset#WIGGLE}, or null
+	 *            for regular intervals
+	 * @param y0
+	 *            the arrays receiving the baselines, indexed like the values
+	 * @param y1
+	 *            the arrays receiving the tops, indexed like the values
+	 * @return the current layout
+	 * @throws IllegalArgumentException
+	 *             if the series do not have the same number of points
+	 */
+	public StackLayout layout(final double[][] values, final double[] x, final double[][] y0, final double[][] y1) {
+		int n = values.length;
+		int m = n > 0 ? values[0].length : 0;
+		for (int s = 1; s < n; s++) {
+			if (values[s].length != m) {
+				throw new IllegalArgumentException("the series " + s + " has " + values[s].length
+						+ " points instead of " + m);
+			}
+		}
+		this.y0 = y0;
+		this.y1 = y1;
+		if (stackOrder == null || stackOrder.length != n) {
+			stackOrder = new int[n];
+		}
+		if (baseline == null || baseline.length != m) {
+			baseline = new double[m];
+			sums = new double[m];
+		}
+		for (int j = 0; j < m; j++) {
+			double sum = 0;
+			for (int s = 0; s < n; s++) {
+				sum += values[s][j];
+			}
+			sums[j] = sum;
+		}
+		computeOrder(values);
+		computeBaseline(values, x);
+
+		for (int j = 0; j < m; j++) {
+			double o = baseline[j];
+			double k = 1;
+			if (offset == Offset.EXPAND) {
+				k = sums[j] != 0 ? 1 / sums[j] : 0;
+			}
+			for (int i = 0; i < n; i++) {
+				int s = stackOrder[i];
+				double v = offset == Offset.EXPAND && sums[j] == 0 ? 1.0 / n : values[s][j] * k;
+				y0[s][j] = o;
+				o += v;
+				y1[s][j] = o;
+			}
+		}
+		return this;
+	}
+
+	private void computeOrder(final double[][] values) {
+		int n = values.length;
+		switch (order) {
+		case REVERSE:
+			for (int i = 0; i < n; i++) {
+				stackOrder[i] = n - 1 - i;
+			}
+			break;
+		case INSIDE_OUT:
+			// the series sorted by the index of their peak
+			double[] peak = new double[n];
+			double[] total = new double[n];
+			for (int s = 0; s < n; s++) {
+				double[] v = values[s];
+				int max = 0;
+				double sum = 0;
+				for (int j = 0; j < v.length; j++) {
+					if (v[j] > v[max]) {
+						max = j;
+					}
+					sum += v[j];
+				}
+				peak[s] = max;
+				total[s] = sum;
+			}
+			int[] sorted = new int[n];
+			for (int s = 0; s < n; s++) {
+				sorted[s] = s;
+			}
+			PieLayout.sortIndex(sorted, peak, false);
+			// alternately on the top and at the bottom of the stack, the
+			// earliest peaks inside
+			int[] tops = new int[n];
+			int[] bottoms = new int[n];
+			int topCount = 0;
+			int bottomCount = 0;
+			double top = 0;
+			double bottom = 0;
+			for (int i = 0; i < n; i++) {
+				int s = sorted[i];
+				if (top < bottom) {
+					top += total[s];
+					tops[topCount++] = s;
+				}
+				else {
+					bottom += total[s];
+					bottoms[bottomCount++] = s;
+				}
+			}
+			for (int i = 0; i < bottomCount; i++) {
+				stackOrder[i] = bottoms[bottomCount - 1 - i];
+			}
+			System.arraycopy(tops, 0, stackOrder, bottomCount, topCount);
+			break;
+		default:
+			for (int i = 0; i < n; i++) {
+				stackOrder[i] = i;
+			}
+		}
+	}
+
+	private void computeBaseline(final double[][] values, final double[] x) {
+		int n = values.length;
+		int m = baseline.length;
+		switch (offset) {
+		case SILHOUETTE:
+			double max = 0;
+			for (int j = 0; j < m; j++) {
+				max = Math.max(max, sums[j]);
+			}
+			for (int j = 0; j < m; j++) {
+				baseline[j] = (max - sums[j]) / 2;
+			}
+			break;
+		case WIGGLE:
+			if (m == 0) {
+				break;
+			}
+			double o = 0;
+			double min = 0;
+			baseline[0] = 0;
+			for (int j = 1; j < m; j++) {
+				double dx = x != null ? x[j] - x[j - 1] : 1;
+				double s2 = 0;
+				// the sum of the slopes of the series below
+				double below = 0;
+				for (int i = 0; i < n; i++) {
+					double[] v = values[stackOrder[i]];
+					double slope = (v[j] - v[j - 1]) / dx;
+					s2 += (slope / 2 + below) * v[j];
+					below += slope;
+				}
+				o -= sums[j] != 0 ? s2 / sums[j] * dx : 0;
+				baseline[j] = o;
+				if (o < min) {
+					min = o;
+				}
+			}
+			for (int j = 0; j < m; j++) {
+				baseline[j] -= min;
+			}
+			break;
+		default:
+			for (int j = 0; j < m; j++) {
+				baseline[j] = 0;
+			}
+		}
+	}
+
+	/**
+	 * @param series
+	 *            the index of a series
+	 * @return the baselines of the series, indexed by point
+	 */
+	public double[] y0(final int series) {
+		return y0[series];
+	}
+
+	/**
+	 * @param series
+	 *            the index of a series
+	 * @return the tops of the series, indexed by point
+	 */
+	public double[] y1(final int series) {
+		return y1[series];
+	}
+
+	/**
+	 * @return the indices of the series, from the bottom to the top of the
+	 *         stack
+	 */
+	public int[] stackOrder() {
+		return stackOrder;
+	}
+}
@@ -0,0 +1,302 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.layout;
+
+/**
+ * The tidy tree layout of a {@link Hierarchy}, using the Reingold-Tilford
+ * algorithm in the linear time version of Buchheim, Junger and Leipert.
+ * <p>
+ * The nodes of the same depth are placed on the same line, the root at the
+ * top, and each subtree is placed as close as possible to its left
+ * siblings. {@link Hierarchy#x(int)} and {@link Hierarchy#y(int)} are the
+ * coordinates of the center of each node. Since the contour of a subtree may
+ * push any of the subtrees on its right, {@link #relayout(Hierarchy, int)}
+ * lays out the whole tree, in linear time.
+ */
+public class TreeLayout extends HierarchyLayout<TreeLayout> {
+
+	private double siblings = 1;
+
+	private double cousins = 2;
+
+	// ============== the state of the algorithm, indexed by node ==============
+	// the index n is the parent of the root
+
+	private Hierarchy h;
+
+	private int n;
+
+	/**
+	 * the preliminary x
+	 */
+	private double[] prelim;
+
+	private double[] mod;
+
+	private double[] change;
+
+	private double[] shift;
+
+	/**
+	 * the next node of the contour, for the leaves
+	 */
+	private int[] thread;
+
+	private int[] ancestor;
+
+	/**
+	 * the default ancestor of the children of the node
+	 */
+	private int[] defaultAncestor;
+
+	/**
+	 * the rank of the node in its parent's children
+	 */
+	private int[] rank;
+
+	/**
+	 * the stack of the traversal
+	 */
+	private int[] order;
+
+	private int[] post;
+
+	/**
+	 * Set the separation between adjacent nodes, as a multiple of the
+	 * separation between siblings. Defaults to 1 for siblings and 2 for
+	 * other nodes.
+	 * 
+	 * @param siblings
+	 *            the separation between two nodes of the same parent
+	 * @param cousins
+	 *            the separation between two nodes of different parents
+	 * @return the current layout
+	 */
+	public TreeLayout separation(final double siblings, final double cousins) {
+		this.siblings = siblings;
+		this.cousins = cousins;
+		return this;
+	}
+
+	@Override
+	public TreeLayout layout(final Hierarchy hierarchy) {
+		init(hierarchy);
+		int root = h.root();
+		int[] nodes = h.visibleNodes();
+		int count = h.visibleCount();
+
+		// first walk, children before their parent, left to right
+		int top = 0;
+		order[top++] = root;
+		int size = 0;
+		// pre-order visiting the children from right to left, reversed below
+		while (top > 0) {
+			int v = order[--top];
+			post[size++] = v;
+			int children = childCount(v);
+			for (int c = 0; c < children; c++) {
+				int child = h.child(v, c);
+				rank[child] = c;
+				order[top++] = child;
+			}
+		}
+		for (int k = size - 1; k >= 0; k--) {
+			firstWalk(post[k]);
+		}
+		mod[n] = -prelim[root];
+
+		// second walk, parents before their children
+		int left = root;
+		int right = root;
+		int bottom = 0;
+		for (int k = 0; k < count; k++) {
+			int v = nodes[k];
+			int p = parent(v);
+			double x = prelim[v] + mod[p];
+			mod[v] += mod[p];
+			h.x[v] = x;
+			if (x < h.x[left]) {
+				left = v;
+			}
+			if (x > h.x[right]) {
+				right = v;
+			}
+			bottom = Math.max(bottom, h.depth(v));
+		}
+
+		double tx = separation(left, right) / 2 - h.x[left];
+		double kx = width / (h.x[right] + separation(right, left) / 2 + tx);
+		double ky = height / (bottom != 0 ? bottom : 1);
+		for (int k = 0; k < count; k++) {
+			int v = nodes[k];
+			h.x[v] = (h.x[v] + tx) * kx;
+			h.y[v] = h.depth(v) * ky;
+		}
+		h = null;
+		return this;
+	}
+
+	private void init(final Hierarchy hierarchy) {
+		h = hierarchy;
+		n = hierarchy.size();
+		if (prelim == null || prelim.length < n + 1) {
+			prelim = new double[n + 1];
+			mod = new double[n + 1];
+			change = new double[n + 1];
+			shift = new double[n + 1];
+			thread = new int[n + 1];
+			ancestor = new int[n + 1];
+			defaultAncestor = new int[n + 1];
+			rank = new int[n + 1];
+			order = new int[n + 1];
+			post = new int[n + 1];
+		}
+		for (int i = 0; i <= n; i++) {
+			prelim[i] = 0;
+			mod[i] = 0;
+			change[i] = 0;
+			shift[i] = 0;
+			thread[i] = -1;
+			ancestor[i] = i;
+			defaultAncestor[i] = -1;
+		}
+		rank[h.root()] = 0;
+	}
+
+	private int parent(final int v) {
+		return v == h.root() ? n : h.parent(v);
+	}
+
+	private int childCount(final int v) {
+		return v == n ? 1 : h.visibleChildCount(v);
+	}
+
+	private int child(final int v, final int k) {
+		return v == n ? h.root() : h.child(v, k);
+	}
+
+	private double separation(final int a, final int b) {
+		return parent(a) == parent(b) ? siblings : cousins;
+	}
+
+	private int nextLeft(final int v) {
+		return childCount(v) > 0 ? child(v, 0) : thread[v];
+	}
+
+	private int nextRight(final int v) {
+		int children = childCount(v);
+		return children > 0 ? child(v, children - 1) : thread[v];
+	}
+
+	private void firstWalk(final int v) {
+		int p = parent(v);
+		int w = rank[v] > 0 ? child(p, rank[v] - 1) : -1;
+		int children = childCount(v);
+		if (children > 0) {
+			executeShifts(v);
+			double midpoint = (prelim[child(v, 0)] + prelim[child(v, children - 1)]) / 2;
+			if (w >= 0) {
+				prelim[v] = prelim[w] + separation(v, w);
+				mod[v] = prelim[v] - midpoint;
+			}
+			else {
+				prelim[v] = midpoint;
+			}
+		}
+		else if (w >= 0) {
+			prelim[v] = prelim[w] + separation(v, w);
+		}
+		defaultAncestor[p] = apportion(v, w, defaultAncestor[p] >= 0 ? defaultAncestor[p] : child(p, 0));
+	}
+
+	private int apportion(final int v, final int w, final int defaultAnc) {
+		int result = defaultAnc;
+		if (w >= 0) {
+			int vip = v;
+			int vop = v;
+			int vim = w;
+			int vom = child(parent(v), 0);
+			double sip = mod[vip];
+			double sop = mod[vop];
+			double sim = mod[vim];
+			double som = mod[vom];
+			while (true) {
+				vim = nextRight(vim);
+				vip = nextLeft(vip);
+				if (vim < 0 || vip < 0) {
+					break;
+				}
+				vom = nextLeft(vom);
+				vop = nextRight(vop);
+				ancestor[vop] = v;
+				double s = prelim[vim] + sim - prelim[vip] - sip + separation(vim, vip);
+				if (s > 0) {
+					moveSubtree(parent(ancestor[vim]) == parent(v) ? ancestor[vim] : result, v, s);
+					sip += s;
+					sop += s;
+				}
+				sim += mod[vim];
+				sip += mod[vip];
+				som += mod[vom];
+				sop += mod[vop];
+			}
+			if (vim >= 0 && nextRight(vop) < 0) {
+				thread[vop] = vim;
+				mod[vop] += sim - sop;
+			}
+			if (vip >= 0 && nextLeft(vom) < 0) {
+				thread[vom] = vip;
+				mod[vom] += sip - som;
+				result = v;
+			}
+		}
+		return result;
+	}
+
+	private void moveSubtree(final int wm, final int wp, final double s) {
+		double c = s / (rank[wp] - rank[wm]);
+		change[wp] -= c;
+		shift[wp] += s;
+		change[wm] += c;
+		prelim[wp] += s;
+		mod[wp] += s;
+	}
+
+	private void executeShifts(final int v) {
+		double s = 0;
+		double c = 0;
+		for (int k = childCount(v) - 1; k >= 0; k--) {
+			int w = child(v, k);
+			prelim[w] += s;
+			mod[w] += s;
+			c += change[w];
+			s += shift[w] + c;
+		}
+	}
+}
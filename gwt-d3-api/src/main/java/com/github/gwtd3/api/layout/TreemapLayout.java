@@ -0,0 +1,221 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.layout;
+
+/**
+ * The squarified treemap of a {@link Hierarchy}.
+ * <p>
+ * Each node is a rectangle ({@link Hierarchy#x(int)},
+ * {@link Hierarchy#y(int)}, {@link Hierarchy#dx(int)},
+ * {@link Hierarchy#dy(int)}) whose area is proportional to its value,
+ * divided between its children in rows whose aspect ratio is kept close to
+ * the golden ratio, using the algorithm of Bruls, Huizing and van Wijk. The
+ * children are placed in their order: {@link Hierarchy#sortByValue()} sorts
+ * them by decreasing value, which gives the best aspect ratios.
+ * <p>
+ * The rectangle of a node depends only on its ancestors: when a node is
+ * expanded or collapsed, {@link #relayout(Hierarchy, int)} lays out only its
+ * subtree.
+ */
+public class TreemapLayout extends HierarchyLayout<TreemapLayout> {
+
+	private double ratio = 0.5 * (1 + Math.sqrt(5));
+
+	private int[] stack;
+
+	// the remaining rectangle of the node being divided
+	private double rx;
+
+	private double ry;
+
+	private double rdx;
+
+	private double rdy;
+
+	/**
+	 * Set the target aspect ratio of the rectangles. Defaults to the golden
+	 * ratio.
+	 * 
+	 * @param ratio
+	 *            the aspect ratio
+	 * @return the current layout
+	 */
+	public TreemapLayout ratio(final double ratio) {
+		this.ratio = ratio;
+		return this;
+	}
+
+	/**
+	 * @return the target aspect ratio of the rectangles
+	 */
+	public double ratio() {
+		return ratio;
+	}
+
+	@Override
+	public TreemapLayout layout(final Hierarchy hierarchy) {
+		int root = hierarchy.root();
+		hierarchy.x[root] = 0;
+		hierarchy.y[root] = 0;
+		hierarchy.dx[root] = width;
+		hierarchy.dy[root] = height;
+		squarify(hierarchy, root);
+		return this;
+	}
+
+	@Override
+	public TreemapLayout relayout(final Hierarchy hierarchy, final int node) {
+		squarify(hierarchy, node);
+		return this;
+	}
+
+	/**
+	 * divide the rectangles of the descendants of the node, whose rectangle
+	 * is set
+	 */
+	private void squarify(final Hierarchy h, final int node) {
+		if (stack == null || stack.length < h.size()) {
+			stack = new int[h.size()];
+		}
+		int top = 0;
+		stack[top++] = node;
+		while (top > 0) {
+			int i = stack[--top];
+			int count = h.visibleChildCount(i);
+			if (count == 0) {
+				continue;
+			}
+			rx = h.x[i];
+			ry = h.y[i];
+			rdx = h.dx[i];
+			rdy = h.dy[i];
+			// the children fill the node, even if it has an own value
+			double value = 0;
+			for (int c = 0; c < count; c++) {
+				value += h.value(h.child(i, c));
+			}
+			double k = value != 0 ? rdx * rdy / value : 0;
+			double u = Math.min(rdx, rdy);
+			double best = Double.POSITIVE_INFINITY;
+			double rowArea = 0;
+			double rowMin = Double.POSITIVE_INFINITY;
+			double rowMax = 0;
+			int rowStart = 0;
+			int c = 0;
+			while (c < count) {
+				double area = h.value(h.child(i, c)) * k;
+				double min = area > 0 && area < rowMin ? area : rowMin;
+				double max = Math.max(area, rowMax);
+				double score = worst(rowArea + area, min, max, u);
+				if (score <= best) {
+					rowArea += area;
+					rowMin = min;
+					rowMax = max;
+					best = score;
+					c++;
+				}
+				else {
+					position(h, i, rowStart, c, rowArea, k, u, false);
+					u = Math.min(rdx, rdy);
+					rowStart = c;
+					rowArea = 0;
+					rowMin = Double.POSITIVE_INFINITY;
+					rowMax = 0;
+					best = Double.POSITIVE_INFINITY;
+				}
+			}
+			position(h, i, rowStart, count, rowArea, k, u, true);
+			for (c = 0; c < count; c++) {
+				stack[top++] = h.child(i, c);
+			}
+		}
+	}
+
+	/**
+	 * @return the worst aspect ratio of a row of the given area, along a side
+	 *         of length u
+	 */
+	private double worst(final double area, final double min, final double max, final double u) {
+		double s = area * area;
+		double u2 = u * u;
+		return s != 0 ? Math.max(u2 * max * ratio / s, s / (u2 * min * ratio)) : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * place the row of children [from, to) of node along the side u of the
+	 * remaining rectangle, and remove the row from the rectangle
+	 */
+	private void position(final Hierarchy h, final int node, final int from, final int to, final double area,
+			final double k, final double u, final boolean flush) {
+		double v = u != 0 ? area / u : 0;
+		int last = -1;
+		if (u == rdx) {
+			// horizontal row, at the top of the rectangle
+			if (flush || v > rdy) {
+				v = rdy;
+			}
+			double x = rx;
+			for (int c = from; c < to; c++) {
+				last = h.child(node, c);
+				h.x[last] = x;
+				h.y[last] = ry;
+				h.dy[last] = v;
+				double d = Math.min(rx + rdx - x, v != 0 ? h.value(last) * k / v : 0);
+				h.dx[last] = d;
+				x += d;
+			}
+			if (last >= 0) {
+				h.dx[last] += rx + rdx - x;
+			}
+			ry += v;
+			rdy -= v;
+		}
+		else {
+			// vertical row, at the left of the rectangle
+			if (flush || v > rdx) {
+				v = rdx;
+			}
+			double y = ry;
+			for (int c = from; c < to; c++) {
+				last = h.child(node, c);
+				h.x[last] = rx;
+				h.y[last] = y;
+				h.dx[last] = v;
+				double d = Math.min(ry + rdy - y, v != 0 ? h.value(last) * k / v : 0);
+				h.dy[last] = d;
+				y += d;
+			}
+			if (last >= 0) {
+				h.dy[last] += ry + rdy - y;
+			}
+			rx += v;
+			rdx -= v;
+		}
+	}
+}
@@ -0,0 +1,309 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.scales;
+
+import com.github.gwtd3.api.D3;
+import com.github.gwtd3.api.core.Color;
+import com.github.gwtd3.api.core.Colors;
+import com.github.gwtd3.api.interpolators.Interpolator;
+import com.google.gwt.canvas.dom.client.CanvasPixelArray;
+import com.google.gwt.canvas.dom.client.ImageData;
+import com.google.gwt.core.client.JsArrayNumber;
+
+/**
+ * A lookup table of colors sampled from a quantitative color {@link Scale} or
+ * a color {@link Interpolator}.
+ * <p>
+ * Calling {@link Scale#apply(double)} on a color scale interpolates the color
+ * in Javascript and allocates a new CSS string for each call. A
+ * {@link ColorRamp} samples the scale once into a fixed number of colors; the
+ * colors of the input values are then looked up in constant time, either as a
+ * packed RGBA int (0xRRGGBBAA, see {@link Colors}) or as a precomputed CSS
+ * string:
+ * 
+ * <pre>
+ * {@code
+ * LinearScale color = D3.scale.linear().domain(0, 20, 30, 50).range("yellow", "orange", "brown", "purple");
+ * ColorRamp ramp = ColorRamp.sample(color, 0, 50, 256);
+ * context.setStrokeStyle(ramp.css(z));
+ * }
+ * </pre>
+ * <p>
+ * The input values are clamped to the [min;max] domain of the ramp, and
+ * rounded to the nearest sample. NaN values have no color.
+ * <p>
+ * Raster heatmaps can write a whole grid of values into an {@link ImageData}
+ * with {@link #fill(ImageData, double[])}.
+ */
+public class ColorRamp {
+
+	private final double min;
+
+	private final double max;
+
+	/**
+	 * the factor converting an offset from min into an index of the table
+	 */
+	private final double k;
+
+	private final int last;
+
+	private final int[] rgba;
+
+	private final String[] css;
+
+	/**
+	 * Create a ramp over the domain [min;max] with the given colors, evenly
+	 * spread over the domain.
+	 * 
+	 * @param min
+	 *            the value mapped to the first color
+	 * @param max
+	 *            the value mapped to the last color
+	 * @param rgba
+	 *            the colors packed as 0xRRGGBBAA ints
+	 */
+	public ColorRamp(final double min, final double max, final int[] rgba) {
+		super();
+		if (rgba.length == 0) {
+			throw new IllegalArgumentException("a color ramp needs at least one color");
+		}
+		if (max < min) {
+			throw new IllegalArgumentException("the max of the ramp (" + max + ") must not be lower than the min (" + min + ")");
+		}
+		this.min = min;
+		this.max = max;
+		this.rgba = rgba;
+		this.last = rgba.length - 1;
+		this.k = max > min ? last / (max - min) : 0;
+		this.css = new String[rgba.length];
+		for (int i = 0; i < rgba.length; i++) {
+			css[i] = Colors.toHexString(rgba[i]);
+		}
+	}
+
+	// ============== factories methods ==============
+
+	/**
+	 * Sample the given scale at size evenly spaced values of [min;max].
+	 * <p>
+	 * The range of the scale must contain colors (i.e. any color string
+	 * understood by {@link D3#rgb(String)}).
+	 * 
+	 * @param scale
+	 *            the color scale
+	 * @param min
+	 *            the first sampled value
+	 * @param max
+	 *            the last sampled value
+	 * @param size
+	 *            the number of samples
+	 * @return the ramp
+	 */
+	public static ColorRamp sample(final Scale<?> scale, final double min, final double max, final int size) {
+		int[] rgba = new int[checkSize(size)];
+		for (int i = 0; i < size; i++) {
+			rgba[i] = D3.rgb(scale.apply(valueAt(min, max, size, i)).asString()).rgba();
+		}
+		return new ColorRamp(min, max, rgba);
+	}
+
+	/**
+	 * Sample the given interpolator at size evenly spaced parameters of [0;1],
+	 * the parameter 0 being mapped to min and 1 to max.
+	 * 
+	 * @param interpolator
+	 *            the color interpolator, such as
+	 *            {@link D3#interpolateRgb(String, String)}
+	 * @param min
+	 *            the value mapped to the parameter 0
+	 * @param max
+	 *            the value mapped to the parameter 1
+	 * @param size
+	 *            the number of samples
+	 * @return the ramp
+	 */
+	public static ColorRamp sample(final Interpolator<? extends Color> interpolator, final double min, final double max,
+			final int size) {
+		int[] rgba = new int[checkSize(size)];
+		for (int i = 0; i < size; i++) {
+			rgba[i] = D3.rgb(interpolator.interpolate(valueAt(0, 1, size, i))).rgba();
+		}
+		return new ColorRamp(min, max, rgba);
+	}
+
+	private static int checkSize(final int size) {
+		if (size < 1) {
+			throw new IllegalArgumentException("the size of a color ramp must be positive, was " + size);
+		}
+		return size;
+	}
+
+	private static double valueAt(final double min, final double max, final int size, final int i) {
+		return size == 1 ? min : min + (((max - min) * i) / (size - 1));
+	}
+
+	// ============== lookup methods ==============
+
+	/**
+	 * Return the index of the sample corresponding to the given value.
+	 * 
+	 * @param value
+	 *            the value
+	 * @return the index in [0;size-1], or -1 if the value is NaN
+	 */
+	public final int index(final double value) {
+		if (value != value) {
+			return -1;
+		}
+		double i = (value - min) * k;
+		if (i <= 0) {
+			return 0;
+		}
+		if (i >= last) {
+			return last;
+		}
+		return (int) (i + 0.5);
+	}
+
+	/**
+	 * Return the color of the given value packed as 0xRRGGBBAA.
+	 * 
+	 * @param value
+	 *            the value
+	 * @return the packed color, or 0 (transparent) if the value is NaN
+	 */
+	public final int rgba(final double value) {
+		int i = index(value);
+		return i < 0 ? 0 : rgba[i];
+	}
+
+	/**
+	 * Return the color of the given value as a CSS string, such as "#f7eaba".
+	 * <p>
+	 * The returned strings are precomputed, so this method does not allocate.
+	 * 
+	 * @param value
+	 *            the value
+	 * @return the CSS color, or null if the value is NaN
+	 */
+	public final String css(final double value) {
+		int i = index(value);
+		return i < 0 ? null : css[i];
+	}
+
+	/**
+	 * @param index
+	 *            the index of the sample
+	 * @return the sample at the given index packed as 0xRRGGBBAA
+	 */
+	public final int rgbaAt(final int index) {
+		return rgba[index];
+	}
+
+	/**
+	 * @param index
+	 *            the index of the sample
+	 * @return the sample at the given index as a CSS string
+	 */
+	public final String cssAt(final int index) {
+		return css[index];
+	}
+
+	/**
+	 * @return the number of samples
+	 */
+	public final int size() {
+		return rgba.length;
+	}
+
+	/**
+	 * @return the value mapped to the first sample
+	 */
+	public final double min() {
+		return min;
+	}
+
+	/**
+	 * @return the value mapped to the last sample
+	 */
+	public final double max() {
+		return max;
+	}
+
+	// ============== raster methods ==============
+
+	/**
+	 * Write the colors of the given values into the pixels of the image.
+	 * <p>
+	 * The values are laid out in row-major order, the value at index i being
+	 * written in the pixel (i % width, i / width). Pixels beyond the number of
+	 * values are left unchanged.
+	 * 
+	 * @param image
+	 *            the image to write into
+	 * @param values
+	 *            the values, one per pixel
+	 * @return the image
+	 */
+	public final ImageData fill(final ImageData image, final double[] values) {
+		CanvasPixelArray data = image.getData();
+		int n = Math.min(values.length, image.getWidth() * image.getHeight());
+		for (int i = 0, p = 0; i < n; i++, p += 4) {
+			write(data, p, rgba(values[i]));
+		}
+		return image;
+	}
+
+	/**
+	 * Same as {@link #fill(ImageData, double[])} for a Javascript array of
+	 * numbers.
+	 * 
+	 * @param image
+	 *            the image to write into
+	 * @param values
+	 *            the values, one per pixel
+	 * @return the image
+	 */
+	public final ImageData fill(final ImageData image, final JsArrayNumber values) {
+		CanvasPixelArray data = image.getData();
+		int n = Math.min(values.length(), image.getWidth() * image.getHeight());
+		for (int i = 0, p = 0; i < n; i++, p += 4) {
+			write(data, p, rgba(values.get(i)));
+		}
+		return image;
+	}
+
+	private static void write(final CanvasPixelArray data, final int p, final int rgba) {
+		data.set(p, rgba >>> 24);
+		data.set(p + 1, (rgba >>> 16) & 0xff);
+		data.set(p + 2, (rgba >>> 8) & 0xff);
+		data.set(p + 3, rgba & 0xff);
+	}
+}
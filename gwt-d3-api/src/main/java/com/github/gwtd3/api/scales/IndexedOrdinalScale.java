@@ -0,0 +1,590 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.scales;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+
+import com.github.gwtd3.api.core.Colors;
+
+/**
+ * A Java implementation of the {@link OrdinalScale}, mapping a discrete
+ * domain to a discrete range without going through Javascript.
+ * <p>
+ * The domain values are indexed in a {@link HashMap}, so finding the range
+ * slot of a value is a constant time operation; the output values are
+ * returned as primitive doubles, ints or Strings instead of {@link com.github.gwtd3.api.core.Value}
+ * wrappers. The positions computed by {@link #rangePoints(double, double)},
+ * {@link #rangeBands(double, double)} and
+ * {@link #rangeRoundBands(double, double)} are computed once for the whole
+ * domain, and the scale then simply reads them.
+ * <p>
+ * The behaviour follows the d3 ordinal scale:
+ * <ul>
+ * <li>when the range is set explicitly, a value missing from the domain is
+ * implicitly added to it, and the range values are reused cyclically if the
+ * domain is bigger than the range;
+ * <li>when the range is computed from an interval (points or bands), values
+ * missing from the domain have no output: {@link #applyDouble(Object)}
+ * returns NaN and {@link #applyString(Object)} returns null.
+ * </ul>
+ * <pre>
+ * {@code
+ * IndexedOrdinalScale<String> x = new IndexedOrdinalScale<String>().domain(letters).rangeRoundBands(0, width, 0.1);
+ * double band = x.rangeBand();
+ * for (Bar bar : bars) {
+ *     double left = x.applyDouble(bar.letter);
+ * }
+ * }
+ * </pre>
+ * 
+ * @param <K>
+ *            the type of the domain values, which must implement
+ *            {@link Object#hashCode()} and {@link Object#equals(Object)}
+ */
+public class IndexedOrdinalScale<K> {
+
+	private static enum RangeType {
+		VALUES, POINTS, BANDS, ROUND_BANDS;
+	}
+
+	private final List<K> domain = new ArrayList<K>();
+
+	private final HashMap<K, Integer> index = new HashMap<K, Integer>();
+
+	/**
+	 * the explicit range values, or the computed positions
+	 */
+	private double[] numbers = new double[0];
+
+	/**
+	 * the explicit range strings; null when the range is numeric
+	 */
+	private String[] strings;
+
+	private RangeType rangeType = RangeType.VALUES;
+
+	private double start;
+
+	private double stop;
+
+	private double padding;
+
+	private double outerPadding;
+
+	private double rangeBand;
+
+	/**
+	 * Create a scale with an empty domain and an empty range.
+	 */
+	public IndexedOrdinalScale() {
+		super();
+	}
+
+	// ============== factories ==============
+
+	/**
+	 * Construct an ordinal scale with a range of ten categorical colors, like
+	 * {@link com.github.gwtd3.api.Scales#category10()}.
+	 * 
+	 * @return the scale
+	 */
+	public static <K> IndexedOrdinalScale<K> category10() {
+		return new IndexedOrdinalScale<K>().rangeColors(Colors.category10());
+	}
+
+	/**
+	 * Construct an ordinal scale with a range of twenty categorical colors,
+	 * like {@link com.github.gwtd3.api.Scales#category20()}.
+	 * 
+	 * @return the scale
+	 */
+	public static <K> IndexedOrdinalScale<K> category20() {
+		return new IndexedOrdinalScale<K>().rangeColors(Colors.category20());
+	}
+
+	/**
+	 * Construct an ordinal scale with a range of twenty categorical colors,
+	 * like {@link com.github.gwtd3.api.Scales#category20b()}.
+	 * 
+	 * @return the scale
+	 */
+	public static <K> IndexedOrdinalScale<K> category20b() {
+		return new IndexedOrdinalScale<K>().rangeColors(Colors.category20b());
+	}
+
+	/**
+	 * Construct an ordinal scale with a range of twenty categorical colors,
+	 * like {@link com.github.gwtd3.api.Scales#category20c()}.
+	 * 
+	 * @return the scale
+	 */
+	public static <K> IndexedOrdinalScale<K> category20c() {
+		return new IndexedOrdinalScale<K>().rangeColors(Colors.category20c());
+	}
+
+	// ============== domain ==============
+
+	/**
+	 * Set the domain of the scale. Duplicated values are ignored: the first
+	 * occurence determines the index of the value.
+	 * <p>
+	 * If the range was computed from an interval, the positions are computed
+	 * again for the new domain.
+	 * 
+	 * @param values
+	 *            the domain values
+	 * @return the current scale
+	 */
+	public IndexedOrdinalScale<K> domain(final K... values) {
+		clearDomain();
+		for (K value : values) {
+			add(value);
+		}
+		return updateRange();
+	}
+
+	/**
+	 * Set the domain of the scale. Duplicated values are ignored: the first
+	 * occurence determines the index of the value.
+	 * <p>
+	 * If the range was computed from an interval, the positions are computed
+	 * again for the new domain.
+	 * 
+	 * @param values
+	 *            the domain values
+	 * @return the current scale
+	 */
+	public IndexedOrdinalScale<K> domain(final Collection<? extends K> values) {
+		clearDomain();
+		for (K value : values) {
+			add(value);
+		}
+		return updateRange();
+	}
+
+	/**
+	 * Return the domain values, in the order of their index.
+	 * 
+	 * @return a copy of the domain
+	 */
+	public List<K> domain() {
+		return new ArrayList<K>(domain);
+	}
+
+	/**
+	 * @return the number of values in the domain
+	 */
+	public int size() {
+		return domain.size();
+	}
+
+	/**
+	 * Return the value of the domain at the given index.
+	 * 
+	 * @param i
+	 *            the index
+	 * @return the domain value
+	 */
+	public K domainAt(final int i) {
+		return domain.get(i);
+	}
+
+	/**
+	 * Return the index of the given value in the domain, without adding it to
+	 * the domain.
+	 * 
+	 * @param value
+	 *            the domain value
+	 * @return the index of the value, or -1 if the value is not in the domain
+	 */
+	public int indexOf(final K value) {
+		Integer i = index.get(value);
+		return i == null ? -1 : i.intValue();
+	}
+
+	private void clearDomain() {
+		domain.clear();
+		index.clear();
+	}
+
+	private int add(final K value) {
+		Integer i = index.get(value);
+		if (i != null) {
+			return i.intValue();
+		}
+		int slot = domain.size();
+		domain.add(value);
+		index.put(value, slot);
+		return slot;
+	}
+
+	// ============== range ==============
+
+	/**
+	 * Set the output values of the scale. The values are reused cyclically if
+	 * the domain has more values than the range.
+	 * 
+	 * @param values
+	 *            the output values
+	 * @return the current scale
+	 */
+	public IndexedOrdinalScale<K> range(final double... values) {
+		this.rangeType = RangeType.VALUES;
+		this.numbers = new double[values.length];
+		System.arraycopy(values, 0, numbers, 0, values.length);
+		this.strings = null;
+		this.rangeBand = 0;
+		return this;
+	}
+
+	/**
+	 * Set the output values of the scale. The values are reused cyclically if
+	 * the domain has more values than the range.
+	 * 
+	 * @param values
+	 *            the output values
+	 * @return the current scale
+	 */
+	public IndexedOrdinalScale<K> range(final String... values) {
+		this.rangeType = RangeType.VALUES;
+		this.numbers = new double[values.length];
+		for (int i = 0; i < values.length; i++) {
+			numbers[i] = Double.NaN;
+		}
+		this.strings = new String[values.length];
+		System.arraycopy(values, 0, strings, 0, values.length);
+		this.rangeBand = 0;
+		return this;
+	}
+
+	/**
+	 * Set the output values of the scale to the given colors. The packed
+	 * colors are returned by {@link #applyInt(Object)}, and their CSS
+	 * representations by {@link #applyString(Object)}.
+	 * 
+	 * @param rgba
+	 *            the colors, packed as 0xRRGGBBAA (see {@link Colors})
+	 * @return the current scale
+	 */
+	public IndexedOrdinalScale<K> rangeColors(final int... rgba) {
+		this.rangeType = RangeType.VALUES;
+		this.numbers = new double[rgba.length];
+		this.strings = new String[rgba.length];
+		for (int i = 0; i < rgba.length; i++) {
+			numbers[i] = rgba[i];
+			strings[i] = Colors.format(rgba[i]);
+		}
+		this.rangeBand = 0;
+		return this;
+	}
+
+	/**
+	 * Set the range to evenly spaced points of the interval [start;stop],
+	 * without padding.
+	 * 
+	 * @see #rangePoints(double, double, double)
+	 * @param start
+	 *            the start of the interval
+	 * @param stop
+	 *            the stop of the interval
+	 * @return the current scale
+	 */
+	public IndexedOrdinalScale<K> rangePoints(final double start, final double stop) {
+		return rangePoints(start, stop, 0);
+	}
+
+	/**
+	 * Set the range to evenly spaced points of the interval [start;stop]. The
+	 * first and last points are offset from the bounds of the interval by
+	 * half the padding, expressed as a multiple of the spacing between the
+	 * points.
+	 * 
+	 * @param start
+	 *            the start of the interval
+	 * @param stop
+	 *            the stop of the interval
+	 * @param padding
+	 *            the outer padding
+	 * @return the current scale
+	 */
+	public IndexedOrdinalScale<K> rangePoints(final double start, final double stop, final double padding) {
+		return setInterval(RangeType.POINTS, start, stop, padding, 0);
+	}
+
+	/**
+	 * Set the range to evenly spaced bands of the interval [start;stop],
+	 * without padding.
+	 * 
+	 * @see #rangeBands(double, double, double, double)
+	 * @param start
+	 *            the start of the interval
+	 * @param stop
+	 *            the stop of the interval
+	 * @return the current scale
+	 */
+	public IndexedOrdinalScale<K> rangeBands(final double start, final double stop) {
+		return rangeBands(start, stop, 0, 0);
+	}
+
+	/**
+	 * Set the range to evenly spaced bands of the interval [start;stop], with
+	 * the same inner and outer padding.
+	 * 
+	 * @see #rangeBands(double, double, double, double)
+	 * @param start
+	 *            the start of the interval
+	 * @param stop
+	 *            the stop of the interval
+	 * @param padding
+	 *            the inner and outer padding
+	 * @return the current scale
+	 */
+	public IndexedOrdinalScale<K> rangeBands(final double start, final double stop, final double padding) {
+		return rangeBands(start, stop, padding, padding);
+	}
+
+	/**
+	 * Set the range to evenly spaced bands of the interval [start;stop]. The
+	 * scale returns the start of the band of each value, and the width of the
+	 * bands is given by {@link #rangeBand()}.
+	 * 
+	 * @param start
+	 *            the start of the interval
+	 * @param stop
+	 *            the stop of the interval
+	 * @param padding
+	 *            the inner padding, in [0;1], as a fraction of the band step
+	 * @param outerPadding
+	 *            the outer padding, as a fraction of the band step
+	 * @return the current scale
+	 */
+	public IndexedOrdinalScale<K> rangeBands(final double start, final double stop, final double padding,
+			final double outerPadding) {
+		return setInterval(RangeType.BANDS, start, stop, padding, outerPadding);
+	}
+
+	/**
+	 * Like {@link #rangeBands(double, double, double)}, but rounds the band
+	 * positions and widths to integers.
+	 * 
+	 * @param start
+	 *            the start of the interval
+	 * @param stop
+	 *            the stop of the interval
+	 * @return the current scale
+	 */
+	public IndexedOrdinalScale<K> rangeRoundBands(final double start, final double stop) {
+		return rangeRoundBands(start, stop, 0, 0);
+	}
+
+	/**
+	 * Like {@link #rangeBands(double, double, double)}, but rounds the band
+	 * positions and widths to integers.
+	 * 
+	 * @param start
+	 *            the start of the interval
+	 * @param stop
+	 *            the stop of the interval
+	 * @param padding
+	 *            the inner and outer padding
+	 * @return the current scale
+	 */
+	public IndexedOrdinalScale<K> rangeRoundBands(final double start, final double stop, final double padding) {
+		return rangeRoundBands(start, stop, padding, padding);
+	}
+
+	/**
+	 * Like {@link #rangeBands(double, double, double, double)}, but rounds the
+	 * band positions and widths to integers.
+	 * 
+	 * @param start
+	 *            the start of the interval
+	 * @param stop
+	 *            the stop of the interval
+	 * @param padding
+	 *            the inner padding
+	 * @param outerPadding
+	 *            the outer padding
+	 * @return the current scale
+	 */
+	public IndexedOrdinalScale<K> rangeRoundBands(final double start, final double stop, final double padding,
+			final double outerPadding) {
+		return setInterval(RangeType.ROUND_BANDS, start, stop, padding, outerPadding);
+	}
+
+	/**
+	 * @return the width of the bands computed by the last call to one of the
+	 *         rangeBands methods, or 0 if the range is not made of bands
+	 */
+	public double rangeBand() {
+		return rangeBand;
+	}
+
+	/**
+	 * @return the number of values in the range
+	 */
+	public int rangeSize() {
+		return numbers.length;
+	}
+
+	/**
+	 * Return the numeric output value at the given range index.
+	 * 
+	 * @param i
+	 *            the index in the range
+	 * @return the value
+	 */
+	public double rangeAt(final int i) {
+		return numbers[i];
+	}
+
+	private IndexedOrdinalScale<K> setInterval(final RangeType type, final double start, final double stop,
+			final double padding, final double outerPadding) {
+		this.rangeType = type;
+		this.start = start;
+		this.stop = stop;
+		this.padding = padding;
+		this.outerPadding = outerPadding;
+		this.strings = null;
+		return updateRange();
+	}
+
+	/**
+	 * compute the positions of the whole domain, following d3.scale.ordinal
+	 */
+	private IndexedOrdinalScale<K> updateRange() {
+		int n = domain.size();
+		switch (rangeType) {
+		case POINTS: {
+			double step = (stop - start) / (Math.max(1, n - 1) + padding);
+			steps(n, n < 2 ? (start + stop) / 2 : start + step * padding / 2, step, false);
+			rangeBand = 0;
+			break;
+		}
+		case BANDS: {
+			boolean reverse = stop < start;
+			double a = reverse ? stop : start;
+			double b = reverse ? start : stop;
+			double step = (b - a) / (n - padding + 2 * outerPadding);
+			steps(n, a + step * outerPadding, step, reverse);
+			rangeBand = step * (1 - padding);
+			break;
+		}
+		case ROUND_BANDS: {
+			boolean reverse = stop < start;
+			double a = reverse ? stop : start;
+			double b = reverse ? start : stop;
+			double step = Math.floor((b - a) / (n - padding + 2 * outerPadding));
+			double error = b - a - (n - padding) * step;
+			steps(n, a + Math.round(error / 2), step, reverse);
+			rangeBand = Math.round(step * (1 - padding));
+			break;
+		}
+		default:
+			break;
+		}
+		return this;
+	}
+
+	private void steps(final int n, final double first, final double step, final boolean reverse) {
+		if (numbers.length != n) {
+			numbers = new double[n];
+		}
+		for (int i = 0; i < n; i++) {
+			numbers[reverse ? n - 1 - i : i] = first + step * i;
+		}
+	}
+
+	// ============== apply ==============
+
+	/**
+	 * Return the range index of the given value. When the range was set
+	 * explicitly, a value missing from the domain is added to it.
+	 * 
+	 * @param value
+	 *            the domain value
+	 * @return the index in the range, or -1 if the value has no output value
+	 */
+	public int slot(final K value) {
+		if (rangeType == RangeType.VALUES) {
+			int length = numbers.length;
+			return length == 0 ? -1 : add(value) % length;
+		}
+		Integer i = index.get(value);
+		return i == null ? -1 : i.intValue();
+	}
+
+	/**
+	 * Return the numeric output value of the given domain value, for instance
+	 * the start of its band.
+	 * 
+	 * @param value
+	 *            the domain value
+	 * @return the output value, or NaN if the value has no numeric output
+	 */
+	public double applyDouble(final K value) {
+		int slot = slot(value);
+		return slot < 0 ? Double.NaN : numbers[slot];
+	}
+
+	/**
+	 * Return the output value of the given domain value as an int: for
+	 * instance the packed color of a scale created with
+	 * {@link #rangeColors(int...)}.
+	 * 
+	 * @param value
+	 *            the domain value
+	 * @return the output value, or 0 if the value has no numeric output
+	 */
+	public int applyInt(final K value) {
+		double d = applyDouble(value);
+		return Double.isNaN(d) ? 0 : (int) d;
+	}
+
+	/**
+	 * Return the output value of the given domain value as a String: the
+	 * range string for a scale created with {@link #range(String...)} or
+	 * {@link #rangeColors(int...)}, or the String representation of the
+	 * numeric output otherwise.
+	 * 
+	 * @param value
+	 *            the domain value
+	 * @return the output value, or null if the value has no output
+	 */
+	public String applyString(final K value) {
+		int slot = slot(value);
+		if (slot < 0) {
+			return null;
+		}
+		return strings != null ? strings[slot] : String.valueOf(numbers[slot]);
+	}
+}
@@ -45,6 +45,22 @@ public native final OrdinalScale rangeRoundBands(JsArrayInteger interval, double
 		return this.rangeRoundBands(interval, padding);
     }-*/;
 
+    public native final OrdinalScale rangeRoundBands(JsArrayInteger interval, double padding, double outerPadding) /*-{
+		return this.rangeRoundBands(interval, padding, outerPadding);
+    }-*/;
+
+    public native final OrdinalScale rangeBands(JsArrayInteger interval, double padding) /*-{
+		return this.rangeBands(interval, padding);
+    }-*/;
+
+    public native final OrdinalScale rangeBands(JsArrayInteger interval, double padding, double outerPadding) /*-{
+		return this.rangeBands(interval, padding, outerPadding);
+    }-*/;
+
+    public native final OrdinalScale rangePoints(JsArrayInteger interval, double padding) /*-{
+		return this.rangePoints(interval, padding);
+    }-*/;
+
     public native final double rangeBand() /*-{
 		return this.rangeBand();
     }-*/;
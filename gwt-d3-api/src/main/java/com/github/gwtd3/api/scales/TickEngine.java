@@ -0,0 +1,684 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.scales;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.github.gwtd3.api.core.Format;
+import com.github.gwtd3.api.svg.Axis;
+
+/**
+ * Generates and memoises the ticks of a linear scale.
+ * <p>
+ * Re-applying an {@link Axis} to a selection asks the scale for its ticks
+ * and formats every tick label again, even if the domain did not change. A
+ * {@link TickEngine} computes the nice tick values in Java, with the same
+ * algorithm as {@link LinearScale#ticks(int)}, and memoises:
+ * <ul>
+ * <li>the {@link Ticks} (values, labels and positions) of the last
+ * (domain, range, count, format) keys, so that a redraw with the same scale
+ * state costs a map lookup;
+ * <li>the label of each tick value for a given format, so that zooming or
+ * brushing, which change the domain at each frame but mostly keep the same
+ * tick values, formats only the ticks entering the view.
+ * </ul>
+ * {@link #diff(Ticks, Ticks, TickDiff)} compares the ticks of two frames, so
+ * that a renderer only creates the entering tick nodes and removes the
+ * exiting ones.
+ * <p>
+ * When no format specifier is given, the labels use the default format of
+ * {@link LinearScale#tickFormat(int)} (a fixed precision derived from the
+ * tick step). A given specifier is used as is. The labels are formatted in
+ * Java, with {@link Format}.
+ */
+public class TickEngine {
+
+	/**
+	 * The default number of ticks memoised by an engine.
+	 */
+	public static final int DEFAULT_CAPACITY = 64;
+
+	private final LinkedHashMap<Key, Ticks> cache;
+
+	private final HashMap<String, Labels> labels = new HashMap<String, Labels>();
+
+	private int hits;
+
+	private int misses;
+
+	/**
+	 * Create an engine memoising the {@link #DEFAULT_CAPACITY} last ticks.
+	 */
+	public TickEngine() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Create an engine memoising the given number of ticks.
+	 * 
+	 * @param capacity
+	 *            the number of (domain, range, count, format) keys to keep
+	 */
+	public TickEngine(final int capacity) {
+		super();
+		if (capacity < 1) {
+			throw new IllegalArgumentException("the capacity must be positive: " + capacity);
+		}
+		this.cache = new LinkedHashMap<Key, Ticks>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Key, Ticks> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	// ============== memoised ticks ==============
+
+	/**
+	 * Return the ticks of the given linear scale, with the default format.
+	 * 
+	 * @param scale
+	 *            the scale
+	 * @param count
+	 *            the approximate number of ticks
+	 * @return the ticks
+	 */
+	public Ticks ticks(final LinearScale scale, final int count) {
+		return ticks(scale, count, null);
+	}
+
+	/**
+	 * Return the ticks of the given linear scale. Only the first and last
+	 * values of the domain and of the range are taken into account.
+	 * 
+	 * @param scale
+	 *            the scale
+	 * @param count
+	 *            the approximate number of ticks
+	 * @param format
+	 *            the format specifier of the labels, or null for the
+	 *            default format
+	 * @return the ticks
+	 */
+	public Ticks ticks(final LinearScale scale, final int count, final String format) {
+		return ticks(domainStart(scale), domainStop(scale), rangeStart(scale), rangeStop(scale), count, format);
+	}
+
+	/**
+	 * Return the ticks of a linear mapping from [d0;d1] to [r0;r1].
+	 * 
+	 * @param d0
+	 *            the start of the domain
+	 * @param d1
+	 *            the end of the domain
+	 * @param r0
+	 *            the start of the range
+	 * @param r1
+	 *            the end of the range
+	 * @param count
+	 *            the approximate number of ticks
+	 * @param format
+	 *            the format specifier of the labels, or null for the
+	 *            default format
+	 * @return the ticks
+	 */
+	public Ticks ticks(final double d0, final double d1, final double r0, final double r1, final int count,
+			final String format) {
+		Key key = new Key(d0, d1, r0, r1, count, format);
+		Ticks ticks = cache.get(key);
+		if (ticks != null) {
+			hits++;
+			return ticks;
+		}
+		misses++;
+		double step = tickStep(d0, d1, count);
+		double[] values = ticks(d0, d1, count);
+		String specifier = format != null ? format : ",." + tickPrecision(step) + "f";
+		Labels l = labels.get(specifier);
+		if (l == null) {
+			l = new Labels(Format.of(specifier));
+			labels.put(specifier, l);
+		}
+		String[] texts = new String[values.length];
+		double[] positions = new double[values.length];
+		double k = d1 == d0 ? 0 : (r1 - r0) / (d1 - d0);
+		for (int i = 0; i < values.length; i++) {
+			texts[i] = l.get(values[i]);
+			positions[i] = r0 + (values[i] - d0) * k;
+		}
+		ticks = new Ticks(d0, d1, r0, r1, step, values, texts, positions);
+		cache.put(key, ticks);
+		return ticks;
+	}
+
+	/**
+	 * @return the number of calls answered from the memoised ticks
+	 */
+	public int hits() {
+		return hits;
+	}
+
+	/**
+	 * @return the number of calls which computed new ticks
+	 */
+	public int misses() {
+		return misses;
+	}
+
+	/**
+	 * Forget the memoised ticks and labels.
+	 */
+	public void clear() {
+		cache.clear();
+		labels.clear();
+		hits = 0;
+		misses = 0;
+	}
+
+	// ============== diff ==============
+
+	/**
+	 * Compare the ticks of two frames by value.
+	 * 
+	 * @param previous
+	 *            the ticks currently displayed, or null if none
+	 * @param next
+	 *            the ticks to display
+	 * @param reuse
+	 *            a diff to fill, or null to create a new one
+	 * @return the diff
+	 */
+	public static TickDiff diff(final Ticks previous, final Ticks next, final TickDiff reuse) {
+		TickDiff diff = reuse != null ? reuse : new TickDiff();
+		int n = previous == null ? 0 : previous.size();
+		int m = next.size();
+		diff.reset(n, m);
+		int i = 0;
+		int j = 0;
+		while (i < n && j < m) {
+			double a = previous.values[i];
+			double b = next.values[j];
+			if (a == b) {
+				diff.addUpdate(i++, j++);
+			}
+			else if (a < b) {
+				diff.addExit(i++);
+			}
+			else {
+				diff.addEnter(j++);
+			}
+		}
+		while (i < n) {
+			diff.addExit(i++);
+		}
+		while (j < m) {
+			diff.addEnter(j++);
+		}
+		return diff;
+	}
+
+	// ============== nice ticks ==============
+
+	/**
+	 * Return the step between the ticks of the given interval: a power of ten
+	 * multiplied by 1, 2 or 5, giving approximately count ticks.
+	 * 
+	 * @param start
+	 *            the start of the interval
+	 * @param stop
+	 *            the end of the interval
+	 * @param count
+	 *            the approximate number of ticks
+	 * @return the step, or NaN for an empty interval
+	 */
+	public static double tickStep(final double start, final double stop, final int count) {
+		double span = Math.abs(stop - start);
+		if (!(span > 0) || span == Double.POSITIVE_INFINITY || count <= 0) {
+			return Double.NaN;
+		}
+		double step = Math.pow(10, Math.floor(Math.log(span / count) / Math.log(10)));
+		double err = count / span * step;
+		if (err <= .15) {
+			step *= 10;
+		}
+		else if (err <= .35) {
+			step *= 5;
+		}
+		else if (err <= .75) {
+			step *= 2;
+		}
+		return step;
+	}
+
+	/**
+	 * Return the nice tick values of the given interval, in ascending order,
+	 * like {@link LinearScale#ticks(int)}.
+	 * 
+	 * @param start
+	 *            the start of the interval
+	 * @param stop
+	 *            the end of the interval
+	 * @param count
+	 *            the approximate number of ticks
+	 * @return the tick values
+	 */
+	public static double[] ticks(final double start, final double stop, final int count) {
+		double step = tickStep(start, stop, count);
+		if (Double.isNaN(step)) {
+			return new double[0];
+		}
+		double min = Math.min(start, stop);
+		double max = Math.max(start, stop);
+		double first = Math.ceil(min / step) * step;
+		double last = Math.floor(max / step) * step + step * .5;
+		// same as d3.range: scale to integers to avoid floating point errors
+		double k = 1;
+		while (step * k % 1 != 0) {
+			k *= 10;
+		}
+		double s = step * k;
+		double f = first * k;
+		double l = last * k;
+		int n = Math.max(0, (int) Math.ceil((l - f) / s));
+		double[] values = new double[n];
+		int size = 0;
+		for (int i = 0; i < n; i++) {
+			double j = f + s * i;
+			if (j < l) {
+				values[size++] = j / k;
+			}
+		}
+		if (size < n) {
+			double[] trimmed = new double[size];
+			System.arraycopy(values, 0, trimmed, 0, size);
+			return trimmed;
+		}
+		return values;
+	}
+
+	/**
+	 * Return the number of decimals needed to display ticks separated by the
+	 * given step.
+	 * 
+	 * @param step
+	 *            the tick step
+	 * @return the precision, 0 or more
+	 */
+	public static int tickPrecision(final double step) {
+		if (!(step > 0)) {
+			return 0;
+		}
+		return Math.max(0, (int) -Math.floor(Math.log(step) / Math.log(10) + .01));
+	}
+
+	private static final native double domainStart(LinearScale scale) /*-{
+		return +scale.domain()[0];
+	}-*/;
+
+	private static final native double domainStop(LinearScale scale) /*-{
+		var domain = scale.domain();
+		return +domain[domain.length - 1];
+	}-*/;
+
+	private static final native double rangeStart(LinearScale scale) /*-{
+		return +scale.range()[0];
+	}-*/;
+
+	private static final native double rangeStop(LinearScale scale) /*-{
+		var range = scale.range();
+		return +range[range.length - 1];
+	}-*/;
+
+	// ============== types ==============
+
+	/**
+	 * The ticks of a scale: their values, in ascending order, their labels
+	 * and their positions in the range of the scale.
+	 * <p>
+	 * The instances are shared by the engine and must not be modified.
+	 */
+	public static final class Ticks {
+
+		private final double d0;
+
+		private final double d1;
+
+		private final double r0;
+
+		private final double r1;
+
+		private final double step;
+
+		private final double[] values;
+
+		private final String[] labels;
+
+		private final double[] positions;
+
+		Ticks(final double d0, final double d1, final double r0, final double r1, final double step,
+				final double[] values, final String[] labels, final double[] positions) {
+			super();
+			this.d0 = d0;
+			this.d1 = d1;
+			this.r0 = r0;
+			this.r1 = r1;
+			this.step = step;
+			this.values = values;
+			this.labels = labels;
+			this.positions = positions;
+		}
+
+		/**
+		 * @return the number of ticks
+		 */
+		public int size() {
+			return values.length;
+		}
+
+		/**
+		 * @return the start of the domain of the scale
+		 */
+		public double domainStart() {
+			return d0;
+		}
+
+		/**
+		 * @return the end of the domain of the scale
+		 */
+		public double domainStop() {
+			return d1;
+		}
+
+		/**
+		 * @return the start of the range of the scale
+		 */
+		public double rangeStart() {
+			return r0;
+		}
+
+		/**
+		 * @return the end of the range of the scale
+		 */
+		public double rangeStop() {
+			return r1;
+		}
+
+		/**
+		 * @return the step between two ticks, or NaN if there is no tick
+		 */
+		public double step() {
+			return step;
+		}
+
+		/**
+		 * @param i
+		 *            the index of the tick
+		 * @return the value of the tick
+		 */
+		public double value(final int i) {
+			return values[i];
+		}
+
+		/**
+		 * @param i
+		 *            the index of the tick
+		 * @return the formatted label of the tick
+		 */
+		public String label(final int i) {
+			return labels[i];
+		}
+
+		/**
+		 * @param i
+		 *            the index of the tick
+		 * @return the position of the tick in the range of the scale
+		 */
+		public double position(final int i) {
+			return positions[i];
+		}
+	}
+
+	/**
+	 * The difference between two {@link Ticks}, as computed by
+	 * {@link TickEngine#diff(Ticks, Ticks, TickDiff)}:
+	 * <ul>
+	 * <li>the entering ticks are only in the next ticks;
+	 * <li>the exiting ticks are only in the previous ticks;
+	 * <li>the updated ticks have the same value in both, and may have moved.
+	 * </ul>
+	 */
+	public static final class TickDiff {
+
+		private int[] enter = new int[0];
+
+		private int[] exit = new int[0];
+
+		private int[] updateFrom = new int[0];
+
+		private int[] updateTo = new int[0];
+
+		private int enterCount;
+
+		private int exitCount;
+
+		private int updateCount;
+
+		public TickDiff() {
+			super();
+		}
+
+		void reset(final int previous, final int next) {
+			if (enter.length < next) {
+				enter = new int[next];
+				updateTo = new int[next];
+			}
+			if (exit.length < previous) {
+				exit = new int[previous];
+				updateFrom = new int[previous];
+			}
+			enterCount = 0;
+			exitCount = 0;
+			updateCount = 0;
+		}
+
+		void addEnter(final int next) {
+			enter[enterCount++] = next;
+		}
+
+		void addExit(final int previous) {
+			exit[exitCount++] = previous;
+		}
+
+		void addUpdate(final int previous, final int next) {
+			updateFrom[updateCount] = previous;
+			updateTo[updateCount++] = next;
+		}
+
+		/**
+		 * @return true if both ticks have the same values
+		 */
+		public boolean isEmpty() {
+			return enterCount == 0 && exitCount == 0;
+		}
+
+		/**
+		 * @return the number of entering ticks
+		 */
+		public int enterCount() {
+			return enterCount;
+		}
+
+		/**
+		 * @param i
+		 *            between 0 and {@link #enterCount()}
+		 * @return the index of the entering tick in the next ticks
+		 */
+		public int enter(final int i) {
+			return enter[i];
+		}
+
+		/**
+		 * @return the number of exiting ticks
+		 */
+		public int exitCount() {
+			return exitCount;
+		}
+
+		/**
+		 * @param i
+		 *            between 0 and {@link #exitCount()}
+		 * @return the index of the exiting tick in the previous ticks
+		 */
+		public int exit(final int i) {
+			return exit[i];
+		}
+
+		/**
+		 * @return the number of ticks present in both ticks
+		 */
+		public int updateCount() {
+			return updateCount;
+		}
+
+		/**
+		 * @param i
+		 *            between 0 and {@link #updateCount()}
+		 * @return the index of the updated tick in the previous ticks
+		 */
+		public int updateFrom(final int i) {
+			return updateFrom[i];
+		}
+
+		/**
+		 * @param i
+		 *            between 0 and {@link #updateCount()}
+		 * @return the index of the updated tick in the next ticks
+		 */
+		public int updateTo(final int i) {
+			return updateTo[i];
+		}
+	}
+
+	/**
+	 * the labels of the tick values for a format specifier, in a direct
+	 * mapped cache: a label is formatted again only when its slot was taken
+	 * by another value
+	 */
+	private static class Labels {
+
+		private static final int SIZE = 1024;
+
+		private final Format format;
+
+		private final double[] values = new double[SIZE];
+
+		private final String[] texts = new String[SIZE];
+
+		Labels(final Format format) {
+			super();
+			this.format = format;
+		}
+
+		String get(final double value) {
+			int slot = Key.hash(value) & (SIZE - 1);
+			String text = texts[slot];
+			if (text == null || values[slot] != value) {
+				text = format.format(value);
+				values[slot] = value;
+				texts[slot] = text;
+			}
+			return text;
+		}
+	}
+
+	/**
+	 * the memoisation key
+	 */
+	private static class Key {
+
+		private final double d0;
+
+		private final double d1;
+
+		private final double r0;
+
+		private final double r1;
+
+		private final int count;
+
+		private final String format;
+
+		private final int hash;
+
+		Key(final double d0, final double d1, final double r0, final double r1, final int count, final String format) {
+			super();
+			this.d0 = d0;
+			this.d1 = d1;
+			this.r0 = r0;
+			this.r1 = r1;
+			this.count = count;
+			this.format = format;
+			int h = count;
+			h = 31 * h + hash(d0);
+			h = 31 * h + hash(d1);
+			h = 31 * h + hash(r0);
+			h = 31 * h + hash(r1);
+			h = 31 * h + (format == null ? 0 : format.hashCode());
+			this.hash = h;
+		}
+
+		/**
+		 * a cheap hash, avoiding the 64 bits arithmetic of
+		 * Double#hashCode(), emulated in javascript
+		 */
+		static int hash(final double d) {
+			int h = (int) (d * 1024) ^ (int) d ^ (int) (d / 65536);
+			return h ^ (h >>> 10);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			Key other = (Key) obj;
+			return d0 == other.d0 && d1 == other.d1 && r0 == other.r0 && r1 == other.r1 && count == other.count
+					&& (format == null ? other.format == null : format.equals(other.format));
+		}
+	}
+}
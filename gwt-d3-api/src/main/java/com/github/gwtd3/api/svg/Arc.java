@@ -31,6 +31,8 @@
  */
 package com.github.gwtd3.api.svg;
 
+import com.google.gwt.core.client.JsArrayNumber;
+import com.google.gwt.core.client.JsArrayUtils;
 
 /**
  * A generator to create an arc by defining the inner radius, the outer radius, the start angle, and the end angle.
@@ -133,6 +135,80 @@ public final Arc endAngle(final double endAngle) {
 		return setOrInvokeSetter("endAngle", endAngle);
 	}
 
+	/**
+	 * Set the start angles of the arcs to the values of the array, by index of
+	 * the arc, as computed by
+	 * {@link com.github.gwtd3.api.layout.PieLayout#startAngles()}: the arc of
+	 * the element i of a selection starts at angles[i].
+	 * <p>
+	 * In production mode the array is not copied: the arc reads the values it
+	 * contains when it generates the path.
+	 * 
+	 * @param angles
+	 *            the start angles in radians
+	 * @return the current arc generator
+	 */
+	public final Arc startAngle(final double[] angles) {
+		return startAngle(JsArrayUtils.readOnlyJsArray(angles));
+	}
+
+	/**
+	 * See {@link #startAngle(double[])}.
+	 * 
+	 * @param angles
+	 *            the start angles in radians
+	 * @return the current arc generator
+	 */
+	public final native Arc startAngle(JsArrayNumber angles)/*-{
+		return this.startAngle(function(d, i) {
+			return angles[i];
+		});
+	}-*/;
+
+	/**
+	 * Set the end angles of the arcs to the values of the array, by index of
+	 * the arc, as computed by
+	 * {@link com.github.gwtd3.api.layout.PieLayout#endAngles()}.
+	 * <p>
+	 * See {@link #startAngle(double[])}.
+	 * 
+	 * @param angles
+	 *            the end angles in radians
+	 * @return the current arc generator
+	 */
+	public final Arc endAngle(final double[] angles) {
+		return endAngle(JsArrayUtils.readOnlyJsArray(angles));
+	}
+
+	/**
+	 * See {@link #endAngle(double[])}.
+	 * 
+	 * @param angles
+	 *            the end angles in radians
+	 * @return the current arc generator
+	 */
+	public final native Arc endAngle(JsArrayNumber angles)/*-{
+		return this.endAngle(function(d, i) {
+			return angles[i];
+		});
+	}-*/;
+
+	/**
+	 * Generate the path data of the arc of the given index, whose angles are
+	 * read by index, for instance from the arrays given to
+	 * {@link #startAngle(double[])} and {@link #endAngle(double[])}. The
+	 * datum given to the other accessors is an empty object: the default
+	 * radius accessors, which read the datum, give no valid path, so the
+	 * radii are typically constants.
+	 * 
+	 * @param index
+	 *            the index of the arc
+	 * @return the generated path data
+	 */
+	public final native String generate(int index)/*-{
+		return this({}, index);
+	}-*/;
+
 	public final native Arc setOrInvokeSetter(String propName, double value)/*-{
 		if (typeof this[propName] === 'function') {
 			return this[propName](value);
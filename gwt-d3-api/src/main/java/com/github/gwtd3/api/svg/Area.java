@@ -32,6 +32,8 @@
 import com.github.gwtd3.api.functions.DatumFunction;
 
 import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayNumber;
+import com.google.gwt.core.client.JsArrayUtils;
 
 public class Area extends PathDataGenerator{
 
@@ -259,6 +261,100 @@ public final native Area y1(final DatumFunction<Double> callback) /*-{
 		});
     }-*/;
 
+    /**
+     * Set the x coordinates of the points to the values of the array, by index, as computed by a layout.
+     * <p>
+     * In production mode the array is not copied: the area reads the values it contains when it generates the path,
+     * so the same array can be computed again and the path generated again. Use {@link #generate(int)} to generate
+     * the path of a given number of points.
+     * 
+     * @param x
+     *            the x coordinates, indexed by point
+     * @return the current area
+     */
+    public final Area x(final double[] x) {
+        return x(JsArrayUtils.readOnlyJsArray(x));
+    }
+
+    /**
+     * See {@link #x(double[])}.
+     * 
+     * @param x
+     *            the x coordinates, indexed by point
+     * @return the current area
+     */
+    public final native Area x(final JsArrayNumber x) /*-{
+		return this.x(function(d, i) {
+			return x[i];
+		});
+    }-*/;
+
+    /**
+     * Set the y0 coordinates of the points to the values of the array, by index, for instance the baselines of a
+     * series computed by {@link com.github.gwtd3.api.layout.StackLayout#y0(int)}.
+     * <p>
+     * See {@link #x(double[])}.
+     * 
+     * @param y0
+     *            the y0 coordinates, indexed by point
+     * @return the current area
+     */
+    public final Area y0(final double[] y0) {
+        return y0(JsArrayUtils.readOnlyJsArray(y0));
+    }
+
+    /**
+     * See {@link #y0(double[])}.
+     * 
+     * @param y0
+     *            the y0 coordinates, indexed by point
+     * @return the current area
+     */
+    public final native Area y0(final JsArrayNumber y0) /*-{
+		return this.y0(function(d, i) {
+			return y0[i];
+		});
+    }-*/;
+
+    /**
+     * Set the y1 coordinates of the points to the values of the array, by index, for instance the tops of a series
+     * computed by {@link com.github.gwtd3.api.layout.StackLayout#y1(int)}.
+     * <p>
+     * See {@link #x(double[])}.
+     * 
+     * @param y1
+     *            the y1 coordinates, indexed by point
+     * @return the current area
+     */
+    public final Area y1(final double[] y1) {
+        return y1(JsArrayUtils.readOnlyJsArray(y1));
+    }
+
+    /**
+     * See {@link #y1(double[])}.
+     * 
+     * @param y1
+     *            the y1 coordinates, indexed by point
+     * @return the current area
+     */
+    public final native Area y1(final JsArrayNumber y1) /*-{
+		return this.y1(function(d, i) {
+			return y1[i];
+		});
+    }-*/;
+
+    /**
+     * Generate the area of the given number of points, whose coordinates are read by index, for instance from the
+     * arrays given to {@link #x(double[])}, {@link #y0(double[])} and {@link #y1(double[])}.
+     * 
+     * @param count
+     *            the number of points
+     * @return the path data
+     */
+    public final native String generate(int count) /*-{
+		return this(new Array(count));
+    }-*/;
+
     /**
      * FIXME: D3 bug ??? Does not seem to work...
      * 
@@ -0,0 +1,542 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.api.svg;
+
+import com.github.gwtd3.api.core.Selection;
+import com.github.gwtd3.api.scales.LinearScale;
+import com.github.gwtd3.api.scales.TickEngine;
+import com.github.gwtd3.api.scales.TickEngine.TickDiff;
+import com.github.gwtd3.api.scales.TickEngine.Ticks;
+import com.github.gwtd3.api.svg.Axis.Orientation;
+import com.google.gwt.canvas.dom.client.Context2d;
+import com.google.gwt.dom.client.Element;
+
+/**
+ * Renders an axis of a linear scale, like {@link Axis}, while reusing the
+ * tick nodes from one update to the next.
+ * <p>
+ * Applying an {@link Axis} to a selection lets d3 rebind all the ticks,
+ * rewrite their attributes and text, which triggers the text layout of every
+ * label. An {@link AxisRenderer} keeps the tick nodes keyed by tick value:
+ * <ul>
+ * <li>a tick present before and after the update is only moved, and its
+ * label is only written if the text changed;
+ * <li>the nodes of the exiting ticks are recycled for the entering ticks;
+ * <li>the tick values and labels come from a {@link TickEngine}, and are not
+ * recomputed as long as the domain is the same.
+ * </ul>
+ * The generated nodes have the same structure and classes as the ones of
+ * {@link Axis}, so the same stylesheets apply:
+ * 
+ * <pre>
+ * {@code
+ * AxisRenderer renderer = new AxisRenderer(svg.append("g").attr("class", "x axis"), Orientation.BOTTOM).ticks(10);
+ * brush.on(BrushEvent.BRUSH, new EventListener() {
+ *     public void onEvent() {
+ *         x.domain(brush.extent());
+ *         renderer.render(x);
+ *     }
+ * });
+ * }
+ * </pre>
+ * <p>
+ * Dense minor ticks would multiply the number of nodes; they can instead be
+ * drawn on a canvas with {@link #minorTicks(Context2d, int)}.
+ * <p>
+ * The number of DOM writes (attributes, texts, inserted and removed nodes)
+ * is counted, see {@link #domWrites()} and {@link #lastDomWrites()}.
+ */
+public class AxisRenderer {
+
+	private final Element container;
+
+	private final Orientation orientation;
+
+	private TickEngine engine = new TickEngine();
+
+	private int tickCount = 10;
+
+	private String tickFormat;
+
+	private double innerTickSize = 6;
+
+	private double outerTickSize = 6;
+
+	private double tickPadding = 3;
+
+	// ============== state of the rendered ticks ==============
+
+	private Ticks ticks;
+
+	private Element[] nodes = new Element[0];
+
+	private double[] positions = new double[0];
+
+	private String[] labels = new String[0];
+
+	private Element[] pool = new Element[0];
+
+	private int poolSize;
+
+	private final TickDiff diff = new TickDiff();
+
+	private Element domain;
+
+	private String domainPath;
+
+	// ============== canvas mode ==============
+
+	private Context2d minorContext;
+
+	private int minorTickCount;
+
+	private double minorTickSize = 3;
+
+	private double[] minorBand;
+
+	// ============== instrumentation ==============
+
+	private int domWrites;
+
+	private int lastDomWrites;
+
+	/**
+	 * Create a renderer drawing in the given group element.
+	 * 
+	 * @param selection
+	 *            the selection of the group element containing the axis
+	 * @param orientation
+	 *            the orientation of the axis
+	 */
+	public AxisRenderer(final Selection selection, final Orientation orientation) {
+		this(selection.node(), orientation);
+	}
+
+	/**
+	 * Create a renderer drawing in the given group element.
+	 * 
+	 * @param container
+	 *            the group element containing the axis
+	 * @param orientation
+	 *            the orientation of the axis
+	 */
+	public AxisRenderer(final Element container, final Orientation orientation) {
+		super();
+		this.container = container;
+		this.orientation = orientation;
+	}
+
+	// ============== configuration ==============
+
+	/**
+	 * Set the approximate number of major ticks. Defaults to 10.
+	 * 
+	 * @param count
+	 *            the tick count
+	 * @return the current renderer
+	 */
+	public AxisRenderer ticks(final int count) {
+		this.tickCount = count;
+		return this;
+	}
+
+	/**
+	 * Set the format specifier of the labels. Defaults to null, that is the
+	 * default format of {@link LinearScale#tickFormat(int)}.
+	 * 
+	 * @param specifier
+	 *            the format specifier
+	 * @return the current renderer
+	 */
+	public AxisRenderer tickFormat(final String specifier) {
+		this.tickFormat = specifier;
+		return this;
+	}
+
+	/**
+	 * Set the size of the major ticks and of the end ticks of the domain
+	 * path. Applies to the ticks created after the call.
+	 * 
+	 * @param inner
+	 *            the size of the major ticks
+	 * @param outer
+	 *            the size of the end ticks
+	 * @return the current renderer
+	 */
+	public AxisRenderer tickSize(final double inner, final double outer) {
+		this.innerTickSize = inner;
+		this.outerTickSize = outer;
+		return this;
+	}
+
+	/**
+	 * Set the padding between the ticks and their labels. Applies to the
+	 * ticks created after the call.
+	 * 
+	 * @param padding
+	 *            the padding in pixels
+	 * @return the current renderer
+	 */
+	public AxisRenderer tickPadding(final double padding) {
+		this.tickPadding = padding;
+		return this;
+	}
+
+	/**
+	 * Share a {@link TickEngine}, for instance between the axes of a focus
+	 * and of its context.
+	 * 
+	 * @param engine
+	 *            the engine
+	 * @return the current renderer
+	 */
+	public AxisRenderer engine(final TickEngine engine) {
+		this.engine = engine;
+		return this;
+	}
+
+	/**
+	 * Draw minor ticks on the given canvas context instead of creating nodes
+	 * for them. The context must be translated so that its origin is the
+	 * origin of the axis group; the band of the canvas covered by the minor
+	 * ticks is cleared at each rendering.
+	 * 
+	 * @param context
+	 *            the context, or null to disable minor ticks
+	 * @param count
+	 *            the approximate number of minor ticks over the domain
+	 * @return the current renderer
+	 */
+	public AxisRenderer minorTicks(final Context2d context, final int count) {
+		clearMinorTicks();
+		this.minorContext = context;
+		this.minorTickCount = count;
+		return this;
+	}
+
+	/**
+	 * Set the size of the minor ticks drawn on the canvas. Defaults to 3.
+	 * 
+	 * @param size
+	 *            the size
+	 * @return the current renderer
+	 */
+	public AxisRenderer minorTickSize(final double size) {
+		this.minorTickSize = size;
+		return this;
+	}
+
+	// ============== rendering ==============
+
+	/**
+	 * Render the axis of the given scale.
+	 * 
+	 * @param scale
+	 *            the scale
+	 * @return the current renderer
+	 */
+	public AxisRenderer render(final LinearScale scale) {
+		return render(engine.ticks(scale, tickCount, tickFormat));
+	}
+
+	/**
+	 * Render the axis of a linear mapping of [d0;d1] to [r0;r1].
+	 * 
+	 * @param d0
+	 *            the start of the domain
+	 * @param d1
+	 *            the end of the domain
+	 * @param r0
+	 *            the start of the range
+	 * @param r1
+	 *            the end of the range
+	 * @return the current renderer
+	 */
+	public AxisRenderer render(final double d0, final double d1, final double r0, final double r1) {
+		return render(engine.ticks(d0, d1, r0, r1, tickCount, tickFormat));
+	}
+
+	private AxisRenderer render(final Ticks next) {
+		int before = domWrites;
+		boolean changed = next != ticks;
+		if (changed) {
+			updateTicks(next);
+			updateDomain();
+		}
+		if (minorContext != null && (changed || minorBand == null)) {
+			drawMinorTicks(next);
+		}
+		lastDomWrites = domWrites - before;
+		return this;
+	}
+
+	private void updateTicks(final Ticks next) {
+		TickEngine.diff(ticks, next, diff);
+		int n = next.size();
+		Element[] newNodes = new Element[n];
+		double[] newPositions = new double[n];
+		String[] newLabels = new String[n];
+
+		// moved ticks
+		for (int i = 0; i < diff.updateCount(); i++) {
+			int from = diff.updateFrom(i);
+			int to = diff.updateTo(i);
+			Element node = nodes[from];
+			newNodes[to] = node;
+			newPositions[to] = positions[from];
+			newLabels[to] = labels[from];
+			place(node, to, next, newPositions, newLabels);
+		}
+
+		// exiting ticks are kept for the entering ones
+		for (int i = 0; i < diff.exitCount(); i++) {
+			recycle(nodes[diff.exit(i)]);
+		}
+
+		// entering ticks
+		for (int i = 0; i < diff.enterCount(); i++) {
+			int to = diff.enter(i);
+			Element node;
+			if (poolSize > 0) {
+				node = pool[--poolSize];
+				pool[poolSize] = null;
+				newPositions[to] = Double.NaN;
+			}
+			else {
+				node = createTick();
+				newPositions[to] = Double.NaN;
+			}
+			newNodes[to] = node;
+			place(node, to, next, newPositions, newLabels);
+		}
+
+		// the remaining recycled nodes are removed
+		while (poolSize > 0) {
+			Element node = pool[--poolSize];
+			pool[poolSize] = null;
+			container.removeChild(node);
+			domWrites++;
+		}
+
+		this.ticks = next;
+		this.nodes = newNodes;
+		this.positions = newPositions;
+		this.labels = newLabels;
+	}
+
+	/**
+	 * move the tick node and set its label, writing only what changed
+	 */
+	private void place(final Element node, final int i, final Ticks next, final double[] newPositions,
+			final String[] newLabels) {
+		double position = next.position(i);
+		if (newPositions[i] != position) {
+			node.setAttribute("transform", orientation.isHorizontalAxis() ? "translate(" + position + ",0)"
+					: "translate(0," + position + ")");
+			newPositions[i] = position;
+			domWrites++;
+		}
+		String label = next.label(i);
+		if (!label.equals(newLabels[i])) {
+			setText(node.getLastChild().<Element> cast(), label);
+			newLabels[i] = label;
+			domWrites++;
+		}
+	}
+
+	private void recycle(final Element node) {
+		if (poolSize == pool.length) {
+			Element[] grown = new Element[Math.max(8, pool.length * 2)];
+			System.arraycopy(pool, 0, grown, 0, poolSize);
+			pool = grown;
+		}
+		pool[poolSize++] = node;
+	}
+
+	private Element createTick() {
+		Element tick = createSvgElement("g");
+		tick.setAttribute("class", "tick");
+		Element line = createSvgElement("line");
+		Element text = createSvgElement("text");
+		double size = Math.max(innerTickSize, 0) + tickPadding;
+		switch (orientation) {
+		case BOTTOM:
+			line.setAttribute("y2", String.valueOf(innerTickSize));
+			text.setAttribute("y", String.valueOf(size));
+			text.setAttribute("dy", ".71em");
+			text.setAttribute("style", "text-anchor: middle;");
+			break;
+		case TOP:
+			line.setAttribute("y2", String.valueOf(-innerTickSize));
+			text.setAttribute("y", String.valueOf(-size));
+			text.setAttribute("dy", "0em");
+			text.setAttribute("style", "text-anchor: middle;");
+			break;
+		case LEFT:
+			line.setAttribute("x2", String.valueOf(-innerTickSize));
+			text.setAttribute("x", String.valueOf(-size));
+			text.setAttribute("dy", ".32em");
+			text.setAttribute("style", "text-anchor: end;");
+			break;
+		default:
+			line.setAttribute("x2", String.valueOf(innerTickSize));
+			text.setAttribute("x", String.valueOf(size));
+			text.setAttribute("dy", ".32em");
+			text.setAttribute("style", "text-anchor: start;");
+			break;
+		}
+		tick.appendChild(line);
+		tick.appendChild(text);
+		// the ticks are inserted before the domain path, as d3 does
+		container.insertBefore(tick, domain);
+		domWrites += 8;
+		return tick;
+	}
+
+	private void updateDomain() {
+		String path = domainPath(Math.min(ticks.rangeStart(), ticks.rangeStop()),
+				Math.max(ticks.rangeStart(), ticks.rangeStop()));
+		if (path.equals(domainPath)) {
+			return;
+		}
+		if (domain == null) {
+			domain = createSvgElement("path");
+			domain.setAttribute("class", "domain");
+			container.appendChild(domain);
+			domWrites += 2;
+		}
+		domain.setAttribute("d", path);
+		domainPath = path;
+		domWrites++;
+	}
+
+	private String domainPath(final double r0, final double r1) {
+		double outer = outerTickSize;
+		switch (orientation) {
+		case BOTTOM:
+			return "M" + r0 + "," + outer + "V0H" + r1 + "V" + outer;
+		case TOP:
+			return "M" + r0 + "," + -outer + "V0H" + r1 + "V" + -outer;
+		case LEFT:
+			return "M" + -outer + "," + r0 + "H0V" + r1 + "H" + -outer;
+		default:
+			return "M" + outer + "," + r0 + "H0V" + r1 + "H" + outer;
+		}
+	}
+
+	// ============== canvas mode ==============
+
+	private void drawMinorTicks(final Ticks major) {
+		clearMinorTicks();
+		double d0 = major.domainStart();
+		double d1 = major.domainStop();
+		double r0 = major.rangeStart();
+		double r1 = major.rangeStop();
+		double[] values = TickEngine.ticks(d0, d1, minorTickCount);
+		double k = d1 == d0 ? 0 : (r1 - r0) / (d1 - d0);
+		boolean horizontal = orientation.isHorizontalAxis();
+		double sign = orientation == Orientation.TOP || orientation == Orientation.LEFT ? -1 : 1;
+		Context2d context = minorContext;
+		context.beginPath();
+		int j = 0;
+		for (double value : values) {
+			// skip the values of the major ticks
+			while (j < major.size() && major.value(j) < value) {
+				j++;
+			}
+			if (j < major.size() && major.value(j) == value) {
+				continue;
+			}
+			double p = r0 + (value - d0) * k;
+			if (horizontal) {
+				context.moveTo(p, 0);
+				context.lineTo(p, sign * minorTickSize);
+			}
+			else {
+				context.moveTo(0, p);
+				context.lineTo(sign * minorTickSize, p);
+			}
+		}
+		context.stroke();
+		double min = Math.min(r0, r1) - 1;
+		double length = Math.abs(r1 - r0) + 2;
+		double size = minorTickSize + 1;
+		minorBand = horizontal ? new double[] { min, sign > 0 ? -1 : -size, length, size + 1 }
+				: new double[] { sign > 0 ? -1 : -size, min, size + 1, length };
+	}
+
+	private void clearMinorTicks() {
+		if (minorContext != null && minorBand != null) {
+			minorContext.clearRect(minorBand[0], minorBand[1], minorBand[2], minorBand[3]);
+			minorBand = null;
+		}
+	}
+
+	// ============== instrumentation ==============
+
+	/**
+	 * @return the number of DOM writes since the creation of the renderer or
+	 *         the last call to {@link #resetDomWrites()}
+	 */
+	public int domWrites() {
+		return domWrites;
+	}
+
+	/**
+	 * @return the number of DOM writes of the last rendering
+	 */
+	public int lastDomWrites() {
+		return lastDomWrites;
+	}
+
+	/**
+	 * Reset the DOM writes counter.
+	 */
+	public void resetDomWrites() {
+		domWrites = 0;
+		lastDomWrites = 0;
+	}
+
+	/**
+	 * @return the number of tick nodes currently displayed
+	 */
+	public int tickNodes() {
+		return nodes.length;
+	}
+
+	// ============== DOM ==============
+
+	private static final native Element createSvgElement(String name) /*-{
+		return $doc.createElementNS("http://www.w3.org/2000/svg", name);
+	}-*/;
+
+	private static final native void setText(Element element, String text) /*-{
+		element.textContent = text;
+	}-*/;
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.linker;
+
+import java.util.Set;
+
+import com.google.gwt.core.ext.LinkerContext;
+import com.google.gwt.core.ext.TreeLogger;
+import com.google.gwt.core.ext.UnableToCompleteException;
+import com.google.gwt.core.ext.linker.AbstractLinker;
+import com.google.gwt.core.ext.linker.ArtifactSet;
+import com.google.gwt.core.ext.linker.CompilationResult;
+import com.google.gwt.core.ext.linker.LinkerOrder;
+import com.google.gwt.core.ext.linker.Shardable;
+
+/**
+ * A primary linker producing a script that can be loaded by a dedicated Web
+ * Worker: <code>&lt;module&gt;.worker.js</code>.
+ * <p>
+ * The selection scripts of the other linkers need a document, which a
+ * worker does not have. This linker wraps the JavaScript of the single
+ * permutation of the module instead, with <code>$wnd</code> bound to the
+ * worker global scope, and calls the entry points at once. Code splitting is
+ * not supported.
+ */
+@LinkerOrder(LinkerOrder.Order.PRIMARY)
+@Shardable
+public class WorkerLinker extends AbstractLinker {
+
+	@Override
+	public String getDescription() {
+		return "Web Worker";
+	}
+
+	@Override
+	public ArtifactSet link(final TreeLogger logger, final LinkerContext context, final ArtifactSet artifacts,
+			final boolean onePermutation) throws UnableToCompleteException {
+		if (!onePermutation) {
+			return artifacts;
+		}
+		Set<CompilationResult> results = artifacts.find(CompilationResult.class);
+		if (results.size() != 1) {
+			logger.log(TreeLogger.ERROR, "A worker module must have exactly one permutation, found "
+					+ results.size());
+			throw new UnableToCompleteException();
+		}
+		CompilationResult result = results.iterator().next();
+		String[] js = result.getJavaScript();
+		if (js.length != 1) {
+			logger.log(TreeLogger.ERROR, "A worker module does not support code splitting");
+			throw new UnableToCompleteException();
+		}
+		String moduleName = context.getModuleName();
+		StringBuilder script = new StringBuilder();
+		script.append("(function(){\n");
+		script.append("var $wnd = self, $doc = null, $stats = null, $sessionId = null;\n");
+		script.append("var $moduleName = '").append(moduleName).append("';\n");
+		script.append("var $strongName = '").append(result.getStrongName()).append("';\n");
+		script.append("var $moduleBase = self.location.href.substring(0, self.location.href.lastIndexOf('/') + 1);\n");
+		script.append(js[0]);
+		script.append("\ngwtOnLoad(null, $moduleName, $moduleBase);\n");
+		script.append("})();\n");
+
+		ArtifactSet toReturn = new ArtifactSet(artifacts);
+		toReturn.add(emitString(logger, script.toString(), moduleName + ".worker.js"));
+		return toReturn;
+	}
+}
@@ -31,6 +31,7 @@
 import com.github.gwtd3.api.D3;
 import com.github.gwtd3.api.core.Selection;
 import com.github.gwtd3.api.functions.TimerFunction;
+import com.github.gwtd3.api.scales.ColorRamp;
 import com.github.gwtd3.api.scales.LinearScale;
 import com.github.gwtd3.demo.client.DemoCase;
 import com.github.gwtd3.demo.client.Factory;
@@ -51,14 +52,15 @@ public class LorenzSystem extends FlowPanel implements DemoCase {
 	private double z = 10;
 	private Timer timer;
 	private Context2d context;
-	private LinearScale color;
+	private ColorRamp color;
 	private TimerFunction timerFunction;
 
 	public LorenzSystem() {
 		super();
 
 		Selection canvas = D3.select(this).append("canvas").attr("width", width).attr("height", height);
-		color = D3.scale.linear().domain(0, 20, 30, 50).range("yellow", "orange", "brown", "purple");
+		LinearScale scale = D3.scale.linear().domain(0, 20, 30, 50).range("yellow", "orange", "brown", "purple");
+		color = ColorRamp.sample(scale, 0, 50, 256);
 		context = canvas.node().<CanvasElement> cast().getContext2d();
 		context.setLineWidth(.2);
 		context.setFillStyle("rgba(0,0,0,.03)");
@@ -72,7 +74,7 @@ public boolean execute() {
 				context.scale(12, 14);
 				context.rotate(30);
 				for (int i = 0; i < n; ++i) {
-					context.setStrokeStyle(color.apply(z).asString());
+					context.setStrokeStyle(color.css(z));
 					context.beginPath();
 					context.moveTo(x, y);
 					x += δτ * σ * (y - x);
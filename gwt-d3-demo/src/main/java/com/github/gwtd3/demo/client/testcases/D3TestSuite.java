@@ -38,30 +38,51 @@
 import com.github.gwtd3.demo.client.test.AbstractTestCase;
 import com.github.gwtd3.demo.client.testcases.arrays.TestArrays;
 import com.github.gwtd3.demo.client.testcases.arrays.TestD3Arrays;
+import com.github.gwtd3.demo.client.testcases.arrays.TestNest;
+import com.github.gwtd3.demo.client.testcases.arrays.TestSampling;
+import com.github.gwtd3.demo.client.testcases.arrays.TestStats;
 import com.github.gwtd3.demo.client.testcases.core.TestFormat;
 import com.github.gwtd3.demo.client.testcases.core.TestMath;
 import com.github.gwtd3.demo.client.testcases.csv.TestCsv;
 import com.github.gwtd3.demo.client.testcases.d3.TestColors;
 import com.github.gwtd3.demo.client.testcases.d3.TestD3;
+import com.github.gwtd3.demo.client.testcases.d3.TestZoom;
+import com.github.gwtd3.demo.client.testcases.geo.TestProjections;
+import com.github.gwtd3.demo.client.testcases.geom.TestDelaunay;
+import com.github.gwtd3.demo.client.testcases.geom.TestSimplification;
+import com.github.gwtd3.demo.client.testcases.layout.TestForceLayout;
+import com.github.gwtd3.demo.client.testcases.layout.TestForceSimulation;
+import com.github.gwtd3.demo.client.testcases.layout.TestForceWorkerProxy;
+import com.github.gwtd3.demo.client.testcases.layout.TestHierarchyLayouts;
+import com.github.gwtd3.demo.client.testcases.layout.TestHistogram;
+import com.github.gwtd3.demo.client.testcases.layout.TestStackAndPieLayouts;
+import com.github.gwtd3.demo.client.testcases.scales.TestColorRamp;
+import com.github.gwtd3.demo.client.testcases.scales.TestIndexedOrdinalScale;
 import com.github.gwtd3.demo.client.testcases.scales.TestLinearScale;
 import com.github.gwtd3.demo.client.testcases.scales.TestLogScale;
 import com.github.gwtd3.demo.client.testcases.scales.TestPowScale;
 import com.github.gwtd3.demo.client.testcases.scales.TestThresholdScale;
+import com.github.gwtd3.demo.client.testcases.scales.TestTickEngine;
 import com.github.gwtd3.demo.client.testcases.scales.TestTimeScale;
+import com.github.gwtd3.demo.client.testcases.selection.TestDomBatch;
+import com.github.gwtd3.demo.client.testcases.selection.TestPointerCoalescer;
 import com.github.gwtd3.demo.client.testcases.selection.TestSelectionAttr;
 import com.github.gwtd3.demo.client.testcases.selection.TestSelectionClassed;
 import com.github.gwtd3.demo.client.testcases.selection.TestSelectionContents;
 import com.github.gwtd3.demo.client.testcases.selection.TestSelectionControls;
 import com.github.gwtd3.demo.client.testcases.selection.TestSelectionData;
 import com.github.gwtd3.demo.client.testcases.selection.TestSelectionData2;
+import com.github.gwtd3.demo.client.testcases.selection.TestSelectionDelegation;
 import com.github.gwtd3.demo.client.testcases.selection.TestSelectionHtml;
 import com.github.gwtd3.demo.client.testcases.selection.TestSelectionProperty;
 import com.github.gwtd3.demo.client.testcases.selection.TestSelectionStyle;
 import com.github.gwtd3.demo.client.testcases.selection.TestSelectionText;
 import com.github.gwtd3.demo.client.testcases.selection.TestSubselections;
+import com.github.gwtd3.demo.client.testcases.selection.TestWriteCache;
 import com.github.gwtd3.demo.client.testcases.svg.TestArc;
 import com.github.gwtd3.demo.client.testcases.svg.TestArea;
 import com.github.gwtd3.demo.client.testcases.svg.TestAxis;
+import com.github.gwtd3.demo.client.testcases.svg.TestAxisRenderer;
 import com.github.gwtd3.demo.client.testcases.svg.TestLine;
 import com.github.gwtd3.demo.client.testcases.time.TestTimeFormat;
 import com.github.gwtd3.demo.client.testcases.time.TestTimeIntervals;
@@ -84,14 +105,18 @@ public static D3TestSuite get() {
 				// arrays
 				new TestArrays(),
 				new TestD3Arrays(),
+				new TestNest(),
+				new TestSampling(),
+				new TestStats(),
 				// utils
 				new TestValue(),
 				// D3
-				new TestD3(), new TestColors(),
+				new TestD3(), new TestColors(), new TestZoom(),
 				// selections
 				new TestSubselections(), new TestSelectionContents(), new TestSelectionAttr(), new TestSelectionClassed(),
 				new TestSelectionData(), new TestSelectionData2(), new TestSelectionProperty(), new TestSelectionText(),
-				new TestSelectionHtml(), new TestSelectionControls(), new TestSelectionStyle(),
+				new TestSelectionHtml(), new TestSelectionControls(), new TestSelectionStyle(), new TestWriteCache(),
+				new TestDomBatch(), new TestSelectionDelegation(), new TestPointerCoalescer(),
 				//Transitions
 				new TestTransition(), new TestInterpolators(),new TestEasing(),
 				//Math
@@ -100,8 +125,18 @@ public static D3TestSuite get() {
 				new TestFormat(),
 				// Scales
 				new TestLinearScale(), new TestLogScale(), new TestPowScale(), new TestThresholdScale(), new TestTimeScale(),
+				new TestColorRamp(),
+				new TestIndexedOrdinalScale(),
+				new TestTickEngine(),
 				// svg
-				new TestAxis(), new TestLine(), new TestArea(), new TestArc(),
+				new TestAxis(), new TestAxisRenderer(), new TestLine(), new TestArea(), new TestArc(),
+				// layouts
+				new TestForceLayout(), new TestForceSimulation(), new TestForceWorkerProxy(), new TestHierarchyLayouts(),
+				new TestHistogram(), new TestStackAndPieLayouts(),
+				// geom
+				new TestDelaunay(), new TestSimplification(),
+				// geo
+				new TestProjections(),
 				// time
 				new TestTimeFormat(), new TestTimeIntervals(),
 				// csv
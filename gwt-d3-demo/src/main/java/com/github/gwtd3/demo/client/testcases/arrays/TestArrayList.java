@@ -29,10 +29,14 @@
 package com.github.gwtd3.demo.client.testcases.arrays;
 
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.ListIterator;
 
 import com.github.gwtd3.api.arrays.Array;
 import com.github.gwtd3.api.arrays.ArrayList;
+import com.github.gwtd3.api.arrays.DoubleArrayList;
+import com.github.gwtd3.api.core.RandomGenerator;
 import com.github.gwtd3.demo.client.test.AbstractTestCase;
 import com.google.gwt.core.client.JavaScriptObject;
 import com.google.gwt.user.client.ui.ComplexPanel;
@@ -61,29 +65,229 @@ public void doTest(final ComplexPanel sandbox) {
 		testSet();
 		testSize();
 
-		// FIXME
 		testListIterator();
 		testRetain();
 		testToArray();
 		testToString();
 		testSublist();
+		testAddAll();
+		testDoubleArrayList();
+		testSemantics();
+	}
 
+	private List<String> fruits() {
+		return new ArrayList<String>(Array.fromObjects("Banana", "Orange", "Apple", "Mango", "Orange", "Lemon"));
 	}
 
 	private void testSublist() {
+		List<String> fruits = fruits();
+		List<String> sub = fruits.subList(1, 4);
+		assertEquals(Arrays.asList("Orange", "Apple", "Mango"), sub);
+		assertEquals(1, sub.indexOf("Apple"));
+		assertEquals(0, sub.lastIndexOf("Orange"));
+		assertFalse(sub.contains("Lemon"));
+
+		// writes go through to the array
+		sub.set(0, "Kiwi");
+		assertEquals("Kiwi", fruits.get(1));
+		sub.add("Pear");
+		assertEquals(7, fruits.size());
+		assertEquals("Pear", fruits.get(4));
+
+		// nested views
+		List<String> nested = sub.subList(1, 3);
+		assertEquals(Arrays.asList("Apple", "Mango"), nested);
+		nested.clear();
+		assertEquals(2, sub.size());
+		assertEquals(Arrays.asList("Banana", "Kiwi", "Pear", "Orange", "Lemon"), fruits);
+
+		sub.clear();
+		assertEquals(Arrays.asList("Banana", "Orange", "Lemon"), fruits);
+		try {
+			fruits.subList(2, 4);
+			fail("should check the range");
+		} catch (IndexOutOfBoundsException e) {
+			// expected
+		}
 	}
 
 	private void testToString() {
+		assertEquals("[Banana, Orange, Apple, Mango, Orange, Lemon]", fruits().toString());
+		assertEquals("[]", new ArrayList<String>(Array.<String> create()).toString());
 	}
 
 	private void testToArray() {
+		Object[] objects = fruits().toArray();
+		assertEquals(6, objects.length);
+		assertEquals("Apple", objects[2]);
+		String[] strings = fruits().toArray(new String[0]);
+		assertEquals(6, strings.length);
+		assertEquals("Lemon", strings[5]);
+		String[] larger = fruits().toArray(new String[8]);
+		assertEquals("Lemon", larger[5]);
+		assertNull(larger[6]);
 	}
 
 	private void testRetain() {
+		List<String> fruits = fruits();
+		assertTrue(fruits.retainAll(Arrays.asList("Orange", "Lemon", "Kiwi")));
+		assertEquals(Arrays.asList("Orange", "Orange", "Lemon"), fruits);
+		assertFalse(fruits.retainAll(Arrays.asList("Orange", "Lemon")));
+
+		fruits = fruits();
+		assertTrue(fruits.removeAll(Arrays.asList("Orange", "Banana")));
+		assertEquals(Arrays.asList("Apple", "Mango", "Lemon"), fruits);
+		assertFalse(fruits.removeAll(Arrays.asList("Kiwi")));
+		assertTrue(fruits.containsAll(Arrays.asList("Lemon", "Apple")));
+		assertFalse(fruits.containsAll(Arrays.asList("Lemon", "Kiwi")));
 	}
 
 	private void testListIterator() {
+		List<String> fruits = fruits();
+		ListIterator<String> it = fruits.listIterator(2);
+		assertTrue(it.hasPrevious());
+		assertEquals("Orange", it.previous());
+		assertEquals("Orange", it.next());
+		assertEquals("Apple", it.next());
+		it.set("Kiwi");
+		it.add("Pear");
+		assertEquals(4, it.nextIndex());
+		assertEquals("Mango", it.next());
+		it.remove();
+		assertEquals(Arrays.asList("Banana", "Orange", "Kiwi", "Pear", "Orange", "Lemon"), fruits);
+
+		// removal while iterating
+		Iterator<String> i = fruits.iterator();
+		while (i.hasNext()) {
+			if (i.next().startsWith("O")) {
+				i.remove();
+			}
+		}
+		assertEquals(Arrays.asList("Banana", "Kiwi", "Pear", "Lemon"), fruits);
+		try {
+			i.remove();
+			fail("should not remove twice");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
 
+	private void testAddAll() {
+		List<String> fruits = fruits();
+		assertTrue(fruits.addAll(2, Arrays.asList("Kiwi", "Pear")));
+		assertEquals(Arrays.asList("Banana", "Orange", "Kiwi", "Pear", "Apple", "Mango", "Orange", "Lemon"), fruits);
+		fruits.addAll(fruits.subList(0, 2));
+		assertEquals(10, fruits.size());
+		assertEquals("Orange", fruits.get(9));
+
+		// a list added to itself
+		List<String> twice = fruits();
+		twice.addAll(twice);
+		assertEquals(12, twice.size());
+		assertEquals("Banana", twice.get(6));
+
+		// more elements than the arguments of a function call
+		String[] many = new String[100000];
+		Arrays.fill(many, "x");
+		List<String> large = fruits();
+		large.addAll(3, Arrays.asList(many));
+		assertEquals(100006, large.size());
+		assertEquals("Apple", large.get(2));
+		assertEquals("x", large.get(3));
+		assertEquals("Mango", large.get(100003));
+	}
+
+	private void testDoubleArrayList() {
+		DoubleArrayList numbers = new DoubleArrayList();
+		numbers.addDouble(1);
+		numbers.addDouble(2.5);
+		numbers.addAll(new double[] { 3, Double.NaN, -0.0 });
+		assertEquals(5, numbers.size());
+		assertEquals(2.5, numbers.getDouble(1));
+		assertEquals(Double.valueOf(3), numbers.get(2));
+		assertEquals(3, numbers.indexOf(Double.NaN));
+		assertEquals(-1, numbers.indexOf(0.0));
+		assertEquals(4, numbers.indexOf(-0.0));
+		assertTrue(numbers.contains(2.5));
+		assertEquals(2.5, numbers.array().get(1));
+
+		numbers.addDouble(0, 0.5);
+		assertEquals(0.5, numbers.removeDouble(0));
+		numbers.subList(2, 4).clear();
+		assertEquals(Arrays.asList(1.0, 2.5, -0.0), numbers);
+		numbers.addAll(1, Arrays.asList(7.0, 8.0));
+		double[] values = numbers.toDoubleArray();
+		assertEquals(5, values.length);
+		assertEquals(8.0, values[2]);
+		assertEquals("[1.0, 7.0, 8.0, 2.5, -0.0]", numbers.toString());
+
+		// bulk removals, comparing as indexOf when given a DoubleArrayList
+		numbers.addAll(new double[] { 9, 7 });
+		assertTrue(numbers.removeAll(Arrays.asList(7.0, 9.0)));
+		assertEquals("[1.0, 8.0, 2.5, -0.0]", numbers.toString());
+		assertFalse(numbers.removeAll(Arrays.asList(3.0)));
+		DoubleArrayList kept = new DoubleArrayList();
+		kept.addAll(new double[] { 2.5, -0.0, 1 });
+		assertTrue(numbers.retainAll(kept));
+		assertEquals("[1.0, 2.5, -0.0]", numbers.toString());
+		assertFalse(numbers.retainAll(kept));
+	}
+
+	/**
+	 * applies the same random operations to an {@link ArrayList} and to a java.util.ArrayList
+	 */
+	private void testSemantics() {
+		RandomGenerator random = new RandomGenerator(11);
+		List<String> actual = new ArrayList<String>(Array.<String> create());
+		List<String> expected = new java.util.ArrayList<String>();
+		for (int step = 0; step < 2000; step++) {
+			String value = "v" + random.nextInt(20);
+			int size = expected.size();
+			switch (random.nextInt(8)) {
+			case 0:
+				actual.add(value);
+				expected.add(value);
+				break;
+			case 1:
+				int index = random.nextInt(size + 1);
+				actual.add(index, value);
+				expected.add(index, value);
+				break;
+			case 2:
+				if (size > 0) {
+					index = random.nextInt(size);
+					assertEquals(expected.remove(index), actual.remove(index));
+				}
+				break;
+			case 3:
+				assertEquals(expected.remove(value), actual.remove(value));
+				break;
+			case 4:
+				index = random.nextInt(size + 1);
+				List<String> values = Arrays.asList(value, value + "a", value + "b");
+				actual.addAll(index, values);
+				expected.addAll(index, values);
+				break;
+			case 5:
+				int from = random.nextInt(size + 1);
+				int to = from + random.nextInt(size - from + 1);
+				actual.subList(from, to).removeAll(Arrays.asList(value));
+				expected.subList(from, to).removeAll(Arrays.asList(value));
+				break;
+			case 6:
+				assertEquals(expected.indexOf(value), actual.indexOf(value));
+				assertEquals(expected.lastIndexOf(value), actual.lastIndexOf(value));
+				break;
+			default:
+				if (size > 0) {
+					index = random.nextInt(size);
+					assertEquals(expected.set(index, value), actual.set(index, value));
+				}
+				break;
+			}
+			assertEquals(expected, actual);
+		}
+		assertEquals(expected.hashCode(), actual.hashCode());
 	}
 
 	private void testRemove() {
@@ -196,7 +400,7 @@ private void testGet() {
 		assertEquals("blah", list.get(0));
 		assertEquals("blih", list.get(1));
 		assertEquals("bloh", list.get(2));
-		assertEquals("blauh", list.get(3));
+		assertEquals("bluh", list.get(3));
 	}
 
 	private static final native Array<Person> personArray() /*-{
@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.demo.client.testcases.arrays;
+
+import com.github.gwtd3.api.arrays.Factor;
+import com.github.gwtd3.api.arrays.Nest;
+import com.github.gwtd3.api.arrays.Nest.Rollup;
+import com.github.gwtd3.api.dsv.DsvColumns;
+import com.github.gwtd3.demo.client.test.AbstractTestCase;
+import com.google.gwt.user.client.ui.ComplexPanel;
+
+public class TestNest extends AbstractTestCase {
+
+    @Override
+    public void doTest(final ComplexPanel sandbox) {
+        // columnar parsing
+        DsvColumns csv = DsvColumns.parseCsv("region,product,sales\r\n" + "west,\"a, b\",10\r\n" + "east,c,5\n"
+                + "west,c,\n" + "east,\"say \"\"hi\"\"\",7\n" + "west,\"a, b\",3");
+        assertEquals(5, csv.rowCount());
+        assertEquals(3, csv.names().length);
+        assertEquals("a, b", csv.get(0, "product"));
+        assertEquals("say \"hi\"", csv.get(3, "product"));
+        double[] sales = csv.numbers("sales");
+        assertEquals(10.0, sales[0]);
+        assertTrue(Double.isNaN(sales[2]));
+
+        // dictionary encoding
+        Factor region = csv.factor("region");
+        assertEquals(5, region.size());
+        assertEquals(2, region.levelCount());
+        assertEquals("west", region.level(0));
+        assertEquals(1, region.code(1));
+        assertEquals(-1, region.codeOf("north"));
+
+        // two levels, the first sorted
+        Nest.Groups groups = new Nest().key(region).sortKeys(Nest.ASCENDING).key(csv.factor("product"))
+                .rollup(Rollup.SUM, sales).apply();
+        assertEquals(2, groups.levels());
+        assertEquals(2, groups.size(0));
+        assertEquals("east", groups.key(0, 0));
+        assertEquals("west", groups.key(0, 1));
+        assertEquals(12.0, groups.value(0, 0));
+        assertEquals(13.0, groups.value(0, 1));
+        assertEquals(3, groups.count(0, 1));
+        assertEquals(2, groups.childCount(0, 1));
+        int child = groups.childStart(0, 1);
+        assertEquals("a, b", groups.key(1, child));
+        assertEquals(1, groups.parent(1, child));
+        assertEquals(13.0, groups.value(1, child));
+        assertEquals(child + 1, groups.find("west", "c"));
+        assertEquals(0.0, groups.value(1, child + 1));
+        assertEquals(-1, groups.find("east", "a, b"));
+        int[] rows = groups.rows();
+        assertEquals(0, rows[groups.rowStart(1, child)]);
+        assertEquals(4, rows[groups.rowEnd(1, child) - 1]);
+
+        // count and mean
+        groups = new Nest().key(region).apply();
+        assertEquals(3.0, groups.value(0, 0));
+        groups = new Nest().key(region).rollup(Rollup.MEAN, sales).apply();
+        assertEquals(6.5, groups.value(0, 0));
+        assertEquals(6.0, groups.value(0, 1));
+
+        // custom rollup
+        final double[] values = sales;
+        groups = new Nest().key(region).rollup(new Nest.Aggregator() {
+            @Override
+            public double aggregate(final int[] rows, final int from, final int to) {
+                double max = 0;
+                for (int i = from; i < to; i++) {
+                    if (values[rows[i]] > max) {
+                        max = values[rows[i]];
+                    }
+                }
+                return max;
+            }
+        }).apply();
+        assertEquals(10.0, groups.value(0, 0));
+    }
+}
@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.demo.client.testcases.arrays;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+
+import com.github.gwtd3.api.arrays.Array;
+import com.github.gwtd3.api.arrays.ArrayList;
+import com.github.gwtd3.api.arrays.Sampling;
+import com.github.gwtd3.api.arrays.Sampling.Reservoir;
+import com.github.gwtd3.api.core.RandomGenerator;
+import com.github.gwtd3.demo.client.test.AbstractTestCase;
+import com.google.gwt.typedarrays.shared.Float64Array;
+import com.google.gwt.typedarrays.shared.TypedArrays;
+import com.google.gwt.user.client.ui.ComplexPanel;
+
+public class TestSampling extends AbstractTestCase {
+
+    @Override
+    public void doTest(final ComplexPanel sandbox) {
+        shuffles();
+        samples();
+        reservoir();
+    }
+
+    private void shuffles() {
+        RandomGenerator random = new RandomGenerator(1);
+
+        // each of the 6 permutations of 3 elements is equally likely
+        int[] counts = new int[6];
+        for (int run = 0; run < 60000; run++) {
+            int[] values = { 0, 1, 2 };
+            Sampling.shuffle(values, random);
+            counts[values[0] * 2 + (values[1] > values[2] ? 1 : 0)]++;
+        }
+        for (int count : counts) {
+            assertEquals(10000, count, 400);
+        }
+
+        // a shuffle is a permutation, reproducible with the same seed
+        double[] a = { 1, 2, 3, 4, 5, 6, 7, 8 };
+        double[] b = { 1, 2, 3, 4, 5, 6, 7, 8 };
+        Sampling.shuffle(a, new RandomGenerator(5));
+        Sampling.shuffle(b, new RandomGenerator(5));
+        assertEquals(36.0, a[0] + a[1] + a[2] + a[3] + a[4] + a[5] + a[6] + a[7]);
+        for (int i = 0; i < a.length; i++) {
+            assertEquals(a[i], b[i]);
+        }
+
+        // javascript and typed arrays, shuffled as the Java arrays
+        Array<Double> array = Array.fromDoubles(1, 2, 3, 4, 5, 6, 7, 8);
+        Sampling.shuffle(array, new RandomGenerator(5));
+        Float64Array typed = TypedArrays.createFloat64Array(8);
+        for (int i = 0; i < 8; i++) {
+            typed.set(i, i + 1);
+        }
+        Sampling.shuffle(typed, new RandomGenerator(5));
+        for (int i = 0; i < a.length; i++) {
+            assertEquals(a[i], array.getNumber(i));
+            assertEquals(a[i], typed.get(i));
+        }
+
+        // a list wrapping an array, whose open iterators fail
+        List<Double> list = new ArrayList<Double>(Array.fromDoubles(1, 2, 3, 4, 5, 6, 7, 8));
+        Iterator<Double> iterator = list.iterator();
+        iterator.next();
+        Sampling.shuffle(list, new RandomGenerator(5));
+        for (int i = 0; i < a.length; i++) {
+            assertEquals(a[i], list.get(i).doubleValue());
+        }
+        try {
+            iterator.next();
+            fail("the iterator should fail after a shuffle");
+        } catch (ConcurrentModificationException e) {
+            // expected
+        }
+    }
+
+    private void samples() {
+        RandomGenerator random = new RandomGenerator(2);
+
+        // sorted, distinct and uniform indices
+        int[] hits = new int[100];
+        for (int run = 0; run < 2000; run++) {
+            int[] indices = Sampling.reservoirIndices(100, 10, random);
+            assertEquals(10, indices.length);
+            for (int i = 0; i < indices.length; i++) {
+                assertTrue(i == 0 || indices[i - 1] < indices[i]);
+                hits[indices[i]]++;
+            }
+        }
+        for (int hit : hits) {
+            assertEquals(200, hit, 60);
+        }
+        assertEquals(5, Sampling.reservoirIndices(5, 10, random).length);
+        assertEquals(0, Sampling.reservoirIndices(5, 0, random).length);
+
+        // one index per stratum
+        int[] indices = Sampling.stratifiedIndices(1000, 10, random);
+        assertEquals(10, indices.length);
+        for (int i = 0; i < indices.length; i++) {
+            assertEquals(i, indices[i] / 100);
+        }
+
+        // indices of each group in proportion to its size
+        int[] groups = new int[1000];
+        for (int i = 0; i < groups.length; i++) {
+            groups[i] = i % 10 < 7 ? 0 : (i % 10 < 9 ? 1 : 2);
+        }
+        indices = Sampling.stratifiedIndices(groups, 3, 100, random);
+        assertEquals(100, indices.length);
+        int[] counts = new int[3];
+        for (int i = 0; i < indices.length; i++) {
+            assertTrue(i == 0 || indices[i - 1] < indices[i]);
+            counts[groups[indices[i]]]++;
+        }
+        assertEquals(70, counts[0]);
+        assertEquals(20, counts[1]);
+        assertEquals(10, counts[2]);
+
+        // selection
+        double[] values = Sampling.select(new double[] { 10, 11, 12, 13 }, new int[] { 1, 3 });
+        assertEquals(2, values.length);
+        assertEquals(11.0, values[0]);
+        assertEquals(13.0, values[1]);
+    }
+
+    private void reservoir() {
+        RandomGenerator random = new RandomGenerator(3);
+        int[] hits = new int[50];
+        for (int run = 0; run < 2000; run++) {
+            Reservoir<Integer> reservoir = new Reservoir<Integer>(5, random);
+            for (int i = 0; i < 50; i++) {
+                reservoir.offer(i);
+            }
+            assertEquals(50, reservoir.count());
+            assertEquals(5, reservoir.size());
+            for (int i = 0; i < reservoir.size(); i++) {
+                hits[reservoir.get(i)]++;
+            }
+        }
+        for (int hit : hits) {
+            assertEquals(200, hit, 60);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.demo.client.testcases.arrays;
+
+import com.github.gwtd3.api.D3;
+import com.github.gwtd3.api.arrays.Stats;
+import com.github.gwtd3.demo.client.test.AbstractTestCase;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayUtils;
+import com.google.gwt.typedarrays.shared.Float64Array;
+import com.google.gwt.user.client.ui.ComplexPanel;
+
+public class TestStats extends AbstractTestCase {
+
+    @Override
+    public void doTest(final ComplexPanel sandbox) {
+        double[] sorted = { 1, 2, 2, 2, 3, 5 };
+        assertEquals(1, Stats.bisectLeft(sorted, 2));
+        assertEquals(4, Stats.bisectRight(sorted, 2));
+        assertEquals(0, Stats.bisectLeft(sorted, 0));
+        assertEquals(6, Stats.bisectRight(sorted, 9));
+        assertEquals(2, Stats.bisectLeft(sorted, 2, 2, 5));
+
+        double[] values = { 2, 4, 4, Double.NaN, 4, 5, 5, 7, 9 };
+        assertEquals(40.0, Stats.sum(values));
+        assertEquals(5.0, Stats.mean(values));
+        assertEquals(32.0 / 7, Stats.variance(values), 1e-12);
+        assertEquals(Math.sqrt(32.0 / 7), Stats.deviation(values), 1e-12);
+        assertEquals(4.5, Stats.median(values));
+        assertEquals(2.0, Stats.min(values));
+        assertEquals(9.0, Stats.max(values));
+        double[] extent = Stats.extent(values, null);
+        assertEquals(2.0, extent[0]);
+        assertEquals(9.0, extent[1]);
+
+        // no value
+        assertEquals(0.0, Stats.sum(new double[0]));
+        assertTrue(Double.isNaN(Stats.mean(new double[] { Double.NaN })));
+        assertTrue(Double.isNaN(Stats.variance(new double[] { 1 })));
+        assertTrue(Double.isNaN(Stats.median(new double[0])));
+
+        // quantiles, compared to d3.quantile
+        assertEquals(3.0, Stats.quantile(new double[] { 3, 6, 7, 8, 8, 10, 13, 15, 16, 20 }, 0));
+        assertEquals(7.25, Stats.quantile(new double[] { 3, 6, 7, 8, 8, 10, 13, 15, 16, 20 }, 0.25));
+        assertEquals(quantile(JsArrayUtils.readOnlyJsArray(new double[] { 3, 6, 7, 8, 8, 10, 13, 15, 16, 20 }), 0.9),
+                Stats.quantileOf(new double[] { 20, 16, 15, 13, 10, 8, 8, 7, 6, 3 }, 0.9), 1e-12);
+
+        // typed arrays and columns
+        JavaScriptObject rows = rows();
+        Float64Array column = Stats.column(rows, "value");
+        assertEquals(4, column.length());
+        assertTrue(Double.isNaN(column.get(2)));
+        assertEquals(6.0, Stats.sum(column));
+        assertEquals(2.0, Stats.mean(column));
+        assertEquals(2.0, Stats.median(column));
+        assertEquals(1.0, Stats.extent(column, null)[0]);
+        assertEquals(2, Stats.bisectRight(Stats.column(rows, "rank"), 2));
+
+        // same result as d3.max
+        double[] data = new double[1000];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = Math.random();
+        }
+        assertEquals(D3.max(JsArrayUtils.readOnlyJsArray(data)).asDouble(), Stats.max(data));
+    }
+
+    private static native double quantile(JavaScriptObject sorted, double p) /*-{
+        return $wnd.d3.quantile(sorted, p);
+    }-*/;
+
+    private static native JavaScriptObject rows() /*-{
+        return [ {
+            value : "1",
+            rank : 1
+        }, {
+            value : "2",
+            rank : 2
+        }, {
+            value : "",
+            rank : 3
+        }, {
+            value : "3",
+            rank : 4
+        } ];
+    }-*/;
+}
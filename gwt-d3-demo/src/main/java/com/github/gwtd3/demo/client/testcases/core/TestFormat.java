@@ -29,6 +29,8 @@
 package com.github.gwtd3.demo.client.testcases.core;
 
 import com.github.gwtd3.api.D3;
+import com.github.gwtd3.api.core.Format;
+import com.github.gwtd3.api.core.Formatter;
 import com.github.gwtd3.api.core.Prefix;
 import com.github.gwtd3.demo.client.test.AbstractTestCase;
 import com.google.gwt.user.client.ui.ComplexPanel;
@@ -44,5 +46,77 @@ public void doTest(final ComplexPanel sandbox) {
 		assertEquals("k",prefix.symbol());
 		assertEquals(1000.0,prefix.scale(1000000));
 
+		parity();
+		prefixes();
+		builder();
+		lengths();
+	}
+
+	/**
+	 * compares {@link Format} to the formatters of D3
+	 */
+	private void parity() {
+		String[] specifiers = { "", "d", ",d", "f", ".2f", ",.2f", "+.3f", " .1f", "e", ".3e", "g", ".3g", "r", ".3r",
+				".0r", "%", ".1%", "p", ".2p", "s", ".3s", ".0s", "b", "#b", "o", "#o", "x", "#x", "X", "#X", "n",
+				".2n", "08d", "08,d", "012,.2f", "<8d", ">8d", "^8d", "^9.2f", "*^12,.2f", "0=10d", "=10d", "+08.2f",
+				"$<10.2f", "10.3s", "010.3s", "^10%", ",", "010,d", "#10x", "#010x", ".15g", ".20e", ".20f", ",.3r" };
+		double[] values = { 0, 1, -1, 0.5, 1.5, 2.5, -2.5, 0.0005, 0.001234, 0.1 + 0.2, 1 / 3.0, 42, 65, 255, 999.5,
+				1e3, 12345.678, -12345.678, 1234567.891, 1e12, 1.5e-7, 6.5e12, -0.0, Double.NaN };
+		for (String specifier : specifiers) {
+			Formatter expected = D3.format(specifier);
+			Format actual = Format.of(specifier);
+			for (double value : values) {
+				assertEquals("'" + specifier + "' of " + value, expected.format(value), actual.format(value));
+			}
+		}
+	}
+
+	private void prefixes() {
+		double[] values = { 0, 0.000042, 0.5, 1, 999, 1000, 999.5, 123456.12345, -2.5e9, 1e30 };
+		for (double value : values) {
+			for (int precision = 0; precision < 4; precision++) {
+				Prefix prefix = D3.formatPrefix(value, precision);
+				int exponent = Format.prefixExponent(value, precision);
+				assertEquals(prefix.symbol(), Format.prefixSymbol(exponent));
+				assertEquals(prefix.scale(value), Format.prefixScale(value, exponent));
+			}
+		}
+		assertEquals("k", Format.prefixSymbol(3));
+		assertEquals("\u00b5", Format.prefixSymbol(-6));
+		assertEquals("", Format.prefixSymbol(0));
+	}
+
+	private void builder() {
+		assertSame(Format.of(",.2f"), Format.of(",.2f"));
+		assertEquals(",.2f", Format.of(",.2f").specifier());
+		StringBuilder out = new StringBuilder("x=");
+		assertSame(out, Format.of(",.2f").format(1234.5, out));
+		out.append(", y=");
+		Format.of(".1%").format(0.123, out);
+		assertEquals("x=1,234.50, y=12.3%", out.toString());
+		assertEquals("", Format.of("d").format(1.5));
+		// as D3 3.1: no sign for negative zero, special values kept by "d"
+		assertEquals("0", Format.of("d").format(-0.0));
+		assertEquals("NaN", Format.of("d").format(Double.NaN));
+		assertEquals(D3.format("d").format(Double.NEGATIVE_INFINITY), Format.of("d").format(Double.NEGATIVE_INFINITY));
+		assertEquals(D3.format(",.2f").format(Double.POSITIVE_INFINITY),
+				Format.of(",.2f").format(Double.POSITIVE_INFINITY));
+		assertEquals("1.5k", Format.of(".2s").format(1500));
+	}
+
+	/**
+	 * the reused builder gets as many characters as D3.format gives
+	 */
+	private void lengths() {
+		Formatter formatter = D3.format(",.2f");
+		Format format = Format.of(",.2f");
+		StringBuilder out = new StringBuilder();
+		int length = 0;
+		for (int i = 0; i < 1000; i++) {
+			length += formatter.format(i * 1.37).length();
+			out.setLength(0);
+			length -= format.format(i * 1.37, out).length();
+		}
+		assertEquals(0, length);
 	}
 }
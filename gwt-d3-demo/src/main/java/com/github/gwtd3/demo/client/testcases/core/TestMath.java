@@ -28,7 +28,12 @@
  */
 package com.github.gwtd3.demo.client.testcases.core;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.gwtd3.api.D3;
 import com.github.gwtd3.api.core.Random;
+import com.github.gwtd3.api.core.RandomGenerator;
 import com.github.gwtd3.api.core.Transform;
 import com.github.gwtd3.demo.client.test.AbstractTestCase;
 import com.google.gwt.user.client.ui.ComplexPanel;
@@ -38,6 +43,7 @@ public class TestMath extends AbstractTestCase {
 	@Override
 	public void doTest(final ComplexPanel sandbox) {
 		testRandoms();
+		testGenerators();
 		testTransform();
 	}
 
@@ -55,6 +61,70 @@ private void testRandoms() {
 
 	}
 
+	private void testGenerators() {
+		// the same seed gives the same sequence
+		RandomGenerator a = new RandomGenerator(42);
+		RandomGenerator b = new RandomGenerator(42);
+		for (int i = 0; i < 100; i++) {
+			assertEquals(a.nextInt(), b.nextInt());
+		}
+		assertFalse(new RandomGenerator(1).nextInt() == new RandomGenerator(2).nextInt());
+		a.seed(7);
+		b.seed(7);
+		assertEquals(a.nextDouble(), b.nextDouble());
+
+		// bounded integers
+		int[] counts = new int[7];
+		for (int i = 0; i < 70000; i++) {
+			counts[a.nextInt(7)]++;
+		}
+		for (int count : counts) {
+			assertEquals(10000, count, 500);
+		}
+		try {
+			a.nextInt(0);
+			fail("should not accept a bound of 0");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+
+		// the moments of the distributions
+		int n = 100000;
+		double[] values = new double[n];
+		assertMoments(a.fill(values), 0.5, 1 / 12.0);
+		assertMoments(a.uniform(-2, 2).fill(values), 0, 16 / 12.0);
+		assertMoments(a.normal(1000, 40).fill(values), 1000, 1600);
+		assertMoments(a.logNormal(0, 0.5).fill(values), Math.exp(0.125), (Math.exp(0.25) - 1) * Math.exp(0.25));
+		assertMoments(a.irwinHall(3).fill(values), 0.5, 1 / 36.0);
+		assertMoments(a.exponential(2).fill(values), 0.5, 0.25);
+
+		// reproducible shuffles
+		List<Integer> l1 = new ArrayList<Integer>();
+		List<Integer> l2 = new ArrayList<Integer>();
+		for (int i = 0; i < 20; i++) {
+			l1.add(i);
+			l2.add(i);
+		}
+		D3.shuffle(l1, new RandomGenerator(3));
+		D3.shuffle(l2, new RandomGenerator(3));
+		assertEquals(l1, l2);
+	}
+
+	private void assertMoments(final double[] values, final double mean, final double variance) {
+		double sum = 0;
+		for (double value : values) {
+			sum += value;
+		}
+		double m = sum / values.length;
+		double squares = 0;
+		for (double value : values) {
+			squares += (value - m) * (value - m);
+		}
+		double v = squares / values.length;
+		assertEquals(mean, m, 5 * Math.sqrt(variance / values.length));
+		assertEquals(variance, v, variance * 0.05);
+	}
+
 	private void testTransform() {
 		// empty
 		Transform tr = Transform.parse("");
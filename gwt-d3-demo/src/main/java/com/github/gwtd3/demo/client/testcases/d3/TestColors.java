@@ -32,6 +32,7 @@
 package com.github.gwtd3.demo.client.testcases.d3;
 
 import com.github.gwtd3.api.D3;
+import com.github.gwtd3.api.core.Colors;
 import com.github.gwtd3.api.core.HSLColor;
 import com.github.gwtd3.api.core.RGBColor;
 import com.github.gwtd3.demo.client.test.AbstractTestCase;
@@ -55,6 +56,60 @@ public class TestColors extends AbstractTestCase {
 	public void doTest(final ComplexPanel sandbox) {
 		rgb();
 		hsl();
+		packed();
+	}
+
+	/**
+	 * 
+	 */
+	private void packed() {
+		// parsing, compared to d3.rgb
+		String[] colors = { "red", "steelblue", "#fea", "#12ab9f", "rgb(10,20,30)", "rgb(100%,50%,0%)", "hsl(120,50%,20%)" };
+		for (String color : colors) {
+			assertEquals(color, D3.rgb(color).rgba(), Colors.parse(color));
+		}
+		assertEquals(0x01020380, Colors.parse("rgba(1,2,3,0.5)"));
+		assertEquals(Colors.TRANSPARENT, Colors.parse("transparent"));
+		try {
+			Colors.parse("notacolor");
+			fail("should not parse");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+
+		// channels
+		int c = Colors.rgba(1, 2, 3, 4);
+		assertEquals(1, Colors.red(c));
+		assertEquals(2, Colors.green(c));
+		assertEquals(3, Colors.blue(c));
+		assertEquals(4, Colors.alpha(c));
+		assertEquals(0xff0000ff, Colors.rgb(300, -5, 0));
+
+		// formatting
+		assertEquals("#4682b4", Colors.format(Colors.parse("steelblue")));
+		assertSame(Colors.format(Colors.parse("steelblue")), Colors.format(Colors.parse("steelblue")));
+		assertEquals("rgba(1,2,3,0.498)", Colors.format(0x0102037f));
+		assertEquals("rgba(1,2,3,0)", Colors.format(0x01020300));
+
+		// hsl, compared to d3.hsl
+		HSLColor hsl = D3.hsl("steelblue");
+		double[] out = Colors.toHsl(Colors.parse("steelblue"), null);
+		assertEquals(hsl.h(), out[0], 1);
+		assertEquals(hsl.s(), out[1], 1e-6);
+		assertEquals(hsl.l(), out[2], 1e-6);
+		assertEquals(D3.hsl(120, 0.5, 0.2).rgb().rgba(), Colors.hsl(120, 0.5, 0.2));
+
+		// lab round trip
+		out = Colors.toLab(Colors.parse("steelblue"), out);
+		assertEquals(Colors.parse("steelblue"), Colors.lab(out[0], out[1], out[2]));
+
+		// brighter and darker, compared to d3.rgb
+		assertEquals(D3.rgb("steelblue").brighter().rgba(), Colors.brighter(Colors.parse("steelblue"), 1));
+		assertEquals(D3.rgb("steelblue").darker(2).rgba(), Colors.darker(Colors.parse("steelblue"), 2));
+
+		// palettes
+		assertEquals(10, Colors.category10().length);
+		assertEquals(D3.scale.category20().range().getString(3), Colors.format(Colors.category20()[3]));
 	}
 
 	/**
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.demo.client.testcases.d3;
+
+import com.github.gwtd3.api.D3;
+import com.github.gwtd3.api.behaviour.FastZoom;
+import com.github.gwtd3.api.behaviour.Zoom;
+import com.github.gwtd3.api.core.Selection;
+import com.github.gwtd3.api.scales.LinearScale;
+import com.github.gwtd3.demo.client.test.AbstractTestCase;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.user.client.ui.ComplexPanel;
+
+public class TestZoom extends AbstractTestCase {
+
+	@Override
+	public void doTest(final ComplexPanel sandbox) {
+		Selection svg = D3.select(sandbox).append("svg").attr("width", 200).attr("height", 100);
+		Selection plot = svg.append("g").attr("transform", "translate(5,0)");
+		LinearScale x = D3.scale.linear().domain(0, 100).range(0, 200);
+		Zoom zoom = D3.behavior().zoom().x(x);
+		assertEquals(1.0, zoom.scale());
+
+		final int[] renders = new int[1];
+		FastZoom fast = new FastZoom(zoom, plot, new FastZoom.Renderer() {
+			@Override
+			public void render(final Zoom zoom) {
+				renders[0]++;
+			}
+		}).delay(10000);
+		svg.call(zoom);
+
+		// a double-click zooms in: only the transform is applied
+		dblclick(svg.node());
+		assertEquals(2.0, zoom.scale());
+		assertEquals(1, fast.transforms());
+		assertEquals(0, renders[0]);
+		assertTrue(plot.attr("transform").startsWith("translate(5,0)translate("));
+		assertTrue(plot.attr("transform").contains(")scale(2"));
+		// the domain of the scale is already updated
+		assertEquals(50.0, x.invert(200).asDouble() - x.invert(0).asDouble(), 1e-6);
+
+		// rendering removes the transform
+		fast.render();
+		assertEquals(1, renders[0]);
+		assertEquals("translate(5,0)", plot.attr("transform"));
+
+		// the next transform is relative to the rendering
+		dblclick(svg.node());
+		assertEquals(4.0, zoom.scale());
+		assertTrue(plot.attr("transform").contains(")scale(2"));
+		fast.render();
+	}
+
+	private static native void dblclick(Element element)/*-{
+		var event = $doc.createEvent("MouseEvents");
+		event.initMouseEvent("dblclick", true, true, $wnd, 0, 0, 0, 0, 0,
+				false, false, false, false, 0, null);
+		element.dispatchEvent(event);
+	}-*/;
+}
@@ -0,0 +1,201 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.demo.client.testcases.geo;
+
+import com.github.gwtd3.api.geo.Albers;
+import com.github.gwtd3.api.geo.Equirectangular;
+import com.github.gwtd3.api.geo.GeoPath;
+import com.github.gwtd3.api.geo.GeoStream;
+import com.github.gwtd3.api.geo.Mercator;
+import com.github.gwtd3.api.geo.Orthographic;
+import com.github.gwtd3.api.geo.PathStringSink;
+import com.github.gwtd3.api.geo.Projection;
+import com.github.gwtd3.demo.client.test.AbstractTestCase;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.core.client.JsArrayNumber;
+import com.google.gwt.user.client.ui.ComplexPanel;
+
+public class TestProjections extends AbstractTestCase {
+
+	@Override
+	public void doTest(final ComplexPanel sandbox) {
+		// parity with the d3.geo projections
+		assertProjects("mercator", new Mercator(), 0, 0);
+		assertProjects("mercator", new Mercator().scale(100).translate(10, 20).rotate(30, 0), -122.4, 37.8);
+		assertProjects("equirectangular", new Equirectangular(), 150, -40);
+		assertProjects("albers", new Albers(), -122.4, 37.8);
+		assertProjects("albers", new Albers(), -74, 40.7);
+		assertProjects("orthographic", new Orthographic().rotate(20, -10), 30, 40);
+
+		// inversion
+		Projection albers = new Albers();
+		double[] p = albers.project(-74, 40.7, null);
+		double[] q = albers.invert(p[0], p[1], null);
+		assertEquals(-74, q[0], 1e-9);
+		assertEquals(40.7, q[1], 1e-9);
+
+		// a line and a polygon
+		Projection projection = new Equirectangular().scale(1).translate(0, 0).precision(0);
+		Counter counter = new Counter();
+		GeoStream stream = projection.stream(counter);
+		stream.lineStart();
+		stream.point(0, 0);
+		stream.point(10, 10);
+		stream.lineEnd();
+		assertEquals(1, counter.lines);
+		assertEquals(2, counter.points);
+		PathStringSink sink = new PathStringSink(0);
+		stream = new Equirectangular().scale(180 / Math.PI).translate(0, 0).precision(0).stream(sink);
+		stream.polygonStart();
+		stream.lineStart();
+		stream.point(0, 0);
+		stream.point(0, 10);
+		stream.point(10, 10);
+		stream.point(10, 0);
+		stream.lineEnd();
+		stream.polygonEnd();
+		assertEquals("M0,0L0,-10L10,-10L10,0Z", sink.result());
+		assertNull(sink.result());
+
+		// cut along the antimeridian
+		counter = new Counter();
+		stream = projection.stream(counter);
+		stream.polygonStart();
+		stream.lineStart();
+		stream.point(170, 0);
+		stream.point(170, 10);
+		stream.point(-170, 10);
+		stream.point(-170, 0);
+		stream.lineEnd();
+		stream.polygonEnd();
+		assertEquals(2, counter.lines);
+		assertEquals(Math.PI, counter.maxX, 1e-9);
+
+		// the far side of the globe is clipped
+		counter = new Counter();
+		stream = new Orthographic().stream(counter);
+		stream.point(0, 0);
+		stream.point(180, 0);
+		assertEquals(1, counter.points);
+
+		// the resampling adds points along the curved lines
+		counter = new Counter();
+		stream = new Orthographic().stream(counter);
+		stream.lineStart();
+		stream.point(-80, 0);
+		stream.point(80, 40);
+		stream.lineEnd();
+		assertTrue(counter.points > 10);
+
+		// GeoJSON, compared to d3.geo.path
+		JavaScriptObject collection = collection();
+		GeoPath path = new GeoPath(new Mercator());
+		String d = path.svg(collection);
+		assertTrue(d.startsWith("M"));
+		assertEquals(d3Path(collection).split("M").length, d.split("M").length);
+		assertNull(path.svg(null));
+	}
+
+	private void assertProjects(final String name, final Projection projection, final double longitude,
+			final double latitude) {
+		double[] p = projection.project(longitude, latitude, null);
+		JsArrayNumber expected = d3Project(name, projection.scale(), projection.translateX(),
+				projection.translateY(), projection.rotateLambda(), projection.rotatePhi(), longitude, latitude);
+		assertEquals(name, expected.get(0), p[0], 1e-6);
+		assertEquals(name, expected.get(1), p[1], 1e-6);
+	}
+
+	private static native JsArrayNumber d3Project(String name, double scale, double x, double y, double lambda,
+			double phi, double longitude, double latitude)/*-{
+		var projection = $wnd.d3.geo[name]().scale(scale).translate([ x, y ])
+				.rotate([ lambda, phi ]);
+		return projection([ longitude, latitude ]);
+	}-*/;
+
+	private static native JavaScriptObject collection()/*-{
+		return {
+			type : "FeatureCollection",
+			features : [ {
+				type : "Feature",
+				geometry : {
+					type : "Polygon",
+					coordinates : [ [ [ 0, 0 ], [ 0, 10 ], [ 10, 10 ], [ 10, 0 ], [ 0, 0 ] ] ]
+				}
+			}, {
+				type : "Feature",
+				geometry : {
+					type : "MultiLineString",
+					coordinates : [ [ [ -20, 5 ], [ -10, 5 ] ], [ [ 20, 5 ], [ 30, 15 ] ] ]
+				}
+			}, {
+				type : "Feature",
+				geometry : {
+					type : "Point",
+					coordinates : [ 50, 50 ]
+				}
+			} ]
+		};
+	}-*/;
+
+	private static native String d3Path(JavaScriptObject object)/*-{
+		return $wnd.d3.geo.path().projection($wnd.d3.geo.mercator())(object);
+	}-*/;
+
+	private static class Counter implements GeoStream {
+
+		int points;
+
+		int lines;
+
+		double maxX = Double.NEGATIVE_INFINITY;
+
+		@Override
+		public void point(final double x, final double y) {
+			points++;
+			maxX = Math.max(maxX, x);
+		}
+
+		@Override
+		public void lineStart() {
+			lines++;
+		}
+
+		@Override
+		public void lineEnd() {
+		}
+
+		@Override
+		public void polygonStart() {
+		}
+
+		@Override
+		public void polygonEnd() {
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.demo.client.testcases.geom;
+
+import com.github.gwtd3.api.geom.Delaunay;
+import com.github.gwtd3.api.geom.Voronoi;
+import com.github.gwtd3.demo.client.test.AbstractTestCase;
+import com.google.gwt.user.client.ui.ComplexPanel;
+
+public class TestDelaunay extends AbstractTestCase {
+
+	@Override
+	public void doTest(final ComplexPanel sandbox) {
+		// a square and its center
+		Delaunay delaunay = Delaunay.from(new double[] { 0, 10, 10, 0, 5 }, new double[] { 0, 0, 10, 10, 5 });
+		assertEquals(5, delaunay.size());
+		assertEquals(4, delaunay.triangleCount());
+		assertEquals(4, delaunay.hull().length);
+		assertEquals(4, delaunay.find(6, 4));
+		assertEquals(1, delaunay.find(9, 1));
+		assertEquals(3, delaunay.find(-5, 20));
+		assertEquals(-1, delaunay.find(Double.NaN, 0));
+
+		// the cells cover the rectangle
+		Voronoi voronoi = new Voronoi(delaunay, 0, 0, 10, 10);
+		double total = 0;
+		for (int i = 0; i < delaunay.size(); i++) {
+			total += area(voronoi.cellPolygon(i));
+		}
+		assertEquals(100, total, 1e-9);
+		assertEquals("M5,0L10,5L5,10L0,5Z", voronoi.cellPath(4));
+		assertEquals("M0,0L5,0L0,5Z", voronoi.cellPath(0));
+
+		// collinear points
+		delaunay = Delaunay.from(new double[] { 0, 1, 2, 3 }, new double[] { 0, 1, 2, 3 });
+		assertEquals(0, delaunay.triangleCount());
+		assertEquals(2, delaunay.find(2.2, 1.9));
+	}
+
+	private static double area(final double[] polygon) {
+		double area = 0;
+		for (int i = 0; i < polygon.length; i += 2) {
+			int j = (i + 2) % polygon.length;
+			area += polygon[i] * polygon[j + 1] - polygon[j] * polygon[i + 1];
+		}
+		return Math.abs(area) / 2;
+	}
+}
@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.demo.client.testcases.geom;
+
+import com.github.gwtd3.api.geo.PathStringSink;
+import com.github.gwtd3.api.geom.Simplification;
+import com.github.gwtd3.demo.client.test.AbstractTestCase;
+import com.google.gwt.user.client.ui.ComplexPanel;
+
+public class TestSimplification extends AbstractTestCase {
+
+	@Override
+	public void doTest(final ComplexPanel sandbox) {
+		// a line with a small and a large detail
+		Simplification simplification = new Simplification();
+		int line = simplification.add(new double[] { 0, 0, 1, 0.1, 2, 0, 3, 5, 4, 0 }, false);
+		simplification.visvalingam();
+		double[] importance = simplification.importance(line);
+		assertEquals(Double.POSITIVE_INFINITY, importance[0]);
+		assertEquals(Double.POSITIVE_INFINITY, importance[4]);
+		assertEquals(0.1, importance[1], 1e-12);
+		assertTrue(importance[3] > importance[1]);
+		// monotonic: removing the vertex 1 first
+		assertTrue(importance[2] >= importance[1]);
+		int[] indices = new int[5];
+		assertEquals(4, simplification.indices(line, 0.5, indices));
+		assertEquals(3, indices[2]);
+		assertEquals(2, simplification.keptCount(line, 100));
+
+		simplification.douglasPeucker();
+		importance = simplification.importance(line);
+		assertEquals(5, importance[3], 1e-12);
+		double[] out = new double[10];
+		assertEquals(3, simplification.filter(line, 1, out));
+		assertEquals(3, out[2], 0);
+		assertEquals(5, out[3], 0);
+
+		// a border shared by two rings, in opposite directions
+		double[] border = new double[40];
+		for (int i = 0; i < 20; i++) {
+			border[i * 2] = 5 + Math.sin(i * 1.7) * ((i % 3) + 1) * 0.1;
+			border[i * 2 + 1] = i * 0.5;
+		}
+		double[] left = new double[border.length + 4];
+		left[0] = 0;
+		left[1] = 0;
+		System.arraycopy(border, 0, left, 2, border.length);
+		left[left.length - 2] = 0;
+		left[left.length - 1] = 9.5;
+		double[] right = new double[border.length + 6];
+		right[0] = 10;
+		right[1] = 9.5;
+		right[2] = 11;
+		right[3] = 4;
+		right[4] = 10;
+		right[5] = 0;
+		for (int i = 0; i < 20; i++) {
+			right[6 + i * 2] = border[(19 - i) * 2];
+			right[6 + i * 2 + 1] = border[(19 - i) * 2 + 1];
+		}
+		simplification = new Simplification();
+		int l = simplification.add(left, true);
+		int r = simplification.add(right, true);
+		for (int pass = 0; pass < 2; pass++) {
+			if (pass == 0) {
+				simplification.visvalingam();
+			} else {
+				simplification.douglasPeucker();
+			}
+			double[] leftImportance = simplification.importance(l);
+			double[] rightImportance = simplification.importance(r);
+			for (int i = 0; i < 20; i++) {
+				assertEquals(leftImportance[1 + i], rightImportance[3 + 19 - i], 0);
+			}
+			// the ends of the border are junctions
+			assertEquals(Double.POSITIVE_INFINITY, leftImportance[1]);
+			assertEquals(Double.POSITIVE_INFINITY, leftImportance[20]);
+		}
+
+		// streaming
+		PathStringSink sink = new PathStringSink();
+		assertEquals(0, simplification.stream(l, Double.POSITIVE_INFINITY, sink));
+		assertTrue(simplification.stream(l, 0, sink) > 0);
+		assertTrue(sink.result().startsWith("M0,0L5,0"));
+	}
+}
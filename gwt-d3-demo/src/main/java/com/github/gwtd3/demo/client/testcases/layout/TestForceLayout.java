@@ -0,0 +1,125 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.demo.client.testcases.layout;
+
+import com.github.gwtd3.api.D3;
+import com.github.gwtd3.api.core.Selection;
+import com.github.gwtd3.api.layout.ForceBinding;
+import com.github.gwtd3.api.layout.ForceLayout;
+import com.github.gwtd3.demo.client.test.AbstractTestCase;
+import com.google.gwt.user.client.ui.ComplexPanel;
+
+public class TestForceLayout extends AbstractTestCase {
+
+	@Override
+	public void doTest(final ComplexPanel sandbox) {
+		// a link pulls its nodes to the link distance
+		ForceLayout force = new ForceLayout(2).links(new int[] { 0 }, new int[] { 1 }).charge(0).linkDistance(50);
+		while (force.tick()) {
+		}
+		assertTrue(force.isStable());
+		assertEquals(300, force.ticks());
+		assertEquals(50, distance(force, 0, 1), 0.5);
+
+		// charges repel
+		force = new ForceLayout(2).charge(-30);
+		force.position(0, 0, 0).position(1, 1, 0).tick(300);
+		assertTrue(distance(force, 0, 1) > 50);
+
+		// collisions separate the nodes
+		force = new ForceLayout(2).charge(0).collide(10);
+		force.position(0, 0, 0).position(1, 1, 0).tick(300);
+		assertTrue(distance(force, 0, 1) >= 20);
+
+		// fixed nodes do not move
+		force = new ForceLayout(3).links(new int[] { 0, 1 }, new int[] { 1, 2 }).fix(0, 100, 100);
+		force.tick(10);
+		assertEquals(100.0, force.x()[0], 0.0);
+		assertEquals(100.0, force.y()[0], 0.0);
+		force.unfix(0).tick();
+		assertFalse(force.isFixed(0));
+
+		try {
+			new ForceLayout(2).links(new int[] { 0 }, new int[] { 2 }).tick();
+			fail("link to a missing node");
+		} catch (IndexOutOfBoundsException e) {
+			// expected
+		}
+
+		// binding: only the moved nodes are written
+		force = new ForceLayout(3).links(new int[] { 0, 1 }, new int[] { 1, 2 });
+		ForceBinding binding = new ForceBinding(force).threshold(0.01);
+		Selection svg = D3.select(sandbox).append("svg");
+		Selection lines = svg.selectAll("line").data(binding.links()).enter().append("line");
+		Selection circles = svg.selectAll("circle").data(binding.nodes()).enter().append("circle");
+		assertEquals(3, binding.apply(circles, "cx", "cy"));
+		assertEquals(2, binding.applyLinks(lines));
+		force.tick();
+		assertEquals(3, binding.publish());
+		assertEquals(String.valueOf(binding.nodes().get(0).x()), circles.attr("cx"));
+		force.fix(0, force.x()[0], force.y()[0]).fix(1, force.x()[1], force.y()[1]).fix(2, force.x()[2], force.y()[2]);
+		force.tick();
+		assertEquals(0, binding.publish());
+		force.fix(2, force.x()[2] + 10, force.y()[2]).tick();
+		assertEquals(1, binding.publish());
+		assertEquals(1, binding.apply(circles, "cx", "cy"));
+		assertEquals(1, binding.applyLinks(lines));
+		// nothing published, nothing written
+		force.tick();
+		assertEquals(0, binding.publish());
+		assertEquals(0, binding.apply(circles, "cx", "cy"));
+		assertEquals(0, binding.applyLinks(lines));
+		// replaced links get their new nodes, and are written
+		force.links(new int[] { 0, 2 }, new int[] { 2, 1 });
+		assertEquals(0, binding.publish());
+		assertEquals(0, binding.apply(circles, "cx", "cy"));
+		assertEquals(2, binding.applyLinks(lines));
+		assertEquals(2, binding.links().get(0).target().index());
+		assertEquals(String.valueOf(binding.nodes().get(2).x()), lines.attr("x2"));
+
+		// shrinking drops the links to the removed nodes
+		force = new ForceLayout(4).links(new int[] { 0, 1, 3, 2 }, new int[] { 1, 3, 2, 0 });
+		force.resize(3);
+		assertEquals(2, force.linkCount());
+		assertEquals(0, force.source(0));
+		assertEquals(1, force.target(0));
+		assertEquals(2, force.source(1));
+		assertEquals(0, force.target(1));
+		assertTrue(force.tick());
+		force.resize(5).addLinks(new int[] { 4 }, new int[] { 3 });
+		assertEquals(3, force.linkCount());
+		assertTrue(force.tick());
+	}
+
+	private static double distance(final ForceLayout force, final int i, final int j) {
+		double dx = force.x()[j] - force.x()[i];
+		double dy = force.y()[j] - force.y()[i];
+		return Math.sqrt(dx * dx + dy * dy);
+	}
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.demo.client.testcases.layout;
+
+import com.github.gwtd3.api.D3;
+import com.github.gwtd3.api.core.Selection;
+import com.github.gwtd3.api.layout.ForceLayout;
+import com.github.gwtd3.api.layout.ForceSimulation;
+import com.github.gwtd3.demo.client.test.AbstractTestCase;
+import com.google.gwt.user.client.ui.ComplexPanel;
+
+public class TestForceSimulation extends AbstractTestCase {
+
+	@Override
+	public void doTest(final ComplexPanel sandbox) {
+		ForceLayout force = new ForceLayout(3).links(new int[] { 0, 1 }, new int[] { 1, 2 });
+		final int[] counts = new int[] { 0, 0 };
+		ForceSimulation simulation = new ForceSimulation(force).budget(0).publishInterval(0);
+		simulation.addListener(new ForceSimulation.Listener() {
+			@Override
+			public void onPublish(final ForceSimulation simulation, final int published) {
+				counts[0]++;
+			}
+
+			@Override
+			public void onEnd(final ForceSimulation simulation) {
+				counts[1]++;
+			}
+		});
+		Selection svg = D3.select(sandbox).append("svg");
+		Selection circles = svg.selectAll("circle").data(simulation.binding().nodes()).enter().append("circle");
+		simulation.bind(circles, "cx", "cy");
+
+		// an empty budget still computes one tick per frame
+		assertTrue(simulation.step());
+		assertEquals(1, simulation.frames());
+		assertEquals(1, simulation.lastFrameTicks());
+		assertEquals(1, force.ticks());
+		assertEquals(1, counts[0]);
+		assertEquals(String.valueOf(simulation.binding().nodes().get(0).x()), circles.attr("cx"));
+
+		// no publication before the publish interval elapsed
+		simulation.publishInterval(1e9);
+		assertTrue(simulation.step());
+		assertEquals(2, simulation.frames());
+		assertEquals(1, counts[0]);
+
+		// a large budget runs the layout to the end in one frame, which is
+		// published although the interval did not elapse
+		simulation.budget(1e9);
+		int ticks = force.ticks();
+		assertFalse(simulation.step());
+		assertTrue(force.isStable());
+		assertEquals(force.ticks() - ticks, simulation.lastFrameTicks());
+		assertTrue(simulation.lastFrameTicks() > 1);
+		assertEquals(2, counts[0]);
+		assertEquals(1, counts[1]);
+		assertFalse(simulation.isRunning());
+
+		// the timer of a previous run stops itself
+		simulation.budget(0).publishInterval(0);
+		force.alpha(0.1);
+		simulation.start().stop().start();
+		int frames = simulation.frames();
+		D3.timerFlush();
+		assertEquals(frames + 1, simulation.frames());
+		D3.timerFlush();
+		assertEquals(frames + 2, simulation.frames());
+		simulation.stop();
+		assertFalse(simulation.isRunning());
+		D3.timerFlush();
+		assertEquals(frames + 2, simulation.frames());
+
+		// adding nodes keeps the positions of the existing ones, places the new
+		// one next to its neighbour, and only reheats to the warm alpha
+		simulation.budget(1e9).step();
+		assertTrue(force.isStable());
+		double x0 = force.x()[0];
+		double y0 = force.y()[0];
+		simulation.warmAlpha(0.2).add(1, new int[] { 3 }, new int[] { 2 });
+		assertTrue(simulation.isRunning());
+		simulation.stop();
+		assertEquals(0.2, force.alpha(), 0.0);
+		assertEquals(4, force.size());
+		assertEquals(4, simulation.binding().nodes().length());
+		assertEquals(3, simulation.binding().links().length());
+		assertEquals(x0, force.x()[0], 0.0);
+		assertEquals(y0, force.y()[0], 0.0);
+		assertTrue(Math.abs(force.x()[3] - force.x()[2]) <= 5);
+		assertTrue(Math.abs(force.y()[3] - force.y()[2]) <= 5);
+		int ends = counts[1];
+		assertFalse(simulation.step());
+		assertEquals(ends + 1, counts[1]);
+
+		// a hotter layout is not cooled down by an addition
+		force.alpha(0.5);
+		simulation.add(0, new int[] { 0 }, new int[] { 3 }).stop();
+		assertEquals(0.5, force.alpha(), 0.0);
+	}
+}
@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.demo.client.testcases.layout;
+
+import com.github.gwtd3.api.D3;
+import com.github.gwtd3.api.core.Selection;
+import com.github.gwtd3.api.layout.ForceWorkerProxy;
+import com.github.gwtd3.demo.client.test.AbstractTestCase;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.typedarrays.client.Float64ArrayNative;
+import com.google.gwt.typedarrays.shared.Float64Array;
+import com.google.gwt.user.client.ui.ComplexPanel;
+
+public class TestForceWorkerProxy extends AbstractTestCase {
+
+	@Override
+	public void doTest(final ComplexPanel sandbox) {
+		final JavaScriptObject worker = createFakeWorker();
+		ForceWorkerProxy proxy = new ForceWorkerProxy("unused") {
+			@Override
+			protected JavaScriptObject createWorker(final String url) {
+				return worker;
+			}
+		};
+		final double[] notified = new double[] { 0, 0 };
+		Selection svg = D3.select(sandbox).append("svg");
+		Selection lines = svg.selectAll("line").data(new int[] { 0, 1 }).enter().append("line");
+		Selection circles = svg.selectAll("circle").data(new int[] { 0, 1, 2 }).enter().append("circle");
+		Selection groups = svg.selectAll("g").data(new int[] { 0, 1, 2 }).enter().append("g");
+		proxy.bind(circles, "cx", "cy").bind(groups).bindLinks(lines).listener(new ForceWorkerProxy.Listener() {
+			@Override
+			public void onPositions(final ForceWorkerProxy proxy, final Float64Array positions, final double alpha,
+					final boolean stable) {
+				notified[0]++;
+				notified[1] = positions.get(0);
+			}
+		});
+
+		try {
+			proxy.start(3, new int[] { 0 }, new int[] { 1, 2 });
+			fail("sources and targets of different lengths");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+
+		proxy.start(3, new int[] { 0, 1 }, new int[] { 1, 2 });
+		assertEquals("init", posted(worker));
+
+		// a message is written at the next frame, or at flush
+		deliver(worker, positions(1, 2, 3, 4, 5, 6), 0.5, false);
+		assertEquals(1, proxy.received());
+		assertEquals(0, proxy.writes());
+		assertEquals(0.5, proxy.alpha(), 0.0);
+		assertFalse(proxy.isStable());
+		assertEquals("init", posted(worker));
+
+		// a newer message replaces the pending one, whose buffer goes back
+		deliver(worker, positions(10, 20, 30, 40, 50, 60), 0.25, true);
+		assertEquals(2, proxy.received());
+		assertEquals(0, proxy.writes());
+		assertEquals(0.25, proxy.alpha(), 0.0);
+		assertTrue(proxy.isStable());
+		assertEquals("init,buffer", posted(worker));
+
+		// one write of all the bound selections, then the buffer goes back
+		proxy.flush();
+		assertEquals(1, proxy.writes());
+		assertEquals(1.0, notified[0], 0.0);
+		assertEquals(10.0, notified[1], 0.0);
+		assertEquals("init,buffer,buffer", posted(worker));
+		assertEquals("30", circles.filter(":nth-child(4)").attr("cx"));
+		assertEquals("40", circles.filter(":nth-child(4)").attr("cy"));
+		assertEquals("translate(50,60)", groups.filter(":last-child").attr("transform"));
+		assertEquals("30", lines.filter(":nth-child(2)").attr("x1"));
+		assertEquals("40", lines.filter(":nth-child(2)").attr("y1"));
+		assertEquals("50", lines.filter(":nth-child(2)").attr("x2"));
+		assertEquals("60", lines.filter(":nth-child(2)").attr("y2"));
+
+		// nothing pending
+		proxy.flush();
+		assertEquals(1, proxy.writes());
+
+		// control messages
+		proxy.pin(1, 5, 5).unpin(1).restart(0.1);
+		assertEquals("init,buffer,buffer,pin,unpin,alpha", posted(worker));
+		proxy.terminate();
+		assertEquals("init,buffer,buffer,pin,unpin,alpha,stop", posted(worker));
+		assertTrue(isTerminated(worker));
+
+		// messages received after termination are not written
+		deliver(worker, positions(0, 0, 0, 0, 0, 0), 0, true);
+		proxy.flush();
+		assertEquals(1, proxy.writes());
+		assertEquals("30", circles.filter(":nth-child(4)").attr("cx"));
+	}
+
+	private static Float64ArrayNative positions(final double... values) {
+		Float64ArrayNative positions = createFloat64Array(values.length);
+		for (int i = 0; i < values.length; i++) {
+			positions.set(i, values[i]);
+		}
+		return positions;
+	}
+
+	private static native Float64ArrayNative createFloat64Array(int length) /*-{
+		return new Float64Array(length);
+	}-*/;
+
+	/**
+	 * records the types of the messages posted to it
+	 */
+	private static native JavaScriptObject createFakeWorker() /*-{
+		return {
+			posted : [],
+			terminated : false,
+			postMessage : function(m, transfer) {
+				this.posted.push(m.type);
+			},
+			terminate : function() {
+				this.terminated = true;
+			}
+		};
+	}-*/;
+
+	private static native void deliver(JavaScriptObject worker, Float64ArrayNative positions, double alpha,
+			boolean stable) /*-{
+		worker.onmessage({
+			data : {
+				type : "positions",
+				positions : positions,
+				alpha : alpha,
+				stable : stable
+			}
+		});
+	}-*/;
+
+	private static native String posted(JavaScriptObject worker) /*-{
+		return worker.posted.join(",");
+	}-*/;
+
+	private static native boolean isTerminated(JavaScriptObject worker) /*-{
+		return worker.terminated;
+	}-*/;
+}
@@ -0,0 +1,225 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.demo.client.testcases.layout;
+
+import com.github.gwtd3.api.layout.ClusterLayout;
+import com.github.gwtd3.api.layout.Hierarchy;
+import com.github.gwtd3.api.layout.HierarchyLayout;
+import com.github.gwtd3.api.layout.PackLayout;
+import com.github.gwtd3.api.layout.PartitionLayout;
+import com.github.gwtd3.api.layout.TreeLayout;
+import com.github.gwtd3.api.layout.TreemapLayout;
+import com.github.gwtd3.demo.client.test.AbstractTestCase;
+import com.google.gwt.user.client.ui.ComplexPanel;
+
+public class TestHierarchyLayouts extends AbstractTestCase {
+
+	@Override
+	public void doTest(final ComplexPanel sandbox) {
+		hierarchy();
+		layouts();
+		relayout();
+	}
+
+	/**
+	 * 0 is the root, with the children 1 and 2; 3 and 4 are the children of
+	 * 1
+	 */
+	private static Hierarchy sample() {
+		return Hierarchy.fromParents(new int[] { -1, 0, 0, 1, 1 }, null);
+	}
+
+	private void hierarchy() {
+		Hierarchy h = sample();
+		assertEquals(5, h.size());
+		assertEquals(0, h.root());
+		assertEquals(2, h.childCount(0));
+		assertEquals(3, h.child(1, 0));
+		assertEquals(2, h.depth(4));
+		assertEquals(3.0, h.value(0));
+		assertEquals(2.0, h.value(1));
+		h.value(3, 5);
+		assertEquals(7.0, h.value(0));
+		h.sortByValue();
+		assertEquals(3, h.child(1, 0));
+		h.value(4, 10);
+		h.sortByValue();
+		assertEquals(4, h.child(1, 0));
+
+		// more siblings than an insertion run: values 0, 1, 2, 0, 1, 2...,
+		// equal values keep their order
+		int[] parents = new int[101];
+		double[] values = new double[101];
+		parents[0] = -1;
+		for (int i = 1; i <= 100; i++) {
+			values[i] = i % 3;
+		}
+		h = Hierarchy.fromParents(parents, values).sortByValue();
+		for (int k = 0; k < 100; k++) {
+			int child = h.child(0, k);
+			if (k > 0) {
+				int previous = h.child(0, k - 1);
+				assertTrue(h.value(previous) > h.value(child) || h.value(previous) == h.value(child)
+						&& previous < child);
+			}
+		}
+		assertEquals(2, h.child(0, 0));
+		assertEquals(99, h.child(0, 99));
+
+		h = sample().collapse(1);
+		assertEquals(3, h.visibleCount());
+		assertTrue(h.isLeaf(1));
+		assertFalse(h.isVisible(3));
+		assertEquals(2.0, h.value(1));
+		h.expand(1);
+		assertEquals(5, h.visibleCount());
+
+		try {
+			Hierarchy.fromParents(new int[] { -1, -1 }, null);
+			fail("two roots");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			Hierarchy.fromParents(new int[] { -1, 2, 1 }, null);
+			fail("cycle");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	private void layouts() {
+		Hierarchy h = sample();
+		double unit = 100 / 3.5;
+		new TreeLayout().size(100, 100).layout(h);
+		assertEquals(2 * unit, h.x(0), 1e-6);
+		assertEquals(1.5 * unit, h.x(1), 1e-6);
+		assertEquals(2.5 * unit, h.x(2), 1e-6);
+		assertEquals(unit, h.x(3), 1e-6);
+		assertEquals(2 * unit, h.x(4), 1e-6);
+		assertEquals(0, h.y(0), 1e-6);
+		assertEquals(100, h.y(3), 1e-6);
+
+		new ClusterLayout().size(100, 100).layout(h);
+		assertEquals(55, h.x(0), 1e-6);
+		assertEquals(30, h.x(1), 1e-6);
+		assertEquals(80, h.x(2), 1e-6);
+		assertEquals(20, h.x(3), 1e-6);
+		assertEquals(0, h.y(0), 1e-6);
+		assertEquals(50, h.y(1), 1e-6);
+		assertEquals(100, h.y(2), 1e-6);
+
+		new PartitionLayout().size(90, 90).layout(h);
+		assertEquals(60, h.dx(1), 1e-6);
+		assertEquals(60, h.x(2), 1e-6);
+		assertEquals(30, h.dx(2), 1e-6);
+		assertEquals(30, h.dx(4), 1e-6);
+		assertEquals(60, h.y(4), 1e-6);
+		assertEquals(30, h.dy(4), 1e-6);
+
+		new TreemapLayout().size(100, 100).layout(h);
+		assertEquals(0, h.x(1), 1e-6);
+		assertEquals(200 / 3.0, h.dx(1), 1e-6);
+		assertEquals(100, h.dy(1), 1e-6);
+		assertEquals(10000 / 3.0, h.dx(2) * h.dy(2), 1e-6);
+		assertEquals(10000 / 3.0, h.dx(3) * h.dy(3), 1e-6);
+		assertEquals(10000 / 3.0, h.dx(4) * h.dy(4), 1e-6);
+
+		new PackLayout().size(100, 100).layout(h);
+		assertEquals(50, h.x(0), 1e-6);
+		assertEquals(50, h.r(0), 1e-6);
+		assertEquals(50 - 50 / 3.0, h.x(1), 1e-6);
+		assertEquals(100 / 3.0, h.r(1), 1e-6);
+		assertEquals(50 + 100 / 3.0, h.x(2), 1e-6);
+		assertEquals(50 / 3.0, h.r(2), 1e-6);
+		assertEquals(50 / 3.0, h.x(3), 1e-6);
+		assertEquals(50, h.y(3), 1e-6);
+	}
+
+	/**
+	 * after an expand or a collapse, the incremental layout gives the same
+	 * result as a full layout
+	 */
+	private void relayout() {
+		Hierarchy h = tree(2000);
+		int node = h.child(h.child(h.root(), 0), 0);
+		assertRelayout(h, node, new TreeLayout());
+		assertRelayout(h, node, new ClusterLayout());
+		assertRelayout(h, node, new PartitionLayout());
+		assertRelayout(h, node, new TreemapLayout());
+		assertRelayout(h, node, new PackLayout());
+		// a collapse changing the number of levels
+		assertRelayout(h.collapseAt(3), h.child(h.root(), 1), new PartitionLayout());
+	}
+
+	private void assertRelayout(final Hierarchy h, final int node, final HierarchyLayout<?> layout) {
+		layout.size(960, 500).layout(h);
+		h.collapse(node);
+		layout.relayout(h, node);
+		assertSameLayout(h, layout);
+		h.expand(node);
+		layout.relayout(h, node);
+		assertSameLayout(h, layout);
+	}
+
+	private void assertSameLayout(final Hierarchy h, final HierarchyLayout<?> layout) {
+		int n = h.size();
+		double[] x = new double[n];
+		double[] y = new double[n];
+		double[] dx = new double[n];
+		double[] r = new double[n];
+		System.arraycopy(h.x(), 0, x, 0, n);
+		System.arraycopy(h.y(), 0, y, 0, n);
+		System.arraycopy(h.dx(), 0, dx, 0, n);
+		System.arraycopy(h.r(), 0, r, 0, n);
+		layout.layout(h);
+		int[] nodes = h.visibleNodes();
+		for (int k = 0; k < h.visibleCount(); k++) {
+			int i = nodes[k];
+			assertEquals(x[i], h.x(i), 1e-6);
+			assertEquals(y[i], h.y(i), 1e-6);
+			assertEquals(dx[i], h.dx(i), 1e-6);
+			assertEquals(r[i], h.r(i), 1e-6);
+		}
+	}
+
+	/**
+	 * a random tree
+	 */
+	private static Hierarchy tree(final int n) {
+		int[] parents = new int[n];
+		double[] values = new double[n];
+		parents[0] = -1;
+		for (int i = 1; i < n; i++) {
+			parents[i] = (int) (Math.random() * (i / 3 + 1));
+			values[i] = 1 + (int) (Math.random() * 10);
+		}
+		return Hierarchy.fromParents(parents, values);
+	}
+}
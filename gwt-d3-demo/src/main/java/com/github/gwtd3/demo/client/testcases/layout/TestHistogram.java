@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.demo.client.testcases.layout;
+
+import com.github.gwtd3.api.layout.Histogram;
+import com.github.gwtd3.demo.client.test.AbstractTestCase;
+import com.google.gwt.typedarrays.shared.Float64Array;
+import com.google.gwt.typedarrays.shared.TypedArrays;
+import com.google.gwt.user.client.ui.ComplexPanel;
+
+public class TestHistogram extends AbstractTestCase {
+
+	@Override
+	public void doTest(final ComplexPanel sandbox) {
+		// uniform bins
+		Histogram histogram = Histogram.uniform(0, 10, 5);
+		assertTrue(histogram.isUniform());
+		assertEquals(5, histogram.bins());
+		assertEquals(4.0, histogram.x(2));
+		assertEquals(2.0, histogram.dx(2));
+		histogram.add(new double[] { 0, 1.9, 2, 9.99, 10, -1, 11, Double.NaN });
+		assertEquals(2, histogram.count(0));
+		assertEquals(1, histogram.count(1));
+		assertEquals(2, histogram.count(4));
+		assertEquals(5, histogram.total());
+		assertEquals(1, histogram.underflow());
+		assertEquals(1, histogram.overflow());
+		assertEquals(0.4, histogram.probability(0), 1e-9);
+		assertEquals(2, histogram.maxCount());
+
+		// sliding window
+		histogram.remove(0).remove(10).add(5);
+		assertEquals(1, histogram.count(0));
+		assertEquals(1, histogram.count(2));
+		assertEquals(1, histogram.count(4));
+		histogram.clear();
+		assertEquals(0, histogram.total());
+
+		// explicit thresholds, by binary search
+		histogram = Histogram.thresholds(0, 1, 10, 100);
+		assertFalse(histogram.isUniform());
+		assertEquals(0, histogram.binOf(0.5));
+		assertEquals(1, histogram.binOf(1));
+		assertEquals(2, histogram.binOf(100));
+		assertEquals(-1, histogram.binOf(100.1));
+		Float64Array values = TypedArrays.createFloat64Array(4);
+		values.set(0, 0.5);
+		values.set(1, 5);
+		values.set(2, 50);
+		values.set(3, 500);
+		histogram.add(values);
+		assertEquals(1, histogram.count(0));
+		assertEquals(1, histogram.count(1));
+		assertEquals(1, histogram.count(2));
+		assertEquals(1, histogram.overflow());
+
+		try {
+			Histogram.thresholds(1, 1);
+			fail("thresholds must increase");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+
+		// default bins
+		double[] data = new double[1000];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = Math.random() * 100;
+		}
+		histogram = Histogram.of(data);
+		assertEquals(11, histogram.bins());
+		assertEquals(1000, histogram.total());
+	}
+}
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.demo.client.testcases.layout;
+
+import com.github.gwtd3.api.D3;
+import com.github.gwtd3.api.layout.PieLayout;
+import com.github.gwtd3.api.layout.StackLayout;
+import com.github.gwtd3.api.layout.StackLayout.Offset;
+import com.github.gwtd3.api.layout.StackLayout.Order;
+import com.github.gwtd3.api.svg.Arc;
+import com.github.gwtd3.api.svg.Area;
+import com.github.gwtd3.demo.client.test.AbstractTestCase;
+import com.google.gwt.core.client.JavaScriptObject;
+import com.google.gwt.user.client.ui.ComplexPanel;
+
+public class TestStackAndPieLayouts extends AbstractTestCase {
+
+	@Override
+	public void doTest(final ComplexPanel sandbox) {
+		stack();
+		pie();
+	}
+
+	private void stack() {
+		double[][] series = { { 1, 2, 3 }, { 3, 2, 1 } };
+		StackLayout stack = new StackLayout().layout(series);
+		assertEquals(0.0, stack.y0(0)[1]);
+		assertEquals(2.0, stack.y1(0)[1]);
+		assertEquals(2.0, stack.y0(1)[1]);
+		assertEquals(4.0, stack.y1(1)[1]);
+
+		// the arrays are reused
+		double[] y1 = stack.y1(1);
+		stack.order(Order.REVERSE).layout(series);
+		assertSame(y1, stack.y1(1));
+		assertEquals(0.0, stack.y0(1)[0]);
+		assertEquals(3.0, stack.y0(0)[0]);
+		assertEquals(1, stack.stackOrder()[0]);
+
+		stack.order(Order.DEFAULT).offset(Offset.EXPAND).layout(series);
+		assertEquals(0.25, stack.y1(0)[0], 1e-9);
+		assertEquals(1.0, stack.y1(1)[2], 1e-9);
+
+		stack.offset(Offset.SILHOUETTE).layout(new double[][] { { 1, 2 }, { 3, 6 } });
+		assertEquals(2.0, stack.y0(0)[0]);
+		assertEquals(0.0, stack.y0(0)[1]);
+
+		// the streamgraph baseline stays non negative
+		stack.offset(Offset.WIGGLE).order(Order.INSIDE_OUT).layout(series);
+		for (int s = 0; s < 2; s++) {
+			for (int j = 0; j < 3; j++) {
+				assertTrue(stack.y0(s)[j] >= 0);
+				assertEquals(series[s][j], stack.y1(s)[j] - stack.y0(s)[j], 1e-9);
+			}
+		}
+
+		try {
+			new StackLayout().layout(new double[][] { { 1, 2 }, { 3 } });
+			fail("series of different lengths");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+
+		// the area reads the arrays
+		stack.offset(Offset.ZERO).order(Order.DEFAULT).layout(series);
+		Area area = D3.svg().area().x(new double[] { 0, 10, 20 }).y0(stack.y0(1)).y1(stack.y1(1));
+		assertEquals("M0,4L10,4L20,4L20,3L10,2L0,1Z", area.generate(3));
+	}
+
+	private void pie() {
+		PieLayout pie = new PieLayout().layout(new double[] { 1, 3, 2 });
+		// sorted by decreasing value
+		assertEquals(0.0, pie.startAngles()[1]);
+		assertEquals(Math.PI, pie.endAngles()[1], 1e-9);
+		assertEquals(Math.PI, pie.startAngles()[2], 1e-9);
+		assertEquals(5 * Math.PI / 3, pie.startAngles()[0], 1e-9);
+		assertEquals(2 * Math.PI, pie.endAngles()[0], 1e-9);
+
+		pie.sortByValue(false).padAngle(0.1).layout(new double[] { 1, 1 });
+		assertEquals(0.1, pie.padAngle());
+		assertEquals(0.0, pie.startAngles()[0]);
+		assertEquals(Math.PI - 0.1, pie.endAngles()[0], 1e-9);
+		assertEquals(Math.PI, pie.startAngles()[1], 1e-9);
+
+		// the arc reads the arrays
+		pie.padAngle(0).layout(new double[] { 1, 1 });
+		Arc arc = D3.svg().arc().innerRadius(0).outerRadius(10).startAngle(pie.startAngles())
+				.endAngle(pie.endAngles());
+		Arc expected = D3.svg().arc().innerRadius(0).outerRadius(10).startAngle(Math.PI).endAngle(2 * Math.PI);
+		assertEquals(expected.generate((JavaScriptObject) null), arc.generate(1));
+
+		// the default radius accessors read an empty datum rather than null
+		assertNotNull(D3.svg().arc().startAngle(pie.startAngles()).endAngle(pie.endAngles()).generate(1));
+	}
+}
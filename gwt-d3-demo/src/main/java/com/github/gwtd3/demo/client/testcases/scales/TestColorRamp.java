@@ -0,0 +1,80 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.demo.client.testcases.scales;
+
+import com.github.gwtd3.api.D3;
+import com.github.gwtd3.api.scales.ColorRamp;
+import com.github.gwtd3.api.scales.LinearScale;
+import com.github.gwtd3.demo.client.test.AbstractTestCase;
+import com.google.gwt.user.client.ui.ComplexPanel;
+
+public class TestColorRamp extends AbstractTestCase {
+
+	@Override
+	public void doTest(final ComplexPanel sandbox) {
+		LinearScale scale = D3.scale.linear().domain(0, 10).range("white", "black");
+		ColorRamp ramp = ColorRamp.sample(scale, 0, 10, 11);
+		assertEquals(11, ramp.size());
+		assertEquals(0.0, ramp.min(), 0.0);
+		assertEquals(10.0, ramp.max(), 0.0);
+
+		// lookup
+		assertEquals(0, ramp.index(0));
+		assertEquals(5, ramp.index(5));
+		assertEquals(5, ramp.index(5.4));
+		assertEquals(6, ramp.index(5.6));
+		assertEquals(10, ramp.index(10));
+		assertEquals("#ffffff", ramp.css(0));
+		assertEquals("#000000", ramp.css(10));
+		assertEquals(0xffffffff, ramp.rgba(0));
+		assertEquals(0x000000ff, ramp.rgba(10));
+		assertEquals(D3.rgb(scale.apply(3).asString()).toHexaString(), ramp.css(3));
+
+		// clamping
+		assertEquals(0, ramp.index(-100));
+		assertEquals(10, ramp.index(100));
+		assertEquals("#000000", ramp.css(Double.POSITIVE_INFINITY));
+
+		// NaN
+		assertEquals(-1, ramp.index(Double.NaN));
+		assertEquals(0, ramp.rgba(Double.NaN));
+		assertNull(ramp.css(Double.NaN));
+
+		// interpolator
+		ramp = ColorRamp.sample(D3.interpolateRgb("red", "blue"), 100, 200, 2);
+		assertEquals("#ff0000", ramp.css(100));
+		assertEquals("#0000ff", ramp.css(200));
+
+		// explicit colors
+		ramp = new ColorRamp(0, 1, new int[] { 0x11223344 });
+		assertEquals("#112233", ramp.css(0.5));
+		assertEquals(0x11223344, ramp.rgba(1));
+	}
+
+}
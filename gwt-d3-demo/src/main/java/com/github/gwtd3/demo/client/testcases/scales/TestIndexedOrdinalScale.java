@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.demo.client.testcases.scales;
+
+import com.github.gwtd3.api.D3;
+import com.github.gwtd3.api.JsArrays;
+import com.github.gwtd3.api.core.Colors;
+import com.github.gwtd3.api.scales.IndexedOrdinalScale;
+import com.github.gwtd3.api.scales.OrdinalScale;
+import com.github.gwtd3.demo.client.test.AbstractTestCase;
+import com.google.gwt.user.client.ui.ComplexPanel;
+
+public class TestIndexedOrdinalScale extends AbstractTestCase {
+
+	@Override
+	public void doTest(final ComplexPanel sandbox) {
+		// explicit range: implicit domain and cyclic range
+		IndexedOrdinalScale<String> scale = new IndexedOrdinalScale<String>().range(10, 20);
+		assertEquals(10.0, scale.applyDouble("a"), 0.0);
+		assertEquals(20.0, scale.applyDouble("b"), 0.0);
+		assertEquals(10.0, scale.applyDouble("c"), 0.0);
+		assertEquals(3, scale.size());
+		assertEquals(2, scale.indexOf("c"));
+		assertEquals(-1, scale.indexOf("d"));
+		assertEquals(10, scale.applyInt("a"));
+
+		// duplicates in the domain
+		scale.domain("x", "y", "x");
+		assertEquals(2, scale.size());
+		assertEquals("y", scale.domainAt(1));
+
+		// string range
+		IndexedOrdinalScale<Integer> strings = new IndexedOrdinalScale<Integer>().domain(1, 2, 3).range("one", "two", "three");
+		assertEquals("two", strings.applyString(2));
+		assertTrue(Double.isNaN(strings.applyDouble(2)));
+
+		// points, compared to d3
+		String[] letters = { "a", "b", "c", "d", "e" };
+		scale = new IndexedOrdinalScale<String>().domain(letters).rangePoints(0, 100, 1);
+		OrdinalScale d3 = D3.scale.ordinal().domain(JsArrays.asJsArray(letters)).rangePoints(JsArrays.asJsArray(0, 100), 1);
+		for (String letter : letters) {
+			assertEquals(d3.apply(letter).asDouble(), scale.applyDouble(letter), 1e-9);
+		}
+		assertEquals(0.0, scale.rangeBand(), 0.0);
+		assertTrue(Double.isNaN(scale.applyDouble("z")));
+		assertNull(scale.applyString("z"));
+		assertEquals(5, scale.size());
+
+		// bands, compared to d3
+		scale.rangeBands(0, 960, 0.1, 0.2);
+		d3.rangeBands(JsArrays.asJsArray(0, 960), 0.1, 0.2);
+		for (String letter : letters) {
+			assertEquals(d3.apply(letter).asDouble(), scale.applyDouble(letter), 1e-9);
+		}
+		assertEquals(d3.rangeBand(), scale.rangeBand(), 1e-9);
+
+		// reversed round bands, compared to d3
+		scale.rangeRoundBands(500, 0, 0.1);
+		d3.rangeRoundBands(JsArrays.asJsArray(500, 0), 0.1);
+		for (String letter : letters) {
+			assertEquals(d3.apply(letter).asDouble(), scale.applyDouble(letter), 0.0);
+		}
+		assertEquals(d3.rangeBand(), scale.rangeBand(), 0.0);
+
+		// changing the domain computes the bands again
+		scale.domain("a", "b");
+		d3.domain("a", "b");
+		assertEquals(d3.apply("b").asDouble(), scale.applyDouble("b"), 0.0);
+		assertEquals(d3.rangeBand(), scale.rangeBand(), 0.0);
+
+		// colors
+		IndexedOrdinalScale<String> colors = IndexedOrdinalScale.category10();
+		OrdinalScale d3Colors = D3.scale.category10();
+		for (String letter : letters) {
+			assertEquals(d3Colors.apply(letter).asString(), colors.applyString(letter));
+		}
+		assertEquals(Colors.category10()[0], colors.applyInt("a"));
+	}
+
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.demo.client.testcases.scales;
+
+import com.github.gwtd3.api.D3;
+import com.github.gwtd3.api.arrays.Array;
+import com.github.gwtd3.api.core.Formatter;
+import com.github.gwtd3.api.scales.LinearScale;
+import com.github.gwtd3.api.scales.TickEngine;
+import com.github.gwtd3.api.scales.TickEngine.TickDiff;
+import com.github.gwtd3.api.scales.TickEngine.Ticks;
+import com.github.gwtd3.demo.client.test.AbstractTestCase;
+import com.google.gwt.user.client.ui.ComplexPanel;
+
+public class TestTickEngine extends AbstractTestCase {
+
+	@Override
+	public void doTest(final ComplexPanel sandbox) {
+		// tick values and labels, compared to d3
+		double[][] domains = { { 10, 20 }, { 0, 1 }, { 1, -0.35 }, { -1234, 98765 }, { 0.001, 0.0123 } };
+		int[] counts = { 2, 4, 10, 11 };
+		for (double[] domain : domains) {
+			LinearScale scale = D3.scale.linear().domain(domain[0], domain[1]).range(0, 500);
+			for (int count : counts) {
+				Array<Double> expected = scale.ticks(count);
+				Formatter format = scale.tickFormat(count);
+				Ticks ticks = new TickEngine().ticks(scale, count);
+				assertEquals(expected.length(), ticks.size());
+				for (int i = 0; i < ticks.size(); i++) {
+					assertEquals(expected.getNumber(i), ticks.value(i), 1e-12);
+					assertEquals(format.format(expected.getNumber(i)), ticks.label(i));
+					assertEquals(scale.apply(expected.getNumber(i)).asDouble(), ticks.position(i), 1e-9);
+				}
+			}
+		}
+		assertEquals(0, TickEngine.ticks(5, 5, 10).length);
+
+		// memoisation
+		TickEngine engine = new TickEngine(2);
+		Ticks ticks = engine.ticks(0, 100, 0, 500, 10, null);
+		assertSame(ticks, engine.ticks(0, 100, 0, 500, 10, null));
+		assertEquals(1, engine.hits());
+		assertEquals(1, engine.misses());
+		assertNotSame(ticks, engine.ticks(0, 100, 0, 500, 10, ".2f"));
+		assertEquals("10.00", engine.ticks(0, 100, 0, 500, 10, ".2f").label(1));
+		engine.ticks(0, 100, 0, 1000, 10, null);
+		engine.ticks(0, 200, 0, 500, 10, null);
+		// evicted by the capacity
+		assertNotSame(ticks, engine.ticks(0, 100, 0, 500, 10, null));
+
+		// diff
+		Ticks before = engine.ticks(0, 100, 0, 500, 10, null);
+		Ticks after = engine.ticks(15, 115, 0, 500, 10, null);
+		TickDiff diff = TickEngine.diff(before, after, null);
+		assertEquals(2, diff.exitCount());
+		assertEquals(0.0, before.value(diff.exit(0)), 0.0);
+		assertEquals(10.0, before.value(diff.exit(1)), 0.0);
+		assertEquals(1, diff.enterCount());
+		assertEquals(110.0, after.value(diff.enter(0)), 0.0);
+		assertEquals(9, diff.updateCount());
+		assertEquals(20.0, after.value(diff.updateTo(0)), 0.0);
+		assertEquals(25.0, after.position(diff.updateTo(0)), 1e-9);
+		assertTrue(TickEngine.diff(after, after, diff).isEmpty());
+		assertEquals(after.size(), TickEngine.diff(null, after, diff).enterCount());
+	}
+
+}
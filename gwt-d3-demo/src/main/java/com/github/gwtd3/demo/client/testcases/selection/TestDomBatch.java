@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.demo.client.testcases.selection;
+
+import com.github.gwtd3.api.core.DomBatch;
+import com.github.gwtd3.api.core.Selection;
+import com.github.gwtd3.api.core.Value;
+import com.github.gwtd3.api.functions.DatumFunction;
+import com.google.gwt.core.client.Scheduler.ScheduledCommand;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.user.client.ui.ComplexPanel;
+import com.google.gwt.user.client.ui.Label;
+
+public class TestDomBatch extends AbstractSelectionTest {
+
+	@Override
+	public void doTest(final ComplexPanel sandbox) {
+		final StringBuilder log = new StringBuilder();
+		final int[] widths = new int[3];
+		Selection selection = givenAMultipleSelection(new Label("a"), new Label("bb"), new Label("ccc"));
+
+		// the writes are queued first, but run after the reads
+		selection.mutate(new DatumFunction<Void>() {
+			@Override
+			public Void apply(final Element context, final Value d, final int index) {
+				log.append('w');
+				context.setAttribute("width", String.valueOf(widths[index]));
+				return null;
+			}
+		}).measure(new DatumFunction<Void>() {
+			@Override
+			public Void apply(final Element context, final Value d, final int index) {
+				log.append('r');
+				widths[index] = context.getOffsetWidth();
+				return null;
+			}
+		});
+		assertEquals("", log.toString());
+		assertEquals(2, DomBatch.pending());
+		DomBatch.flush();
+		assertEquals("rrrwww", log.toString());
+		assertEquals(String.valueOf(widths[2]), getElementAttribute(2, "width"));
+
+		// a read queued by a write waits for the next frame
+		log.setLength(0);
+		DomBatch.mutate(new ScheduledCommand() {
+			@Override
+			public void execute() {
+				log.append('w');
+				DomBatch.measure(new ScheduledCommand() {
+					@Override
+					public void execute() {
+						log.append('r');
+					}
+				});
+			}
+		});
+		DomBatch.flush();
+		assertEquals("w", log.toString());
+		assertEquals(1, DomBatch.pending());
+		DomBatch.flush();
+		assertEquals("wr", log.toString());
+		assertEquals(0, DomBatch.pending());
+	}
+}
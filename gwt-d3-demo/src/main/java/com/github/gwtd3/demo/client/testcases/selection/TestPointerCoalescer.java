@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.demo.client.testcases.selection;
+
+import com.github.gwtd3.api.core.Selection;
+import com.github.gwtd3.api.events.CoalescedListener;
+import com.github.gwtd3.api.events.PointerCoalescer;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.user.client.ui.ComplexPanel;
+import com.google.gwt.user.client.ui.Label;
+
+public class TestPointerCoalescer extends AbstractSelectionTest {
+
+	@Override
+	public void doTest(final ComplexPanel sandbox) {
+		final int[] calls = new int[1];
+		final int[] counts = new int[1];
+		final double[] xs = new double[1];
+		PointerCoalescer coalescer = new PointerCoalescer(new CoalescedListener() {
+			@Override
+			public void onEvents(final PointerCoalescer events) {
+				calls[0]++;
+				counts[0] = events.count();
+				xs[0] = events.x();
+				assertEquals("mousemove", events.type());
+				assertEquals(0, events.index());
+			}
+		});
+		Selection selection = givenASimpleSelection(new Label("label"));
+		selection.on("mousemove", coalescer);
+
+		// the events are only recorded
+		for (int i = 1; i <= 5; i++) {
+			mousemove(selection.node(), i * 10);
+		}
+		assertEquals(0, calls[0]);
+		assertEquals(5, coalescer.received());
+
+		// and delivered once, with the last position
+		coalescer.flush();
+		assertEquals(1, calls[0]);
+		assertEquals(5, counts[0]);
+		assertEquals(50.0, xs[0]);
+		assertEquals(0, coalescer.count());
+		coalescer.flush();
+		assertEquals(1, coalescer.delivered());
+
+		// relative to a container
+		coalescer.relativeTo(selection.node());
+		mousemove(selection.node(), 20);
+		coalescer.flush();
+		assertEquals(1, counts[0]);
+		assertEquals(20 - left(selection.node()), xs[0], 1e-6);
+		selection.on("mousemove", null);
+	}
+
+	private static native double left(Element element)/*-{
+		return element.getBoundingClientRect().left + element.clientLeft;
+	}-*/;
+
+	private static native void mousemove(Element element, int clientX)/*-{
+		var event = $doc.createEvent("MouseEvents");
+		event.initMouseEvent("mousemove", true, true, $wnd, 0, 0, 0, clientX,
+				5, false, false, false, false, 0, null);
+		element.dispatchEvent(event);
+	}-*/;
+}
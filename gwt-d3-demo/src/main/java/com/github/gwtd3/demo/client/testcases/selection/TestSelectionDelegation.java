@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.demo.client.testcases.selection;
+
+import com.github.gwtd3.api.D3;
+import com.github.gwtd3.api.core.Selection;
+import com.github.gwtd3.api.core.UpdateSelection;
+import com.github.gwtd3.api.core.Value;
+import com.github.gwtd3.api.functions.DatumFunction;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.user.client.ui.ComplexPanel;
+import com.google.gwt.user.client.ui.FlowPanel;
+
+public class TestSelectionDelegation extends AbstractSelectionTest {
+
+	@Override
+	public void doTest(final ComplexPanel sandbox) {
+		FlowPanel panel = new FlowPanel();
+		Selection container = givenASimpleSelection(panel);
+		Selection items = container.selectAll("div").data(new double[] { 10, 20, 30 }).enter().append("div");
+		items.append("span").text("x");
+
+		final StringBuilder log = new StringBuilder();
+		items.onDelegated(panel.getElement(), "click", new DatumFunction<Void>() {
+			@Override
+			public Void apply(final Element context, final Value d, final int index) {
+				assertEquals("div", context.getTagName().toLowerCase());
+				assertEquals("click", D3.event().getType());
+				log.append(index).append(':').append(d.asInt()).append(' ');
+				return null;
+			}
+		});
+
+		// on the elements and on their descendants
+		click(items.node());
+		click(container.selectAll("span").filter(":nth-child(1)").node());
+		click(container.select("div:nth-child(3) span").node());
+		// not on the container itself, nor on an unmarked descendant
+		click(panel.getElement());
+		click(container.append("p").node());
+		assertEquals("0:10 0:10 2:30 ", log.toString());
+
+		// the bound data is read when the event is dispatched
+		log.setLength(0);
+		items.data(new double[] { 5, 6, 7 });
+		click(items.node());
+		assertEquals("0:5 ", log.toString());
+
+		// elements appended afterwards are ignored until delegating again, the
+		// update selection including the entered elements once appended
+		log.setLength(0);
+		UpdateSelection all = container.selectAll("div").data(new double[] { 5, 6, 7, 8 });
+		Element late = all.enter().append("div").node();
+		click(late);
+		assertEquals("", log.toString());
+		all.onDelegated(panel.getElement(), "click", new DatumFunction<Void>() {
+			@Override
+			public Void apply(final Element context, final Value d, final int index) {
+				log.append(index).append(':').append(d.asInt()).append(' ');
+				return null;
+			}
+		});
+		click(late);
+		assertEquals("3:8 ", log.toString());
+
+		// nested delegation of the same type: both listeners are invoked
+		log.setLength(0);
+		Element inner = all.node();
+		D3.select(inner).selectAll("b").data(new double[] { 1, 2 }).enter().append("b")
+				.onDelegated(inner, "click", new DatumFunction<Void>() {
+					@Override
+					public Void apply(final Element context, final Value d, final int index) {
+						log.append("b").append(index).append(':').append(d.asInt()).append(' ');
+						return null;
+					}
+				});
+		click(D3.select(inner).select("b:nth-child(3)").node());
+		click(late);
+		assertEquals("b1:2 0:5 3:8 ", log.toString());
+
+		// removal
+		log.setLength(0);
+		all.onDelegated(panel.getElement(), "click", null);
+		click(items.node());
+		click(late);
+		assertEquals("", log.toString());
+	}
+
+	private static native void click(Element element)/*-{
+		var event = $doc.createEvent("MouseEvents");
+		event.initMouseEvent("click", true, true, $wnd, 0, 0, 0, 0, 0, false,
+				false, false, false, 0, null);
+		element.dispatchEvent(event);
+	}-*/;
+}
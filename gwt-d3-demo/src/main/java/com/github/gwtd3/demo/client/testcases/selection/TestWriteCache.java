@@ -0,0 +1,108 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.demo.client.testcases.selection;
+
+import com.github.gwtd3.api.core.Selection;
+import com.github.gwtd3.api.core.Value;
+import com.github.gwtd3.api.core.WriteCache;
+import com.github.gwtd3.api.functions.DatumFunction;
+import com.google.gwt.dom.client.Element;
+import com.google.gwt.user.client.ui.ComplexPanel;
+import com.google.gwt.user.client.ui.Label;
+
+public class TestWriteCache extends AbstractSelectionTest {
+
+	@Override
+	public void doTest(final ComplexPanel sandbox) {
+		WriteCache.enable();
+		try {
+			WriteCache.resetCounters();
+			Selection selection = givenAMultipleSelection(new Label(), new Label(), new Label());
+
+			// attributes
+			selection.attr("myattr", "1");
+			assertEquals(3, WriteCache.performed());
+			selection.attr("myattr", "1");
+			assertEquals(3, WriteCache.skipped());
+			selection.attr("myattr", new DatumFunction<String>() {
+				@Override
+				public String apply(final Element context, final Value d, final int index) {
+					return index == 1 ? "2" : "1";
+				}
+			});
+			assertEquals(4, WriteCache.performed());
+			assertEquals("2", getElementAttribute(1, "myattr"));
+			assertEquals("1", selection.attr("myattr"));
+			selection.attr("myattr", (String) null);
+			assertEquals("", getElementAttribute(0, "myattr"));
+
+			// styles
+			WriteCache.resetCounters();
+			selection.style("color", "red");
+			selection.style("color", "red");
+			assertEquals(3, WriteCache.performed());
+			assertEquals(3, WriteCache.skipped());
+			assertEquals("red", getElementStyle(2, "color"));
+
+			// text, also written by html
+			WriteCache.resetCounters();
+			selection.text("a");
+			selection.html("<b>b</b>");
+			selection.text("a");
+			assertEquals(0, WriteCache.skipped());
+			assertEquals("a", getElementInnerText(0));
+
+			// elements modified behind the cache
+			getElement(0).setAttribute("myattr", "3");
+			WriteCache.invalidate(getElement(0));
+			selection.attr("myattr", "1");
+			assertEquals("1", getElementAttribute(0, "myattr"));
+
+			repeatedWrites();
+		} finally {
+			WriteCache.disable();
+		}
+		assertFalse(WriteCache.isEnabled());
+	}
+
+	private void repeatedWrites() {
+		Selection selection = givenASimpleSelection(new Label());
+		for (int i = 0; i < 10; i++) {
+			selection.append("div");
+		}
+		Selection divs = selection.selectAll("div");
+		WriteCache.resetCounters();
+		for (int tick = 0; tick < 5; tick++) {
+			divs.attr("class", "item").style("width", "10px").text("x");
+		}
+		// only the first tick touches the DOM
+		assertEquals(10 * 3, WriteCache.performed());
+		assertEquals(4 * 10 * 3, WriteCache.skipped());
+	}
+}
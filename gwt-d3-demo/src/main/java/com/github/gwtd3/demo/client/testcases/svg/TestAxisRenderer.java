@@ -0,0 +1,89 @@
+/**
+ * Copyright (c) 2013, Anthony Schiochet and Eric Citaire
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * * Redistributions of source code must retain the above copyright notice, this
+ *   list of conditions and the following disclaimer.
+ *
+ * * Redistributions in binary form must reproduce the above copyright notice,
+ *   this list of conditions and the following disclaimer in the documentation
+ *   and/or other materials provided with the distribution.
+ *
+ * * The names Anthony Schiochet and Eric Citaire may not be used to endorse or promote products
+ *   derived from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL MICHAEL BOSTOCK BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING,
+ * BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+ * DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY
+ * OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING
+ * NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE,
+ * EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.github.gwtd3.demo.client.testcases.svg;
+
+import com.github.gwtd3.api.D3;
+import com.github.gwtd3.api.core.Selection;
+import com.github.gwtd3.api.scales.LinearScale;
+import com.github.gwtd3.api.svg.Axis.Orientation;
+import com.github.gwtd3.api.svg.AxisRenderer;
+import com.github.gwtd3.demo.client.test.AbstractTestCase;
+import com.google.gwt.user.client.ui.ComplexPanel;
+
+public class TestAxisRenderer extends AbstractTestCase {
+
+	@Override
+	public void doTest(final ComplexPanel sandbox) {
+		Selection g = D3.select(sandbox).append("svg").attr("width", 600).attr("height", 100).append("g");
+		LinearScale scale = D3.scale.linear().domain(0, 100).range(0, 500);
+		AxisRenderer renderer = new AxisRenderer(g, Orientation.BOTTOM).ticks(10);
+
+		// first rendering: same nodes as d3.svg.axis
+		renderer.render(scale);
+		assertEquals(11, renderer.tickNodes());
+		assertEquals(11, g.selectAll(".tick").size());
+		assertEquals(1, g.selectAll(".domain").size());
+		assertEquals("M0,6V0H500V6", g.select(".domain").attr("d"));
+		assertEquals("0", g.select(".tick text").text());
+		int created = renderer.lastDomWrites();
+		assertTrue(created > 0);
+
+		// same domain: nothing is written
+		renderer.render(scale);
+		assertEquals(0, renderer.lastDomWrites());
+
+		// panning: the shared ticks are only moved, the exiting nodes recycled
+		scale.domain(10, 110);
+		renderer.render(scale);
+		assertEquals(11, renderer.tickNodes());
+		assertEquals(11, g.selectAll(".tick").size());
+		// 10 moved ticks, and the node of 0 moved and relabelled to 110
+		assertEquals(10 + 2, renderer.lastDomWrites());
+
+		// zooming out: fewer ticks (a step of 20), the extra nodes are removed
+		scale.domain(0, 150);
+		renderer.render(scale);
+		assertEquals(8, renderer.tickNodes());
+		assertEquals(8, g.selectAll(".tick").size());
+		// 5 moved ticks, 3 recycled nodes moved and relabelled, 3 removed
+		assertEquals(5 + 3 * 2 + 3, renderer.lastDomWrites());
+
+		// zooming in: more ticks (a step of 10), new nodes are created
+		scale.domain(0, 130);
+		renderer.render(scale);
+		assertEquals(14, renderer.tickNodes());
+		assertEquals(14, g.selectAll(".tick").size());
+		assertEquals(1, g.selectAll(".domain").size());
+
+		// instrumentation
+		assertTrue(renderer.domWrites() > created + 12);
+		renderer.resetDomWrites();
+		assertEquals(0, renderer.domWrites());
+	}
+}